@@ -0,0 +1,125 @@
+package IvoryDatabase;
+
+/**
+ * An aggregate function over the values of a Column, for {@code AGGREGATE()}
+ * and {@code GROUP_BY()}.
+ *
+ * Aggregations are created by the static methods of this class, for example
+ * {@code Aggregation.sum("AMOUNT")}. Null cells are left out of every
+ * Aggregation except {@code count()}, and the SUM, MIN, MAX and AVG of no
+ * values are null.
+ *
+ *   COUNT  a Long.
+ *   SUM    a Long for INT and LONG Columns, or a BigInteger if the sum does
+ *          not fit a long, a Double for DOUBLE Columns, and for other
+ *          Columns a Long, a BigInteger or a Double depending on the
+ *          Numbers they hold. Values that are not Numbers are left out.
+ *   MIN    a value of the Column. Values that cannot be compared with the
+ *   MAX    smallest or largest value so far are left out.
+ *   AVG    a Double, the SUM divided by the number of values summed.
+ *
+ * A NaN in a DOUBLE Column is a value: it is counted, and it makes the SUM
+ * and AVG of its group NaN, as in double arithmetic. It cannot be ordered,
+ * so it is left out of MIN and MAX, whose result is null if every value of
+ * the group is NaN.
+ */
+public final class Aggregation {
+    /**
+     * The aggregate functions.
+     */
+    enum Function {
+        COUNT, SUM, MIN, MAX, AVG
+    } // enum Function
+
+    private final Function function; // the aggregate function.
+    private final String column_name; // the name of the Column, null for counting rows.
+
+
+    private Aggregation(Function function, String column_name){
+        this.function = function;
+        this.column_name = column_name;
+    } // constructor
+
+
+    /**
+     * @return An Aggregation counting the rows.
+     */
+    public static Aggregation count(){
+        return new Aggregation(Function.COUNT, null);
+    } // count()
+
+
+    /**
+     * @return An Aggregation counting the cells of a Column that are not null.
+     */
+    public static Aggregation count(String column_name){
+        return new Aggregation(Function.COUNT, checkColumn(column_name));
+    } // count()
+
+
+    /**
+     * @return An Aggregation adding up the values of a Column.
+     */
+    public static Aggregation sum(String column_name){
+        return new Aggregation(Function.SUM, checkColumn(column_name));
+    } // sum()
+
+
+    /**
+     * @return An Aggregation finding the smallest value of a Column.
+     */
+    public static Aggregation min(String column_name){
+        return new Aggregation(Function.MIN, checkColumn(column_name));
+    } // min()
+
+
+    /**
+     * @return An Aggregation finding the largest value of a Column.
+     */
+    public static Aggregation max(String column_name){
+        return new Aggregation(Function.MAX, checkColumn(column_name));
+    } // max()
+
+
+    /**
+     * @return An Aggregation averaging the values of a Column.
+     */
+    public static Aggregation avg(String column_name){
+        return new Aggregation(Function.AVG, checkColumn(column_name));
+    } // avg()
+
+
+    /**
+     * @return The name of the aggregated Column, or null if the Aggregation
+     *         counts rows.
+     */
+    public String getColumnName(){
+        return column_name;
+    } // getColumnName()
+
+
+    @Override
+    public String toString(){
+        return function + "(" + ((column_name == null) ? "*" : column_name) + ")";
+    } // toString()
+
+
+    /**
+     * @return The aggregate function.
+     */
+    Function getFunction(){
+        return function;
+    } // getFunction()
+
+
+    /**
+     * @throws IllegalArgumentException
+     *         if {@code column_name} is null.
+     */
+    private static String checkColumn(String column_name){
+        if(column_name == null){
+            throw new IllegalArgumentException("The Column of an Aggregation cannot be null.");
+        }
+        return column_name;
+    } // checkColumn()
+} // class
@@ -0,0 +1,699 @@
+package IvoryDatabase;
+
+import java.math.BigInteger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Computing Aggregations over the selected rows of a Database.
+ *
+ * The selected rows are split into one range per thread of the common
+ * ForkJoinPool. Every range is aggregated into its own partial State, one
+ * Column at a time and straight from the primitive chunks of the Column,
+ * and the partial States are merged at the end.
+ *
+ * For GROUP BY, every distinct value of a group Column is given a dense
+ * code first, through a primitive hash table for numeric Columns and the
+ * dictionary codes of a DICTIONARY Column, and the codes of several group
+ * Columns are combined into one group number per row. A State then holds
+ * one accumulator per group in primitive arrays.
+ */
+final class Aggregator {
+    private static final int MIN_RANGE_SIZE = 1 << 14; // the smallest number of rows aggregated by one task.
+
+    /**
+     * The groups of the selected rows.
+     */
+    static final class Groups {
+        int[] group_of; // the group number of every selected row.
+        int count; // the number of groups.
+        int[] first_row; // a row of every group, holding the values of its group Columns.
+    } // class Groups
+
+
+    private Aggregator(){
+    } // constructor
+
+
+    /**
+     * Method to aggregate the selected rows.
+     *
+     * @param aggregations
+     *        The Aggregations.
+     *
+     * @param columns
+     *        The ColumnData of every Aggregation, null for counting rows.
+     *
+     * @param selection
+     *        One bit per row, set for the rows to be aggregated.
+     *
+     * @param no_of_rows
+     *        The number of rows.
+     *
+     * @param groups
+     *        The groups of the selected rows, or null to aggregate all of
+     *        them into one group.
+     *
+     * @return The result of every Aggregation for every group, by group number.
+     */
+    static Object[][] aggregate(Aggregation[] aggregations, ColumnData[] columns, long[] selection, int no_of_rows, Groups groups){
+        int no_of_groups = (groups == null) ? 1 : groups.count;
+
+        // a task needs its own accumulators for every group, many groups get fewer tasks.
+        int tasks = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(),
+            Math.min(no_of_rows / MIN_RANGE_SIZE, no_of_rows / Math.max(1, no_of_groups * 4))));
+        return aggregate(aggregations, columns, selection, no_of_rows, groups, tasks);
+    } // aggregate()
+
+
+    /**
+     * Method to aggregate the selected rows in {@code tasks} ranges.
+     *
+     * @see #aggregate(Aggregation[], ColumnData[], long[], int, Groups)
+     */
+    static Object[][] aggregate(Aggregation[] aggregations, ColumnData[] columns, long[] selection, int no_of_rows, Groups groups, int tasks){
+        int no_of_groups = (groups == null) ? 1 : groups.count;
+        int[] group_of = (groups == null) ? null : groups.group_of;
+        int range_size = ((no_of_rows + tasks - 1) / tasks + 63) & ~63;
+
+        Object[][] output = new Object[no_of_groups][aggregations.length];
+        for(int agg_num = 0 ; agg_num < aggregations.length ; agg_num++){
+            Aggregation aggregation = aggregations[agg_num];
+            ColumnData data = columns[agg_num];
+
+            // aggregating every range into a partial State and merging them.
+            List<State> partials = IntStream.range(0, tasks).parallel()
+                .mapToObj(task -> {
+                    State state = new State(aggregation.getFunction(), data, no_of_groups);
+                    state.accumulate(selection, group_of, task * range_size, Math.min(no_of_rows, (task + 1) * range_size));
+                    return state;
+                })
+                .collect(Collectors.toList());
+            State total = partials.get(0);
+            for(int task = 1 ; task < partials.size() ; task++){
+                total.merge(partials.get(task));
+            }
+            for(int group = 0 ; group < no_of_groups ; group++){
+                output[group][agg_num] = total.result(group);
+            }
+        }
+        return output;
+    } // aggregate()
+
+
+    /**
+     * Method to put the selected rows into groups by the values of some Columns.
+     *
+     * @param group_columns
+     *        The ColumnData of the group Columns.
+     *
+     * @param selection
+     *        One bit per row, set for the rows to be grouped.
+     *
+     * @param no_of_rows
+     *        The number of rows.
+     *
+     * @return The groups of the selected rows.
+     */
+    static Groups group(ColumnData[] group_columns, long[] selection, int no_of_rows){
+        Groups groups = new Groups();
+        groups.group_of = new int[no_of_rows];
+
+        // combining the codes of the group Columns one Column at a time.
+        int[] codes = new int[no_of_rows];
+        for(int col_num = 0 ; col_num < group_columns.length ; col_num++){
+            int cardinality = encode(group_columns[col_num], selection, codes);
+            if(col_num == 0){
+                System.arraycopy(codes, 0, groups.group_of, 0, no_of_rows);
+                groups.count = cardinality;
+                continue;
+            }
+            LongIntMap combined = new LongIntMap();
+            for(int row = Selection.next(selection, 0) ; row >= 0 ; row = Selection.next(selection, row + 1)){
+                groups.group_of[row] = combined.codeOf((long) groups.group_of[row] * cardinality + codes[row]);
+            }
+            groups.count = combined.size();
+        }
+
+        // numbering only the groups holding selected rows, and remembering a row of every group.
+        int[] dense = new int[groups.count];
+        Arrays.fill(dense, -1);
+        int[] first_row = new int[Math.min(groups.count, Selection.count(selection))];
+        int count = 0;
+        for(int row = Selection.next(selection, 0) ; row >= 0 ; row = Selection.next(selection, row + 1)){
+            int group = groups.group_of[row];
+            if(dense[group] == -1){
+                dense[group] = count;
+                first_row[count++] = row;
+            }
+            groups.group_of[row] = dense[group];
+        }
+        groups.count = count;
+        groups.first_row = Arrays.copyOf(first_row, count);
+        return groups;
+    } // group()
+
+
+    /**
+     * Method to give every distinct value of a Column a dense code.
+     *
+     * @param codes
+     *        The code of every selected row is stored in it.
+     *
+     * @return The number of codes.
+     */
+    private static int encode(ColumnData data, long[] selection, int[] codes){
+        // a DICTIONARY Column is coded already, null cells get the code 0.
+        if(data instanceof DictionaryColumnData){
+            DictionaryColumnData dictionary = (DictionaryColumnData) data;
+            int[] chunk = null;
+            int start = 0; // index of the first row of the chunk read from.
+            int end = 0; // index after the last row of the chunk read from.
+            for(int row = Selection.next(selection, 0) ; row >= 0 ; row = Selection.next(selection, row + 1)){
+                // moving on to the chunk holding the row, the rows come in order.
+                if(row >= end){
+                    int chunk_num = dictionary.chunkOf(row);
+                    chunk = dictionary.getChunk(chunk_num);
+                    start = dictionary.getChunkStart(chunk_num);
+                    end = start + dictionary.getChunkSize(chunk_num);
+                }
+                codes[row] = chunk[row - start] + 1;
+            }
+            return dictionary.getDictionarySize() + 1;
+        }
+
+        // numeric values are coded through a primitive hash table, null cells get the code 0.
+        if(data instanceof IntColumnData || data instanceof LongColumnData || data instanceof DoubleColumnData){
+            LongIntMap code_of = new LongIntMap();
+            ChunkedColumnData chunked = (ChunkedColumnData) data;
+            NullMask chunk_nulls = null;
+            int[] ints = null;
+            long[] longs = null;
+            double[] doubles = null;
+            int start = 0; // index of the first row of the chunk read from.
+            int end = 0; // index after the last row of the chunk read from.
+            for(int row = Selection.next(selection, 0) ; row >= 0 ; row = Selection.next(selection, row + 1)){
+                // moving on to the chunk holding the row, the rows come in order.
+                if(row >= end){
+                    int chunk_num = chunked.chunkOf(row);
+                    start = chunked.getChunkStart(chunk_num);
+                    end = start + chunked.getChunkSize(chunk_num);
+                    chunk_nulls = chunked.getChunkNulls(chunk_num);
+                    ints = (data instanceof IntColumnData) ? ((IntColumnData) data).getChunk(chunk_num) : null;
+                    longs = (data instanceof LongColumnData) ? ((LongColumnData) data).getChunk(chunk_num) : null;
+                    doubles = (data instanceof DoubleColumnData) ? ((DoubleColumnData) data).getChunk(chunk_num) : null;
+                }
+                if(chunk_nulls.get(row - start)){
+                    codes[row] = 0;
+                    continue;
+                }
+                long key = (ints != null) ? ints[row - start] : (longs != null) ? longs[row - start] : Double.doubleToLongBits(doubles[row - start]);
+                codes[row] = code_of.codeOf(key) + 1;
+            }
+            return code_of.size() + 1;
+        }
+
+        // other values are coded through a HashMap of the values.
+        HashMap<Object, Integer> code_of = new HashMap<>();
+        for(int row = Selection.next(selection, 0) ; row >= 0 ; row = Selection.next(selection, row + 1)){
+            Object value = data.get(row);
+            if(value == null){
+                codes[row] = 0;
+                continue;
+            }
+            Integer code = code_of.get(value);
+            if(code == null){
+                code = code_of.size() + 1;
+                code_of.put(value, code);
+            }
+            codes[row] = code;
+        }
+        return code_of.size() + 1;
+    } // encode()
+
+
+    /**
+     * The partial result of an Aggregation for every group.
+     */
+    private static final class State {
+        private final Aggregation.Function function; // the aggregate function.
+        private final ColumnData data; // the aggregated Column, null for counting rows.
+        private final long[] counts; // the number of values of every group.
+        private long[] long_values; // the integral sum, minimum or maximum of every group.
+        private double[] double_values; // the decimal sum, minimum or maximum of every group.
+        private Object[] object_values; // the minimum or maximum of every group for Columns of objects.
+        private BigInteger[] carried_sums; // the part of the integral sum of every group that overflowed long_values, or null.
+
+
+        State(Aggregation.Function function, ColumnData data, int no_of_groups){
+            this.function = function;
+            this.data = data;
+            this.counts = new long[no_of_groups];
+            if(function == Aggregation.Function.COUNT){
+                return;
+            }
+            boolean integral = (data instanceof IntColumnData || data instanceof LongColumnData);
+            boolean decimal = (data instanceof DoubleColumnData);
+            boolean sum = (function == Aggregation.Function.SUM || function == Aggregation.Function.AVG);
+            if(integral || (sum && !decimal)){
+                long_values = new long[no_of_groups];
+            }
+            if(decimal || (sum && !integral)){
+                double_values = new double[no_of_groups];
+            }
+            if(!sum && !integral && !decimal){
+                object_values = new Object[no_of_groups];
+            }
+        } // constructor
+
+
+        /**
+         * Method to aggregate the selected rows in [from, to).
+         */
+        void accumulate(long[] selection, int[] group_of, int from, int to){
+            if(from >= to){
+                return;
+            }
+            // counting rows only needs the selection.
+            if(data == null){
+                for(int word = from >>> 6 ; (word << 6) < to ; word++){
+                    long bits = selection[word];
+                    if(group_of == null){
+                        counts[0] += Long.bitCount(bits);
+                        continue;
+                    }
+                    for( ; bits != 0 ; bits &= bits - 1){
+                        counts[group_of[(word << 6) + Long.numberOfTrailingZeros(bits)]]++;
+                    }
+                }
+                return;
+            }
+
+            // primitive Columns are read from the arrays of their chunks, their null cells are skipped by word.
+            if(data instanceof IntColumnData || data instanceof LongColumnData || data instanceof DoubleColumnData){
+                ChunkedColumnData chunked = (ChunkedColumnData) data;
+                boolean has_nulls = chunked.hasNulls();
+                for(int chunk_num = chunked.chunkOf(from) ; chunk_num < chunked.getChunkCount() && chunked.getChunkStart(chunk_num) < to ; chunk_num++){
+                    int start = chunked.getChunkStart(chunk_num);
+                    int first = Math.max(from, start);
+                    int end = Math.min(to, start + chunked.getChunkSize(chunk_num));
+                    int[] ints = (data instanceof IntColumnData) ? ((IntColumnData) data).getChunk(chunk_num) : null;
+                    long[] longs = (data instanceof LongColumnData) ? ((LongColumnData) data).getChunk(chunk_num) : null;
+                    double[] doubles = (data instanceof DoubleColumnData) ? ((DoubleColumnData) data).getChunk(chunk_num) : null;
+                    for(int word = first >>> 6 ; (word << 6) < end ; word++){
+                        int base = word << 6;
+                        // a word may hold the rows of two chunks, only the rows of this chunk are read.
+                        long in_chunk = ChunkedColumnData.wordMask(Math.max(first, base), Math.min(end, base + 64));
+                        for(long bits = selection[word] & ~(has_nulls ? chunked.getNullWord(word) : 0) & in_chunk ; bits != 0 ; bits &= bits - 1){
+                            int row = base + Long.numberOfTrailingZeros(bits);
+                            int group = (group_of == null) ? 0 : group_of[row];
+                            if(doubles != null){
+                                addDouble(group, doubles[row - start]);
+                            }
+                            else{
+                                addLong(group, (ints != null) ? ints[row - start] : longs[row - start]);
+                            }
+                        }
+                    }
+                }
+                return;
+            }
+
+            // other Columns are read cell by cell.
+            for(int word = from >>> 6 ; (word << 6) < to ; word++){
+                int base = word << 6;
+                for(long bits = selection[word] ; bits != 0 ; bits &= bits - 1){
+                    int row = base + Long.numberOfTrailingZeros(bits);
+                    Object value = data.get(row);
+                    if(value != null){
+                        addObject((group_of == null) ? 0 : group_of[row], value);
+                    }
+                }
+            }
+        } // accumulate()
+
+
+        /**
+         * Method to add a value of an INT or LONG Column.
+         */
+        private void addLong(int group, long value){
+            switch(function){
+                case SUM:
+                case AVG:
+                    addToSum(group, value);
+                    break;
+                case MIN:
+                    if(counts[group] == 0 || value < long_values[group]){
+                        long_values[group] = value;
+                    }
+                    break;
+                case MAX:
+                    if(counts[group] == 0 || value > long_values[group]){
+                        long_values[group] = value;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            counts[group]++;
+        } // addLong()
+
+
+        /**
+         * Method to add an integral value to the sum of a group. Once the 
+         * sum no longer fits a long, it is carried into a BigInteger.
+         */
+        private void addToSum(int group, long value){
+            try{
+                long_values[group] = Math.addExact(long_values[group], value);
+            }
+            catch (ArithmeticException e){
+                carry(group, BigInteger.valueOf(long_values[group]));
+                long_values[group] = value;
+            }
+        } // addToSum()
+
+
+        /**
+         * Method to add {@code value} to the carried part of the integral 
+         * sum of a group.
+         */
+        private void carry(int group, BigInteger value){
+            if(carried_sums == null){
+                carried_sums = new BigInteger[counts.length];
+            }
+            carried_sums[group] = (carried_sums[group] == null) ? value : carried_sums[group].add(value);
+        } // carry()
+
+
+        /**
+         * @return The integral sum of a group, a Long if it fits a long and 
+         *         a BigInteger otherwise.
+         */
+        private Number integralSum(int group){
+            if(carried_sums == null || carried_sums[group] == null){
+                return long_values[group];
+            }
+            BigInteger sum = carried_sums[group].add(BigInteger.valueOf(long_values[group]));
+            return (sum.bitLength() < 64) ? (Number) sum.longValue() : (Number) sum;
+        } // integralSum()
+
+
+        /**
+         * Method to add a value of a DOUBLE Column.
+         */
+        private void addDouble(int group, double value){
+            // NaN cannot be compared, it is left out of the minimum and maximum.
+            if(value != value && (function == Aggregation.Function.MIN || function == Aggregation.Function.MAX)){
+                return;
+            }
+            switch(function){
+                case SUM:
+                case AVG:
+                    double_values[group] += value;
+                    break;
+                case MIN:
+                    if(counts[group] == 0 || value < double_values[group]){
+                        double_values[group] = value;
+                    }
+                    break;
+                case MAX:
+                    if(counts[group] == 0 || value > double_values[group]){
+                        double_values[group] = value;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            counts[group]++;
+        } // addDouble()
+
+
+        /**
+         * Method to add a value of any other Column.
+         */
+        private void addObject(int group, Object value){
+            switch(function){
+                case SUM:
+                case AVG:
+                    // only Numbers are summed, integral Numbers without rounding.
+                    if(value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte){
+                        addToSum(group, ((Number) value).longValue());
+                    }
+                    else if(value instanceof Number){
+                        double_values[group] += ((Number) value).doubleValue();
+                        // a group that has summed a decimal Number is marked by a negative count.
+                        counts[group] = -Math.abs(counts[group]) - 1;
+                        return;
+                    }
+                    else{
+                        return;
+                    }
+                    break;
+                case MIN:
+                case MAX:
+                    addExtreme(group, value);
+                    return;
+                default:
+                    break;
+            }
+            counts[group] += (counts[group] < 0) ? -1 : 1;
+        } // addObject()
+
+
+        /**
+         * Method to keep the smaller or larger of {@code value} and the
+         * minimum or maximum of a group.
+         */
+        private void addExtreme(int group, Object value){
+            Object current = object_values[group];
+            if(current != null){
+                int comparison = Condition.compare(value, current);
+                if(comparison == Condition.INCOMPARABLE
+                    || (function == Aggregation.Function.MIN ? comparison >= 0 : comparison <= 0)){
+                    return;
+                }
+            }
+            object_values[group] = value;
+            counts[group] = 1;
+        } // addExtreme()
+
+
+        /**
+         * Method to merge the partial result of another range into this one.
+         */
+        void merge(State other){
+            for(int group = 0 ; group < counts.length ; group++){
+                long other_count = other.counts[group];
+                if(other_count == 0){
+                    continue;
+                }
+                if(object_values != null){
+                    if(other.object_values[group] != null){
+                        addExtreme(group, other.object_values[group]);
+                    }
+                    continue;
+                }
+                boolean first = (counts[group] == 0);
+                if(long_values != null){
+                    long other_value = other.long_values[group];
+                    if(function == Aggregation.Function.MIN){
+                        long_values[group] = first ? other_value : Math.min(long_values[group], other_value);
+                    }
+                    else if(function == Aggregation.Function.MAX){
+                        long_values[group] = first ? other_value : Math.max(long_values[group], other_value);
+                    }
+                    else{
+                        addToSum(group, other_value);
+                    }
+                }
+                if(other.carried_sums != null && other.carried_sums[group] != null){
+                    carry(group, other.carried_sums[group]);
+                }
+                if(double_values != null){
+                    double other_value = other.double_values[group];
+                    if(function == Aggregation.Function.MIN){
+                        double_values[group] = (first || other_value < double_values[group]) ? other_value : double_values[group];
+                    }
+                    else if(function == Aggregation.Function.MAX){
+                        double_values[group] = (first || other_value > double_values[group]) ? other_value : double_values[group];
+                    }
+                    else{
+                        double_values[group] += other_value;
+                    }
+                }
+                // negative counts mark groups that have summed a decimal Number.
+                long total = Math.abs(counts[group]) + Math.abs(other_count);
+                counts[group] = (counts[group] < 0 || other_count < 0) ? -total : total;
+            }
+        } // merge()
+
+
+        /**
+         * @return The result of the Aggregation for a group.
+         */
+        Object result(int group){
+            long count = Math.abs(counts[group]);
+            if(function == Aggregation.Function.COUNT){
+                return count;
+            }
+            if(count == 0){
+                return null;
+            }
+            if(object_values != null){
+                return object_values[group];
+            }
+            boolean decimal_sum = (counts[group] < 0);
+            switch(function){
+                case SUM:
+                    if(long_values == null){
+                        return double_values[group];
+                    }
+                    if(double_values == null || !decimal_sum){
+                        return integralSum(group);
+                    }
+                    return integralSum(group).doubleValue() + double_values[group];
+                case AVG:
+                    double sum = ((long_values == null) ? 0 : integralSum(group).doubleValue()) + ((double_values == null) ? 0 : double_values[group]);
+                    return sum / count;
+                default:
+                    // the minimum or maximum in the type of the Column.
+                    if(data instanceof IntColumnData){
+                        return (int) long_values[group];
+                    }
+                    return (long_values != null) ? (Object) long_values[group] : (Object) double_values[group];
+            }
+        } // result()
+    } // class State
+
+
+    /**
+     * A hash table giving every long key a dense int code, in the order
+     * the keys are first seen. The key 0 marks an empty slot and has its
+     * code kept apart.
+     */
+    private static final class LongIntMap {
+        private long[] keys = new long[16]; // the key of every slot, 0 for an empty slot.
+        private int[] codes = new int[16]; // the code of every slot.
+        private int size = 0; // the number of keys.
+        private int zero_code = -1; // the code of the key 0, -1 until it is seen.
+
+
+        /**
+         * @return The code of {@code key}, a new code if the key is new.
+         */
+        int codeOf(long key){
+            if(key == 0){
+                if(zero_code == -1){
+                    zero_code = size++;
+                }
+                return zero_code;
+            }
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while(keys[slot] != 0){
+                if(keys[slot] == key){
+                    return codes[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            codes[slot] = size;
+            size++;
+            if(size * 2 > keys.length){
+                grow();
+            }
+            return size - 1;
+        } // codeOf()
+
+
+        /**
+         * @return The number of keys.
+         */
+        int size(){
+            return size;
+        } // size()
+
+
+        /**
+         * Method to double the number of slots.
+         */
+        private void grow(){
+            long[] old_keys = keys;
+            int[] old_codes = codes;
+            keys = new long[old_keys.length * 2];
+            codes = new int[old_keys.length * 2];
+            int mask = keys.length - 1;
+            for(int old_slot = 0 ; old_slot < old_keys.length ; old_slot++){
+                if(old_keys[old_slot] != 0){
+                    int slot = hash(old_keys[old_slot]) & mask;
+                    while(keys[slot] != 0){
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = old_keys[old_slot];
+                    codes[slot] = old_codes[old_slot];
+                }
+            }
+        } // grow()
+
+
+        /**
+         * @return A well mixed hash of {@code key}.
+         */
+        private static int hash(long key){
+            key *= 0x9E3779B97F4A7C15L;
+            return (int) (key ^ (key >>> 32));
+        } // hash()
+    } // class LongIntMap
+
+
+    /**
+     * @return The group numbers ordered by the values of their group
+     *         Columns, nulls first.
+     */
+    static Integer[] sortedGroups(Groups groups, ColumnData[] group_columns){
+        Integer[] order = new Integer[groups.count];
+        ArrayList<Object[]> keys = new ArrayList<>(groups.count);
+        for(int group = 0 ; group < groups.count ; group++){
+            order[group] = group;
+            Object[] key = new Object[group_columns.length];
+            for(int col_num = 0 ; col_num < group_columns.length ; col_num++){
+                key[col_num] = group_columns[col_num].get(groups.first_row[group]);
+            }
+            keys.add(key);
+        }
+        Arrays.sort(order, (first, second) -> {
+            Object[] first_key = keys.get(first);
+            Object[] second_key = keys.get(second);
+            for(int col_num = 0 ; col_num < first_key.length ; col_num++){
+                int comparison = compareKeys(first_key[col_num], second_key[col_num]);
+                if(comparison != 0){
+                    return comparison;
+                }
+            }
+            return 0;
+        });
+        return order;
+    } // sortedGroups()
+
+
+    /**
+     * @return The order of two values of a group Column, nulls first and
+     *         values that cannot be compared by the names of their classes.
+     */
+    private static int compareKeys(Object first, Object second){
+        if(first == null || second == null){
+            return (first == null) ? ((second == null) ? 0 : -1) : 1;
+        }
+        int comparison = Condition.compare(first, second);
+        if(comparison == Condition.INCOMPARABLE){
+            return first.getClass().getName().compareTo(second.getClass().getName());
+        }
+        return comparison;
+    } // compareKeys()
+} // class
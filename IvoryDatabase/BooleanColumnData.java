@@ -0,0 +1,140 @@
+package IvoryDatabase;
+
+import java.util.BitSet;
+
+/**
+ * ColumnData holding Boolean values in chunks of boolean[].
+ */
+class BooleanColumnData extends ChunkedColumnData {
+
+    /**
+     * Creating an empty BooleanColumnData.
+     */
+    public BooleanColumnData(){
+        super(boolean[]::new);
+    } // constructor
+
+
+    /**
+     * Creating a BooleanColumnData of {@code size} cells holding false, to
+     * be filled in chunk by chunk.
+     *
+     * @param size
+     *        The number of cells.
+     *
+     * @param nulls
+     *        The NullMask marking the null cells.
+     */
+    public BooleanColumnData(int size, NullMask nulls){
+        super(boolean[]::new, size, nulls);
+    } // constructor
+
+
+    /**
+     * Creating a copy of {@code other}.
+     */
+    private BooleanColumnData(BooleanColumnData other){
+        super(other);
+    } // constructor
+
+
+    @Override
+    public boolean[] getChunk(int chunk_num){
+        return (boolean[]) super.getChunk(chunk_num);
+    } // getChunk()
+
+
+    @Override
+    public BooleanColumnData copy(){
+        return new BooleanColumnData(this);
+    } // copy()
+
+
+    @Override
+    public ColumnType getType(){
+        return ColumnType.BOOLEAN;
+    } // getType()
+
+
+    @Override
+    public boolean accepts(Object value){
+        return value == null || value instanceof Boolean;
+    } // accepts()
+
+
+    /**
+     * @param index
+     *        The index of the cell.
+     *
+     * @return The boolean value of the cell at {@code index}, false if the cell is null.
+     */
+    public boolean getBoolean(int index){
+        checkIndex(index, size);
+        int chunk_num = chunkOf(index);
+        return getChunk(chunk_num)[index - getChunkStart(chunk_num)];
+    } // getBoolean()
+
+
+    @Override
+    public void findEqual(Object value, BitSet matches){
+        // null matches the null cells, and a value the Column cannot hold matches no cell.
+        if(value == null || !accepts(value)){
+            if(value == null){
+                findNulls(matches);
+            }
+            return;
+        }
+        boolean target = (Boolean) value;
+        for(int chunk_num = 0 ; chunk_num < getChunkCount() ; chunk_num++){
+            boolean[] chunk = getChunk(chunk_num);
+            NullMask chunk_nulls = getChunkNulls(chunk_num);
+            int start = getChunkStart(chunk_num);
+            for(int offset = 0 ; offset < getChunkSize(chunk_num) ; offset++){
+                if(chunk[offset] == target && !chunk_nulls.get(offset)){
+                    matches.set(start + offset);
+                }
+            }
+        }
+    } // findEqual()
+
+
+    @Override
+    protected void filterValues(Condition condition, int from, int to, long[] selection){
+        // a boolean cell has two values, the Condition is tested once for each.
+        boolean match_true = condition.test(Boolean.TRUE);
+        boolean match_false = condition.test(Boolean.FALSE);
+        for(int chunk_num = chunkOf(from) ; chunk_num < getChunkCount() && getChunkStart(chunk_num) < to ; chunk_num++){
+            boolean[] chunk = getChunk(chunk_num);
+            int start = getChunkStart(chunk_num);
+            int end = Math.min(to, start + getChunkSize(chunk_num));
+            // going through the rows of the chunk a word of the selection at a time.
+            for(int row = Math.max(from, start) ; row < end ; ){
+                int word = row >>> 6;
+                int word_end = Math.min(end, (word + 1) << 6);
+                if(selection[word] == 0){
+                    row = word_end;
+                    continue;
+                }
+                long keep = ~wordMask(row, word_end);
+                for( ; row < word_end ; row++){
+                    if(chunk[row - start] ? match_true : match_false){
+                        keep |= 1L << row;
+                    }
+                }
+                selection[word] &= keep;
+            }
+        }
+    } // filterValues()
+
+
+    @Override
+    protected void store(Object chunk, int offset, Object value){
+        ((boolean[]) chunk)[offset] = (value != null) && (Boolean) value;
+    } // store()
+
+
+    @Override
+    protected Object load(Object chunk, int offset){
+        return ((boolean[]) chunk)[offset];
+    } // load()
+} // class
@@ -0,0 +1,66 @@
+package IvoryDatabase;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The direct ByteBuffers of {@code IvoryFile.BUFFER_SIZE} bytes shared by
+ * the ChannelInputs and ChannelOutputs of every Database.
+ *
+ * Allocating a direct ByteBuffer zeroes its memory, and the memory is only
+ * freed once the garbage collector has found the ByteBuffer unreachable.
+ * Reading and saving many Databases would allocate a buffer for every
+ * file and deflated Column, so a buffer that is given back is kept for
+ * the next read or write instead. Up to {@code MAX_BUFFERS} buffers are
+ * kept, a buffer that is not given back is collected as usual.
+ */
+final class BufferPool {
+    static final int MAX_BUFFERS = 16; // the number of buffers kept for reuse.
+
+    private static final ConcurrentLinkedQueue<ByteBuffer> BUFFERS = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger no_of_buffers = new AtomicInteger(); // the number of buffers in BUFFERS.
+
+
+    private BufferPool(){
+    } // constructor
+
+
+    /**
+     * @param capacity
+     *        The size of the buffer in bytes.
+     *
+     * @return An empty little-endian direct ByteBuffer of {@code capacity}
+     *         bytes, a kept one if {@code capacity} is {@code IvoryFile.BUFFER_SIZE}.
+     */
+    static ByteBuffer take(int capacity){
+        if(capacity == IvoryFile.BUFFER_SIZE){
+            ByteBuffer buffer = BUFFERS.poll();
+            if(buffer != null){
+                no_of_buffers.decrementAndGet();
+                return buffer;
+            }
+        }
+        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    } // take()
+
+
+    /**
+     * Method to give back a buffer returned by {@code take()}, which is no
+     * longer used by the caller.
+     */
+    static void give(ByteBuffer buffer){
+        if(buffer.capacity() != IvoryFile.BUFFER_SIZE){
+            return;
+        }
+        // a buffer beyond MAX_BUFFERS is left to the garbage collector.
+        if(no_of_buffers.incrementAndGet() > MAX_BUFFERS){
+            no_of_buffers.decrementAndGet();
+            return;
+        }
+        buffer.clear();
+        BUFFERS.offer(buffer);
+    } // give()
+} // class
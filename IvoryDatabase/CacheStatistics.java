@@ -0,0 +1,65 @@
+package IvoryDatabase;
+
+import javax.management.ConstructorParameters;
+
+/**
+ * The counts of the row cache of an Ivory Database, as read from 
+ * {@code IvoryDatabase.getRowCacheStatistics()}.
+ */
+public final class CacheStatistics {
+    private final long hits; // the number of GETs answered from the cache.
+    private final long misses; // the number of GETs that read the Columns.
+    private final long evictions; // the number of rows evicted to make room.
+    private final int size; // the number of cached rows.
+    private final int capacity; // the number of rows the cache holds.
+
+
+    @ConstructorParameters({"hits", "misses", "evictions", "size", "capacity"})
+    public CacheStatistics(long hits, long misses, long evictions, int size, int capacity){
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.size = size;
+        this.capacity = capacity;
+    } // constructor
+
+
+    public long getHits(){
+        return hits;
+    } // getHits()
+
+
+    public long getMisses(){
+        return misses;
+    } // getMisses()
+
+
+    public long getEvictions(){
+        return evictions;
+    } // getEvictions()
+
+
+    public int getSize(){
+        return size;
+    } // getSize()
+
+
+    public int getCapacity(){
+        return capacity;
+    } // getCapacity()
+
+
+    /**
+     * @return The part of the GETs answered from the cache, 0 if there were none.
+     */
+    public double getHitRatio(){
+        long requests = hits + misses;
+        return (requests == 0) ? 0 : (double) hits / requests;
+    } // getHitRatio()
+
+
+    @Override
+    public String toString(){
+        return "hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + ", size=" + size + ", capacity=" + capacity;
+    } // toString()
+} // class
@@ -0,0 +1,238 @@
+package IvoryDatabase;
+
+import java.io.EOFException;
+import java.io.IOException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import java.util.zip.CRC32;
+
+/**
+ * A buffered reader of the primitive values and Strings written by a 
+ * ChannelOutput.
+ * 
+ * The bytes are either read from a ReadableByteChannel into a direct 
+ * ByteBuffer that is refilled as it runs empty, or taken from a ByteBuffer 
+ * that already holds all of them, such as a memory-mapped file.
+ * 
+ * The CRC32 of the bytes read since the last {@code startChecksum()} is 
+ * computed as the buffer is consumed.
+ */
+class ChannelInput {
+    private final ReadableByteChannel channel; // the channel the bytes are read from, or null.
+    private final ByteBuffer buffer; // the bytes that have been read but not consumed yet.
+    private boolean pooled; // true while the buffer is taken from the BufferPool.
+    private final CRC32 crc = new CRC32(); // the checksum of the bytes read since startChecksum().
+    private int checksum_mark = 0; // the position in the buffer up to which crc has been updated.
+
+
+    /**
+     * @param channel
+     *        The channel the bytes are read from.
+     * 
+     * @param buffer_size
+     *        The size of the buffer in bytes.
+     */
+    public ChannelInput(ReadableByteChannel channel, int buffer_size){
+        this.channel = channel;
+        this.buffer = BufferPool.take(buffer_size);
+        this.pooled = true;
+        this.buffer.limit(0); // the buffer starts out empty.
+    } // constructor
+
+
+    /**
+     * @param bytes
+     *        The ByteBuffer holding all bytes to be read, from its position 
+     *        to its limit.
+     */
+    public ChannelInput(ByteBuffer bytes){
+        this.channel = null;
+        this.buffer = bytes.slice().order(ByteOrder.LITTLE_ENDIAN);
+    } // constructor
+
+
+    public byte getByte() throws IOException {
+        ensureAvailable(1);
+        return buffer.get();
+    } // getByte()
+
+
+    public int getInt() throws IOException {
+        ensureAvailable(4);
+        return buffer.getInt();
+    } // getInt()
+
+
+    public long getLong() throws IOException {
+        ensureAvailable(8);
+        return buffer.getLong();
+    } // getLong()
+
+
+    public double getDouble() throws IOException {
+        ensureAvailable(8);
+        return buffer.getDouble();
+    } // getDouble()
+
+
+    /**
+     * Method to read {@code length} bytes into {@code bytes} starting at {@code offset}.
+     */
+    public void getBytes(byte[] bytes, int offset, int length) throws IOException {
+        while(length > 0){
+            ensureAvailable(1);
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            offset += count;
+            length -= count;
+        }
+    } // getBytes()
+
+
+    /**
+     * Method to read bytes into {@code bytes} from its position to its 
+     * limit. The position of {@code bytes} is not changed.
+     */
+    public void getBuffer(ByteBuffer bytes) throws IOException {
+        int position = bytes.position();
+        while(position < bytes.limit()){
+            ensureAvailable(1);
+            int count = Math.min(bytes.limit() - position, buffer.remaining());
+            bytes.put(position, buffer, buffer.position(), count);
+            buffer.position(buffer.position() + count);
+            position += count;
+        }
+    } // getBuffer()
+
+
+    /**
+     * Method to read a String written by {@code ChannelOutput.putString()}.
+     * 
+     * @return The String, or null if a null String was written.
+     */
+    public String getString() throws IOException {
+        int length = getInt();
+        if(length < 0){
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        getBytes(bytes, 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    } // getString()
+
+
+    /**
+     * Method to read {@code count} values into {@code values}.
+     */
+    public void getInts(int[] values, int count) throws IOException {
+        int offset = 0;
+        while(offset < count){
+            ensureAvailable(4);
+            int batch = Math.min(count - offset, buffer.remaining() / 4);
+            buffer.asIntBuffer().get(values, offset, batch);
+            buffer.position(buffer.position() + batch * 4);
+            offset += batch;
+        }
+    } // getInts()
+
+
+    /**
+     * Method to read {@code count} values into {@code values}.
+     */
+    public void getLongs(long[] values, int count) throws IOException {
+        int offset = 0;
+        while(offset < count){
+            ensureAvailable(8);
+            int batch = Math.min(count - offset, buffer.remaining() / 8);
+            buffer.asLongBuffer().get(values, offset, batch);
+            buffer.position(buffer.position() + batch * 8);
+            offset += batch;
+        }
+    } // getLongs()
+
+
+    /**
+     * Method to read {@code count} values into {@code values}.
+     */
+    public void getDoubles(double[] values, int count) throws IOException {
+        int offset = 0;
+        while(offset < count){
+            ensureAvailable(8);
+            int batch = Math.min(count - offset, buffer.remaining() / 8);
+            buffer.asDoubleBuffer().get(values, offset, batch);
+            buffer.position(buffer.position() + batch * 8);
+            offset += batch;
+        }
+    } // getDoubles()
+
+
+    /**
+     * Method to start computing a new checksum from the current position.
+     */
+    public void startChecksum(){
+        crc.reset();
+        checksum_mark = buffer.position();
+    } // startChecksum()
+
+
+    /**
+     * @return The CRC32 of the bytes read since the last {@code startChecksum()}.
+     */
+    public int getChecksum(){
+        updateChecksum();
+        return (int) crc.getValue();
+    } // getChecksum()
+
+
+    /**
+     * Method to add the consumed bytes after {@code checksum_mark} to the checksum.
+     */
+    private void updateChecksum(){
+        ByteBuffer consumed = buffer.duplicate();
+        consumed.limit(buffer.position()).position(checksum_mark);
+        crc.update(consumed);
+        checksum_mark = buffer.position();
+    } // updateChecksum()
+
+
+    /**
+     * Method to make sure at least {@code bytes} bytes can be read from the buffer.
+     * 
+     * @throws EOFException
+     *         if the input ends before {@code bytes} bytes are available.
+     */
+    private void ensureAvailable(int bytes) throws IOException {
+        if(buffer.remaining() >= bytes){
+            return;
+        }
+        if(channel == null){
+            throw new EOFException();
+        }
+        // moving the unread bytes to the front and refilling the buffer.
+        updateChecksum();
+        checksum_mark = 0;
+        buffer.compact();
+        while(buffer.position() < bytes){
+            if(channel.read(buffer) < 0){
+                throw new EOFException();
+            }
+        }
+        buffer.flip();
+    } // ensureAvailable()
+
+
+    /**
+     * Method to give the buffer back to the BufferPool once nothing more is 
+     * read from the ChannelInput. The ChannelInput is not used afterwards.
+     */
+    void release(){
+        if(pooled){
+            pooled = false;
+            BufferPool.give(buffer);
+        }
+    } // release()
+} // class
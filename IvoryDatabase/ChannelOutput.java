@@ -0,0 +1,239 @@
+package IvoryDatabase;
+
+import java.io.IOException;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import java.util.zip.CRC32;
+
+/**
+ * A buffered writer of primitive values and Strings to a WritableByteChannel.
+ * 
+ * Values are collected in a direct ByteBuffer and written to the channel 
+ * whenever the buffer is full, so the channel sees a few large writes 
+ * instead of one write per value. Arrays of primitives are copied into 
+ * the buffer in bulk. All values are written in little-endian byte order.
+ * 
+ * The CRC32 of the bytes written since the last {@code startChecksum()} 
+ * is computed as the buffer is flushed.
+ */
+class ChannelOutput {
+    private final WritableByteChannel channel; // the channel the bytes are written to.
+    private final ByteBuffer buffer; // the bytes that have not been written to the channel yet.
+    private boolean pooled; // true while the buffer is taken from the BufferPool.
+    private long flushed = 0; // the number of bytes written to the channel so far.
+    private final CRC32 crc = new CRC32(); // the checksum of the bytes written since startChecksum().
+    private int checksum_mark = 0; // the position in the buffer up to which crc has been updated.
+
+
+    /**
+     * @param channel
+     *        The channel the bytes are written to.
+     * 
+     * @param buffer_size
+     *        The size of the buffer in bytes.
+     */
+    public ChannelOutput(WritableByteChannel channel, int buffer_size){
+        this.channel = channel;
+        this.buffer = BufferPool.take(buffer_size);
+        this.pooled = true;
+    } // constructor
+
+
+    /**
+     * @return The number of bytes written so far, including the buffered bytes.
+     */
+    public long getPosition(){
+        return flushed + buffer.position();
+    } // getPosition()
+
+
+    public void putByte(int value) throws IOException {
+        ensureRoom(1);
+        buffer.put((byte) value);
+    } // putByte()
+
+
+    public void putInt(int value) throws IOException {
+        ensureRoom(4);
+        buffer.putInt(value);
+    } // putInt()
+
+
+    public void putLong(long value) throws IOException {
+        ensureRoom(8);
+        buffer.putLong(value);
+    } // putLong()
+
+
+    public void putDouble(double value) throws IOException {
+        ensureRoom(8);
+        buffer.putDouble(value);
+    } // putDouble()
+
+
+    /**
+     * Method to write {@code length} bytes of {@code bytes} starting at {@code offset}.
+     */
+    public void putBytes(byte[] bytes, int offset, int length) throws IOException {
+        while(length > 0){
+            ensureRoom(1);
+            int count = Math.min(length, buffer.remaining());
+            buffer.put(bytes, offset, count);
+            offset += count;
+            length -= count;
+        }
+    } // putBytes()
+
+
+    /**
+     * Method to write the bytes of {@code bytes} from its position to its 
+     * limit. The position of {@code bytes} is not changed.
+     */
+    public void putBuffer(ByteBuffer bytes) throws IOException {
+        int position = bytes.position();
+        while(position < bytes.limit()){
+            ensureRoom(1);
+            int count = Math.min(bytes.limit() - position, buffer.remaining());
+            buffer.put(buffer.position(), bytes, position, count);
+            buffer.position(buffer.position() + count);
+            position += count;
+        }
+    } // putBuffer()
+
+
+    /**
+     * Method to write a String as its length in bytes followed by its 
+     * UTF-8 bytes. A null String is written as the length -1.
+     */
+    public void putString(String value) throws IOException {
+        if(value == null){
+            putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putInt(bytes.length);
+        putBytes(bytes, 0, bytes.length);
+    } // putString()
+
+
+    /**
+     * Method to write the first {@code count} values of {@code values}.
+     */
+    public void putInts(int[] values, int count) throws IOException {
+        int offset = 0;
+        while(offset < count){
+            ensureRoom(4);
+            int batch = Math.min(count - offset, buffer.remaining() / 4);
+            buffer.asIntBuffer().put(values, offset, batch);
+            buffer.position(buffer.position() + batch * 4);
+            offset += batch;
+        }
+    } // putInts()
+
+
+    /**
+     * Method to write the first {@code count} values of {@code values}.
+     */
+    public void putLongs(long[] values, int count) throws IOException {
+        int offset = 0;
+        while(offset < count){
+            ensureRoom(8);
+            int batch = Math.min(count - offset, buffer.remaining() / 8);
+            buffer.asLongBuffer().put(values, offset, batch);
+            buffer.position(buffer.position() + batch * 8);
+            offset += batch;
+        }
+    } // putLongs()
+
+
+    /**
+     * Method to write the first {@code count} values of {@code values}.
+     */
+    public void putDoubles(double[] values, int count) throws IOException {
+        int offset = 0;
+        while(offset < count){
+            ensureRoom(8);
+            int batch = Math.min(count - offset, buffer.remaining() / 8);
+            buffer.asDoubleBuffer().put(values, offset, batch);
+            buffer.position(buffer.position() + batch * 8);
+            offset += batch;
+        }
+    } // putDoubles()
+
+
+    /**
+     * Method to write all buffered bytes to the channel.
+     */
+    public void flush() throws IOException {
+        updateChecksum();
+        checksum_mark = 0;
+        buffer.flip();
+        while(buffer.hasRemaining()){
+            flushed += channel.write(buffer);
+        }
+        buffer.clear();
+    } // flush()
+
+
+    /**
+     * Method to drop all buffered bytes without writing them.
+     */
+    public void discard(){
+        buffer.clear();
+        checksum_mark = 0;
+    } // discard()
+
+
+    /**
+     * Method to start computing a new checksum from the current position.
+     */
+    public void startChecksum(){
+        crc.reset();
+        checksum_mark = buffer.position();
+    } // startChecksum()
+
+
+    /**
+     * @return The CRC32 of the bytes written since the last {@code startChecksum()}.
+     */
+    public int getChecksum(){
+        updateChecksum();
+        return (int) crc.getValue();
+    } // getChecksum()
+
+
+    /**
+     * Method to add the buffered bytes after {@code checksum_mark} to the checksum.
+     */
+    private void updateChecksum(){
+        ByteBuffer pending = buffer.duplicate();
+        pending.limit(buffer.position()).position(checksum_mark);
+        crc.update(pending);
+        checksum_mark = buffer.position();
+    } // updateChecksum()
+
+
+    /**
+     * Method to flush the buffer if it has less than {@code bytes} bytes of room left.
+     */
+    private void ensureRoom(int bytes) throws IOException {
+        if(buffer.remaining() < bytes){
+            flush();
+        }
+    } // ensureRoom()
+
+
+    /**
+     * Method to give the buffer back to the BufferPool once nothing more is 
+     * written to the ChannelOutput. The ChannelOutput is not used afterwards.
+     */
+    void release(){
+        if(pooled){
+            pooled = false;
+            BufferPool.give(buffer);
+        }
+    } // release()
+} // class
@@ -0,0 +1,749 @@
+package IvoryDatabase;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntFunction;
+
+/**
+ * The chunks of a blocked list and the index over them, shared by
+ * ChunkedList and ChunkedColumnData.
+ *
+ * The elements are stored in a sequence of arrays of up to
+ * {@code capacity} elements, Object arrays for a ChunkedList and primitive
+ * arrays for a ChunkedColumnData, and the index of the first element of
+ * every chunk is kept in {@code chunk_starts}. The chunk holding an element
+ * is found straight away while every chunk but the last is full, which is
+ * the layout of a list that has only been appended to or filled in one go,
+ * and by a binary search over the chunks otherwise.
+ *
+ * Inserting or removing an element in the middle only shifts the elements
+ * of the chunk that holds it: a full chunk is split in two first, and a
+ * chunk that runs low is merged with its neighbour. Appending never copies
+ * the elements that are already stored, a new chunk is started once the
+ * last one is full. Only a chunk allocated for fewer elements, the first
+ * chunk of a new list or the last chunk of a filled one, is grown by
+ * copying it, and never beyond {@code capacity} elements.
+ *
+ * For primitive arrays, which cannot hold null, every chunk can also have
+ * a NullMask of its own that is moved along with its elements, so that
+ * inserting or removing an element only shifts the bits of one chunk.
+ */
+final class ChunkIndex {
+    private final int shift; // log2 of capacity.
+    private final int capacity; // maximum number of elements in a chunk.
+    private final int initial_capacity; // capacity of the first chunk of an empty list.
+    private final IntFunction<Object> allocator; // creates the array of a chunk of a given capacity.
+
+    private Object[] chunks; // the array of every chunk.
+    private NullMask[] chunk_nulls; // the null elements of every chunk, or null if nulls are not marked.
+    private int[] chunk_sizes; // number of elements held by every chunk.
+    private int[] chunk_starts; // index of the first element of every chunk.
+    private int no_of_chunks; // number of chunks.
+    private int size; // total number of elements.
+
+
+    /**
+     * Creating a ChunkIndex of {@code size} elements holding the default
+     * value of the arrays, to be filled in chunk by chunk. Every chunk is
+     * full but the last.
+     *
+     * @param shift
+     *        log2 of the number of elements a chunk holds at most.
+     *
+     * @param initial_capacity
+     *        The capacity of the first chunk of an empty list.
+     *
+     * @param allocator
+     *        Creates the array of a chunk of a given capacity.
+     *
+     * @param marks_nulls
+     *        True if every chunk has a NullMask marking its null elements.
+     *
+     * @param size
+     *        The number of elements.
+     */
+    ChunkIndex(int shift, int initial_capacity, IntFunction<Object> allocator, boolean marks_nulls, int size){
+        this.shift = shift;
+        this.capacity = 1 << shift;
+        this.initial_capacity = initial_capacity;
+        this.allocator = allocator;
+
+        int count = (size + capacity - 1) >>> shift;
+        this.chunks = new Object[Math.max(count, 8)];
+        this.chunk_nulls = marks_nulls ? new NullMask[chunks.length] : null;
+        this.chunk_sizes = new int[chunks.length];
+        this.chunk_starts = new int[chunks.length];
+        for(int chunk_num = 0 ; chunk_num < count ; chunk_num++){
+            int chunk_start = chunk_num << shift;
+            int chunk_size = Math.min(capacity, size - chunk_start);
+            // the last chunk gets some room to grow.
+            chunks[chunk_num] = allocator.apply(Math.max(chunk_size, initial_capacity));
+            if(marks_nulls){
+                chunk_nulls[chunk_num] = new NullMask();
+            }
+            chunk_sizes[chunk_num] = chunk_size;
+            chunk_starts[chunk_num] = chunk_start;
+        }
+        this.no_of_chunks = count;
+        this.size = size;
+    } // constructor
+
+
+    /**
+     * Creating a copy of {@code other} in which every chunk is full but the
+     * last.
+     *
+     * @param other
+     *        The ChunkIndex that is copied.
+     */
+    ChunkIndex(ChunkIndex other){
+        this(other.shift, other.initial_capacity, other.allocator, other.chunk_nulls != null, other.size);
+        int index = 0;
+        for(int chunk_num = 0 ; chunk_num < other.no_of_chunks ; chunk_num++){
+            // a chunk of other may be spread over two chunks of the copy.
+            for(int offset = 0 ; offset < other.chunk_sizes[chunk_num] ; ){
+                int copy_chunk = index >>> shift;
+                int copy_offset = index & (capacity - 1);
+                int count = Math.min(other.chunk_sizes[chunk_num] - offset, capacity - copy_offset);
+                System.arraycopy(other.chunks[chunk_num], offset, chunks[copy_chunk], copy_offset, count);
+                if(chunk_nulls != null){
+                    chunk_nulls[copy_chunk].copyBits(other.chunk_nulls[chunk_num], offset, copy_offset, count);
+                }
+                offset += count;
+                index += count;
+            }
+        }
+    } // constructor
+
+
+    /**
+     * Method to mark the null elements of a ChunkIndex that has just been
+     * created for the number of elements of {@code nulls}.
+     *
+     * @param nulls
+     *        One bit for every element, set for the null elements.
+     */
+    void setNulls(NullMask nulls){
+        long[] words = nulls.getWords();
+        if(words == null){
+            return;
+        }
+        // every chunk but the last is full, so it holds a whole number of words.
+        int chunk_words = capacity >>> 6;
+        for(int chunk_num = 0 ; chunk_num < no_of_chunks ; chunk_num++){
+            int first = chunk_num * chunk_words;
+            if(first < words.length){
+                chunk_nulls[chunk_num] = new NullMask(Arrays.copyOfRange(words, first, first + chunk_words));
+            }
+        }
+    } // setNulls()
+
+
+    /**
+     * @return The total number of elements.
+     */
+    int size(){
+        return size;
+    } // size()
+
+
+    /**
+     * @return The number of chunks.
+     */
+    int getChunkCount(){
+        return no_of_chunks;
+    } // getChunkCount()
+
+
+    /**
+     * @return The index of the first element of the chunk {@code chunk_num}.
+     */
+    int getChunkStart(int chunk_num){
+        return chunk_starts[chunk_num];
+    } // getChunkStart()
+
+
+    /**
+     * @return The number of elements held by the chunk {@code chunk_num}.
+     */
+    int getChunkSize(int chunk_num){
+        return chunk_sizes[chunk_num];
+    } // getChunkSize()
+
+
+    /**
+     * @return The array of the chunk {@code chunk_num}, valid up to
+     *         {@code getChunkSize(chunk_num)}. The array is not copied.
+     */
+    Object getChunk(int chunk_num){
+        return chunks[chunk_num];
+    } // getChunk()
+
+
+    /**
+     * @return The NullMask of the chunk {@code chunk_num}, indexed from the
+     *         first element of the chunk. The NullMask is not copied.
+     */
+    NullMask getChunkNulls(int chunk_num){
+        return chunk_nulls[chunk_num];
+    } // getChunkNulls()
+
+
+    /**
+     * @param index
+     *        The index of an element, or {@code size()}.
+     *
+     * @return The number of the chunk holding the element at {@code index},
+     *         the last chunk for {@code size()} and 0 if there is no chunk.
+     */
+    int chunkOf(int index){
+        // while every chunk but the last is full, the chunk follows from the index.
+        int guess = index >>> shift;
+        if(guess < no_of_chunks && chunk_starts[guess] == (guess << shift) && index - chunk_starts[guess] < chunk_sizes[guess]){
+            return guess;
+        }
+
+        // binary search for the last chunk starting at or before index.
+        int low = 0;
+        int high = no_of_chunks - 1;
+        while(low < high){
+            int mid = (low + high + 1) >>> 1;
+            if(chunk_starts[mid] <= index){
+                low = mid;
+            }
+            else{
+                high = mid - 1;
+            }
+        }
+        return low;
+    } // chunkOf()
+
+
+    /**
+     * Method to make room for an element at {@code index}, moving the
+     * elements from {@code index} on up by one. The new element is not null.
+     *
+     * @param index
+     *        The index of the new element, {@code size()} to append it.
+     *
+     * @return The number of the chunk holding the new element.
+     */
+    int open(int index){
+        int chunk_num;
+        if(no_of_chunks == 0){
+            // starting the first chunk small, a list may only hold a few elements.
+            addChunk(0, allocator.apply(initial_capacity), null, 0, 0);
+            chunk_num = 0;
+        }
+        else if(index == size){
+            // appending to the last chunk, or to a new chunk once it is full.
+            chunk_num = no_of_chunks - 1;
+            if(chunk_sizes[chunk_num] == capacity){
+                addChunk(no_of_chunks, allocator.apply(capacity), null, 0, size);
+                chunk_num++;
+            }
+        }
+        else{
+            chunk_num = chunkOf(index);
+            // splitting the chunk if there is no room left in it.
+            if(chunk_sizes[chunk_num] == capacity){
+                splitChunk(chunk_num);
+                if(index >= chunk_starts[chunk_num + 1]){
+                    chunk_num++;
+                }
+            }
+        }
+
+        Object chunk = chunks[chunk_num];
+        int chunk_size = chunk_sizes[chunk_num];
+        if(chunk_size == Array.getLength(chunk)){
+            chunk = growChunk(chunk_num, Math.min(capacity, chunk_size * 2));
+        }
+        int offset = index - chunk_starts[chunk_num];
+        System.arraycopy(chunk, offset, chunk, offset + 1, chunk_size - offset);
+        if(chunk_nulls != null){
+            chunk_nulls[chunk_num].insert(offset, chunk_size);
+        }
+        chunk_sizes[chunk_num]++;
+        shiftStartsAfter(chunk_num, 1);
+        size++;
+        return chunk_num;
+    } // open()
+
+
+    /**
+     * Method to make room for a batch of elements at once. The new element
+     * {@code i} goes before the element at {@code positions[i]}, to the
+     * index {@code positions[i] + i}. The new elements are not null and
+     * hold the default value of the arrays.
+     *
+     * Only the chunks receiving new elements are copied, into chunks that
+     * are full but the last of them. The other chunks are kept as they are
+     * and only their starts move.
+     *
+     * @param positions
+     *        For every new element, the number of elements before it. The
+     *        positions are in ascending order and at most {@code size()}.
+     */
+    void openAll(int[] positions){
+        int count = positions.length;
+        if(count == 0){
+            return;
+        }
+        Object[] old_chunks = chunks;
+        NullMask[] old_nulls = chunk_nulls;
+        int[] old_sizes = chunk_sizes;
+        int[] old_starts = chunk_starts;
+        int old_count = no_of_chunks;
+
+        // the chunks are added again in their order, a chunk receiving elements as one or more chunks.
+        int length = Math.max(8, old_count + (count >>> shift) + Math.min(old_count, count) + 1);
+        chunks = new Object[length];
+        chunk_nulls = (old_nulls == null) ? null : new NullMask[length];
+        chunk_sizes = new int[length];
+        chunk_starts = new int[length];
+        no_of_chunks = 0;
+
+        if(old_count == 0){
+            openRuns(null, null, 0, 0, positions, 0, count, 0);
+        }
+        int next = 0; // the first position not yet placed.
+        int start = 0; // the index of the first element of the next chunk.
+        for(int chunk_num = 0 ; chunk_num < old_count ; chunk_num++){
+            int chunk_start = old_starts[chunk_num];
+            int chunk_size = old_sizes[chunk_num];
+            // the positions at the end of the list go to the last chunk.
+            boolean last = (chunk_num == old_count - 1);
+            int first = next;
+            while(next < count && (last || positions[next] < chunk_start + chunk_size)){
+                next++;
+            }
+            if(next == first){
+                addChunk(no_of_chunks, old_chunks[chunk_num], (old_nulls == null) ? null : old_nulls[chunk_num], chunk_size, start);
+                start += chunk_size;
+            }
+            else{
+                start = openRuns(old_chunks[chunk_num], (old_nulls == null) ? null : old_nulls[chunk_num], chunk_start, chunk_size, positions, first, next, start);
+            }
+        }
+        size += count;
+    } // openAll()
+
+
+    /**
+     * Method to remove the element at {@code index}, moving the elements
+     * after it down by one.
+     */
+    void close(int index){
+        int chunk_num = chunkOf(index);
+        Object chunk = chunks[chunk_num];
+        int chunk_size = chunk_sizes[chunk_num];
+        int offset = index - chunk_starts[chunk_num];
+        System.arraycopy(chunk, offset + 1, chunk, offset, chunk_size - offset - 1);
+        clearElements(chunk, chunk_size - 1, chunk_size);
+        if(chunk_nulls != null){
+            chunk_nulls[chunk_num].remove(offset, chunk_size);
+        }
+        chunk_sizes[chunk_num]--;
+        shiftStartsAfter(chunk_num, -1);
+        size--;
+
+        // removing empty chunks and merging sparse ones.
+        if(chunk_sizes[chunk_num] == 0){
+            removeChunk(chunk_num);
+        }
+        else if(chunk_sizes[chunk_num] < capacity / 4){
+            mergeSparseChunk(chunk_num);
+        }
+    } // close()
+
+
+    /**
+     * Method to remove the elements of every set bit of {@code rows},
+     * moving the remaining elements down in their order.
+     *
+     * Every chunk is compacted on its own. Chunks left empty are dropped,
+     * and a chunk is merged into the chunk before it while both fit into
+     * half a chunk.
+     *
+     * @return The number of elements kept.
+     */
+    int closeAll(BitSet rows){
+        int count = 0; // number of chunks kept.
+        int start = 0; // index of the first element of the next kept chunk.
+        for(int chunk_num = 0 ; chunk_num < no_of_chunks ; chunk_num++){
+            Object chunk = chunks[chunk_num];
+            NullMask nulls = (chunk_nulls == null) ? null : chunk_nulls[chunk_num];
+            int chunk_start = chunk_starts[chunk_num];
+            int chunk_end = chunk_start + chunk_sizes[chunk_num];
+
+            // moving every run of kept elements down over the removed elements before it.
+            int kept = 0;
+            for(int from = rows.nextClearBit(chunk_start) ; from < chunk_end ; from = rows.nextClearBit(from)){
+                int to = rows.nextSetBit(from);
+                to = (to < 0 || to > chunk_end) ? chunk_end : to;
+                System.arraycopy(chunk, from - chunk_start, chunk, kept, to - from);
+                if(nulls != null){
+                    nulls.copyBits(nulls, from - chunk_start, kept, to - from);
+                }
+                kept += to - from;
+                from = to;
+            }
+            clearElements(chunk, kept, chunk_end - chunk_start);
+            if(nulls != null){
+                nulls.truncate(kept);
+            }
+            if(kept == 0){
+                continue;
+            }
+
+            if(count > 0 && chunk_sizes[count - 1] + kept <= capacity / 2){
+                Object previous = chunks[count - 1];
+                if(chunk_sizes[count - 1] + kept > Array.getLength(previous)){
+                    previous = growChunk(count - 1, capacity);
+                }
+                System.arraycopy(chunk, 0, previous, chunk_sizes[count - 1], kept);
+                if(nulls != null){
+                    chunk_nulls[count - 1].copyBits(nulls, 0, chunk_sizes[count - 1], kept);
+                }
+                chunk_sizes[count - 1] += kept;
+            }
+            else{
+                chunks[count] = chunk;
+                if(nulls != null){
+                    chunk_nulls[count] = nulls;
+                }
+                chunk_sizes[count] = kept;
+                chunk_starts[count] = start;
+                count++;
+            }
+            start += kept;
+        }
+        Arrays.fill(chunks, count, no_of_chunks, null);
+        if(chunk_nulls != null){
+            Arrays.fill(chunk_nulls, count, no_of_chunks, null);
+        }
+        no_of_chunks = count;
+        size = start;
+        return start;
+    } // closeAll()
+
+
+    /**
+     * Method to remove every element.
+     */
+    void clear(){
+        Arrays.fill(chunks, 0, no_of_chunks, null);
+        if(chunk_nulls != null){
+            Arrays.fill(chunk_nulls, 0, no_of_chunks, null);
+        }
+        no_of_chunks = 0;
+        size = 0;
+    } // clear()
+
+
+    /**
+     * @return True if the element at {@code index} is marked null.
+     */
+    boolean isNull(int index){
+        int chunk_num = chunkOf(index);
+        return chunk_nulls[chunk_num].get(index - chunk_starts[chunk_num]);
+    } // isNull()
+
+
+    /**
+     * Method to mark the element at {@code index} as null or not null.
+     */
+    void setNull(int index, boolean is_null){
+        int chunk_num = chunkOf(index);
+        chunk_nulls[chunk_num].set(index - chunk_starts[chunk_num], is_null);
+    } // setNull()
+
+
+    /**
+     * @return False if no element is marked null. True does not mean that
+     *         an element is null, only that a chunk has marked one.
+     */
+    boolean hasNulls(){
+        for(int chunk_num = 0 ; chunk_num < no_of_chunks ; chunk_num++){
+            if(chunk_nulls[chunk_num].getWords() != null){
+                return true;
+            }
+        }
+        return false;
+    } // hasNulls()
+
+
+    /**
+     * @return The bits of the 64 elements from {@code word * 64} on, set
+     *         for the null elements. The elements may be held by several
+     *         chunks.
+     */
+    long getNullWord(int word){
+        long bits = 0;
+        int index = word << 6;
+        int end = Math.min(size, index + 64);
+        while(index < end){
+            int chunk_num = chunkOf(index);
+            int chunk_start = chunk_starts[chunk_num];
+            int count = Math.min(end, chunk_start + chunk_sizes[chunk_num]) - index;
+            long chunk_bits = chunk_nulls[chunk_num].getBits(index - chunk_start);
+            if(count < 64){
+                chunk_bits &= (1L << count) - 1;
+            }
+            bits |= chunk_bits << (index & 63);
+            index += count;
+        }
+        return bits;
+    } // getNullWord()
+
+
+    /**
+     * @return A NullMask of all elements, assembled from the NullMasks of
+     *         the chunks.
+     */
+    NullMask getNulls(){
+        if(!hasNulls()){
+            return new NullMask();
+        }
+        long[] words = new long[(size + 63) >>> 6];
+        for(int word = 0 ; word < words.length ; word++){
+            words[word] = getNullWord(word);
+        }
+        return new NullMask(words);
+    } // getNulls()
+
+
+    /**
+     * Method to copy the elements in their order into {@code values}, an
+     * array of at least {@code size()} elements.
+     */
+    void copyTo(Object values){
+        for(int chunk_num = 0 ; chunk_num < no_of_chunks ; chunk_num++){
+            System.arraycopy(chunks[chunk_num], 0, values, chunk_starts[chunk_num], chunk_sizes[chunk_num]);
+        }
+    } // copyTo()
+
+
+    /**
+     * Method to copy the first {@code size()} elements of {@code values}, an
+     * array of the type of the chunks, into the chunks.
+     */
+    void copyFrom(Object values){
+        for(int chunk_num = 0 ; chunk_num < no_of_chunks ; chunk_num++){
+            System.arraycopy(values, chunk_starts[chunk_num], chunks[chunk_num], 0, chunk_sizes[chunk_num]);
+        }
+    } // copyFrom()
+
+
+    /* Helper Methods */
+
+    /**
+     * Method to add the elements of an old chunk and the new elements
+     * placed in it as new chunks, for {@code openAll()}.
+     *
+     * @param chunk
+     *        The array of the old chunk, null if there was no chunk.
+     *
+     * @param nulls
+     *        The NullMask of the old chunk, or null if nulls are not marked.
+     *
+     * @param chunk_start
+     *        The index of the first element of the old chunk.
+     *
+     * @param chunk_size
+     *        The number of elements of the old chunk.
+     *
+     * @param positions
+     *        The positions of the new elements, see {@code openAll()}.
+     *
+     * @param first
+     *        The first of the positions placed in the old chunk.
+     *
+     * @param end
+     *        The end of the positions placed in the old chunk.
+     *
+     * @param start
+     *        The index of the first element of the new chunks.
+     *
+     * @return The index of the first element after the new chunks.
+     */
+    private int openRuns(Object chunk, NullMask nulls, int chunk_start, int chunk_size, int[] positions, int first, int end, int start){
+        int remaining = chunk_size + end - first;
+        int offset = 0; // the next element of the old chunk.
+        int next = first; // the next new element.
+        while(remaining > 0){
+            int piece = Math.min(capacity, remaining);
+            Object target = allocator.apply(Math.max(initial_capacity, piece));
+            NullMask target_nulls = (chunk_nulls == null) ? null : new NullMask();
+            for(int filled = 0 ; filled < piece ; ){
+                // copying the old elements up to the next new element, whose element is left empty.
+                int run_end = (next < end) ? positions[next] - chunk_start : chunk_size;
+                int run = Math.min(run_end - offset, piece - filled);
+                if(run > 0){
+                    System.arraycopy(chunk, offset, target, filled, run);
+                    if(target_nulls != null){
+                        target_nulls.copyBits(nulls, offset, filled, run);
+                    }
+                    offset += run;
+                    filled += run;
+                }
+                else{
+                    next++;
+                    filled++;
+                }
+            }
+            addChunk(no_of_chunks, target, target_nulls, piece, start);
+            start += piece;
+            remaining -= piece;
+        }
+        return start;
+    } // openRuns()
+
+
+    /**
+     * Method to split a full chunk into two half-full chunks.
+     *
+     * @param chunk_num
+     *        The number of the chunk to be split.
+     */
+    private void splitChunk(int chunk_num){
+        Object chunk = chunks[chunk_num];
+        int chunk_size = chunk_sizes[chunk_num];
+        int half = chunk_size / 2;
+        int moved = chunk_size - half;
+
+        // moving the upper half of the chunk, and of its NullMask, to a new chunk.
+        Object new_chunk = allocator.apply(capacity);
+        System.arraycopy(chunk, half, new_chunk, 0, moved);
+        clearElements(chunk, half, chunk_size);
+        NullMask new_nulls = null;
+        if(chunk_nulls != null){
+            new_nulls = new NullMask();
+            new_nulls.copyBits(chunk_nulls[chunk_num], half, 0, moved);
+            chunk_nulls[chunk_num].truncate(half);
+        }
+        chunk_sizes[chunk_num] = half;
+        addChunk(chunk_num + 1, new_chunk, new_nulls, moved, chunk_starts[chunk_num] + half);
+    } // splitChunk()
+
+
+    /**
+     * Method to merge a sparse chunk into a neighbouring chunk, if the
+     * neighbour has room for its elements.
+     *
+     * @param chunk_num
+     *        The number of the sparse chunk.
+     */
+    private void mergeSparseChunk(int chunk_num){
+        // picking the neighbour the elements are merged into.
+        int target;
+        if(chunk_num + 1 < no_of_chunks && chunk_sizes[chunk_num] + chunk_sizes[chunk_num + 1] <= capacity / 2){
+            target = chunk_num + 1;
+        }
+        else if(chunk_num > 0 && chunk_sizes[chunk_num] + chunk_sizes[chunk_num - 1] <= capacity / 2){
+            target = chunk_num - 1;
+        }
+        else{
+            return;
+        }
+
+        // the elements always move into the lower of the two chunks.
+        int lower = Math.min(chunk_num, target);
+        int upper = Math.max(chunk_num, target);
+        Object lower_chunk = chunks[lower];
+        if(chunk_sizes[lower] + chunk_sizes[upper] > Array.getLength(lower_chunk)){
+            lower_chunk = growChunk(lower, capacity);
+        }
+        System.arraycopy(chunks[upper], 0, lower_chunk, chunk_sizes[lower], chunk_sizes[upper]);
+        if(chunk_nulls != null){
+            chunk_nulls[lower].copyBits(chunk_nulls[upper], 0, chunk_sizes[lower], chunk_sizes[upper]);
+        }
+        chunk_sizes[lower] += chunk_sizes[upper];
+        removeChunk(upper);
+    } // mergeSparseChunk()
+
+
+    /**
+     * Method to replace the array of a chunk with a copy of
+     * {@code chunk_capacity} elements.
+     *
+     * @return The new array of the chunk.
+     */
+    private Object growChunk(int chunk_num, int chunk_capacity){
+        Object grown = allocator.apply(chunk_capacity);
+        System.arraycopy(chunks[chunk_num], 0, grown, 0, chunk_sizes[chunk_num]);
+        chunks[chunk_num] = grown;
+        return grown;
+    } // growChunk()
+
+
+    /**
+     * Method to insert a chunk of {@code chunk_size} elements, starting at
+     * the index {@code chunk_start}, before the chunk {@code chunk_num}.
+     *
+     * @param nulls
+     *        The NullMask of the chunk, or null for a chunk without nulls.
+     */
+    private void addChunk(int chunk_num, Object chunk, NullMask nulls, int chunk_size, int chunk_start){
+        if(no_of_chunks == chunks.length){
+            chunks = Arrays.copyOf(chunks, no_of_chunks * 2);
+            chunk_sizes = Arrays.copyOf(chunk_sizes, no_of_chunks * 2);
+            chunk_starts = Arrays.copyOf(chunk_starts, no_of_chunks * 2);
+            if(chunk_nulls != null){
+                chunk_nulls = Arrays.copyOf(chunk_nulls, no_of_chunks * 2);
+            }
+        }
+        System.arraycopy(chunks, chunk_num, chunks, chunk_num + 1, no_of_chunks - chunk_num);
+        System.arraycopy(chunk_sizes, chunk_num, chunk_sizes, chunk_num + 1, no_of_chunks - chunk_num);
+        System.arraycopy(chunk_starts, chunk_num, chunk_starts, chunk_num + 1, no_of_chunks - chunk_num);
+        chunks[chunk_num] = chunk;
+        chunk_sizes[chunk_num] = chunk_size;
+        chunk_starts[chunk_num] = chunk_start;
+        if(chunk_nulls != null){
+            System.arraycopy(chunk_nulls, chunk_num, chunk_nulls, chunk_num + 1, no_of_chunks - chunk_num);
+            chunk_nulls[chunk_num] = (nulls == null) ? new NullMask() : nulls;
+        }
+        no_of_chunks++;
+    } // addChunk()
+
+
+    /**
+     * Method to remove a chunk whose elements have already been moved or
+     * removed.
+     */
+    private void removeChunk(int chunk_num){
+        System.arraycopy(chunks, chunk_num + 1, chunks, chunk_num, no_of_chunks - chunk_num - 1);
+        System.arraycopy(chunk_sizes, chunk_num + 1, chunk_sizes, chunk_num, no_of_chunks - chunk_num - 1);
+        System.arraycopy(chunk_starts, chunk_num + 1, chunk_starts, chunk_num, no_of_chunks - chunk_num - 1);
+        if(chunk_nulls != null){
+            System.arraycopy(chunk_nulls, chunk_num + 1, chunk_nulls, chunk_num, no_of_chunks - chunk_num - 1);
+            chunk_nulls[no_of_chunks - 1] = null;
+        }
+        chunks[--no_of_chunks] = null;
+    } // removeChunk()
+
+
+    /**
+     * Method to move the start of every chunk after {@code chunk_num} by
+     * {@code delta} elements.
+     */
+    private void shiftStartsAfter(int chunk_num, int delta){
+        for(int index = chunk_num + 1 ; index < no_of_chunks ; index++){
+            chunk_starts[index] += delta;
+        }
+    } // shiftStartsAfter()
+
+
+    /**
+     * Method to drop the references held by the elements in [from, to) of
+     * an Object array chunk that are no longer used. Primitive arrays are
+     * left as they are.
+     */
+    private static void clearElements(Object chunk, int from, int to){
+        if(chunk instanceof Object[]){
+            Arrays.fill((Object[]) chunk, from, to, null);
+        }
+    } // clearElements()
+} // class
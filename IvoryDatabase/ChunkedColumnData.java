@@ -0,0 +1,261 @@
+package IvoryDatabase;
+
+import java.util.BitSet;
+import java.util.function.IntFunction;
+
+/**
+ * The common implementation of the primitive ColumnData types that keep
+ * their cells in a sequence of fixed-capacity chunks instead of one big
+ * primitive array, as ChunkedList does for references.
+ *
+ * Every chunk is a primitive array of up to {@code CHUNK_CAPACITY} cells
+ * with a NullMask of its own, and the chunks are kept by a ChunkIndex.
+ * Inserting or removing a cell in the middle of the Column only shifts the
+ * cells and the null bits of the chunk that holds it, and appending a cell
+ * never copies the cells that are already stored.
+ *
+ * A ChunkedColumnData created for a number of cells has every chunk full
+ * but the last, so the chunk of a cell is {@code index >>> CHUNK_SHIFT}
+ * until the first insertion or removal. Reads from a file fill the chunks
+ * in this layout, and scans, aggregations and saves go through the cells
+ * chunk by chunk, reading the primitive array of every chunk directly.
+ *
+ * A subclass only gives the allocator of the primitive arrays of its
+ * chunks and converts between their cells and boxed values.
+ */
+abstract class ChunkedColumnData extends PrimitiveColumnData {
+    static final int CHUNK_SHIFT = 12; // log2 of CHUNK_CAPACITY.
+    static final int CHUNK_CAPACITY = 1 << CHUNK_SHIFT; // maximum number of cells in a chunk, the rows of a ZoneMap segment.
+
+    private final ChunkIndex chunks; // the chunks holding the cells and their null bits.
+
+
+    /**
+     * Creating an empty ChunkedColumnData.
+     *
+     * @param allocator
+     *        Creates the primitive array of a chunk of a given capacity.
+     */
+    protected ChunkedColumnData(IntFunction<Object> allocator){
+        this(allocator, 0, new NullMask());
+    } // constructor
+
+
+    /**
+     * Creating a ChunkedColumnData of {@code size} cells holding the
+     * default value of the primitive type, to be filled in chunk by chunk.
+     * Every chunk is full but the last.
+     *
+     * @param allocator
+     *        Creates the primitive array of a chunk of a given capacity.
+     *
+     * @param size
+     *        The number of cells.
+     *
+     * @param nulls
+     *        The NullMask marking the null cells.
+     */
+    protected ChunkedColumnData(IntFunction<Object> allocator, int size, NullMask nulls){
+        super(size);
+        this.chunks = new ChunkIndex(CHUNK_SHIFT, INITIAL_CAPACITY, allocator, true, size);
+        chunks.setNulls(nulls);
+    } // constructor
+
+
+    /**
+     * Creating a copy of {@code other} in which every chunk is full but the
+     * last.
+     *
+     * @param other
+     *        The ChunkedColumnData that is copied.
+     */
+    protected ChunkedColumnData(ChunkedColumnData other){
+        super(other.size);
+        this.chunks = new ChunkIndex(other.chunks);
+    } // constructor
+
+
+    /**
+     * Method to store {@code value} at {@code offset} in the primitive
+     * array {@code chunk}. A null value is stored as the default value of
+     * the primitive type.
+     */
+    protected abstract void store(Object chunk, int offset, Object value);
+
+
+    /**
+     * @return The boxed value stored at {@code offset} in the primitive
+     *         array {@code chunk}.
+     */
+    protected abstract Object load(Object chunk, int offset);
+
+
+    /**
+     * @return The number of chunks.
+     */
+    public int getChunkCount(){
+        return chunks.getChunkCount();
+    } // getChunkCount()
+
+
+    /**
+     * @return The index of the first cell of the chunk {@code chunk_num}.
+     */
+    public int getChunkStart(int chunk_num){
+        return chunks.getChunkStart(chunk_num);
+    } // getChunkStart()
+
+
+    /**
+     * @return The number of cells held by the chunk {@code chunk_num}.
+     */
+    public int getChunkSize(int chunk_num){
+        return chunks.getChunkSize(chunk_num);
+    } // getChunkSize()
+
+
+    /**
+     * @return The primitive array of the chunk {@code chunk_num}, valid up
+     *         to {@code getChunkSize(chunk_num)}. The array is not copied.
+     */
+    public Object getChunk(int chunk_num){
+        return chunks.getChunk(chunk_num);
+    } // getChunk()
+
+
+    /**
+     * @return The NullMask of the chunk {@code chunk_num}, indexed from the
+     *         first cell of the chunk. The NullMask is not copied.
+     */
+    public NullMask getChunkNulls(int chunk_num){
+        return chunks.getChunkNulls(chunk_num);
+    } // getChunkNulls()
+
+
+    /**
+     * @param index
+     *        The index of a cell, or {@code size()}.
+     *
+     * @return The number of the chunk holding the cell at {@code index},
+     *         the last chunk for {@code size()} and 0 if there is no chunk.
+     */
+    public int chunkOf(int index){
+        return chunks.chunkOf(index);
+    } // chunkOf()
+
+
+    /**
+     * The NullMask is assembled from the NullMasks of the chunks.
+     */
+    @Override
+    public NullMask getNulls(){
+        return chunks.getNulls();
+    } // getNulls()
+
+
+    @Override
+    protected boolean isNullCell(int index){
+        return chunks.isNull(index);
+    } // isNullCell()
+
+
+    @Override
+    protected void markNull(int index, boolean is_null){
+        chunks.setNull(index, is_null);
+    } // markNull()
+
+
+    @Override
+    protected long getNullWord(int word){
+        return chunks.getNullWord(word);
+    } // getNullWord()
+
+
+    @Override
+    protected boolean hasNulls(){
+        return chunks.hasNulls();
+    } // hasNulls()
+
+
+    @Override
+    protected void store(int index, Object value){
+        int chunk_num = chunks.chunkOf(index);
+        store(chunks.getChunk(chunk_num), index - chunks.getChunkStart(chunk_num), value);
+    } // store()
+
+
+    @Override
+    protected Object load(int index){
+        int chunk_num = chunks.chunkOf(index);
+        return load(chunks.getChunk(chunk_num), index - chunks.getChunkStart(chunk_num));
+    } // load()
+
+
+    @Override
+    public Object[] toArray(){
+        Object[] output = new Object[size];
+        for(int chunk_num = 0 ; chunk_num < chunks.getChunkCount() ; chunk_num++){
+            Object chunk = chunks.getChunk(chunk_num);
+            NullMask chunk_nulls = chunks.getChunkNulls(chunk_num);
+            int start = chunks.getChunkStart(chunk_num);
+            for(int offset = 0 ; offset < chunks.getChunkSize(chunk_num) ; offset++){
+                output[start + offset] = chunk_nulls.get(offset) ? null : load(chunk, offset);
+            }
+        }
+        return output;
+    } // toArray()
+
+
+    @Override
+    protected void openCell(int index){
+        chunks.open(index);
+    } // openCell()
+
+
+    @Override
+    protected void openCells(int[] positions){
+        chunks.openAll(positions);
+    } // openCells()
+
+
+    @Override
+    protected void closeCell(int index){
+        chunks.close(index);
+    } // closeCell()
+
+
+    @Override
+    protected int closeCells(BitSet rows){
+        return chunks.closeAll(rows);
+    } // closeCells()
+
+
+    /**
+     * Method to copy the cells in their order into {@code values}, a
+     * primitive array of at least {@code size()} cells.
+     */
+    protected void copyCellsTo(Object values){
+        chunks.copyTo(values);
+    } // copyCellsTo()
+
+
+    /**
+     * Method to copy the first {@code size()} cells of {@code values}, a
+     * primitive array, into the chunks of a ChunkedColumnData created for
+     * {@code size()} cells.
+     */
+    protected void copyCellsFrom(Object values){
+        chunks.copyFrom(values);
+    } // copyCellsFrom()
+
+
+    /**
+     * @return The bits of the rows in [from, to) within the word of
+     *         {@code from}, where {@code to} is at most the first row of
+     *         the next word.
+     */
+    protected static long wordMask(int from, int to){
+        long below_to = ((to & 63) == 0) ? -1L : (1L << to) - 1;
+        return (-1L << from) & below_to;
+    } // wordMask()
+} // class
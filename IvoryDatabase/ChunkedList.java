@@ -0,0 +1,176 @@
+package IvoryDatabase;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * A blocked list that stores its elements in a sequence of fixed-capacity
+ * chunks instead of one big array.
+ *
+ * Inserting or removing an element in the middle of the list only shifts
+ * the elements of the chunk that holds it, and appending never copies the
+ * elements that are already stored. The chunks and the index of their
+ * first elements are kept by a ChunkIndex, so positional access is a
+ * lookup of the chunk followed by an array access.
+ *
+ * @param <E> the type of the elements in the list.
+ */
+class ChunkedList<E> extends AbstractList<E> implements RandomAccess {
+    static final int CHUNK_SHIFT = 10; // log2 of CHUNK_CAPACITY.
+    static final int CHUNK_CAPACITY = 1 << CHUNK_SHIFT; // maximum number of elements in a chunk.
+    private static final int INITIAL_CAPACITY = 16; // capacity of the first chunk of an empty list.
+
+    private final ChunkIndex chunks; // the chunks holding the elements.
+
+
+    /**
+     * Creating an empty ChunkedList.
+     */
+    public ChunkedList(){
+        this.chunks = new ChunkIndex(CHUNK_SHIFT, INITIAL_CAPACITY, Object[]::new, false, 0);
+    } // constructor
+
+
+    /**
+     * Creating a ChunkedList holding the elements of {@code values}.
+     *
+     * @param values
+     *        The elements the list is filled with, in iteration order.
+     */
+    public ChunkedList(Collection<? extends E> values){
+        this();
+        for(E value : values){
+            add(value);
+        }
+    } // constructor
+
+
+    /**
+     * Creating a ChunkedList holding the elements of {@code other}. The 
+     * chunks are copied as a whole.
+     *
+     * @param other
+     *        The ChunkedList that is copied.
+     */
+    public ChunkedList(ChunkedList<? extends E> other){
+        this.chunks = new ChunkIndex(other.chunks);
+    } // constructor
+
+
+    @Override
+    public int size(){
+        return chunks.size();
+    } // size()
+
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index){
+        checkIndex(index, chunks.size());
+        int chunk_num = chunks.chunkOf(index);
+        return (E) ((Object[]) chunks.getChunk(chunk_num))[index - chunks.getChunkStart(chunk_num)];
+    } // get()
+
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E set(int index, E value){
+        checkIndex(index, chunks.size());
+        int chunk_num = chunks.chunkOf(index);
+        Object[] chunk = (Object[]) chunks.getChunk(chunk_num);
+        int offset = index - chunks.getChunkStart(chunk_num);
+
+        E old_value = (E) chunk[offset];
+        chunk[offset] = value;
+        return old_value;
+    } // set()
+
+
+    /**
+     * Appending {@code value} to the end of the list. Existing chunks are
+     * never copied, a new chunk is started once the last one is full.
+     */
+    @Override
+    public boolean add(E value){
+        add(chunks.size(), value);
+        return true;
+    } // add()
+
+
+    /**
+     * Inserting {@code value} at {@code index}. Only the elements of a
+     * single chunk are shifted, a full chunk is split in two first.
+     */
+    @Override
+    public void add(int index, E value){
+        checkIndex(index, chunks.size() + 1);
+        int chunk_num = chunks.open(index);
+        ((Object[]) chunks.getChunk(chunk_num))[index - chunks.getChunkStart(chunk_num)] = value;
+        modCount++;
+    } // add()
+
+
+    /**
+     * Inserting a batch of values at once, the value {@code i} at 
+     * {@code positions[i] + i}. Only the chunks receiving values are copied.
+     *
+     * @param positions
+     *        For every value, the number of elements before it, in 
+     *        ascending order.
+     */
+    public void insertAll(int[] positions, E[] values){
+        if(positions.length > 0){
+            checkIndex(positions[positions.length - 1], chunks.size() + 1);
+        }
+        chunks.openAll(positions);
+        for(int index = 0 ; index < values.length ; index++){
+            int element = positions[index] + index;
+            int chunk_num = chunks.chunkOf(element);
+            ((Object[]) chunks.getChunk(chunk_num))[element - chunks.getChunkStart(chunk_num)] = values[index];
+        }
+        modCount++;
+    } // insertAll()
+
+
+    /**
+     * Removing the element at {@code index}. Only the elements of a single
+     * chunk are shifted, and a chunk that runs low is merged with its
+     * neighbour.
+     */
+    @Override
+    public E remove(int index){
+        E old_value = get(index);
+        chunks.close(index);
+        modCount++;
+        return old_value;
+    } // remove()
+
+
+    @Override
+    public void clear(){
+        chunks.clear();
+        modCount++;
+    } // clear()
+
+
+    @Override
+    public Object[] toArray(){
+        Object[] output = new Object[chunks.size()];
+        chunks.copyTo(output);
+        return output;
+    } // toArray()
+
+
+    /* Helper Methods */
+
+    /**
+     * @throws IndexOutOfBoundsException
+     *         if {@code index} is not in the range [0, bound).
+     */
+    private static void checkIndex(int index, int bound){
+        if(index < 0 || index >= bound){
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + bound);
+        }
+    } // checkIndex()
+} // class
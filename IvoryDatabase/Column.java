@@ -1,24 +1,60 @@
 package IvoryDatabase;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
+
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 
 class Column implements java.io.Serializable{
+    /**
+     * The serialVersionUID of the original Column class, kept so that 
+     * Ivory Database files saved by earlier versions can still be opened.
+     */
+    private static final long serialVersionUID = -7097771075062895437L;
+
+    /**
+     * The serialized form of a Column is its name and its cells as an 
+     * ArrayList, as it was before the cells were moved into a ColumnData, 
+     * followed by the ColumnType of the Column. Files saved by earlier 
+     * versions have no ColumnType and their types are inferred on load.
+     * 
+     * A DICTIONARY Column is saved as its dictionary and the codes of its 
+     * cells instead of an ArrayList of Strings.
+     */
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("column_name", String.class),
+        new ObjectStreamField("cells", ArrayList.class),
+        new ObjectStreamField("column_type", ColumnType.class),
+        new ObjectStreamField("type_inferred", boolean.class),
+        new ObjectStreamField("dictionary", String[].class),
+        new ObjectStreamField("codes", int[].class)
+    };
+
     private String column_name; // name of the column.
     /**
-     * Since we do not know the OBJECT TYPE the Column will 
-     * store until it is initialized, we can declare 'cells' 
-     * as a Object ArrayList.
+     * The cells of the Column are held by a ColumnData of the ColumnType 
+     * of the Column. Numeric and boolean cells are kept in chunks of 
+     * primitive arrays, String and Object cells are kept in a ChunkedList.
      * 
-     * Every object class in Java implements the 
-     * 'java.lang.Object'. Therefore, by declaring 'cells' 
-     * as a 'java.lang.Object', it can store objects of 
-     * any class that implements 'java.lang.Object'.
+     * When the ColumnType is not given, the Column starts out as an 
+     * OBJECT Column that is pending a type, and the type is inferred 
+     * from the first value that is not null. If an inferred Column 
+     * later receives a value of a different type, it falls back to 
+     * an OBJECT Column so that no value is ever converted.
      * 
-     * Hence, this gives us the freedom to declare the data 
-     * type of the 'cells' ArrayList at a later time during 
-     * initializing of a Column object. 
+     * The field is volatile because {@code getData()} replaces a lazily 
+     * loaded ColumnData while other readers may be using the Column.
      */
-    private final ArrayList<Object> cells;
+    private transient volatile ColumnData cells;
+    private transient boolean type_inferred; // true if the ColumnType was not chosen when the Column was created.
+    private transient boolean type_pending; // true while an inferred Column has only held null values.
+    private transient ZoneMap zone_map; // the statistics of the segments of the Column.
+    private transient ColumnEncoding encoding = ColumnEncoding.AUTO; // the encoding of the cells in saved files.
+    private transient boolean deflate; // true if the cells are compressed with the Deflater in saved files.
 
 
     /**
@@ -26,8 +62,7 @@ class Column implements java.io.Serializable{
      *        The name of the Column.
      */
     public Column(String col_name){
-        this.column_name = col_name.toUpperCase();
-        this.cells = new ArrayList<>(); // initializing ArrayList()
+        this(col_name, null, 0);
     } // constructor
     
     
@@ -36,11 +71,74 @@ class Column implements java.io.Serializable{
      *        The name of the {@code Column}.
      * 
      * @param size
-     *        The size to set {@code cells} to.
+     *        The size to set {@code cells} to. The cells are null.
      */
     public Column(String col_name, int size){
+        this(col_name, null, size);
+    } // constructor
+
+
+    /**
+     * @param col_name
+     *        The name of the {@code Column}.
+     * 
+     * @param type
+     *        The ColumnType of the {@code Column}, or null if the type 
+     *        should be inferred from the first value.
+     * 
+     * @param size
+     *        The size to set {@code cells} to. The cells are null.
+     */
+    public Column(String col_name, ColumnType type, int size){
+        this.column_name = col_name.toUpperCase();
+        this.type_inferred = (type == null);
+        this.type_pending = type_inferred;
+        this.cells = ColumnData.create(type_inferred ? ColumnType.OBJECT : type);
+        this.zone_map = new ZoneMap();
+
+        // filling the Column with empty cells.
+        for(int index = 0 ; index < size ; index++){
+            cells.add(null);
+        }
+    } // constructor
+    
+
+    /**
+     * Creating a Column around cells that have been loaded from a file.
+     * 
+     * @param col_name
+     *        The name of the {@code Column}.
+     * 
+     * @param cells
+     *        The ColumnData holding the cells.
+     * 
+     * @param type_inferred
+     *        True if the ColumnType was inferred from the values.
+     * 
+     * @param type_pending
+     *        True if the ColumnType is still to be inferred from the first 
+     *        value that is not null.
+     */
+    Column(String col_name, ColumnData cells, boolean type_inferred, boolean type_pending){
+        this(col_name, cells, type_inferred, type_pending, new ZoneMap());
+    } // constructor
+
+
+    /**
+     * Creating a Column around cells and statistics that have been loaded 
+     * from a file.
+     * 
+     * @param zone_map
+     *        The statistics of the segments of the Column.
+     * 
+     * @see #Column(String, ColumnData, boolean, boolean)
+     */
+    Column(String col_name, ColumnData cells, boolean type_inferred, boolean type_pending, ZoneMap zone_map){
         this.column_name = col_name.toUpperCase();
-        this.cells = new ArrayList<>(size); // initializing ArrayList()
+        this.cells = cells;
+        this.type_inferred = type_inferred;
+        this.type_pending = type_pending;
+        this.zone_map = zone_map;
     } // constructor
     
 
@@ -55,7 +153,153 @@ class Column implements java.io.Serializable{
 
 
     /**
-     * Method to get the size of the cells ArrayList.
+     * Method to get the ColumnType of the Column.
+     * 
+     * @return The ColumnType of the values held by the Column.
+     */
+    public ColumnType getType(){
+        return cells.getType();
+    } // getType()
+
+
+    /**
+     * @return True if the ColumnType of the Column was not chosen when the 
+     *         Column was added.
+     */
+    public boolean isTypeInferred(){
+        return type_inferred;
+    } // isTypeInferred()
+
+
+    /**
+     * @return True if the ColumnType of the Column is still to be inferred 
+     *         from the first value that is not null.
+     */
+    public boolean isTypePending(){
+        return type_pending;
+    } // isTypePending()
+
+
+    /**
+     * Method to get the ColumnData holding the cells, for reading the 
+     * cells without boxing them.
+     * 
+     * @return The ColumnData of the Column.
+     */
+    public ColumnData getData(){
+        // a lazily loaded Column is read from its file the first time its cells are needed.
+        if(cells instanceof LazyColumnData){
+            cells = ((LazyColumnData) cells).load();
+        }
+        return cells;
+    } // getData()
+
+
+    /**
+     * @return A copy of the Column that is not affected by later changes
+     *         to it.
+     */
+    Column copy(){
+        Column copy = new Column(column_name, getData().copy(), type_inferred, type_pending, zone_map.copy());
+        copy.setEncoding(encoding, deflate);
+        return copy;
+    } // copy()
+
+
+    /**
+     * @return The ColumnEncoding the cells are saved in.
+     */
+    ColumnEncoding getEncoding(){
+        return encoding;
+    } // getEncoding()
+
+
+    /**
+     * @return True if the cells are compressed with the Deflater when saved.
+     */
+    boolean isDeflated(){
+        return deflate;
+    } // isDeflated()
+
+
+    /**
+     * Method to set how the cells are saved by later SAVEs.
+     * 
+     * @param encoding
+     *        The ColumnEncoding of the cells.
+     * 
+     * @param deflate
+     *        True to compress the encoded cells with the Deflater.
+     */
+    void setEncoding(ColumnEncoding encoding, boolean deflate){
+        this.encoding = encoding;
+        this.deflate = deflate;
+    } // setEncoding()
+
+
+    /**
+     * @return True if the cells are held outside of the heap.
+     */
+    boolean isOffHeap(){
+        return getData() instanceof OffHeapColumnData;
+    } // isOffHeap()
+
+
+    /**
+     * Method to move the cells into a ColumnData outside of the heap, or 
+     * back onto the heap. The values of the cells do not change, so the 
+     * statistics of the segments are kept.
+     * 
+     * @param off_heap
+     *        True to hold the cells outside of the heap, which is 
+     *        supported by {@code OffHeapColumnData.supports()}.
+     */
+    void setOffHeap(boolean off_heap){
+        ColumnData data = getData();
+        if(off_heap == (data instanceof OffHeapColumnData)){
+            return;
+        }
+        if(off_heap){
+            cells = OffHeapColumnData.of(data);
+            return;
+        }
+        ColumnData on_heap = ColumnData.create(data.getType());
+        for(int index = 0 ; index < data.size() ; index++){
+            on_heap.add(data.get(index));
+        }
+        cells = on_heap;
+    } // setOffHeap()
+
+
+    /**
+     * @return The statistics of the segments of the Column, for skipping 
+     *         the segments that cannot match a Condition.
+     */
+    ZoneMap getZoneMap(){
+        return zone_map;
+    } // getZoneMap()
+
+
+    /**
+     * @return An estimate of the heap bytes held by the cells, without 
+     *         reading a memory-mapped Column from its file.
+     */
+    long estimateBytes(){
+        return IvoryMetrics.estimateBytes(cells);
+    } // estimateBytes()
+
+
+    /**
+     * @return The bytes allocated for the cells outside of the heap.
+     */
+    long offHeapBytes(){
+        ColumnData data = cells;
+        return (data instanceof OffHeapColumnData) ? ((OffHeapColumnData) data).offHeapBytes() : 0;
+    } // offHeapBytes()
+
+
+    /**
+     * Method to get the size of the cells.
      * 
      * @return The size of cells.
      */
@@ -64,6 +308,20 @@ class Column implements java.io.Serializable{
     } // getSize()
 
 
+    /**
+     * Method to check if a value can be stored in the Column.
+     * 
+     * @param value
+     *        The value to check.
+     * 
+     * @return True if {@code value} is null, fits the ColumnType of the 
+     *         Column, or the ColumnType of the Column was inferred.
+     */
+    public boolean accepts(Object value){
+        return value == null || type_inferred || cells.accepts(value);
+    } // accepts()
+
+
     /**
      * Method to add values to {@code cells}.
      * 
@@ -71,7 +329,9 @@ class Column implements java.io.Serializable{
      *        The value that is added to {@code cells}.
      */
     public void add(Object value){
+        prepareFor(value);
         cells.add(value);
+        zone_map.appended(cells.size() - 1, value);
     } // add()
 
 
@@ -85,7 +345,15 @@ class Column implements java.io.Serializable{
      *        The value that is added to {@code cells}.
      */
     public void insert(int index, Object value){
-        cells.add(index, value);
+        prepareFor(value);
+        cells.insert(index, value);
+        // inserting before the last row shifts the rows of the later segments.
+        if(index == cells.size() - 1){
+            zone_map.appended(index, value);
+        }
+        else{
+            zone_map.invalidateFrom(index);
+        }
     } // insert()
 
 
@@ -99,10 +367,37 @@ class Column implements java.io.Serializable{
      *        The value that is added to {@code cells}.
      */
     public void set(int index, Object value){
+        prepareFor(value);
+        boolean was_null = cells.isNull(index);
         cells.set(index, value);
+        zone_map.changed(index, was_null, value);
     } // set()
 
 
+    /**
+     * Method to insert a batch of values into {@code cells} at once. The 
+     * cells before the first value stay in place, and the cells after it 
+     * are moved once for the whole batch instead of once for every value.
+     *
+     * @param positions
+     *        For every value of the batch, the number of existing cells
+     *        before it. The positions are in ascending order.
+     *
+     * @param values
+     *        The values of the batch, in the order of {@code positions}.
+     */
+    void merge(int[] positions, Object[] values){
+        if(values.length == 0){
+            return;
+        }
+        for(Object value : values){
+            prepareFor(value);
+        }
+        cells.insertAll(positions, values);
+        zone_map.invalidateFrom(positions[0]);
+    } // merge()
+
+
     /**
      * Method to return the requested value from {@code cells}.
      * 
@@ -127,7 +422,16 @@ class Column implements java.io.Serializable{
      */
     public boolean delete(int index){
         try{
+            boolean was_last = (index == cells.size() - 1);
+            boolean was_null = cells.isNull(index);
             cells.remove(index); 
+            // removing a row before the last row shifts the rows of the later segments.
+            if(was_last){
+                zone_map.removedLast(index, was_null);
+            }
+            else{
+                zone_map.invalidateFrom(index);
+            }
         }
         // if index is out of bounds, an exception is thrown
         catch (Exception e){
@@ -136,16 +440,122 @@ class Column implements java.io.Serializable{
         return true;
     } // delete()
 
+
+    /**
+     * Method to remove the cells of the rows of every set bit of 
+     * {@code rows} in one pass, for the compaction of deleted rows.
+     */
+    void removeAll(BitSet rows){
+        int first = rows.nextSetBit(0);
+        if(first < 0 || first >= cells.size()){
+            return;
+        }
+        getData().removeAll(rows);
+        zone_map.invalidateFrom(first);
+    } // removeAll()
+
+
     /**
      * Method to return {@code cells} as an array.
      * 
-     * @return The ArrayList {@code cells} as an Object array.
+     * @return The cells as an Object array.
      */
     public Object[] toArray(){
         return cells.toArray();
     } // getArray()
 
     public boolean isEmpty(){
-        return cells.isEmpty();
+        return cells.size() == 0;
     }
-} // Attribute class
\ No newline at end of file
+
+
+    /* Helper Methods */
+
+    /**
+     * Method to pick the ColumnData of an inferred Column before 
+     * {@code value} is stored in it.
+     * 
+     * A pending Column takes the ColumnType of the first value that is 
+     * not null, and an inferred Column falls back to OBJECT when 
+     * {@code value} does not fit its ColumnType.
+     */
+    private void prepareFor(Object value){
+        if(value == null || !type_inferred){
+            return;
+        }
+        if(type_pending){
+            convertTo(ColumnType.of(value));
+            type_pending = false;
+        }
+        else if(!cells.accepts(value)){
+            convertTo(ColumnType.OBJECT);
+        }
+    } // prepareFor()
+
+
+    /**
+     * Method to move the cells into a new ColumnData of {@code type}.
+     */
+    private void convertTo(ColumnType type){
+        ColumnData converted = ColumnData.create(type);
+        for(int index = 0 ; index < cells.size() ; index++){
+            converted.add(cells.get(index));
+        }
+        cells = converted;
+        zone_map = new ZoneMap();
+    } // convertTo()
+
+
+    /**
+     * Writing the Column in its serialized form.
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("column_name", column_name);
+        fields.put("column_type", type_pending ? null : cells.getType());
+        fields.put("type_inferred", type_inferred);
+        if(cells instanceof DictionaryColumnData){
+            // saving the dictionary and the codes instead of the Strings.
+            DictionaryColumnData dictionary_cells = (DictionaryColumnData) cells;
+            fields.put("dictionary", dictionary_cells.getDictionary());
+            fields.put("codes", dictionary_cells.getCodes());
+        }
+        else{
+            fields.put("cells", new ArrayList<>(Arrays.asList(cells.toArray())));
+        }
+        out.writeFields();
+    } // writeObject()
+
+
+    /**
+     * Reading a Column from its serialized form and moving its cells 
+     * into a ColumnData.
+     */
+    private void readObject(ObjectInputStream in) 
+        throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        column_name = (String) fields.get("column_name", null);
+        zone_map = new ZoneMap();
+        encoding = ColumnEncoding.AUTO;
+
+        // a Column without a ColumnType infers it from its cells.
+        ColumnType type = (ColumnType) fields.get("column_type", null);
+        type_inferred = (type == null) || fields.get("type_inferred", true);
+        type_pending = (type == null);
+        cells = ColumnData.create(type_pending ? ColumnType.OBJECT : type);
+
+        // a DICTIONARY Column is read from its dictionary and codes.
+        int[] codes = (int[]) fields.get("codes", null);
+        if(codes != null){
+            cells = new DictionaryColumnData((String[]) fields.get("dictionary", null), codes);
+        }
+
+        @SuppressWarnings("unchecked") // the cells are always serialized as an ArrayList<Object>.
+        ArrayList<Object> saved_cells = (ArrayList<Object>) fields.get("cells", null);
+        if(saved_cells != null){
+            for(Object value : saved_cells){
+                add(value);
+            }
+        }
+    } // readObject()
+} // Attribute class
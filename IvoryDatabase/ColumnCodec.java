@@ -0,0 +1,588 @@
+package IvoryDatabase;
+
+import java.io.IOException;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Encoding the values of a Column block in the encodings of ColumnEncoding
+ * other than PLAIN, which is written by IvoryFile.
+ *
+ * INT, LONG, DOUBLE, BOOLEAN and DICTIONARY Columns are written as their
+ * NullMask followed by their values seen as longs: DOUBLE values as their
+ * bits, BOOLEAN values as 0 and 1 and DICTIONARY cells as their codes. The
+ * longs are encoded as
+ *
+ *   RUN_LENGTH          the number of runs, then every run as its value
+ *                       and its length.
+ *   DELTA               per frame of {@code FRAME_SIZE} values, the first
+ *                       value, a bit width and the zigzag encoded
+ *                       differences between neighbouring values packed in
+ *                       that many bits.
+ *   FRAME_OF_REFERENCE  per frame, the smallest value, a bit width and the
+ *                       offsets of the values from the smallest value
+ *                       packed in that many bits.
+ *
+ * STRING Columns are written as
+ *
+ *   RUN_LENGTH          the number of runs, then every run as its String
+ *                       and its length.
+ *   DICTIONARY          the distinct Strings, then the code of every cell
+ *                       as FRAME_OF_REFERENCE, 0 for null cells.
+ */
+final class ColumnCodec {
+    static final int FRAME_SIZE = 1 << 12; // the number of values of a frame of DELTA and FRAME_OF_REFERENCE.
+
+    /**
+     * The values of a Column seen as longs.
+     */
+    private interface Values {
+        long get(int index);
+    } // interface Values
+
+    /**
+     * The receiver of decoded longs.
+     */
+    private interface Sink {
+        void set(int index, long value);
+    } // interface Sink
+
+
+    private ColumnCodec(){
+    } // constructor
+
+
+    /**
+     * Method to pick the encoding a Column block is written in.
+     *
+     * @param data
+     *        The cells of the Column.
+     *
+     * @param encoding
+     *        The encoding chosen for the Column.
+     *
+     * @return {@code encoding} if it fits the ColumnType of the Column, the
+     *         smallest fitting encoding for AUTO, and PLAIN otherwise.
+     */
+    static ColumnEncoding choose(ColumnData data, ColumnEncoding encoding){
+        ColumnType type = data.getType();
+        if(encoding != ColumnEncoding.AUTO){
+            return encoding.fits(type) ? encoding : ColumnEncoding.PLAIN;
+        }
+        if(type == ColumnType.OBJECT){
+            return ColumnEncoding.PLAIN;
+        }
+        if(type == ColumnType.STRING){
+            return smallestStringEncoding(data);
+        }
+
+        // estimating the size of every integral encoding in one pass.
+        Values values = valuesOf(data);
+        int size = data.size();
+        long plain = (long) size * plainWidth(type);
+        long runs = 0;
+        long delta = 0;
+        long frame = 0;
+        for(int frame_from = 0 ; frame_from < size ; frame_from += FRAME_SIZE){
+            int frame_to = Math.min(size, frame_from + FRAME_SIZE);
+            long previous = values.get(frame_from);
+            long min = previous;
+            long max = previous;
+            long delta_bits = 0;
+            if(frame_from == 0){
+                runs = 1;
+            }
+            else if(previous != values.get(frame_from - 1)){
+                runs++;
+            }
+            for(int index = frame_from + 1 ; index < frame_to ; index++){
+                long value = values.get(index);
+                if(value != previous){
+                    runs++;
+                }
+                delta_bits |= zigzag(value - previous);
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+                previous = value;
+            }
+            delta += 9 + packedBytes(frame_to - frame_from - 1, bitWidth(delta_bits));
+            frame += 9 + packedBytes(frame_to - frame_from, bitWidth(max - min));
+        }
+        runs = 4 + runs * 12;
+
+        // the smallest encoding, PLAIN if nothing is smaller.
+        ColumnEncoding smallest = ColumnEncoding.PLAIN;
+        long smallest_size = plain;
+        if(runs < smallest_size){
+            smallest = ColumnEncoding.RUN_LENGTH;
+            smallest_size = runs;
+        }
+        if(delta < smallest_size){
+            smallest = ColumnEncoding.DELTA;
+            smallest_size = delta;
+        }
+        if(frame < smallest_size){
+            smallest = ColumnEncoding.FRAME_OF_REFERENCE;
+        }
+        return smallest;
+    } // choose()
+
+
+    /**
+     * Method to write the values of a Column block in an encoding other
+     * than PLAIN, chosen by {@code choose()}.
+     */
+    static void write(ChannelOutput out, ColumnData data, ColumnEncoding encoding) throws IOException {
+        int size = data.size();
+        if(data.getType() == ColumnType.STRING){
+            if(encoding == ColumnEncoding.RUN_LENGTH){
+                writeStringRuns(out, data);
+            }
+            else{
+                writeStringDictionary(out, data);
+            }
+            return;
+        }
+
+        // the dictionary of a DICTIONARY Column comes before its codes, the NullMask of the others.
+        if(data instanceof DictionaryColumnData){
+            String[] dictionary = ((DictionaryColumnData) data).getDictionary();
+            out.putInt(dictionary.length);
+            for(String value : dictionary){
+                out.putString(value);
+            }
+        }
+        else{
+            IvoryFile.writeNulls(out, ((PrimitiveColumnData) data).getNulls(), size);
+        }
+        writeLongs(out, valuesOf(data), size, encoding);
+    } // write()
+
+
+    /**
+     * Method to read the values of a Column block written by {@code write()}.
+     */
+    static ColumnData read(ChannelInput in, ColumnType type, ColumnEncoding encoding, int size) throws IOException {
+        // a ColumnData created for size cells has every chunk full but the last, so the chunk of a cell is known.
+        int shift = ChunkedColumnData.CHUNK_SHIFT;
+        int mask = ChunkedColumnData.CHUNK_CAPACITY - 1;
+        switch(type){
+            case INT: {
+                IntColumnData data = new IntColumnData(size, IvoryFile.readNulls(in, size));
+                readLongs(in, size, encoding, (index, value) -> data.getChunk(index >>> shift)[index & mask] = (int) value);
+                return data;
+            }
+            case LONG: {
+                LongColumnData data = new LongColumnData(size, IvoryFile.readNulls(in, size));
+                readLongs(in, size, encoding, (index, value) -> data.getChunk(index >>> shift)[index & mask] = value);
+                return data;
+            }
+            case DOUBLE: {
+                DoubleColumnData data = new DoubleColumnData(size, IvoryFile.readNulls(in, size));
+                readLongs(in, size, encoding, (index, value) -> data.getChunk(index >>> shift)[index & mask] = Double.longBitsToDouble(value));
+                return data;
+            }
+            case BOOLEAN: {
+                BooleanColumnData data = new BooleanColumnData(size, IvoryFile.readNulls(in, size));
+                readLongs(in, size, encoding, (index, value) -> data.getChunk(index >>> shift)[index & mask] = (value != 0));
+                return data;
+            }
+            case DICTIONARY: {
+                String[] dictionary = new String[in.getInt()];
+                for(int code = 0 ; code < dictionary.length ; code++){
+                    dictionary[code] = in.getString();
+                }
+                int[] codes = new int[size];
+                readLongs(in, size, encoding, (index, value) -> codes[index] = (int) value);
+                return new DictionaryColumnData(dictionary, codes);
+            }
+            case STRING:
+                return (encoding == ColumnEncoding.RUN_LENGTH) ? readStringRuns(in, size) : readStringDictionary(in, size);
+            default:
+                throw new IOException("A " + type + " Column cannot be read in the " + encoding + " encoding.");
+        }
+    } // read()
+
+
+    /* Longs */
+
+    /**
+     * @return The values of an INT, LONG, DOUBLE, BOOLEAN or DICTIONARY
+     *         Column seen as longs.
+     */
+    private static Values valuesOf(ColumnData data){
+        if(data instanceof OffHeapColumnData){
+            return ((OffHeapColumnData) data)::getBits;
+        }
+        switch(data.getType()){
+            case INT:
+                return ((IntColumnData) data)::getInt;
+            case LONG:
+                return ((LongColumnData) data)::getLong;
+            case DOUBLE: {
+                DoubleColumnData doubles = (DoubleColumnData) data;
+                return index -> Double.doubleToRawLongBits(doubles.getDouble(index));
+            }
+            case BOOLEAN: {
+                BooleanColumnData booleans = (BooleanColumnData) data;
+                return index -> booleans.getBoolean(index) ? 1 : 0;
+            }
+            default:
+                return ((DictionaryColumnData) data)::getCode;
+        }
+    } // valuesOf()
+
+
+    /**
+     * @return The number of bytes of a value of {@code type} in PLAIN.
+     */
+    private static int plainWidth(ColumnType type){
+        switch(type){
+            case LONG:
+            case DOUBLE:
+                return 8;
+            case BOOLEAN:
+                return 1;
+            default:
+                return 4;
+        }
+    } // plainWidth()
+
+
+    /**
+     * Method to write {@code size} longs in RUN_LENGTH, DELTA or FRAME_OF_REFERENCE.
+     */
+    private static void writeLongs(ChannelOutput out, Values values, int size, ColumnEncoding encoding) throws IOException {
+        if(encoding == ColumnEncoding.RUN_LENGTH){
+            // counting the runs before writing them.
+            int run_count = 0;
+            for(int index = 0 ; index < size ; index++){
+                if(index == 0 || values.get(index) != values.get(index - 1)){
+                    run_count++;
+                }
+            }
+            out.putInt(run_count);
+            int run_start = 0;
+            for(int index = 1 ; index <= size ; index++){
+                if(index == size || values.get(index) != values.get(run_start)){
+                    out.putLong(values.get(run_start));
+                    out.putInt(index - run_start);
+                    run_start = index;
+                }
+            }
+            return;
+        }
+
+        long[] frame = new long[FRAME_SIZE];
+        long[] packed = new long[FRAME_SIZE];
+        for(int frame_from = 0 ; frame_from < size ; frame_from += FRAME_SIZE){
+            int count = Math.min(FRAME_SIZE, size - frame_from);
+            long reference;
+            if(encoding == ColumnEncoding.DELTA){
+                // the differences between neighbouring values, after the first value.
+                reference = values.get(frame_from);
+                for(int index = 1 ; index < count ; index++){
+                    frame[index - 1] = zigzag(values.get(frame_from + index) - values.get(frame_from + index - 1));
+                }
+                count--;
+            }
+            else{
+                // the offsets from the smallest value.
+                reference = values.get(frame_from);
+                for(int index = 1 ; index < count ; index++){
+                    reference = Math.min(reference, values.get(frame_from + index));
+                }
+                for(int index = 0 ; index < count ; index++){
+                    frame[index] = values.get(frame_from + index) - reference;
+                }
+            }
+            long bits = 0;
+            for(int index = 0 ; index < count ; index++){
+                bits |= frame[index];
+            }
+            int width = bitWidth(bits);
+            out.putLong(reference);
+            out.putByte(width);
+            int words = pack(frame, count, width, packed);
+            out.putLongs(packed, words);
+        }
+    } // writeLongs()
+
+
+    /**
+     * Method to read {@code size} longs written by {@code writeLongs()}.
+     */
+    private static void readLongs(ChannelInput in, int size, ColumnEncoding encoding, Sink sink) throws IOException {
+        if(encoding == ColumnEncoding.RUN_LENGTH){
+            int run_count = in.getInt();
+            int index = 0;
+            for(int run = 0 ; run < run_count ; run++){
+                long value = in.getLong();
+                int length = in.getInt();
+                if(length < 0 || length > size - index){
+                    throw new IOException("A run of the Column block is longer than the Column.");
+                }
+                for(int end = index + length ; index < end ; index++){
+                    sink.set(index, value);
+                }
+            }
+            if(index != size){
+                throw new IOException("The runs of the Column block do not cover the Column.");
+            }
+            return;
+        }
+
+        long[] frame = new long[FRAME_SIZE];
+        long[] packed = new long[FRAME_SIZE];
+        for(int frame_from = 0 ; frame_from < size ; frame_from += FRAME_SIZE){
+            int count = Math.min(FRAME_SIZE, size - frame_from);
+            long reference = in.getLong();
+            int width = in.getByte();
+            if(width < 0 || width > 64){
+                throw new IOException("Invalid bit width in the Column block: " + width + ".");
+            }
+            if(encoding == ColumnEncoding.DELTA){
+                int words = packedWords(count - 1, width);
+                in.getLongs(packed, words);
+                unpack(packed, count - 1, width, frame);
+                long value = reference;
+                sink.set(frame_from, value);
+                for(int index = 1 ; index < count ; index++){
+                    value += unzigzag(frame[index - 1]);
+                    sink.set(frame_from + index, value);
+                }
+            }
+            else{
+                int words = packedWords(count, width);
+                in.getLongs(packed, words);
+                unpack(packed, count, width, frame);
+                for(int index = 0 ; index < count ; index++){
+                    sink.set(frame_from + index, reference + frame[index]);
+                }
+            }
+        }
+    } // readLongs()
+
+
+    /**
+     * Method to pack the low {@code width} bits of the first {@code count}
+     * values into {@code packed}.
+     *
+     * @return The number of words of {@code packed} that have been filled.
+     */
+    private static int pack(long[] values, int count, int width, long[] packed){
+        int words = packedWords(count, width);
+        Arrays.fill(packed, 0, words, 0L);
+        if(width == 0){
+            return 0;
+        }
+        long bit = 0;
+        for(int index = 0 ; index < count ; index++, bit += width){
+            int word = (int) (bit >>> 6);
+            int shift = (int) (bit & 63);
+            packed[word] |= values[index] << shift;
+            // a value crossing into the next word.
+            if(shift + width > 64){
+                packed[word + 1] |= values[index] >>> (64 - shift);
+            }
+        }
+        return words;
+    } // pack()
+
+
+    /**
+     * Method to unpack {@code count} values of {@code width} bits packed by {@code pack()}.
+     */
+    private static void unpack(long[] packed, int count, int width, long[] values){
+        if(width == 0){
+            Arrays.fill(values, 0, Math.max(0, count), 0L);
+            return;
+        }
+        long mask = (width == 64) ? -1L : (1L << width) - 1;
+        long bit = 0;
+        for(int index = 0 ; index < count ; index++, bit += width){
+            int word = (int) (bit >>> 6);
+            int shift = (int) (bit & 63);
+            long value = packed[word] >>> shift;
+            if(shift + width > 64){
+                value |= packed[word + 1] << (64 - shift);
+            }
+            values[index] = value & mask;
+        }
+    } // unpack()
+
+
+    /**
+     * @return The number of longs holding {@code count} values of {@code width} bits.
+     */
+    private static int packedWords(int count, int width){
+        return (int) (((long) Math.max(0, count) * width + 63) >>> 6);
+    } // packedWords()
+
+
+    /**
+     * @return The number of bytes of {@code count} values of {@code width} bits.
+     */
+    private static long packedBytes(int count, int width){
+        return (long) packedWords(count, width) * 8;
+    } // packedBytes()
+
+
+    /**
+     * @return The number of bits needed to hold {@code bits} as an unsigned number.
+     */
+    private static int bitWidth(long bits){
+        return 64 - Long.numberOfLeadingZeros(bits);
+    } // bitWidth()
+
+
+    /**
+     * @return {@code value} with its sign moved to the lowest bit, so that
+     *         small negative differences have few bits.
+     */
+    private static long zigzag(long value){
+        return (value << 1) ^ (value >> 63);
+    } // zigzag()
+
+
+    /**
+     * @return The value encoded by {@code zigzag()}.
+     */
+    private static long unzigzag(long value){
+        return (value >>> 1) ^ -(value & 1);
+    } // unzigzag()
+
+
+    /* Strings */
+
+    /**
+     * @return RUN_LENGTH, DICTIONARY or PLAIN for a STRING Column,
+     *         whichever is estimated to be the smallest.
+     */
+    private static ColumnEncoding smallestStringEncoding(ColumnData data){
+        int size = data.size();
+        long plain = 0;
+        long runs = 4;
+        long distinct_bytes = 4;
+        HashMap<String, Integer> codes = new HashMap<>();
+        String previous = null;
+        for(int index = 0 ; index < size ; index++){
+            String value = (String) data.get(index);
+            int bytes = 4 + ((value == null) ? 0 : value.length());
+            plain += bytes;
+            if(index == 0 || !Objects.equals(value, previous)){
+                runs += bytes + 4;
+            }
+            if(value != null && codes.putIfAbsent(value, codes.size() + 1) == null){
+                distinct_bytes += bytes;
+            }
+            previous = value;
+        }
+        long dictionary = distinct_bytes + packedBytes(size, bitWidth(codes.size())) + 9L * ((size + FRAME_SIZE - 1) / FRAME_SIZE);
+
+        // the smallest encoding, PLAIN if nothing is smaller.
+        if(runs < plain && runs <= dictionary){
+            return ColumnEncoding.RUN_LENGTH;
+        }
+        return (dictionary < plain) ? ColumnEncoding.DICTIONARY : ColumnEncoding.PLAIN;
+    } // smallestStringEncoding()
+
+
+    /**
+     * Method to write a STRING Column in RUN_LENGTH.
+     */
+    private static void writeStringRuns(ChannelOutput out, ColumnData data) throws IOException {
+        int size = data.size();
+        int run_count = 0;
+        for(int index = 0 ; index < size ; index++){
+            if(index == 0 || !Objects.equals(data.get(index), data.get(index - 1))){
+                run_count++;
+            }
+        }
+        out.putInt(run_count);
+        int run_start = 0;
+        for(int index = 1 ; index <= size ; index++){
+            if(index == size || !Objects.equals(data.get(index), data.get(run_start))){
+                out.putString((String) data.get(run_start));
+                out.putInt(index - run_start);
+                run_start = index;
+            }
+        }
+    } // writeStringRuns()
+
+
+    /**
+     * Method to read a STRING Column written by {@code writeStringRuns()}.
+     */
+    private static ColumnData readStringRuns(ChannelInput in, int size) throws IOException {
+        ColumnData data = ColumnData.create(ColumnType.STRING);
+        int run_count = in.getInt();
+        for(int run = 0 ; run < run_count ; run++){
+            String value = in.getString();
+            int length = in.getInt();
+            if(length < 0 || length > size - data.size()){
+                throw new IOException("A run of the Column block is longer than the Column.");
+            }
+            for(int count = 0 ; count < length ; count++){
+                data.add(value);
+            }
+        }
+        if(data.size() != size){
+            throw new IOException("The runs of the Column block do not cover the Column.");
+        }
+        return data;
+    } // readStringRuns()
+
+
+    /**
+     * Method to write a STRING Column in DICTIONARY.
+     */
+    private static void writeStringDictionary(ChannelOutput out, ColumnData data) throws IOException {
+        int size = data.size();
+        HashMap<String, Integer> code_of = new HashMap<>();
+        int[] codes = new int[size];
+        for(int index = 0 ; index < size ; index++){
+            String value = (String) data.get(index);
+            if(value != null){
+                Integer code = code_of.putIfAbsent(value, code_of.size() + 1);
+                codes[index] = (code == null) ? code_of.size() : code;
+            }
+        }
+        String[] dictionary = new String[code_of.size()];
+        for(Map.Entry<String, Integer> entry : code_of.entrySet()){
+            dictionary[entry.getValue() - 1] = entry.getKey();
+        }
+        out.putInt(dictionary.length);
+        for(String value : dictionary){
+            out.putString(value);
+        }
+        writeLongs(out, index -> codes[index], size, ColumnEncoding.FRAME_OF_REFERENCE);
+    } // writeStringDictionary()
+
+
+    /**
+     * Method to read a STRING Column written by {@code writeStringDictionary()}.
+     */
+    private static ColumnData readStringDictionary(ChannelInput in, int size) throws IOException {
+        String[] dictionary = new String[in.getInt()];
+        for(int code = 0 ; code < dictionary.length ; code++){
+            dictionary[code] = in.getString();
+        }
+        ColumnData data = ColumnData.create(ColumnType.STRING);
+        IOException[] invalid = new IOException[1];
+        readLongs(in, size, ColumnEncoding.FRAME_OF_REFERENCE, (index, code) -> {
+            if(code < 0 || code > dictionary.length){
+                invalid[0] = new IOException("Invalid dictionary code in the Column block: " + code + ".");
+                code = 0;
+            }
+            data.add((code == 0) ? null : dictionary[(int) code - 1]);
+        });
+        if(invalid[0] != null){
+            throw invalid[0];
+        }
+        return data;
+    } // readStringDictionary()
+} // class
@@ -0,0 +1,203 @@
+package IvoryDatabase;
+
+import java.util.BitSet;
+import java.util.Objects;
+
+/**
+ * The storage of the cells of a Column.
+ * 
+ * Every ColumnType has its own implementation, so that numeric and boolean 
+ * cells can be kept in chunks of primitive arrays instead of an {@code ArrayList<Object>}.
+ * Every implementation can hold null cells.
+ */
+interface ColumnData {
+
+    /**
+     * @return The ColumnType of the values held by this ColumnData.
+     */
+    ColumnType getType();
+
+
+    /**
+     * @return The number of cells.
+     */
+    int size();
+
+
+    /**
+     * @param value
+     *        The value to check.
+     * 
+     * @return True if {@code value} can be stored in this ColumnData. 
+     *         Null is always accepted.
+     */
+    boolean accepts(Object value);
+
+
+    /**
+     * @param index
+     *        The index of the cell.
+     * 
+     * @return The value of the cell at {@code index}, or null.
+     */
+    Object get(int index);
+
+
+    /**
+     * @param index
+     *        The index of the cell.
+     * 
+     * @return True if the cell at {@code index} is null.
+     */
+    boolean isNull(int index);
+
+
+    /**
+     * Method to change the value of the cell at {@code index}.
+     * 
+     * @throws IllegalArgumentException
+     *         if {@code value} is not accepted.
+     */
+    void set(int index, Object value);
+
+
+    /**
+     * Method to append a cell holding {@code value}.
+     * 
+     * @throws IllegalArgumentException
+     *         if {@code value} is not accepted.
+     */
+    void add(Object value);
+
+
+    /**
+     * Method to insert a cell holding {@code value} at {@code index}.
+     * 
+     * @throws IllegalArgumentException
+     *         if {@code value} is not accepted.
+     */
+    void insert(int index, Object value);
+
+
+    /**
+     * Method to insert a batch of values at once, the value {@code i} at 
+     * {@code positions[i] + i}. The values are inserted one by one, an 
+     * implementation moving the cells in one pass overrides this.
+     * 
+     * @param positions
+     *        For every value, the number of existing cells before it. The 
+     *        positions are in ascending order.
+     * 
+     * @param values
+     *        The values, in the order of {@code positions}.
+     * 
+     * @throws IllegalArgumentException
+     *         if a value is not accepted.
+     */
+    default void insertAll(int[] positions, Object[] values){
+        for(int index = 0 ; index < values.length ; index++){
+            insert(positions[index] + index, values[index]);
+        }
+    } // insertAll()
+
+
+    /**
+     * Method to remove the cell at {@code index}.
+     */
+    void remove(int index);
+
+
+    /**
+     * Method to remove the cells of every set bit of {@code rows} in one 
+     * pass, moving the remaining cells down in their order.
+     * 
+     * @param rows
+     *        One bit per cell, set for the cells to be removed.
+     */
+    void removeAll(BitSet rows);
+
+
+    /**
+     * @return The values of all cells as an Object array.
+     */
+    Object[] toArray();
+
+
+    /**
+     * @return A copy of this ColumnData that is not affected by later 
+     *         changes to it, such as a snapshot that is saved in the background.
+     */
+    ColumnData copy();
+
+
+    /**
+     * Method to find the cells equal to {@code value}.
+     * 
+     * @param value
+     *        The value the cells are compared to.
+     * 
+     * @param matches
+     *        The bit of every row whose cell equals {@code value} is set.
+     */
+    default void findEqual(Object value, BitSet matches){
+        for(int index = 0 ; index < size() ; index++){
+            if(Objects.equals(value, get(index))){
+                matches.set(index);
+            }
+        }
+    } // findEqual()
+
+
+    /**
+     * Method to clear the bits of the rows in [from, to) whose cells do not 
+     * match {@code condition}. Only the rows that are still selected are 
+     * tested.
+     * 
+     * @param condition
+     *        The Condition on this ColumnData.
+     * 
+     * @param from
+     *        The first row, a multiple of 64.
+     * 
+     * @param to
+     *        The end of the rows, a multiple of 64 or the number of cells.
+     * 
+     * @param selection
+     *        One bit per row, set for the selected rows. The words of the 
+     *        rows in [from, to) are only changed by this call.
+     */
+    default void filter(Condition condition, int from, int to, long[] selection){
+        for(int word = from >>> 6 ; (word << 6) < to ; word++){
+            long bits = selection[word];
+            int base = word << 6;
+            for(long remaining = bits ; remaining != 0 ; remaining &= remaining - 1){
+                int bit = Long.numberOfTrailingZeros(remaining);
+                if(!condition.test(get(base + bit))){
+                    bits &= ~(1L << bit);
+                }
+            }
+            selection[word] = bits;
+        }
+    } // filter()
+
+
+    /**
+     * Method to create an empty ColumnData for a ColumnType.
+     * 
+     * @param type
+     *        The ColumnType of the new ColumnData.
+     * 
+     * @return An empty ColumnData holding values of {@code type}.
+     */
+    static ColumnData create(ColumnType type){
+        switch(type){
+            case INT: return new IntColumnData();
+            case LONG: return new LongColumnData();
+            case DOUBLE: return new DoubleColumnData();
+            case BOOLEAN: return new BooleanColumnData();
+            case STRING: return new StringColumnData();
+            case DICTIONARY: return new DictionaryColumnData();
+            default: return new ObjectColumnData();
+        }
+    } // create()
+} // interface
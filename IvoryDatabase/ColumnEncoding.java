@@ -0,0 +1,42 @@
+package IvoryDatabase;
+
+/**
+ * The encodings of the cells of a Column in a saved Ivory Database file.
+ *
+ * The encoding of a Column is chosen with {@code SET_COLUMN_ENCODING()} and
+ * used by every later SAVE. An encoding that does not fit the ColumnType of
+ * a Column is saved as PLAIN. Any encoding can in addition be compressed
+ * with the Deflater of the JDK.
+ */
+public enum ColumnEncoding {
+    AUTO,               // the smallest of the encodings fitting the values, chosen on every SAVE.
+    PLAIN,              // every value as it is held in memory.
+    RUN_LENGTH,         // every run of equal values as the value and the length of the run.
+    DELTA,              // INT, LONG, DOUBLE, BOOLEAN and DICTIONARY: the differences between neighbouring values, bit-packed.
+    FRAME_OF_REFERENCE, // INT, LONG, DOUBLE, BOOLEAN and DICTIONARY: the offsets from the smallest value of a frame, bit-packed.
+    DICTIONARY;         // STRING: the distinct Strings once, and a bit-packed code per cell.
+
+
+    /**
+     * Method to check if an encoding fits a ColumnType.
+     *
+     * @param type
+     *        The ColumnType of a Column.
+     *
+     * @return True if the cells of a Column of {@code type} can be saved in
+     *         this encoding.
+     */
+    public boolean fits(ColumnType type){
+        switch(this){
+            case AUTO:
+            case PLAIN:
+                return true;
+            case RUN_LENGTH:
+                return type != ColumnType.OBJECT;
+            case DICTIONARY:
+                return type == ColumnType.STRING;
+            default:
+                return type != ColumnType.STRING && type != ColumnType.OBJECT;
+        }
+    } // fits()
+} // enum
@@ -0,0 +1,531 @@
+package IvoryDatabase;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * A secondary index on a Column of an Ivory Database.
+ *
+ * The index maps every value of the Column to the IDs of the rows holding
+ * it. IDs are kept instead of row numbers, because inserting or deleting a
+ * row moves every row after it while its ID stays the same. A HASH index
+ * keeps the values in a HashMap, an ORDERED index keeps them in a TreeMap
+ * so that the values of a range can be found as well. Values of an ORDERED
+ * index that are not Comparable are kept apart and never lie in a range.
+ *
+ * Persistent indexes are saved in a file next to the Database file. The
+ * file starts with the magic number "IVIX", the index file version and the
+ * header checksum of the Database file it belongs to, followed by the
+ * Column name and IndexType of every index and then the values and IDs of
+ * every index. It ends with the CRC32 of its contents. When the Database
+ * file has been written again without the index file, the checksums no
+ * longer match and the indexes are rebuilt from their Columns.
+ */
+final class ColumnIndex {
+    static final String file_extension = ".idx"; // appended to the name of the Database file.
+
+    private static final int MAGIC = 0x58495649; // "IVIX" read as a little-endian int.
+    private static final int VERSION = 1; // the version of the index file format.
+
+    /**
+     * The order of the values of an ORDERED index. Values of the same class
+     * are compared by their natural order, values of different classes, as
+     * they can be in an OBJECT Column, by the names of their classes.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"}) // the values are Comparable and of the same class.
+    static final Comparator<Object> ORDER = (first, second) -> {
+        if(first.getClass() == second.getClass()){
+            return ((Comparable) first).compareTo(second);
+        }
+        return first.getClass().getName().compareTo(second.getClass().getName());
+    };
+
+    static final Object NO_MATCH = new Object(); // the key of a value that no cell of a Column can hold.
+
+    private final Column column; // the indexed Column.
+    private final IndexType type; // the kind of the index.
+    private final boolean persistent; // true if the index is saved next to the Database file.
+    private final Map<Object, Object> entries; // every value that is not null, mapped to its ID or a HashSet of its IDs.
+    private final HashMap<Object, Object> unordered = new HashMap<>(); // the values of an ORDERED index that are not Comparable.
+    private final HashSet<String> null_ids = new HashSet<>(); // the IDs of the null cells.
+
+
+    /**
+     * Creating an empty index on {@code column}.
+     *
+     * @param column
+     *        The Column to be indexed.
+     *
+     * @param type
+     *        The kind of the index.
+     *
+     * @param persistent
+     *        True if the index is saved next to the Database file.
+     */
+    ColumnIndex(Column column, IndexType type, boolean persistent){
+        this.column = column;
+        this.type = type;
+        this.persistent = persistent;
+        this.entries = (type == IndexType.ORDERED) ? new TreeMap<>(ORDER) : new HashMap<>();
+    } // constructor
+
+
+    /**
+     * @return The indexed Column.
+     */
+    Column getColumn(){
+        return column;
+    } // getColumn()
+
+
+    /**
+     * @return The kind of the index.
+     */
+    IndexType getType(){
+        return type;
+    } // getType()
+
+
+    /**
+     * @return True if the index is saved next to the Database file.
+     */
+    boolean isPersistent(){
+        return persistent;
+    } // isPersistent()
+
+
+    /**
+     * Method to add every row of the Column to the index.
+     *
+     * @param id_column
+     *        The ID Column of the Database.
+     *
+     * @param no_of_rows
+     *        The number of rows of the Database.
+     */
+    void build(Column id_column, int no_of_rows){
+        for(int row = 0 ; row < no_of_rows ; row++){
+            add(column.get(row), (String) id_column.get(row));
+        }
+    } // build()
+
+
+    /**
+     * Method to record that the row {@code id} holds {@code value}.
+     *
+     * @param value
+     *        The value of the row, as returned by the Column.
+     */
+    void add(Object value, String id){
+        if(value == null){
+            null_ids.add(id);
+            return;
+        }
+        mapOf(value).merge(value, id, (ids, new_id) -> {
+            // a value held by several rows keeps its IDs in a HashSet.
+            if(ids instanceof String){
+                if(ids.equals(new_id)){
+                    return ids;
+                }
+                HashSet<String> id_set = new HashSet<>();
+                id_set.add((String) ids);
+                id_set.add((String) new_id);
+                return id_set;
+            }
+            idSet(ids).add((String) new_id);
+            return ids;
+        });
+    } // add()
+
+
+    /**
+     * Method to record that the row {@code id} no longer holds {@code value}.
+     *
+     * @param value
+     *        The value the row held, as returned by the Column.
+     */
+    void remove(Object value, String id){
+        if(value == null){
+            null_ids.remove(id);
+            return;
+        }
+        mapOf(value).computeIfPresent(value, (key, ids) -> {
+            if(ids instanceof String){
+                return ids.equals(id) ? null : ids;
+            }
+            HashSet<String> id_set = idSet(ids);
+            id_set.remove(id);
+            // a value left with one row keeps its ID without a HashSet.
+            return (id_set.size() == 1) ? id_set.iterator().next() : id_set;
+        });
+    } // remove()
+
+
+    /**
+     * Method to find the rows of the Column that hold {@code value}.
+     *
+     * @param value
+     *        The value to search for, null finds the empty cells.
+     *
+     * @param ids
+     *        The IDs of the matching rows are added to it, in no particular order.
+     */
+    void find(Object value, Collection<String> ids){
+        Object key = keyOf(column.getType(), value);
+        if(key == NO_MATCH){
+            return;
+        }
+        if(key == null){
+            ids.addAll(null_ids);
+            return;
+        }
+        addIds(mapOf(key).get(key), ids);
+    } // find()
+
+
+    /**
+     * Method to find the rows of the Column whose values lie in a range,
+     * for an ORDERED index.
+     *
+     * @param from_value
+     *        The first value of the range, inclusive. Null starts the range
+     *        at the smallest value.
+     *
+     * @param to_value
+     *        The end of the range, exclusive. Null ends the range at the
+     *        largest value.
+     *
+     * @param ids
+     *        The IDs of the matching rows are added to it, in no particular order.
+     */
+    void findRange(Object from_value, Object to_value, Collection<String> ids){
+        Object from_key = keyOf(column.getType(), from_value);
+        Object to_key = keyOf(column.getType(), to_value);
+        if(!isBound(from_key) || !isBound(to_key)){
+            return;
+        }
+        NavigableMap<Object, Object> range = (NavigableMap<Object, Object>) entries;
+        if(from_key != null && to_key != null){
+            if(ORDER.compare(from_key, to_key) >= 0){
+                return;
+            }
+            range = range.subMap(from_key, true, to_key, false);
+        }
+        else if(from_key != null){
+            range = range.tailMap(from_key, true);
+        }
+        else if(to_key != null){
+            range = range.headMap(to_key, false);
+        }
+        for(Object id_holder : range.values()){
+            addIds(id_holder, ids);
+        }
+    } // findRange()
+
+
+    /**
+     * Method to convert a value into the form a Column of {@code type}
+     * returns it in, so that it equals the values of the matching cells.
+     *
+     * @return The converted value, null for null, or {@code NO_MATCH} if
+     *         no cell of a Column of {@code type} can hold the value.
+     */
+    static Object keyOf(ColumnType type, Object value){
+        if(value == null){
+            return null;
+        }
+        switch(type){
+            case INT:
+                return (value instanceof Integer || value instanceof Short || value instanceof Byte)
+                    ? (Object) ((Number) value).intValue() : NO_MATCH;
+            case LONG:
+                return (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)
+                    ? (Object) ((Number) value).longValue() : NO_MATCH;
+            case DOUBLE:
+                return (value instanceof Number) ? (Object) ((Number) value).doubleValue() : NO_MATCH;
+            case BOOLEAN:
+                return (value instanceof Boolean) ? value : NO_MATCH;
+            case STRING:
+            case DICTIONARY:
+                return (value instanceof String) ? value : NO_MATCH;
+            default:
+                return value;
+        }
+    } // keyOf()
+
+
+    /**
+     * @param value
+     *        A value of a Column.
+     *
+     * @param from_key
+     *        The first value of the range as returned by {@code keyOf()}, or null.
+     *
+     * @param to_key
+     *        The end of the range as returned by {@code keyOf()}, or null.
+     *
+     * @return True if {@code value} lies in the range [from_key, to_key).
+     */
+    static boolean inRange(Object value, Object from_key, Object to_key){
+        return value instanceof Comparable
+            && (from_key == null || ORDER.compare(value, from_key) >= 0)
+            && (to_key == null || ORDER.compare(value, to_key) < 0);
+    } // inRange()
+
+
+    /**
+     * @return True if a key returned by {@code keyOf()} can bound a range.
+     */
+    static boolean isBound(Object key){
+        return key == null || (key != NO_MATCH && key instanceof Comparable);
+    } // isBound()
+
+
+    /* Index File */
+
+    /**
+     * @param database_file
+     *        The file of an Ivory Database.
+     *
+     * @return The index file of {@code database_file}.
+     */
+    static File indexFileOf(File database_file){
+        return new File(database_file.getPath() + file_extension);
+    } // indexFileOf()
+
+
+    /**
+     * Method to write indexes to an index file. The indexes are written to
+     * a temporary file which then replaces {@code file} atomically.
+     *
+     * @param file
+     *        The index file.
+     *
+     * @param indexes
+     *        The indexes to be saved.
+     *
+     * @param checksum
+     *        The header checksum of the Database file the indexes belong to.
+     */
+    static void write(File file, Collection<ColumnIndex> indexes, int checksum) throws IOException {
+        File temp_file = new File(file.getPath() + ".tmp");
+        boolean written = false;
+        try{
+            try (FileChannel channel = FileChannel.open(temp_file.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+                ChannelOutput out = new ChannelOutput(channel, IvoryFile.BUFFER_SIZE);
+                out.startChecksum();
+                out.putInt(MAGIC);
+                out.putInt(VERSION);
+                out.putInt(checksum);
+
+                // the definitions of the indexes come first, so they can be read without the values.
+                out.putInt(indexes.size());
+                for(ColumnIndex index : indexes){
+                    out.putString(index.column.getName());
+                    out.putString(index.type.name());
+                }
+
+                // writing the values and IDs of every index.
+                for(ColumnIndex index : indexes){
+                    writeIds(out, index.null_ids);
+                    out.putInt(index.entries.size() + index.unordered.size());
+                    for(Map<Object, Object> map : List.of(index.entries, index.unordered)){
+                        for(Map.Entry<Object, Object> entry : map.entrySet()){
+                            IvoryFile.writeTaggedValue(out, entry.getKey());
+                            ArrayList<String> ids = new ArrayList<>();
+                            addIds(entry.getValue(), ids);
+                            writeIds(out, ids);
+                        }
+                    }
+                }
+                out.putInt(out.getChecksum());
+                out.flush();
+                out.release();
+                channel.force(true);
+            }
+            IvoryFile.replaceFile(temp_file, file);
+            written = true;
+        }
+        finally{
+            // an incomplete temporary file is never read.
+            if(!written){
+                temp_file.delete();
+            }
+        }
+    } // write()
+
+
+    /**
+     * Method to read the indexes saved in an index file.
+     *
+     * @param file
+     *        The index file.
+     *
+     * @param columns
+     *        The Columns of the Database, the ID Column first.
+     *
+     * @param no_of_rows
+     *        The number of rows of the Database.
+     *
+     * @param checksum
+     *        The header checksum of the Database file, 0 if it has none.
+     *
+     * @param rebuild
+     *        True if indexes that do not belong to the Database file are
+     *        rebuilt from their Columns, false if they are left out.
+     *
+     * @return The indexes of the Columns that still exist.
+     *
+     * @throws IOException
+     *         if the file is not an Ivory Database index file.
+     */
+    static ArrayList<ColumnIndex> read(File file, List<Column> columns, int no_of_rows, int checksum, boolean rebuild)
+        throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+            ChannelInput in = new ChannelInput(channel, IvoryFile.BUFFER_SIZE);
+            in.startChecksum();
+            if(in.getInt() != MAGIC || in.getInt() != VERSION){
+                throw new IOException("Not an Ivory Database index file: " + file.getName() + ".");
+            }
+            int saved_checksum = in.getInt();
+
+            // reading the definitions, an index whose Column no longer exists is skipped.
+            String[] column_names = new String[in.getInt()];
+            IndexType[] types = new IndexType[column_names.length];
+            for(int index_num = 0 ; index_num < column_names.length ; index_num++){
+                column_names[index_num] = in.getString();
+                types[index_num] = IndexType.valueOf(in.getString());
+            }
+            ColumnIndex[] indexes = new ColumnIndex[column_names.length];
+            for(int index_num = 0 ; index_num < indexes.length ; index_num++){
+                for(int col_num = 1 ; col_num < columns.size() ; col_num++){
+                    if(columns.get(col_num).getName().equals(column_names[index_num])){
+                        indexes[index_num] = new ColumnIndex(columns.get(col_num), types[index_num], true);
+                    }
+                }
+            }
+
+            // the values are only read if they belong to the Database file.
+            boolean loaded = false;
+            if(checksum != 0 && saved_checksum == checksum){
+                try{
+                    for(ColumnIndex index : indexes){
+                        for(String id : readIds(in)){
+                            if(index != null){
+                                index.null_ids.add(id);
+                            }
+                        }
+                        int no_of_values = in.getInt();
+                        for(int value_num = 0 ; value_num < no_of_values ; value_num++){
+                            Object value = IvoryFile.readTaggedValue(in);
+                            for(String id : readIds(in)){
+                                if(index != null){
+                                    index.add(value, id);
+                                }
+                            }
+                        }
+                    }
+                    loaded = (in.getChecksum() == in.getInt());
+                }
+                catch (EOFException e){
+                    // a cut off index file is rebuilt like a stale one.
+                }
+            }
+            in.release();
+
+            ArrayList<ColumnIndex> output = new ArrayList<>();
+            for(ColumnIndex index : indexes){
+                if(index == null){
+                    continue;
+                }
+                if(!loaded){
+                    if(!rebuild){
+                        continue;
+                    }
+                    index = new ColumnIndex(index.column, index.type, true);
+                    index.build(columns.get(0), no_of_rows);
+                }
+                output.add(index);
+            }
+            return output;
+        }
+    } // read()
+
+
+    /* Helper Methods */
+
+    /**
+     * @return The map holding {@code value}.
+     */
+    private Map<Object, Object> mapOf(Object value){
+        return (type == IndexType.ORDERED && !(value instanceof Comparable)) ? unordered : entries;
+    } // mapOf()
+
+
+    /**
+     * @return The HashSet holding the IDs of a value held by several rows.
+     */
+    @SuppressWarnings("unchecked") // a value maps to a String or a HashSet<String>.
+    private static HashSet<String> idSet(Object ids){
+        return (HashSet<String>) ids;
+    } // idSet()
+
+
+    /**
+     * Method to add the IDs held for a value to {@code ids}.
+     */
+    private static void addIds(Object id_holder, Collection<String> ids){
+        if(id_holder instanceof String){
+            ids.add((String) id_holder);
+        }
+        else if(id_holder != null){
+            ids.addAll(idSet(id_holder));
+        }
+    } // addIds()
+
+
+    /**
+     * Method to write a count followed by the IDs.
+     */
+    private static void writeIds(ChannelOutput out, Collection<String> ids) throws IOException {
+        out.putInt(ids.size());
+        for(String id : ids){
+            out.putString(id);
+        }
+    } // writeIds()
+
+
+    /**
+     * Method to read IDs written by {@code writeIds()}.
+     */
+    private static List<String> readIds(ChannelInput in) throws IOException {
+        int count = in.getInt();
+        if(count < 0){
+            throw new IOException("The Ivory Database index file is corrupted.");
+        }
+        if(count == 0){
+            return Collections.emptyList();
+        }
+        ArrayList<String> ids = new ArrayList<>(Math.min(count, 1 << 16));
+        for(int id_num = 0 ; id_num < count ; id_num++){
+            ids.add(in.getString());
+        }
+        return ids;
+    } // readIds()
+} // class
@@ -0,0 +1,41 @@
+package IvoryDatabase;
+
+/**
+ * The data types a Column of an Ivory Database can hold.
+ * 
+ * The type of a Column is either chosen when the Column is added with 
+ * {@code ADD_COLUMN(String, ColumnType)}, or inferred from the first value 
+ * stored in it. Numeric and boolean Columns keep their cells in primitive 
+ * arrays instead of boxed objects.
+ * 
+ * DICTIONARY is never inferred. It is meant for String Columns with few 
+ * distinct values, and has to be chosen when the Column is added.
+ */
+public enum ColumnType {
+    INT,     // cells are stored in an int[].
+    LONG,    // cells are stored in a long[].
+    DOUBLE,  // cells are stored in a double[].
+    BOOLEAN, // cells are stored in a boolean[].
+    STRING,  // cells are String references.
+    DICTIONARY, // cells are Strings stored as int codes into a dictionary of the distinct values.
+    OBJECT;  // cells are references to objects of any class.
+
+
+    /**
+     * Method to infer the ColumnType of a value.
+     * 
+     * @param value
+     *        The value whose type is inferred.
+     * 
+     * @return The ColumnType that stores {@code value} without converting it.
+     *         OBJECT if {@code value} is null or of any other class.
+     */
+    public static ColumnType of(Object value){
+        if(value instanceof Integer) return INT;
+        if(value instanceof Long) return LONG;
+        if(value instanceof Double) return DOUBLE;
+        if(value instanceof Boolean) return BOOLEAN;
+        if(value instanceof String) return STRING;
+        return OBJECT;
+    } // of()
+} // enum
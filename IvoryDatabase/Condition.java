@@ -0,0 +1,519 @@
+package IvoryDatabase;
+
+import java.util.Arrays;
+
+/**
+ * A condition on the values of a Column, for {@code WHERE()} and {@code SELECT()}.
+ *
+ * Conditions are created by the static methods of this class, for example
+ * {@code Condition.greaterThan("AMOUNT", 100)}. Numbers are compared by
+ * their numeric value, whatever their class, Strings alphabetically and
+ * other values by their natural order if they are of the same class. A
+ * null cell only matches {@code isNull()}, and a value that cannot be
+ * compared with the operand of a condition only matches {@code notEqual()}.
+ *
+ * A condition is evaluated one Column at a time: the ColumnData of the
+ * Column turns it into bounds on its primitive values, so that the cells
+ * are compared without boxing them.
+ */
+public final class Condition {
+    /**
+     * The operators of a Condition.
+     */
+    enum Operator {
+        EQUAL, NOT_EQUAL, LESS, LESS_OR_EQUAL, GREATER, GREATER_OR_EQUAL, BETWEEN, IN, IS_NULL, NOT_NULL
+    } // enum Operator
+
+    static final int INCOMPARABLE = Integer.MIN_VALUE; // returned by compare() for values that cannot be compared.
+
+    private static final long[] EMPTY_RANGE = {1, 0}; // integral bounds no value lies in.
+
+    private final String column_name; // the name of the Column the Condition is on.
+    private final Operator operator; // the operator of the Condition.
+    private final Object[] operands; // the values the cells are compared to.
+
+
+    private Condition(String column_name, Operator operator, Object... operands){
+        if(column_name == null){
+            throw new IllegalArgumentException("The Column of a Condition cannot be null.");
+        }
+        this.column_name = column_name;
+        this.operator = operator;
+        this.operands = operands;
+    } // constructor
+
+
+    /**
+     * @return A Condition matching the cells equal to {@code value}. A null
+     *         value matches the null cells.
+     */
+    public static Condition equal(String column_name, Object value){
+        return (value == null) ? isNull(column_name) : new Condition(column_name, Operator.EQUAL, value);
+    } // equal()
+
+
+    /**
+     * @return A Condition matching the cells that are not null and not
+     *         equal to {@code value}. A null value matches the cells that
+     *         are not null.
+     */
+    public static Condition notEqual(String column_name, Object value){
+        return (value == null) ? notNull(column_name) : new Condition(column_name, Operator.NOT_EQUAL, value);
+    } // notEqual()
+
+
+    /**
+     * @return A Condition matching the cells less than {@code value}.
+     */
+    public static Condition lessThan(String column_name, Object value){
+        return new Condition(column_name, Operator.LESS, checkOperand(value));
+    } // lessThan()
+
+
+    /**
+     * @return A Condition matching the cells less than or equal to {@code value}.
+     */
+    public static Condition lessOrEqual(String column_name, Object value){
+        return new Condition(column_name, Operator.LESS_OR_EQUAL, checkOperand(value));
+    } // lessOrEqual()
+
+
+    /**
+     * @return A Condition matching the cells greater than {@code value}.
+     */
+    public static Condition greaterThan(String column_name, Object value){
+        return new Condition(column_name, Operator.GREATER, checkOperand(value));
+    } // greaterThan()
+
+
+    /**
+     * @return A Condition matching the cells greater than or equal to {@code value}.
+     */
+    public static Condition greaterOrEqual(String column_name, Object value){
+        return new Condition(column_name, Operator.GREATER_OR_EQUAL, checkOperand(value));
+    } // greaterOrEqual()
+
+
+    /**
+     * @return A Condition matching the cells in the range [from_value, to_value],
+     *         both ends included.
+     */
+    public static Condition between(String column_name, Object from_value, Object to_value){
+        return new Condition(column_name, Operator.BETWEEN, checkOperand(from_value), checkOperand(to_value));
+    } // between()
+
+
+    /**
+     * @return A Condition matching the cells equal to one of {@code values}.
+     *         A null value matches the null cells.
+     */
+    public static Condition in(String column_name, Object... values){
+        return new Condition(column_name, Operator.IN, values.clone());
+    } // in()
+
+
+    /**
+     * @return A Condition matching the null cells.
+     */
+    public static Condition isNull(String column_name){
+        return new Condition(column_name, Operator.IS_NULL);
+    } // isNull()
+
+
+    /**
+     * @return A Condition matching the cells that are not null.
+     */
+    public static Condition notNull(String column_name){
+        return new Condition(column_name, Operator.NOT_NULL);
+    } // notNull()
+
+
+    /**
+     * @return The name of the Column the Condition is on.
+     */
+    public String getColumnName(){
+        return column_name;
+    } // getColumnName()
+
+
+    @Override
+    public String toString(){
+        return column_name + " " + operator + " " + Arrays.toString(operands);
+    } // toString()
+
+
+    /* Evaluation */
+
+    /**
+     * @return The operator of the Condition.
+     */
+    Operator getOperator(){
+        return operator;
+    } // getOperator()
+
+
+    /**
+     * @return A copy of the Condition with its String operands in uppercase,
+     *         for a Condition on the ID column.
+     */
+    Condition toUpperCase(){
+        Object[] upper_operands = operands.clone();
+        for(int index = 0 ; index < upper_operands.length ; index++){
+            if(upper_operands[index] instanceof String){
+                upper_operands[index] = ((String) upper_operands[index]).toUpperCase();
+            }
+        }
+        return new Condition(column_name, operator, upper_operands);
+    } // toUpperCase()
+
+
+    /**
+     * @return True if a null cell matches the Condition.
+     */
+    boolean matchesNull(){
+        return operator == Operator.IS_NULL || (operator == Operator.IN && Arrays.asList(operands).contains(null));
+    } // matchesNull()
+
+
+    /**
+     * Method to test a value, for Columns whose cells are objects.
+     *
+     * @param value
+     *        The value of a cell, or null.
+     *
+     * @return True if the value matches the Condition.
+     */
+    boolean test(Object value){
+        if(value == null){
+            return matchesNull();
+        }
+        switch(operator){
+            case EQUAL:
+                return compare(value, operands[0]) == 0;
+            case NOT_EQUAL:
+                return compare(value, operands[0]) != 0;
+            case LESS:
+                return isBelow(compare(value, operands[0]), 0);
+            case LESS_OR_EQUAL:
+                return isBelow(compare(value, operands[0]), 1);
+            case GREATER:
+                return isAbove(compare(value, operands[0]), 0);
+            case GREATER_OR_EQUAL:
+                return isAbove(compare(value, operands[0]), -1);
+            case BETWEEN:
+                return isAbove(compare(value, operands[0]), -1) && isBelow(compare(value, operands[1]), 1);
+            case IN:
+                for(Object operand : operands){
+                    if(operand != null && compare(value, operand) == 0){
+                        return true;
+                    }
+                }
+                return false;
+            case IS_NULL:
+                return false;
+            default:
+                return true;
+        }
+    } // test()
+
+
+    /**
+     * Method to check if a value in [min, max] may match the Condition, for
+     * skipping the segments of a Column whose values all lie in the range.
+     * The bounds are compared inclusively, so that a long rounded to a
+     * double never makes a matching segment look empty.
+     *
+     * @param min
+     *        The smallest value of the segment, not null.
+     *
+     * @param max
+     *        The largest value of the segment, not null.
+     *
+     * @return False if no value that is not null and lies in [min, max]
+     *         matches the Condition.
+     */
+    boolean mayMatch(Object min, Object max){
+        switch(operator){
+            case EQUAL:
+                return overlaps(min, max, operands[0], operands[0]);
+            case LESS:
+            case LESS_OR_EQUAL:
+                return overlaps(min, max, null, operands[0]);
+            case GREATER:
+            case GREATER_OR_EQUAL:
+                return overlaps(min, max, operands[0], null);
+            case BETWEEN:
+                return overlaps(min, max, operands[0], operands[1]);
+            case IN:
+                for(Object operand : operands){
+                    if(operand != null && overlaps(min, max, operand, operand)){
+                        return true;
+                    }
+                }
+                return false;
+            default:
+                return true;
+        }
+    } // mayMatch()
+
+
+    /**
+     * @return False if [min, max] and [low, high] certainly do not overlap.
+     *         A null bound is open.
+     */
+    private static boolean overlaps(Object min, Object max, Object low, Object high){
+        int above_low = (low == null) ? 0 : compare(max, low);
+        int below_high = (high == null) ? 0 : compare(min, high);
+        if(above_low == INCOMPARABLE || below_high == INCOMPARABLE){
+            return true;
+        }
+        return above_low >= 0 && below_high <= 0;
+    } // overlaps()
+
+
+    /**
+     * Method to turn the Condition into bounds on integral values, for
+     * Columns holding int or long cells. A cell that is not null matches
+     * if it lies in [low, high], or outside of it if {@code isNegated()}.
+     *
+     * @return The bounds {low, high}, with low greater than high if no
+     *         value lies in them, or null for IN, IS_NULL and NOT_NULL.
+     */
+    long[] integralBounds(){
+        switch(operator){
+            case EQUAL:
+            case NOT_EQUAL:
+                return integralRange(operands[0], true, operands[0], true);
+            case LESS:
+                return integralRange(null, true, operands[0], false);
+            case LESS_OR_EQUAL:
+                return integralRange(null, true, operands[0], true);
+            case GREATER:
+                return integralRange(operands[0], false, null, true);
+            case GREATER_OR_EQUAL:
+                return integralRange(operands[0], true, null, true);
+            case BETWEEN:
+                return integralRange(operands[0], true, operands[1], true);
+            default:
+                return null;
+        }
+    } // integralBounds()
+
+
+    /**
+     * Method to turn the Condition into bounds on double values, for
+     * Columns holding double cells. A cell that is not null matches if it
+     * lies in [low, high], or outside of it if {@code isNegated()}.
+     *
+     * @return The bounds {low, high}, or null for IN, IS_NULL and NOT_NULL.
+     */
+    double[] decimalBounds(){
+        switch(operator){
+            case EQUAL:
+            case NOT_EQUAL:
+                return decimalRange(operands[0], true, operands[0], true);
+            case LESS:
+                return decimalRange(null, true, operands[0], false);
+            case LESS_OR_EQUAL:
+                return decimalRange(null, true, operands[0], true);
+            case GREATER:
+                return decimalRange(operands[0], false, null, true);
+            case GREATER_OR_EQUAL:
+                return decimalRange(operands[0], true, null, true);
+            case BETWEEN:
+                return decimalRange(operands[0], true, operands[1], true);
+            default:
+                return null;
+        }
+    } // decimalBounds()
+
+
+    /**
+     * @return True if the cells outside of the bounds match, for NOT_EQUAL.
+     */
+    boolean isNegated(){
+        return operator == Operator.NOT_EQUAL;
+    } // isNegated()
+
+
+    /**
+     * @return The integral operands of an IN Condition in ascending order,
+     *         for Columns holding int or long cells.
+     */
+    long[] integralValues(){
+        long[] values = new long[operands.length];
+        int count = 0;
+        for(Object operand : operands){
+            if(isIntegral(operand)){
+                values[count++] = ((Number) operand).longValue();
+            }
+            else if(operand instanceof Number){
+                // a decimal operand matches an integral cell if it is a whole number.
+                double value = ((Number) operand).doubleValue();
+                if(value == Math.rint(value) && Math.abs(value) < 0x1p63){
+                    values[count++] = (long) value;
+                }
+            }
+        }
+        values = Arrays.copyOf(values, count);
+        Arrays.sort(values);
+        return values;
+    } // integralValues()
+
+
+    /**
+     * @return The numeric operands of an IN Condition in ascending order,
+     *         for Columns holding double cells. NaN is left out, as it
+     *         equals no value, and -0.0 is turned into 0.0, which it equals.
+     */
+    double[] decimalValues(){
+        double[] values = new double[operands.length];
+        int count = 0;
+        for(Object operand : operands){
+            if(operand instanceof Number && !Double.isNaN(((Number) operand).doubleValue())){
+                values[count++] = ((Number) operand).doubleValue() + 0.0;
+            }
+        }
+        values = Arrays.copyOf(values, count);
+        Arrays.sort(values);
+        return values;
+    } // decimalValues()
+
+
+    /**
+     * Method to compare two values that are not null.
+     *
+     * @return A negative number, zero or a positive number as {@code value}
+     *         is less than, equal to or greater than {@code operand}, or
+     *         {@code INCOMPARABLE}.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"}) // the values are Comparable and of the same class.
+    static int compare(Object value, Object operand){
+        if(value instanceof Number && operand instanceof Number){
+            if(isIntegral(value) && isIntegral(operand)){
+                return Long.compare(((Number) value).longValue(), ((Number) operand).longValue());
+            }
+            // compared like primitive doubles, NaN is not comparable and -0.0 equals 0.0.
+            double first = ((Number) value).doubleValue();
+            double second = ((Number) operand).doubleValue();
+            if(Double.isNaN(first) || Double.isNaN(second)){
+                return INCOMPARABLE;
+            }
+            return (first < second) ? -1 : ((first > second) ? 1 : 0);
+        }
+        if(value.getClass() == operand.getClass() && value instanceof Comparable){
+            return Integer.signum(((Comparable) value).compareTo(operand));
+        }
+        return INCOMPARABLE;
+    } // compare()
+
+
+    /* Helper Methods */
+
+    /**
+     * @throws IllegalArgumentException
+     *         if {@code value} is null, which cannot bound a range.
+     */
+    private static Object checkOperand(Object value){
+        if(value == null){
+            throw new IllegalArgumentException("A range cannot be bounded by null.");
+        }
+        return value;
+    } // checkOperand()
+
+
+    /**
+     * @return True if {@code value} is an integral Number.
+     */
+    private static boolean isIntegral(Object value){
+        return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+    } // isIntegral()
+
+
+    /**
+     * @return True if {@code comparison} is comparable and less than {@code limit}.
+     */
+    private static boolean isBelow(int comparison, int limit){
+        return comparison != INCOMPARABLE && comparison < limit;
+    } // isBelow()
+
+
+    /**
+     * @return True if {@code comparison} is comparable and greater than {@code limit}.
+     */
+    private static boolean isAbove(int comparison, int limit){
+        return comparison != INCOMPARABLE && comparison > limit;
+    } // isAbove()
+
+
+    /**
+     * @return The integral bounds between {@code from} and {@code to}, a
+     *         null end being unbounded.
+     */
+    private static long[] integralRange(Object from, boolean from_inclusive, Object to, boolean to_inclusive){
+        if((from != null && !(from instanceof Number)) || (to != null && !(to instanceof Number))){
+            return EMPTY_RANGE;
+        }
+        long low = Long.MIN_VALUE;
+        long high = Long.MAX_VALUE;
+        if(from != null){
+            // the smallest long at or above from.
+            if(isIntegral(from)){
+                long value = ((Number) from).longValue();
+                if(!from_inclusive && value == Long.MAX_VALUE){
+                    return EMPTY_RANGE;
+                }
+                low = from_inclusive ? value : value + 1;
+            }
+            else{
+                double value = ((Number) from).doubleValue();
+                double bound = from_inclusive ? Math.ceil(value) : Math.floor(value) + 1;
+                if(Double.isNaN(value) || bound >= 0x1p63){
+                    return EMPTY_RANGE;
+                }
+                low = (bound <= -0x1p63) ? Long.MIN_VALUE : (long) bound;
+            }
+        }
+        if(to != null){
+            // the largest long at or below to.
+            if(isIntegral(to)){
+                long value = ((Number) to).longValue();
+                if(!to_inclusive && value == Long.MIN_VALUE){
+                    return EMPTY_RANGE;
+                }
+                high = to_inclusive ? value : value - 1;
+            }
+            else{
+                double value = ((Number) to).doubleValue();
+                double bound = to_inclusive ? Math.floor(value) : Math.ceil(value) - 1;
+                if(Double.isNaN(value) || bound < -0x1p63){
+                    return EMPTY_RANGE;
+                }
+                high = (bound >= 0x1p63) ? Long.MAX_VALUE : (long) bound;
+            }
+        }
+        return new long[]{low, high};
+    } // integralRange()
+
+
+    /**
+     * @return The double bounds between {@code from} and {@code to}, a
+     *         null end being unbounded.
+     */
+    private static double[] decimalRange(Object from, boolean from_inclusive, Object to, boolean to_inclusive){
+        if((from != null && !(from instanceof Number)) || (to != null && !(to instanceof Number))){
+            return new double[]{1, 0};
+        }
+        double low = Double.NEGATIVE_INFINITY;
+        double high = Double.POSITIVE_INFINITY;
+        if(from != null){
+            double value = ((Number) from).doubleValue();
+            low = from_inclusive ? value : Math.nextUp(value);
+        }
+        if(to != null){
+            double value = ((Number) to).doubleValue();
+            high = to_inclusive ? value : Math.nextDown(value);
+        }
+        return new double[]{low, high};
+    } // decimalRange()
+} // class
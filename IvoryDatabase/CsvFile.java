@@ -0,0 +1,426 @@
+package IvoryDatabase;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Writing and reading Ivory Databases as comma separated values (RFC 4180).
+ *
+ * The first record holds the names of the Columns, every following record
+ * holds one row. Records end with CRLF, fields are separated by commas, and
+ * a field containing a comma, a quote, a line break or leading or trailing
+ * spaces is enclosed in quotes, with its quotes doubled. A null cell is an
+ * empty field and an empty String is an empty quoted field.
+ *
+ * Files are read in windows of up to {@code WINDOW_SIZE} bytes that are
+ * memory-mapped and split into chunks at record boundaries. The chunks are
+ * parsed in parallel straight into one buffer per Column, so no Object
+ * array is built for a row.
+ */
+final class CsvFile {
+    static final int WINDOW_SIZE = 64 << 20; // the number of bytes mapped and parsed at once.
+    static final int CHUNK_SIZE = 1 << 20; // the number of bytes parsed by one task.
+
+    private static final String LINE_END = "\r\n"; // the end of every record.
+
+
+    /**
+     * The rows parsed from one chunk of a file, held column by column.
+     */
+    static final class Chunk {
+        int size; // the number of parsed rows.
+        int rejected; // the number of records that could not be parsed.
+        ObjectColumnData[] columns; // the values of every Column of the Database, null for Columns missing from the file.
+    } // class Chunk
+
+
+    private CsvFile(){
+    } // constructor
+
+
+    /* Writing */
+
+    /**
+     * Method to write the rows of Columns as CSV.
+     *
+     * @param out
+     *        The Writer the records are written to.
+     *
+     * @param columns
+     *        The Columns that are written, in the order of the fields.
+     *
+     * @param no_of_rows
+     *        The number of rows of the Database.
+     *
+     * @param deleted
+     *        The marks of the deleted rows, which are not written.
+     */
+    static void write(Writer out, List<Column> columns, int no_of_rows, TombstoneMask deleted) throws IOException {
+        // the header record holds the names of the Columns.
+        for(int col_num = 0 ; col_num < columns.size() ; col_num++){
+            if(col_num > 0){
+                out.write(',');
+            }
+            writeField(out, columns.get(col_num).getName());
+        }
+        out.write(LINE_END);
+
+        for(int row = deleted.nextClearBit(0) ; row < no_of_rows ; row = deleted.nextClearBit(row + 1)){
+            for(int col_num = 0 ; col_num < columns.size() ; col_num++){
+                if(col_num > 0){
+                    out.write(',');
+                }
+                Object value = columns.get(col_num).get(row);
+                if(value != null){
+                    writeField(out, value.toString());
+                }
+            }
+            out.write(LINE_END);
+        }
+    } // write()
+
+
+    /**
+     * Method to write a field, enclosed in quotes if it needs to be.
+     */
+    private static void writeField(Writer out, String field) throws IOException {
+        if(!needsQuotes(field)){
+            out.write(field);
+            return;
+        }
+        out.write('"');
+        // writing the field up to and including every quote, which is then doubled.
+        int start = 0;
+        for(int quote = field.indexOf('"') ; quote >= 0 ; quote = field.indexOf('"', start)){
+            out.write(field, start, quote + 1 - start);
+            out.write('"');
+            start = quote + 1;
+        }
+        out.write(field, start, field.length() - start);
+        out.write('"');
+    } // writeField()
+
+
+    /**
+     * @return True if {@code field} has to be enclosed in quotes.
+     */
+    private static boolean needsQuotes(String field){
+        // an empty String is quoted to tell it apart from a null cell.
+        if(field.isEmpty() || field.charAt(0) == ' ' || field.charAt(field.length() - 1) == ' '){
+            return true;
+        }
+        for(int index = 0 ; index < field.length() ; index++){
+            char character = field.charAt(index);
+            if(character == ',' || character == '"' || character == '\r' || character == '\n'){
+                return true;
+            }
+        }
+        return false;
+    } // needsQuotes()
+
+
+    /* Reading */
+
+    /**
+     * Reads the records of a CSV file one window at a time.
+     */
+    static final class Reader {
+        private final FileChannel channel; // the channel of the CSV file.
+        private final long size; // the size of the CSV file.
+        private long position = 0; // the position of the next record that has not been read.
+
+
+        /**
+         * @param channel
+         *        The channel of the CSV file, positioned anywhere.
+         */
+        Reader(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+        } // constructor
+
+
+        /**
+         * Method to read the header record of the file.
+         *
+         * @return The fields of the header record.
+         *
+         * @throws IOException
+         *         if the file is empty.
+         */
+        String[] readHeader() throws IOException {
+            ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, WINDOW_SIZE));
+            byte[] bytes = new byte[Math.min(window.remaining(), CHUNK_SIZE)];
+            window.get(bytes);
+
+            // skipping a UTF-8 byte order mark.
+            int start = (bytes.length >= 3 && bytes[0] == (byte) 0xEF && bytes[1] == (byte) 0xBB && bytes[2] == (byte) 0xBF) ? 3 : 0;
+            RecordParser parser = new RecordParser(bytes, start, bytes.length);
+            ArrayList<String> header = new ArrayList<>();
+            if(!parser.nextRecord(header)){
+                throw new IOException("The CSV file has no header.");
+            }
+            position = parser.position;
+            return header.toArray(new String[0]);
+        } // readHeader()
+
+
+        /**
+         * Method to read the next window of the file and parse its records
+         * in parallel.
+         *
+         * @param column_of_field
+         *        The Column number of every field of a record, -1 for a
+         *        field that is not read.
+         *
+         * @param types
+         *        The ColumnType the values of every Column are parsed as.
+         *
+         * @param lenient
+         *        For every Column, true if a value that cannot be parsed
+         *        as its ColumnType is kept as a String.
+         *
+         * @return The parsed chunks in file order, or null at the end of the file.
+         *
+         * @throws IOException
+         *         if a single record is larger than {@code WINDOW_SIZE}.
+         */
+        List<Chunk> readChunks(int[] column_of_field, ColumnType[] types, boolean[] lenient) throws IOException {
+            if(position >= size){
+                return null;
+            }
+            long window_length = Math.min(size - position, WINDOW_SIZE);
+            ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, window_length);
+            boolean last_window = (position + window_length == size);
+
+            // splitting the window at record boundaries, quoted line breaks do not end a record.
+            ArrayList<int[]> ranges = new ArrayList<>();
+            int chunk_start = 0;
+            int record_end = -1; // the end of the last complete record found so far.
+            boolean quoted = false;
+            for(int index = 0 ; index < window_length ; index++){
+                byte current = window.get(index);
+                if(current == '"'){
+                    quoted = !quoted;
+                }
+                else if(current == '\n' && !quoted){
+                    record_end = index + 1;
+                    if(record_end - chunk_start >= CHUNK_SIZE){
+                        ranges.add(new int[] { chunk_start, record_end });
+                        chunk_start = record_end;
+                    }
+                }
+            }
+            // the last record of the file may not end with a line break.
+            int consumed = last_window ? (int) window_length : record_end;
+            if(consumed <= 0){
+                throw new IOException("A record of the CSV file is larger than " + WINDOW_SIZE + " bytes.");
+            }
+            if(consumed > chunk_start){
+                ranges.add(new int[] { chunk_start, consumed });
+            }
+            position += consumed;
+
+            return ranges.parallelStream()
+                .map(range -> parseChunk(window, range[0], range[1], column_of_field, types, lenient))
+                .collect(Collectors.toList());
+        } // readChunks()
+    } // class Reader
+
+
+    /**
+     * Method to parse the records of a chunk into one buffer per Column.
+     */
+    private static Chunk parseChunk(ByteBuffer window, int start, int end,
+        int[] column_of_field, ColumnType[] types, boolean[] lenient){
+        byte[] bytes = new byte[end - start];
+        ByteBuffer range = window.duplicate();
+        range.position(start).limit(end);
+        range.get(bytes);
+
+        Chunk chunk = new Chunk();
+        chunk.columns = new ObjectColumnData[types.length];
+        for(int col_num : column_of_field){
+            if(col_num >= 0){
+                chunk.columns[col_num] = new ObjectColumnData();
+            }
+        }
+
+        RecordParser parser = new RecordParser(bytes, 0, bytes.length);
+        ArrayList<String> fields = new ArrayList<>(column_of_field.length);
+        Object[] values = new Object[types.length]; // the values of the current record, reused for every record.
+        while(parser.nextRecord(fields)){
+            // skipping empty lines.
+            if(fields.size() == 1 && fields.get(0) == null){
+                continue;
+            }
+            if(fields.size() != column_of_field.length || !convert(fields, column_of_field, types, lenient, values)){
+                chunk.rejected++;
+                continue;
+            }
+            for(int field = 0 ; field < column_of_field.length ; field++){
+                int col_num = column_of_field[field];
+                if(col_num >= 0){
+                    chunk.columns[col_num].add(values[col_num]);
+                }
+            }
+            chunk.size++;
+        }
+        return chunk;
+    } // parseChunk()
+
+
+    /**
+     * Method to convert the fields of a record to the values of their Columns.
+     *
+     * @return False if the record has no ID or a field cannot be converted.
+     */
+    private static boolean convert(ArrayList<String> fields, int[] column_of_field,
+        ColumnType[] types, boolean[] lenient, Object[] values){
+        for(int field = 0 ; field < column_of_field.length ; field++){
+            int col_num = column_of_field[field];
+            if(col_num < 0){
+                continue;
+            }
+            String text = fields.get(field);
+            if(col_num == 0){
+                // IDs are stored in uppercase.
+                if(text == null){
+                    return false;
+                }
+                values[0] = text.toUpperCase();
+                continue;
+            }
+            try{
+                values[col_num] = parseValue(text, types[col_num]);
+            }
+            catch (IllegalArgumentException e){
+                if(!lenient[col_num]){
+                    return false;
+                }
+                values[col_num] = text;
+            }
+        }
+        return true;
+    } // convert()
+
+
+    /**
+     * @return {@code text} parsed as a value of {@code type}, or null for an empty field.
+     *
+     * @throws IllegalArgumentException
+     *         if {@code text} is not a value of {@code type}.
+     */
+    private static Object parseValue(String text, ColumnType type){
+        if(text == null){
+            return null;
+        }
+        switch(type){
+            case INT: return Integer.parseInt(text);
+            case LONG: return Long.parseLong(text);
+            case DOUBLE: return Double.parseDouble(text);
+            case BOOLEAN:
+                if(text.equalsIgnoreCase("true")){
+                    return Boolean.TRUE;
+                }
+                if(text.equalsIgnoreCase("false")){
+                    return Boolean.FALSE;
+                }
+                throw new IllegalArgumentException("Not a boolean: " + text);
+            default: return text;
+        }
+    } // parseValue()
+
+
+    /**
+     * Splits the bytes of a chunk into records and fields.
+     */
+    private static final class RecordParser {
+        private final byte[] bytes; // the bytes of the chunk.
+        private final int end; // the end of the chunk.
+        int position; // the position of the next record.
+
+
+        RecordParser(byte[] bytes, int start, int end){
+            this.bytes = bytes;
+            this.position = start;
+            this.end = end;
+        } // constructor
+
+
+        /**
+         * Method to read the fields of the next record into {@code fields}.
+         * An empty field is null, an empty quoted field is an empty String.
+         *
+         * @return False if there is no record left.
+         */
+        boolean nextRecord(ArrayList<String> fields){
+            fields.clear();
+            if(position >= end){
+                return false;
+            }
+            while(true){
+                if(position < end && bytes[position] == '"'){
+                    fields.add(quotedField());
+                }
+                else{
+                    int start = position;
+                    while(position < end && bytes[position] != ',' && bytes[position] != '\n' && bytes[position] != '\r'){
+                        position++;
+                    }
+                    fields.add((position == start) ? null : new String(bytes, start, position - start, StandardCharsets.UTF_8));
+                }
+
+                // a comma starts the next field, anything else ends the record.
+                if(position < end && bytes[position] == ','){
+                    position++;
+                    continue;
+                }
+                if(position < end && bytes[position] == '\r'){
+                    position++;
+                }
+                if(position < end && bytes[position] == '\n'){
+                    position++;
+                }
+                return true;
+            }
+        } // nextRecord()
+
+
+        /**
+         * Method to read a field enclosed in quotes, starting at its opening quote.
+         */
+        private String quotedField(){
+            position++; // the opening quote.
+            int start = position;
+            boolean escaped = false; // true if the field contains doubled quotes.
+            while(position < end){
+                if(bytes[position] == '"'){
+                    if(position + 1 < end && bytes[position + 1] == '"'){
+                        escaped = true;
+                        position += 2;
+                        continue;
+                    }
+                    break;
+                }
+                position++;
+            }
+            String field = new String(bytes, start, position - start, StandardCharsets.UTF_8);
+            position = Math.min(position + 1, end); // the closing quote.
+
+            // characters between the closing quote and the next separator are ignored.
+            while(position < end && bytes[position] != ',' && bytes[position] != '\n' && bytes[position] != '\r'){
+                position++;
+            }
+            return escaped ? field.replace("\"\"", "\"") : field;
+        } // quotedField()
+    } // class RecordParser
+} // class
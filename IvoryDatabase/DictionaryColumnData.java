@@ -0,0 +1,219 @@
+package IvoryDatabase;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+
+/**
+ * ColumnData holding String values as dictionary codes.
+ * 
+ * Every distinct String is stored once in {@code dictionary}, and every 
+ * cell holds the int code of its String, or -1 if the cell is null. For a 
+ * Column with few distinct values this takes 4 bytes per row instead of a 
+ * reference to a String, and an equality search compares int codes instead 
+ * of Strings. The codes are kept in chunks of int[].
+ */
+class DictionaryColumnData extends ChunkedColumnData {
+    private final ArrayList<String> dictionary = new ArrayList<>(); // the String of every code.
+    private final HashMap<String, Integer> code_of = new HashMap<>(); // the code of every String in the dictionary.
+
+
+    /**
+     * Creating an empty DictionaryColumnData.
+     */
+    public DictionaryColumnData(){
+        super(int[]::new);
+    } // constructor
+
+
+    /**
+     * Creating a DictionaryColumnData from a dictionary and the codes of its cells.
+     * 
+     * @param dictionary
+     *        The String of every code.
+     * 
+     * @param codes
+     *        The code of every cell, -1 for a null cell.
+     */
+    public DictionaryColumnData(String[] dictionary, int[] codes){
+        super(int[]::new, codes.length, new NullMask());
+        for(String value : dictionary){
+            encode(value);
+        }
+        copyCellsFrom(codes);
+        for(int index = 0 ; index < size ; index++){
+            if(codes[index] == -1){
+                markNull(index, true);
+            }
+        }
+    } // constructor
+
+
+    @Override
+    public int[] getChunk(int chunk_num){
+        return (int[]) super.getChunk(chunk_num);
+    } // getChunk()
+
+
+    /**
+     * @return The String of every code, in code order.
+     */
+    public String[] getDictionary(){
+        return dictionary.toArray(new String[0]);
+    } // getDictionary()
+
+
+    /**
+     * @return The code of every cell, -1 for a null cell.
+     */
+    public int[] getCodes(){
+        int[] codes = new int[size];
+        copyCellsTo(codes);
+        return codes;
+    } // getCodes()
+
+
+    @Override
+    public DictionaryColumnData copy(){
+        return new DictionaryColumnData(getDictionary(), getCodes());
+    } // copy()
+
+
+    @Override
+    public ColumnType getType(){
+        return ColumnType.DICTIONARY;
+    } // getType()
+
+
+    @Override
+    public boolean accepts(Object value){
+        return value == null || value instanceof String;
+    } // accepts()
+
+
+    /**
+     * @param index
+     *        The index of the cell.
+     * 
+     * @return The dictionary code of the cell at {@code index}, -1 if the cell is null.
+     */
+    public int getCode(int index){
+        checkIndex(index, size);
+        int chunk_num = chunkOf(index);
+        return getChunk(chunk_num)[index - getChunkStart(chunk_num)];
+    } // getCode()
+
+
+    /**
+     * @param value
+     *        A String value.
+     * 
+     * @return The dictionary code of {@code value}, -1 if {@code value} 
+     *         is not in the dictionary.
+     */
+    public int codeOf(String value){
+        Integer code = code_of.get(value);
+        return (code == null) ? -1 : code;
+    } // codeOf()
+
+
+    /**
+     * @param code
+     *        A dictionary code.
+     * 
+     * @return The String value of {@code code}.
+     */
+    public String decode(int code){
+        return dictionary.get(code);
+    } // decode()
+
+
+    /**
+     * @return The number of Strings in the dictionary.
+     */
+    public int getDictionarySize(){
+        return dictionary.size();
+    } // getDictionarySize()
+
+
+    @Override
+    public void findEqual(Object value, BitSet matches){
+        // a value that is not a String, or a String that is not in the dictionary, matches no cell.
+        if(value != null && !(value instanceof String)){
+            return;
+        }
+        int target = (value == null) ? -1 : codeOf((String) value);
+        if(target == -1 && value != null){
+            return;
+        }
+        // comparing codes, null cells have the code -1.
+        for(int chunk_num = 0 ; chunk_num < getChunkCount() ; chunk_num++){
+            int[] chunk = getChunk(chunk_num);
+            int start = getChunkStart(chunk_num);
+            for(int offset = 0 ; offset < getChunkSize(chunk_num) ; offset++){
+                if(chunk[offset] == target){
+                    matches.set(start + offset);
+                }
+            }
+        }
+    } // findEqual()
+
+
+    @Override
+    protected void filterValues(Condition condition, int from, int to, long[] selection){
+        // the Condition is tested once for every String of the dictionary.
+        boolean[] code_matches = new boolean[dictionary.size()];
+        for(int code = 0 ; code < code_matches.length ; code++){
+            code_matches[code] = condition.test(dictionary.get(code));
+        }
+        for(int chunk_num = chunkOf(from) ; chunk_num < getChunkCount() && getChunkStart(chunk_num) < to ; chunk_num++){
+            int[] chunk = getChunk(chunk_num);
+            int start = getChunkStart(chunk_num);
+            int end = Math.min(to, start + getChunkSize(chunk_num));
+            // going through the rows of the chunk a word of the selection at a time.
+            for(int row = Math.max(from, start) ; row < end ; ){
+                int word = row >>> 6;
+                int word_end = Math.min(end, (word + 1) << 6);
+                if(selection[word] == 0){
+                    row = word_end;
+                    continue;
+                }
+                long keep = ~wordMask(row, word_end);
+                for( ; row < word_end ; row++){
+                    int code = chunk[row - start];
+                    if(code >= 0 && code_matches[code]){
+                        keep |= 1L << row;
+                    }
+                }
+                selection[word] &= keep;
+            }
+        }
+    } // filterValues()
+
+
+    @Override
+    protected void store(Object chunk, int offset, Object value){
+        ((int[]) chunk)[offset] = (value == null) ? -1 : encode((String) value);
+    } // store()
+
+
+    @Override
+    protected Object load(Object chunk, int offset){
+        return dictionary.get(((int[]) chunk)[offset]);
+    } // load()
+
+
+    /**
+     * @return The dictionary code of {@code value}, adding it to the 
+     *         dictionary if it is not there yet.
+     */
+    private int encode(String value){
+        Integer code = code_of.get(value);
+        if(code == null){
+            code = dictionary.size();
+            dictionary.add(value);
+            code_of.put(value, code);
+        }
+        return code;
+    } // encode()
+} // class
@@ -0,0 +1,146 @@
+package IvoryDatabase;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * ColumnData holding Double values in chunks of double[].
+ */
+class DoubleColumnData extends ChunkedColumnData {
+
+    /**
+     * Creating an empty DoubleColumnData.
+     */
+    public DoubleColumnData(){
+        super(double[]::new);
+    } // constructor
+
+
+    /**
+     * Creating a DoubleColumnData of {@code size} cells holding 0, to be
+     * filled in chunk by chunk.
+     *
+     * @param size
+     *        The number of cells.
+     *
+     * @param nulls
+     *        The NullMask marking the null cells.
+     */
+    public DoubleColumnData(int size, NullMask nulls){
+        super(double[]::new, size, nulls);
+    } // constructor
+
+
+    /**
+     * Creating a copy of {@code other}.
+     */
+    private DoubleColumnData(DoubleColumnData other){
+        super(other);
+    } // constructor
+
+
+    @Override
+    public double[] getChunk(int chunk_num){
+        return (double[]) super.getChunk(chunk_num);
+    } // getChunk()
+
+
+    @Override
+    public DoubleColumnData copy(){
+        return new DoubleColumnData(this);
+    } // copy()
+
+
+    @Override
+    public ColumnType getType(){
+        return ColumnType.DOUBLE;
+    } // getType()
+
+
+    @Override
+    public boolean accepts(Object value){
+        return value == null || value instanceof Number;
+    } // accepts()
+
+
+    /**
+     * @param index
+     *        The index of the cell.
+     *
+     * @return The double value of the cell at {@code index}, 0 if the cell is null.
+     */
+    public double getDouble(int index){
+        checkIndex(index, size);
+        int chunk_num = chunkOf(index);
+        return getChunk(chunk_num)[index - getChunkStart(chunk_num)];
+    } // getDouble()
+
+
+    @Override
+    public void findEqual(Object value, BitSet matches){
+        // null matches the null cells, and a value the Column cannot hold matches no cell.
+        if(value == null || !accepts(value)){
+            if(value == null){
+                findNulls(matches);
+            }
+            return;
+        }
+        double target = ((Number) value).doubleValue();
+        for(int chunk_num = 0 ; chunk_num < getChunkCount() ; chunk_num++){
+            double[] chunk = getChunk(chunk_num);
+            NullMask chunk_nulls = getChunkNulls(chunk_num);
+            int start = getChunkStart(chunk_num);
+            for(int offset = 0 ; offset < getChunkSize(chunk_num) ; offset++){
+                if(Double.compare(chunk[offset], target) == 0 && !chunk_nulls.get(offset)){
+                    matches.set(start + offset);
+                }
+            }
+        }
+    } // findEqual()
+
+
+    @Override
+    protected void filterValues(Condition condition, int from, int to, long[] selection){
+        double[] bounds = condition.decimalBounds();
+        double[] targets = (bounds == null) ? condition.decimalValues() : null;
+        boolean negated = condition.isNegated();
+        for(int chunk_num = chunkOf(from) ; chunk_num < getChunkCount() && getChunkStart(chunk_num) < to ; chunk_num++){
+            double[] chunk = getChunk(chunk_num);
+            int start = getChunkStart(chunk_num);
+            int end = Math.min(to, start + getChunkSize(chunk_num));
+            // going through the rows of the chunk a word of the selection at a time.
+            for(int row = Math.max(from, start) ; row < end ; ){
+                int word = row >>> 6;
+                int word_end = Math.min(end, (word + 1) << 6);
+                if(selection[word] == 0){
+                    row = word_end;
+                    continue;
+                }
+                long keep = ~wordMask(row, word_end);
+                for( ; row < word_end ; row++){
+                    double value = chunk[row - start];
+                    // comparing the value with the bounds of the Condition, or looking it up in the sorted operands of IN.
+                    // adding 0.0 turns -0.0 into 0.0 for the lookup.
+                    boolean match = (bounds != null) ? ((value >= bounds[0] && value <= bounds[1]) != negated)
+                        : (Arrays.binarySearch(targets, value + 0.0) >= 0);
+                    if(match){
+                        keep |= 1L << row;
+                    }
+                }
+                selection[word] &= keep;
+            }
+        }
+    } // filterValues()
+
+
+    @Override
+    protected void store(Object chunk, int offset, Object value){
+        ((double[]) chunk)[offset] = (value == null) ? 0 : ((Number) value).doubleValue();
+    } // store()
+
+
+    @Override
+    protected Object load(Object chunk, int offset){
+        return ((double[]) chunk)[offset];
+    } // load()
+} // class
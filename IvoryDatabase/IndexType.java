@@ -0,0 +1,14 @@
+package IvoryDatabase;
+
+/**
+ * The kinds of secondary index that can be created on a Column of an
+ * Ivory Database with {@code CREATE_INDEX()}.
+ *
+ * Both kinds find the rows holding a value without reading the Column.
+ * An ORDERED index also finds the rows whose values lie in a range,
+ * for {@code FIND_RANGE()}.
+ */
+public enum IndexType {
+    HASH,    // values are kept in a hash table, for equality searches.
+    ORDERED; // values are kept in sorted order, for equality and range searches.
+} // enum
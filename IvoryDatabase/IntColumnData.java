@@ -0,0 +1,145 @@
+package IvoryDatabase;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * ColumnData holding Integer values in chunks of int[].
+ */
+class IntColumnData extends ChunkedColumnData {
+
+    /**
+     * Creating an empty IntColumnData.
+     */
+    public IntColumnData(){
+        super(int[]::new);
+    } // constructor
+
+
+    /**
+     * Creating an IntColumnData of {@code size} cells holding 0, to be
+     * filled in chunk by chunk.
+     *
+     * @param size
+     *        The number of cells.
+     *
+     * @param nulls
+     *        The NullMask marking the null cells.
+     */
+    public IntColumnData(int size, NullMask nulls){
+        super(int[]::new, size, nulls);
+    } // constructor
+
+
+    /**
+     * Creating a copy of {@code other}.
+     */
+    private IntColumnData(IntColumnData other){
+        super(other);
+    } // constructor
+
+
+    @Override
+    public int[] getChunk(int chunk_num){
+        return (int[]) super.getChunk(chunk_num);
+    } // getChunk()
+
+
+    @Override
+    public IntColumnData copy(){
+        return new IntColumnData(this);
+    } // copy()
+
+
+    @Override
+    public ColumnType getType(){
+        return ColumnType.INT;
+    } // getType()
+
+
+    @Override
+    public boolean accepts(Object value){
+        return value == null || value instanceof Integer || value instanceof Short || value instanceof Byte;
+    } // accepts()
+
+
+    /**
+     * @param index
+     *        The index of the cell.
+     *
+     * @return The int value of the cell at {@code index}, 0 if the cell is null.
+     */
+    public int getInt(int index){
+        checkIndex(index, size);
+        int chunk_num = chunkOf(index);
+        return getChunk(chunk_num)[index - getChunkStart(chunk_num)];
+    } // getInt()
+
+
+    @Override
+    public void findEqual(Object value, BitSet matches){
+        // null matches the null cells, and a value the Column cannot hold matches no cell.
+        if(value == null || !accepts(value)){
+            if(value == null){
+                findNulls(matches);
+            }
+            return;
+        }
+        int target = ((Number) value).intValue();
+        for(int chunk_num = 0 ; chunk_num < getChunkCount() ; chunk_num++){
+            int[] chunk = getChunk(chunk_num);
+            NullMask chunk_nulls = getChunkNulls(chunk_num);
+            int start = getChunkStart(chunk_num);
+            for(int offset = 0 ; offset < getChunkSize(chunk_num) ; offset++){
+                if(chunk[offset] == target && !chunk_nulls.get(offset)){
+                    matches.set(start + offset);
+                }
+            }
+        }
+    } // findEqual()
+
+
+    @Override
+    protected void filterValues(Condition condition, int from, int to, long[] selection){
+        long[] bounds = condition.integralBounds();
+        long[] targets = (bounds == null) ? condition.integralValues() : null;
+        boolean negated = condition.isNegated();
+        for(int chunk_num = chunkOf(from) ; chunk_num < getChunkCount() && getChunkStart(chunk_num) < to ; chunk_num++){
+            int[] chunk = getChunk(chunk_num);
+            int start = getChunkStart(chunk_num);
+            int end = Math.min(to, start + getChunkSize(chunk_num));
+            // going through the rows of the chunk a word of the selection at a time.
+            for(int row = Math.max(from, start) ; row < end ; ){
+                int word = row >>> 6;
+                int word_end = Math.min(end, (word + 1) << 6);
+                if(selection[word] == 0){
+                    row = word_end;
+                    continue;
+                }
+                long keep = ~wordMask(row, word_end);
+                for( ; row < word_end ; row++){
+                    int value = chunk[row - start];
+                    // comparing the value with the bounds of the Condition, or looking it up in the sorted operands of IN.
+                    boolean match = (bounds != null) ? ((value >= bounds[0] && value <= bounds[1]) != negated)
+                        : (Arrays.binarySearch(targets, value) >= 0);
+                    if(match){
+                        keep |= 1L << row;
+                    }
+                }
+                selection[word] &= keep;
+            }
+        }
+    } // filterValues()
+
+
+    @Override
+    protected void store(Object chunk, int offset, Object value){
+        ((int[]) chunk)[offset] = (value == null) ? 0 : ((Number) value).intValue();
+    } // store()
+
+
+    @Override
+    protected Object load(Object chunk, int offset){
+        return ((int[]) chunk)[offset];
+    } // load()
+} // class
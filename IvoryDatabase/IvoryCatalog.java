@@ -0,0 +1,531 @@
+package IvoryDatabase;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import IvoryDatabase.IvoryDBExceptions.DirectoryNotFoundException;
+import IvoryDatabase.IvoryDBExceptions.IllegalFileTypeException;
+import IvoryDatabase.IvoryDBExceptions.UnsavedChangesException;
+
+/**
+ * A directory of Ivory Databases that are opened by name and share one
+ * memory budget, for processes holding many Databases.
+ *
+ * A Database is read from its file the first time it is opened, and the
+ * same IvoryDatabase is returned by every later {@code open()} until it is
+ * evicted. Every ADD, GET, SET and DELETE on an open Database marks it as
+ * used. Once the estimated memory of the open Databases exceeds the memory
+ * budget, the Databases that have not been used recently are written to
+ * their files and evicted until the others fit the budget, picked by the
+ * CLOCK approximation of least-recently-used eviction. A Database is only
+ * written if it has changed since it was read, and evicting it does not
+ * run the garbage collector like {@code close()}. The budget is checked
+ * after every open and every {@code CHECK_INTERVAL} milliseconds.
+ *
+ * The evictions run on the thread pool of the catalog, which writes several
+ * Databases at the same time, and the files of all Databases are read and
+ * written through the shared buffers of the BufferPool.
+ *
+ * An evicted IvoryDatabase is read-only, so a change made to it after it
+ * was written to its file returns false instead of being lost. The next
+ * {@code open()} reads the Database from its file again, so callers get
+ * the Database from the catalog whenever they use it instead of keeping it.
+ */
+public final class IvoryCatalog implements AutoCloseable {
+    static final double DEFAULT_BUDGET_RATIO = 0.5; // the part of the maximum heap size that is the default memory budget.
+    static final long CHECK_INTERVAL = 1000; // the milliseconds between two checks of the memory budget.
+    static final int POOL_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors()); // the number of threads of the pool.
+
+    private static final String file_extension = ".ivry"; // the file extension of the IvoryDB file.
+
+    private final File DIRECTORY; // the directory of the Database files.
+    private volatile long memory_budget; // the bytes the open Databases may hold.
+    private volatile boolean closed = false; // true once the catalog has been closed.
+
+    /**
+     * The Databases that have been opened, by their names. An entry stays
+     * after its Database is evicted, so that the Database is opened again
+     * under the same lock.
+     */
+    private final ConcurrentHashMap<String, Entry> ENTRIES = new ConcurrentHashMap<>();
+    private Iterator<Entry> hand = null; // the position of the eviction in ENTRIES, guarded by this.
+
+    private final ScheduledExecutorService POOL; // the daemon threads evicting the Databases, shared by all of them.
+    private final ScheduledFuture<?> budget_check; // the periodic check of the memory budget.
+    private final AtomicBoolean eviction_scheduled = new AtomicBoolean(); // true while an eviction is waiting to run.
+
+
+    /**
+     * A Database of the catalog, the lock under which it is opened and
+     * evicted, and the listener marking it as used.
+     */
+    private static final class Entry implements MetricsListener {
+        final String name; // the name of the Database.
+        final File file; // the file of the Database.
+        volatile IvoryDatabase database = null; // the open Database, or null, changed while holding the Entry.
+        volatile boolean used = true; // true if the Database has been used since the eviction last passed it.
+        long bytes = 0; // the estimated memory of the Database when it was last measured, guarded by the catalog.
+        boolean evicting = false; // true while the Database is picked for eviction, guarded by the catalog.
+
+        Entry(String name, File file){
+            this.name = name;
+            this.file = file;
+        } // constructor
+
+        @Override
+        public void operationCompleted(OperationType type, long nanos, boolean success){
+            // the flag is only written when it changes, busy Databases do not write it on every operation.
+            if(!used){
+                used = true;
+            }
+        } // operationCompleted()
+    } // class Entry
+
+
+    /**
+     * Creating a catalog of the Databases in the default directory "Local
+     * Ivory Databases" in the working directory, with a memory budget of
+     * {@code DEFAULT_BUDGET_RATIO} of the maximum heap size.
+     *
+     * If the "Local Ivory Databases" directory does not exist, it is created.
+     */
+    public IvoryCatalog(){
+        this.DIRECTORY = IvoryDatabase.defaultDirectory();
+        this.memory_budget = (long) (Runtime.getRuntime().maxMemory() * DEFAULT_BUDGET_RATIO);
+        this.POOL = newPool();
+        this.budget_check = POOL.scheduleWithFixedDelay(this::scheduleEviction, CHECK_INTERVAL, CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+    } // constructor IvoryCatalog()
+
+
+    /**
+     * Creating a catalog of the Databases in {@code directory}.
+     *
+     * @param directory
+     *        The directory of the Database files.
+     *
+     * @param memory_budget
+     *        The bytes of heap and off-heap memory the open Databases may hold.
+     *
+     * @throws DirectoryNotFoundException
+     *         When {@code directory} does not exist.
+     */
+    public IvoryCatalog(File directory, long memory_budget)
+        throws DirectoryNotFoundException {
+        // validating directory and memory_budget.
+        if(directory == null){
+            throw new IllegalArgumentException("The directory of the catalog cannot be null.");
+        }
+        else if(!directory.isDirectory()){
+            throw new DirectoryNotFoundException(directory.getPath());
+        }
+        else if(memory_budget < 0){
+            throw new IllegalArgumentException("The memory budget cannot be negative.");
+        }
+        this.DIRECTORY = directory;
+        this.memory_budget = memory_budget;
+        this.POOL = newPool();
+        this.budget_check = POOL.scheduleWithFixedDelay(this::scheduleEviction, CHECK_INTERVAL, CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+    } // constructor IvoryCatalog(File, long)
+
+
+    /**
+     * Method to get a Database of the catalog, reading it from its file if
+     * it is not open.
+     *
+     * @param name
+     *        The name of the Database, its file name with or without ".ivry".
+     *
+     * @return The open Database.
+     *
+     * @throws FileNotFoundException
+     *         When the Database does not exist in the directory of the catalog.
+     */
+    public IvoryDatabase open(String name) throws FileNotFoundException {
+        checkNotClosed();
+        String key = nameOf(name);
+        Entry entry = ENTRIES.computeIfAbsent(key, this::newEntry);
+        IvoryDatabase database;
+        boolean loaded = false;
+        synchronized(entry){
+            database = entry.database;
+            if(database == null){
+                if(!entry.file.exists()){
+                    throw new FileNotFoundException(entry.file.getPath());
+                }
+                try{
+                    database = new IvoryDatabase(entry.file);
+                }
+                // the file name of an Entry always ends with ".ivry".
+                catch (IllegalFileTypeException e){
+                    throw new IllegalStateException(e);
+                }
+                database.getMetrics().addListener(entry);
+                entry.database = database;
+                loaded = true;
+            }
+            if(!entry.used){
+                entry.used = true;
+            }
+        }
+        // the memory of the open Databases only grows by a Database here, the other changes are found by the periodic check.
+        if(loaded){
+            scheduleEviction();
+        }
+        return database;
+    } // open()
+
+
+    /**
+     * Method to create a new, empty Database in the directory of the catalog.
+     * The Database is written to its file when it is saved or evicted.
+     *
+     * @param name
+     *        The name of the Database, its file name with or without ".ivry".
+     *
+     * @return The new Database, or null if a Database with the same name
+     *         already exists.
+     *
+     * @throws DirectoryNotFoundException
+     *         When the directory of the catalog does not exist anymore.
+     */
+    public IvoryDatabase create(String name)
+        throws DirectoryNotFoundException {
+        checkNotClosed();
+        String key = nameOf(name);
+        Entry entry = ENTRIES.computeIfAbsent(key, this::newEntry);
+        IvoryDatabase database;
+        synchronized(entry){
+            if(entry.database != null || entry.file.exists()){
+                return null;
+            }
+            database = new IvoryDatabase();
+            try{
+                database.setFileLocation(entry.file.getPath());
+            }
+            // the file name of an Entry always ends with ".ivry".
+            catch (IllegalFileTypeException e){
+                throw new IllegalStateException(e);
+            }
+            database.getMetrics().addListener(entry);
+            entry.database = database;
+            entry.used = true;
+        }
+        scheduleEviction();
+        return database;
+    } // create()
+
+
+    /**
+     * @return The names of the Databases in the directory of the catalog,
+     *         and of the created Databases that have not been written yet,
+     *         in alphabetical order.
+     */
+    public String[] list(){
+        TreeSet<String> names = new TreeSet<>();
+        File[] files = DIRECTORY.listFiles((directory, file_name) -> file_name.endsWith(file_extension));
+        if(files != null){
+            for(File file : files){
+                names.add(file.getName().substring(0, file.getName().length() - file_extension.length()));
+            }
+        }
+        for(Entry entry : ENTRIES.values()){
+            if(entry.database != null){
+                names.add(entry.name);
+            }
+        }
+        return names.toArray(new String[0]);
+    } // list()
+
+
+    /**
+     * @param name
+     *        The name of the Database.
+     *
+     * @return True if the Database is open, otherwise, false.
+     */
+    public boolean isOpen(String name){
+        Entry entry = ENTRIES.get(nameOf(name));
+        return entry != null && entry.database != null;
+    } // isOpen()
+
+
+    /**
+     * @return The number of open Databases.
+     */
+    public int getOpenCount(){
+        int open = 0;
+        for(Entry entry : ENTRIES.values()){
+            if(entry.database != null){
+                open++;
+            }
+        }
+        return open;
+    } // getOpenCount()
+
+
+    /**
+     * @return The bytes of heap and off-heap memory the open Databases may hold.
+     */
+    public long getMemoryBudget(){
+        return memory_budget;
+    } // getMemoryBudget()
+
+
+    /**
+     * Method to set the bytes of heap and off-heap memory the open Databases
+     * may hold. Databases are evicted in the background until they fit it.
+     *
+     * @param memory_budget
+     *        The memory budget in bytes.
+     */
+    public void setMemoryBudget(long memory_budget){
+        if(memory_budget < 0){
+            throw new IllegalArgumentException("The memory budget cannot be negative.");
+        }
+        this.memory_budget = memory_budget;
+        scheduleEviction();
+    } // setMemoryBudget()
+
+
+    /**
+     * @return An estimate of the heap and off-heap bytes held by the open
+     *         Databases.
+     */
+    public long getEstimatedBytes(){
+        long bytes = 0;
+        for(Entry entry : ENTRIES.values()){
+            IvoryDatabase database = entry.database;
+            if(database != null){
+                bytes += bytesOf(database);
+            }
+        }
+        return bytes;
+    } // getEstimatedBytes()
+
+
+    /**
+     * Method to write a Database to its file and evict it now, whether it
+     * has been used recently or not.
+     *
+     * @param name
+     *        The name of the Database.
+     *
+     * @return True if the Database is not open anymore, false if it could
+     *         not be written to its file and is still open.
+     */
+    public boolean evict(String name){
+        Entry entry = ENTRIES.get(nameOf(name));
+        return entry == null || evict(entry, false);
+    } // evict()
+
+
+    /**
+     * Method to write every open Database to its file, evict it and stop
+     * the thread pool of the catalog. The catalog cannot be used afterwards.
+     *
+     * A Database that could not be written reports the failure to its own
+     * metrics as a SAVE, and stays open and changeable.
+     *
+     * @throws UnsavedChangesException
+     *         When some Databases could not be written to their files, with
+     *         the names of these Databases.
+     */
+    @Override
+    public void close() throws UnsavedChangesException {
+        if(closed){
+            return;
+        }
+        closed = true;
+        budget_check.cancel(false);
+
+        // evicting the open Databases at the same time.
+        List<String> unsaved = Collections.synchronizedList(new ArrayList<>());
+        ArrayList<CompletableFuture<Void>> evictions = new ArrayList<>();
+        for(Entry entry : ENTRIES.values()){
+            if(entry.database != null){
+                evictions.add(CompletableFuture.runAsync(() -> {
+                    if(!evict(entry, false)){
+                        unsaved.add(entry.name);
+                    }
+                }, POOL));
+            }
+        }
+        CompletableFuture.allOf(evictions.toArray(new CompletableFuture<?>[0])).join();
+        POOL.shutdown();
+        if(!unsaved.isEmpty()){
+            String[] names = unsaved.toArray(new String[0]);
+            Arrays.sort(names);
+            throw new UnsavedChangesException(names);
+        }
+    } // close()
+
+
+    /* Helper Methods */
+
+    /**
+     * @return The name of the Database of the file name or Database name
+     *         {@code name}.
+     */
+    private static String nameOf(String name){
+        // validating name.
+        if(name == null){
+            throw new IllegalArgumentException("The name of a Database cannot be null.");
+        }
+        if(name.endsWith(file_extension)){
+            name = name.substring(0, name.length() - file_extension.length());
+        }
+        if(name.isEmpty() || name.indexOf('/') >= 0 || name.indexOf(File.separatorChar) >= 0){
+            throw new IllegalArgumentException("Illegal Database name: \"" + name + "\".");
+        }
+        return name;
+    } // nameOf()
+
+
+    /**
+     * @return A new Entry of the Database {@code name} in the directory.
+     */
+    private Entry newEntry(String name){
+        return new Entry(name, new File(DIRECTORY, name + file_extension));
+    } // newEntry()
+
+
+    /**
+     * @throws IllegalStateException
+     *         if the catalog has been closed.
+     */
+    private void checkNotClosed(){
+        if(closed){
+            throw new IllegalStateException("The catalog has been closed.");
+        }
+    } // checkNotClosed()
+
+
+    /**
+     * @return A pool of {@code POOL_THREADS} daemon threads.
+     */
+    private static ScheduledExecutorService newPool(){
+        return Executors.newScheduledThreadPool(POOL_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "IvoryDB-Catalog");
+            thread.setDaemon(true);
+            return thread;
+        });
+    } // newPool()
+
+
+    /**
+     * @return The estimated heap and off-heap bytes held by {@code database}.
+     */
+    private static long bytesOf(IvoryDatabase database){
+        return database.getEstimatedHeapBytes() + database.getOffHeapBytes();
+    } // bytesOf()
+
+
+    /**
+     * Method to evict the Databases that do not fit the memory budget on
+     * the thread pool, unless an eviction is already waiting to run.
+     */
+    private void scheduleEviction(){
+        if(!closed && eviction_scheduled.compareAndSet(false, true)){
+            POOL.execute(() -> {
+                eviction_scheduled.set(false);
+                evictColdDatabases();
+            });
+        }
+    } // scheduleEviction()
+
+
+    /**
+     * Method to pick the Databases that have not been used recently until
+     * the other open Databases fit the memory budget, and evict them on the
+     * thread pool. A Database larger than the budget stays open as long as
+     * it is the only one.
+     */
+    private synchronized void evictColdDatabases(){
+        long budget = memory_budget;
+        long total = 0;
+        int open = 0;
+        // the Databases being evicted are counted as evicted.
+        for(Entry entry : ENTRIES.values()){
+            IvoryDatabase database = entry.database;
+            if(database != null && !entry.evicting){
+                entry.bytes = bytesOf(database);
+                total += entry.bytes;
+                open++;
+            }
+        }
+
+        // every open Database is passed at most twice, once to clear its flag and once to evict it.
+        ArrayList<Entry> victims = new ArrayList<>();
+        int steps = 2 * ENTRIES.size() + 1;
+        for(int step = 0 ; step < steps && total > budget && open > 1 ; step++){
+            if(hand == null || !hand.hasNext()){
+                hand = ENTRIES.values().iterator();
+                if(!hand.hasNext()){
+                    break;
+                }
+            }
+            Entry entry = hand.next();
+            if(entry.database == null || entry.evicting){
+                continue;
+            }
+            // a Database that has been used since the last pass gets another pass.
+            if(entry.used){
+                entry.used = false;
+                continue;
+            }
+            entry.evicting = true;
+            victims.add(entry);
+            total -= entry.bytes;
+            open--;
+        }
+
+        // writing the evicted Databases to their files at the same time, without waiting for them here.
+        for(Entry entry : victims){
+            POOL.execute(() -> {
+                evict(entry, true);
+                synchronized(this){
+                    entry.evicting = false;
+                }
+            });
+        }
+    } // evictColdDatabases()
+
+
+    /**
+     * Method to write the Database of {@code entry} to its file and evict it.
+     *
+     * @param unused
+     *        True to keep the Database open if it has been used since it
+     *        was picked for eviction.
+     *
+     * @return True if the Database is not open anymore.
+     */
+    private boolean evict(Entry entry, boolean unused){
+        synchronized(entry){
+            IvoryDatabase database = entry.database;
+            if(database == null){
+                return true;
+            }
+            if((unused && entry.used) || !database.evict()){
+                return false;
+            }
+            database.getMetrics().removeListener(entry);
+            entry.database = null;
+            return true;
+        }
+    } // evict()
+} // class
@@ -0,0 +1,19 @@
+package IvoryDatabase.IvoryDBExceptions;
+
+import java.io.IOException;
+
+public class UnsavedChangesException extends IOException {
+    private final String[] names;
+
+    public UnsavedChangesException(String[] names) {
+        super("Changes made to " + String.join(", ", names) + " were not saved.");
+        this.names = names.clone();
+    }
+
+    /**
+     * @return The names of the Databases whose changes were not saved.
+     */
+    public String[] getNames() {
+        return names.clone();
+    }
+}
@@ -2,11 +2,42 @@ package IvoryDatabase;
 
 import java.io.*;
 
+import java.lang.management.ManagementFactory;
+
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 import IvoryDatabase.IvoryDBExceptions.*;
 
 public class IvoryDatabase implements AutoCloseable, Serializable{
+    /**
+     * The serialVersionUID of the original IvoryDatabase class, kept so that 
+     * Ivory Database files saved by earlier versions can still be opened.
+     */
+    private static final long serialVersionUID = 318912574265873487L;
+
     /**
      * Each Attribute object in attributes[] acts like a Column in the Ivory Database.
      * Each Attribute object holds the column values for an Attribute in an Object Array.
@@ -16,10 +47,138 @@ public class IvoryDatabase implements AutoCloseable, Serializable{
      */
     private ArrayList<Column> COLUMNS; // ArrayList of all Column objects of this Ivory Database.
     private int no_of_columns; // keeps track of the total number of columns in the Database.
-    private int no_of_rows; // keeps track of the total number of rows in the Database.
+    private int no_of_rows; // keeps track of the total number of rows in the Database, including deleted rows.
+
+    /**
+     * Map of every ID in the ID column to a hint of its row number.
+     * 
+     * The duplicate check in ADD and the check that a row exists in GET, 
+     * SET and DELETE are a single hash lookup. The index is not serialized, 
+     * it is rebuilt from the ID column whenever the Database is loaded.
+     * 
+     * Inserting or deleting a row moves the rows after it, so the stored 
+     * row numbers are only hints. A hint is always checked against the ID 
+     * column: while the row has not moved it is found in constant time, 
+     * otherwise it is found by a binary search over the sorted ID column 
+     * and the hint is refreshed, so that only the first lookup after a move 
+     * pays for the search. Moving the hints on every insert would cost as 
+     * much as the insert itself. Hints are refreshed by readers as well, so 
+     * the index is a ConcurrentHashMap.
+     */
+    private transient ConcurrentHashMap<String, Integer> ID_INDEX;
+
+    /**
+     * The secondary indexes created by {@code CREATE_INDEX()}, by the name 
+     * of their Column.
+     * 
+     * An index maps the values of a Column to the IDs of the rows holding 
+     * them, so FIND and FIND_RANGE do not have to read the whole Column. 
+     * ADD, SET, DELETE and DELETE_COLUMN keep the indexes up to date while 
+     * they hold the write lock. Persistent indexes are saved next to the 
+     * Database file by SAVE and read back when the Database is opened.
+     */
+    private transient HashMap<String, ColumnIndex> INDEXES = new HashMap<>();
+
+    /**
+     * The rows deleted by DELETE whose cells are still held by the Columns.
+     * 
+     * DELETE removes a row from the ID index and the secondary indexes and 
+     * marks it here, instead of shifting the cells after it in every 
+     * Column, and reads skip the marked rows. The marks move along with the 
+     * rows when a row is inserted between existing rows or its ID is SET. 
+     * The marked rows are removed from all Columns in one pass by 
+     * {@code COMPACT()}, which runs in the background once more than 
+     * {@code COMPACTION_RATIO} of the rows are deleted, and before a save. 
+     * Adding a deleted ID again, alone or in a batch, brings its row back 
+     * in place.
+     */
+    private transient TombstoneMask TOMBSTONES = new TombstoneMask(0);
+    private transient int no_of_deleted_rows = 0; // the number of rows marked in TOMBSTONES.
+    private final transient AtomicBoolean compaction_scheduled = new AtomicBoolean(); // true while a background compaction is waiting to run.
+
+    static final double COMPACTION_RATIO = 0.25; // the part of the rows that may be deleted before they are compacted in the background.
+    static final int COMPACTION_MIN_ROWS = 1024; // fewer deleted rows are not compacted in the background.
 
     private transient File FILE_LOCATION = null; // the file where the Ivory Database is stored and saved to.
 
+    /**
+     * A Database opened with {@code openMapped()} is read-only. Its Columns 
+     * are memory-mapped from {@code MAPPED_CHANNEL} when they are first used, 
+     * and operations that would change the Database return false. A 
+     * Database evicted by its IvoryCatalog is read-only from then on, the 
+     * operations changing it check this again once they hold the lock.
+     */
+    private transient boolean read_only = false;
+    private transient boolean changed = false; // true if the Database has changes that are not in its file, guarded by LOCK.
+    private transient FileChannel MAPPED_CHANNEL = null; // the open channel of a memory-mapped Database.
+
+    /**
+     * The lock guarding the Columns, the row and column counts and the 
+     * write-ahead log.
+     * 
+     * GET, GET_COLUMN, FIND and the other read operations hold the read 
+     * lock, so any number of them run at the same time. ADD, SET, DELETE, 
+     * ADD_COLUMN and DELETE_COLUMN hold the write lock while they change 
+     * the Columns and append their log record, and wait for the record to 
+     * reach the disk after releasing it. A save holds the read lock while 
+     * it writes the Database file, so reads continue during a SAVE.
+     */
+    private final transient ReentrantReadWriteLock LOCK = new ReentrantReadWriteLock();
+
+    /**
+     * The write-ahead log of the Database, or null if the log is not enabled.
+     * 
+     * While the log is enabled, every ADD, SET, DELETE, ADD_COLUMN and 
+     * DELETE_COLUMN is appended to the log and forced to disk before it 
+     * returns, and SAVE is a checkpoint that writes the Database file and 
+     * clears the log. Once the log grows past {@code CHECKPOINT_THRESHOLD}, 
+     * a checkpoint is run in the background. Changes to the Database and 
+     * checkpoints are guarded by {@code LOCK}.
+     * 
+     * A change whose record cannot be appended is taken back before the 
+     * lock is released, and the operation returns false. A change whose 
+     * record was appended stays in the Database even if the log cannot be 
+     * forced to disk afterwards, as later changes may already build on it: 
+     * the operation returns true and the change is written by the next SAVE.
+     */
+    private transient volatile WriteAheadLog LOG = null;
+    private transient volatile long checkpoint_lsn = 0; // the log sequence number stored in the Database file.
+    private final transient AtomicBoolean checkpoint_scheduled = new AtomicBoolean(); // true while a background checkpoint is waiting to run.
+
+    /**
+     * Saves write a snapshot of the Database while holding {@code SAVE_LOCK}, 
+     * so that SAVE and {@code saveAsync()} never write the file at the same 
+     * time. Every snapshot is numbered, and a snapshot is not written if a 
+     * later one is already in the file.
+     */
+    private final transient Object SAVE_LOCK = new Object();
+    private transient long snapshot_version = 0; // the number of the last snapshot taken, guarded by SAVE_LOCK.
+    private transient long saved_version = 0; // the number of the last snapshot written, guarded by SAVE_LOCK.
+
+    /**
+     * The operation counters and latency histograms of the Database. ADD, 
+     * GET, SET and DELETE record themselves once they have released the 
+     * lock, saves once the file is written and loads once it is read.
+     */
+    private final transient IvoryMetrics METRICS = new IvoryMetrics();
+    private transient ObjectName MBEAN_NAME = null; // the name of the registered IvoryDatabaseMXBean, or null.
+
+    /**
+     * The cache of the cells read by GET, or null if it is not enabled by 
+     * {@code setRowCacheSize()}. SET and DELETE drop the cached cells of 
+     * their row, ADD_COLUMN and DELETE_COLUMN all cached cells.
+     */
+    private transient volatile RowCache ROW_CACHE = null;
+
+    static final long CHECKPOINT_THRESHOLD = 64L << 20; // the log size in bytes that triggers a background checkpoint.
+
+    // the daemon thread running background checkpoints.
+    private static final ExecutorService BACKGROUND = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "IvoryDB-Background");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private static final String file_extension = ".ivry"; // the file extension of the IvoryDB file.
     private static final String file_separator = File.separator; // the file separator of the System.
 
@@ -50,9 +209,10 @@ public class IvoryDatabase implements AutoCloseable, Serializable{
         this.no_of_rows = 0;
         this.no_of_columns = 0;
         COLUMNS = new ArrayList<>();
+        ID_INDEX = new ConcurrentHashMap<>();
 
         // creating default Attribute "ID" that every Ivory Database must contain.
-        this.ADD_COLUMN("ID");
+        this.ADD_COLUMN("ID", ColumnType.STRING);
     } // constructor IvoryDatabase()
 
 
@@ -68,6 +228,11 @@ public class IvoryDatabase implements AutoCloseable, Serializable{
         this.COLUMNS = ivoryDBObject.COLUMNS;
         this.no_of_rows = ivoryDBObject.no_of_rows;
         this.no_of_columns = ivoryDBObject.no_of_columns;
+        this.TOMBSTONES = ivoryDBObject.TOMBSTONES.copy();
+        this.no_of_deleted_rows = ivoryDBObject.no_of_deleted_rows;
+
+        // building the ID index for the copied rows.
+        rebuildIdIndex();
     } // constructor IvoryDatabase(IvoryDatabase Object)
 
 
@@ -101,30 +266,11 @@ public class IvoryDatabase implements AutoCloseable, Serializable{
             throw new FileNotFoundException();
         }
 
-        // deserializing the file.
+        // reading the file.
         try {
-            FileInputStream fileIn = new FileInputStream(FILE_LOCATION);
-            ObjectInputStream streamIn = new ObjectInputStream(fileIn);
-
-            // deserializing and casting.
-            IvoryDatabase deserializedDB = (IvoryDatabase) streamIn.readObject();
-            this.COLUMNS = deserializedDB.COLUMNS;
-
-            // assigning the size of the ID column to no_of_rows.
-            this.no_of_rows = COLUMNS.get(0).getSize();
-            // assigning the size of the COLUMNS array list to no_of_columns.
-            this.no_of_columns = COLUMNS.size();
-            
-
-            // closing streams.
-            streamIn.close();
-            fileIn.close();
-
-            // deleting deserializedDB object
-            deserializedDB = null;
-
+            load();
         } catch (Exception e) {
-            e.printStackTrace();
+            METRICS.reportFailure(OperationType.LOAD, e);
         }
     } // constructor IvoryDatabase(String)
 
@@ -159,31 +305,170 @@ public class IvoryDatabase implements AutoCloseable, Serializable{
             throw new FileNotFoundException();
         }
 
-        // deserializing the file.
+        // reading the file.
         try {
-            FileInputStream fileIn = new FileInputStream(FILE_LOCATION);
-            ObjectInputStream streamIn = new ObjectInputStream(fileIn);
+            load();
+        } catch (Exception e) {
+            METRICS.reportFailure(OperationType.LOAD, e);
+        }
+    } // constructor IvoryDatabase(File)
+
+
+    /**
+     * Method to read the Ivory Database stored in {@code FILE_LOCATION}.
+     * 
+     * Files in the binary format are read by {@code IvoryFile}. Files saved 
+     * by earlier versions of Ivory Database are Java serialization streams 
+     * and are deserialized, the next SAVE writes them in the binary format.
+     * 
+     * @throws IOException
+     *         if the file cannot be read or is not an Ivory Database.
+     */
+    private void load() throws IOException, ClassNotFoundException {
+        long start = System.nanoTime();
+        boolean loaded = false;
+        try{
+            readFile();
+            loaded = true;
+        }
+        finally{
+            METRICS.record(OperationType.LOAD, start, loaded);
+        }
+    } // load()
+
+
+    /**
+     * Method to read the Columns, indexes and write-ahead log of the 
+     * Ivory Database stored in {@code FILE_LOCATION}, for {@code load()}.
+     */
+    private void readFile() throws IOException, ClassNotFoundException {
+        int checksum = 0; // the header checksum of the file, legacy files have none.
+        if(IvoryFile.isSerialized(FILE_LOCATION)){
+            // deserializing a legacy file.
+            try (ObjectInputStream streamIn = new ObjectInputStream(
+                    new BufferedInputStream(new FileInputStream(FILE_LOCATION), IvoryFile.BUFFER_SIZE))){
+                IvoryDatabase deserializedDB = (IvoryDatabase) streamIn.readObject();
+                this.COLUMNS = deserializedDB.COLUMNS;
+            }
+        }
+        else{
+            IvoryFile.Header header = new IvoryFile.Header();
+            this.COLUMNS = IvoryFile.read(FILE_LOCATION, header);
+            this.checkpoint_lsn = header.checkpoint_lsn;
+            checksum = header.checksum;
+        }
 
-            // deserializing and casting.
-            IvoryDatabase deserializedDB = (IvoryDatabase) streamIn.readObject();
-            this.COLUMNS = deserializedDB.COLUMNS;
+        // assigning the size of the ID column to no_of_rows.
+        this.no_of_rows = COLUMNS.get(0).getSize();
+        this.TOMBSTONES = new TombstoneMask(no_of_rows);
+        // assigning the size of the COLUMNS array list to no_of_columns.
+        this.no_of_columns = COLUMNS.size();
 
-            // assigning the size of the ID column to no_of_rows.
-            this.no_of_rows = COLUMNS.get(0).getSize();
-            // assigning the size of the COLUMNS array list to no_of_columns.
-            this.no_of_columns = COLUMNS.size();
+        // building the ID index for the loaded rows.
+        rebuildIdIndex();
 
-            // closing streams.
-            streamIn.close();
-            fileIn.close();
+        // reading the saved indexes before the log is replayed into them.
+        readIndexes(checksum, true);
 
-            // deleting deserializedDB object
-            deserializedDB = null;
+        // replaying the write-ahead log and continuing to log changes.
+        File log_file = WriteAheadLog.logFileOf(FILE_LOCATION);
+        if(log_file.exists()){
+            long last_lsn = WriteAheadLog.replay(log_file, checkpoint_lsn, this::applyLogRecord);
+            LOG = new WriteAheadLog(log_file, last_lsn);
+            changed = (last_lsn > checkpoint_lsn);
+        }
+    } // readFile()
 
-        } catch (Exception e) {
-            e.printStackTrace();
+
+    /**
+     * Opening an existing Ivory Database from {@code ivory_file} in read-only mode.
+     * 
+     * Only the header of the file is read when the Database is opened. Every 
+     * Column is memory-mapped and read from the file the first time GET, 
+     * GET_COLUMN or a search touches it, so opening a large Database is fast 
+     * and only the Columns that are used are kept in memory. Rows are looked 
+     * up by a binary search over the sorted ID column instead of building 
+     * the ID index.
+     * 
+     * Files saved by earlier versions of Ivory Database cannot be mapped, 
+     * they are read completely and opened in read-only mode.
+     * 
+     * @param ivory_file
+     *        the file where an existing Ivory Database file (.ivry) is stored.
+     * 
+     * @return The read-only Ivory Database.
+     * 
+     * @throws IllegalFileTypeException
+     *         When the file type is not an Ivory Database.
+     * 
+     * @throws FileNotFoundException
+     *         When the file does not exist.
+     * 
+     * @throws IOException
+     *         When the header of the file cannot be read.
+     */
+    public static IvoryDatabase openMapped(File ivory_file) 
+        throws IllegalFileTypeException, IOException {
+        // validating ivory_file.
+        if(ivory_file == null){
+            throw new IllegalArgumentException("Ivory Database File cannot be null.");
+        }
+        // checking if the file type is correct.
+        else if (!ivory_file.getName().endsWith(file_extension)){
+            throw new IllegalFileTypeException();
+        }
+        else if (!ivory_file.exists()){
+            throw new FileNotFoundException();
         }
-    } // constructor IvoryDatabase(File)
+
+        // a legacy file, or a file with changes in its write-ahead log, is read completely.
+        if(IvoryFile.isSerialized(ivory_file) || WriteAheadLog.hasRecords(ivory_file)){
+            IvoryDatabase database = new IvoryDatabase(ivory_file);
+            database.closeLog();
+            database.read_only = true;
+            return database;
+        }
+
+        long start = System.nanoTime();
+        FileChannel channel = FileChannel.open(ivory_file.toPath(), StandardOpenOption.READ);
+        try{
+            // reading the header, the Column blocks are mapped when they are used.
+            ChannelInput in = new ChannelInput(channel, IvoryFile.BUFFER_SIZE);
+            IvoryFile.Header header = IvoryFile.readHeader(in);
+            in.release();
+
+            IvoryDatabase database = new IvoryDatabase();
+            database.COLUMNS = new ArrayList<>(header.columns.length);
+            for(IvoryFile.ColumnEntry entry : header.columns){
+                database.COLUMNS.add(IvoryFile.lazyColumn(channel, entry, header.no_of_rows));
+            }
+            database.no_of_rows = header.no_of_rows;
+            database.TOMBSTONES = new TombstoneMask(header.no_of_rows);
+            database.no_of_columns = header.columns.length;
+            database.ID_INDEX = null; // rows are found by binary search.
+
+            database.FILE_LOCATION = ivory_file;
+            database.MAPPED_CHANNEL = channel;
+            database.read_only = true;
+
+            // saved indexes are used if they match the file, they are not rebuilt.
+            database.readIndexes(header.checksum, false);
+            database.METRICS.record(OperationType.LOAD, start, true);
+            return database;
+        }
+        catch (IOException | RuntimeException e){
+            channel.close();
+            throw e;
+        }
+    } // openMapped()
+
+
+    /**
+     * @return True if the Database was opened in read-only mode by {@code openMapped()}.
+     */
+    public boolean isReadOnly(){
+        return read_only;
+    } // isReadOnly()
 
 
     /**
@@ -205,6 +490,34 @@ public class IvoryDatabase implements AutoCloseable, Serializable{
             throw new IllegalArgumentException();
         }
 
+        LOCK.writeLock().lock();
+        try{
+            // the write-ahead log follows the Database file to its new location.
+            boolean log_enabled = (LOG != null);
+            if(log_enabled){
+                disableWriteAheadLog();
+            }
+            try{
+                moveFileLocation(file_path);
+            }
+            finally{
+                if(log_enabled){
+                    enableWriteAheadLog();
+                }
+            }
+        }
+        finally{
+            LOCK.writeLock().unlock();
+        }
+    } // setFileLocation(String)
+
+
+    /**
+     * Method to set {@code FILE_LOCATION} to {@code file_path} for {@code setFileLocation()}.
+     */
+    private void moveFileLocation(String file_path) 
+        throws DirectoryNotFoundException, IllegalFileTypeException{
+
         // create a File object of the file path.
         File file = new File(file_path);
 
@@ -226,7 +539,7 @@ public class IvoryDatabase implements AutoCloseable, Serializable{
             // set FILE_LOCATION.
             FILE_LOCATION = file;
         }
-    } // setFileLocation(String)
+    } // moveFileLocation()
 
     /**
      * Method to set the file location to a default file location.
@@ -240,21 +553,7 @@ public class IvoryDatabase implements AutoCloseable, Serializable{
         String defaultFilename = "unnamed_ivory_database.ivry";
 
         /* CREATING Local Ivory Databases DIRECTORY, IF IT DOESN'T ALREADY EXIST */
-        
-        // getting the Path string of the current working directory.
-        String workingDirectory = System.getProperty("user.dir");
-
-        // creating File object for "Local Ivory Databases" to check if it already exists.
-        String defaultDirectoryPath = workingDirectory + file_separator + "Local Ivory Databases";
-        File defaultDirectory = new File(defaultDirectoryPath);
-
-        // if the default directory "Local Ivory Databases" does not already exist: create the directory.
-        if(!defaultDirectory.exists()){
-            if(defaultDirectory.mkdir()) // creating the "Local Ivory Databases" directory.
-                System.out.println("\n\"Local Ivory Databases\" directory successfully created in working directory: " + workingDirectory + "\n");
-            else 
-                System.out.println("\n\"Local Ivory Databases\" directory creation failed.\n"); 
-        }
+        String defaultDirectoryPath = defaultDirectory().getPath();
 
         /* CREATING THE DEFAULT FILE */
 
@@ -273,6 +572,33 @@ public class IvoryDatabase implements AutoCloseable, Serializable{
 
     } // setDefaultFileLocation()
 
+    /**
+     * Method to get the default directory "Local Ivory Databases" in the 
+     * working directory, where Databases without a file location are saved 
+     * and an IvoryCatalog looks for Databases by default.
+     * 
+     * If the "Local Ivory Databases" directory does not exist, it is created.
+     * 
+     * @return The default directory.
+     */
+    static File defaultDirectory(){
+        // getting the Path string of the current working directory.
+        String workingDirectory = System.getProperty("user.dir");
+
+        // creating File object for "Local Ivory Databases" to check if it already exists.
+        String defaultDirectoryPath = workingDirectory + file_separator + "Local Ivory Databases";
+        File defaultDirectory = new File(defaultDirectoryPath);
+
+        // if the default directory "Local Ivory Databases" does not already exist: create the directory.
+        if(!defaultDirectory.exists()){
+            if(defaultDirectory.mkdir()) // creating the "Local Ivory Databases" directory.
+                System.out.println("\n\"Local Ivory Databases\" directory successfully created in working directory: " + workingDirectory + "\n");
+            else 
+                System.out.println("\n\"Local Ivory Databases\" directory creation failed.\n"); 
+        }
+        return defaultDirectory;
+    } // defaultDirectory()
+
     /**
      * Method to rectify a filename collision when creating a new Ivory Database file. 
      * 
@@ -352,17 +678,23 @@ public class IvoryDatabase implements AutoCloseable, Serializable{
      * @return The names of all the Columns in the Ivory Database.
      */
     public String[] getColumnNames(){
-        // getting the number of columns in this database.
-        int size = COLUMNS.size();
+        LOCK.readLock().lock();
+        try{
+            // getting the number of columns in this database.
+            int size = COLUMNS.size();
 
-        // creating output String[].
-        String[] output = new String[size];
+            // creating output String[].
+            String[] output = new String[size];
         
-        // running a loop through columns ArrayList.
-        for(int index = 0 ; index < size ; index++){
-            output[index] = COLUMNS.get(index).getName();
+            // running a loop through columns ArrayList.
+            for(int index = 0 ; index < size ; index++){
+                output[index] = COLUMNS.get(index).getName();
+            }
+            return output;
+        }
+        finally{
+            LOCK.readLock().unlock();
         }
-        return output;
     } // getColumnNames()
 
 
@@ -391,6 +723,11 @@ public class IvoryDatabase implements AutoCloseable, Serializable{
      * @return {@code true}, if file rename operation was successful. Otherwise, returns {@code false}.
      */
     public boolean renameDatabaseTo(String new_filename){
+        // the file of a read-only Database is not changed.
+        if(read_only){
+            return false;
+        }
+
         // if FILE_LOCATION has not already been set, set the default file location.
         if (FILE_LOCATION == null){
             setDefaultFileLocation();
@@ -417,7 +754,30 @@ public class IvoryDatabase implements AutoCloseable, Serializable{
 
             // if a file with the new filename already exists, abort file renaming operation.
             if(!new_file.exists()){
-                return FILE_LOCATION.renameTo(new_file); // rename
+                // a save running in the background finishes before the file is renamed.
+                LOCK.writeLock().lock();
+                try{
+                    synchronized(SAVE_LOCK){
+                        // the write-ahead log is renamed along with the Database file.
+                        boolean log_enabled = (LOG != null);
+                        if(log_enabled){
+                            disableWriteAheadLog();
+                        }
+                        boolean renamed = FILE_LOCATION.renameTo(new_file); // rename
+                        if(renamed){
+                            // the saved indexes are renamed along with the Database file.
+                            ColumnIndex.indexFileOf(FILE_LOCATION).renameTo(ColumnIndex.indexFileOf(new_file));
+                            FILE_LOCATION = new_file;
+                        }
+                        if(log_enabled){
+                            enableWriteAheadLog();
+                        }
+                        return renamed;
+                    }
+                }
+                finally{
+                    LOCK.writeLock().unlock();
+                }
             }
         }
         // if any error occurred, returns false.
@@ -426,7 +786,8 @@ public class IvoryDatabase implements AutoCloseable, Serializable{
 
 
     /**
-     * Method to add a Column to the Ivory Database.
+     * Method to add a Column to the Ivory Database. The ColumnType of the 
+     * Column is inferred from the first value stored in it.
      * 
      * @param column_name
      *        The name of the Column to be added to the Database.
@@ -434,12 +795,63 @@ public class IvoryDatabase implements AutoCloseable, Serializable{
      * @return True if the Column addition was successful, otherwise, false.
      */
     public boolean ADD_COLUMN(String column_name){
+        return ADD_COLUMN(column_name, null);
+    } // ADD_COLUMN()
+
+
+    /**
+     * Method to add a Column of a given ColumnType to the Ivory Database.
+     * 
+     * Values that do not fit {@code column_type} are rejected by ADD and SET.
+     * The cells of the existing rows are set to null.
+     * 
+     * @param column_name
+     *        The name of the Column to be added to the Database.
+     * 
+     * @param column_type
+     *        The ColumnType of the values held by the Column, or null if the 
+     *        ColumnType should be inferred from the first value.
+     * 
+     * @return True if the Column addition was successful, otherwise, false.
+     */
+    public boolean ADD_COLUMN(String column_name, ColumnType column_type){
+        // a read-only Database cannot be changed.
+        if(read_only){
+            return false;
+        }
+        long lsn;
+        LOCK.writeLock().lock();
+        try{
+            if(read_only || !applyAddColumn(column_name, column_type)){
+                return false;
+            }
+            lsn = logOperation(WriteAheadLog.OP_ADD_COLUMN, column_name, (column_type == null) ? null : column_type.name());
+            if(lsn < 0){
+                // a change that is not in the log is taken back.
+                applyDeleteColumn(column_name);
+                return false;
+            }
+        }
+        finally{
+            LOCK.writeLock().unlock();
+        }
+        awaitLog(lsn);
+        return true;
+    } // ADD_COLUMN()
+
+
+    /**
+     * Method to add a Column without logging it, for {@code ADD_COLUMN()} 
+     * and the replay of the write-ahead log.
+     */
+    private boolean applyAddColumn(String column_name, ColumnType column_type){
         try{
             // adding new Column object with the same number of rows as the current database.
-            COLUMNS.add(new Column(column_name.toUpperCase(), no_of_rows));
+            COLUMNS.add(new Column(column_name.toUpperCase(), column_type, no_of_rows));
 
             // increment no_of_columns.
             no_of_columns++;
+            invalidateRowCache();
         }
         catch(Exception e){
             // return false if column addition failed
@@ -447,7 +859,7 @@ public class IvoryDatabase implements AutoCloseable, Serializable{
         }
         // return true for successful column addition.
         return true;
-    } // ADD_COLUMN()
+    } // applyAddColumn()
 
 
     /**
@@ -459,6 +871,36 @@ public class IvoryDatabase implements AutoCloseable, Serializable{
      * @return True if the Column deletion was successful, otherwise, false.
      */
     public boolean DELETE_COLUMN(String column_name){
+        // a read-only Database cannot be changed.
+        if(read_only){
+            return false;
+        }
+        long lsn;
+        LOCK.writeLock().lock();
+        try{
+            if(read_only || !hasColumn(column_name)){
+                return false;
+            }
+            // a deleted Column cannot be taken back, the deletion is logged before the Column is removed.
+            lsn = logOperation(WriteAheadLog.OP_DELETE_COLUMN, column_name);
+            if(lsn < 0){
+                return false;
+            }
+            applyDeleteColumn(column_name);
+        }
+        finally{
+            LOCK.writeLock().unlock();
+        }
+        awaitLog(lsn);
+        return true;
+    } // DELETE_COLUMN
+
+
+    /**
+     * Method to delete a Column without logging it, for {@code DELETE_COLUMN()} 
+     * and the replay of the write-ahead log.
+     */
+    private boolean applyDeleteColumn(String column_name){
         try{
             // getting the column number of column_name.
             int col_num = getColumnNumberOf(column_name.toUpperCase());
@@ -466,6 +908,8 @@ public class IvoryDatabase implements AutoCloseable, Serializable{
             @SuppressWarnings("unused") // suppress warning that 'column' is unused.
             // removing the column from columns.
             Column column = COLUMNS.remove(col_num);
+            // dropping the index of the column.
+            INDEXES.remove(column.getName());
             // set the column to null to effectively delete it.
             column = null;
         }
@@ -475,15 +919,61 @@ public class IvoryDatabase implements AutoCloseable, Serializable{
         }
         // reduce no_of_columns by one and return true for successful deletion.
         no_of_columns--;
+        invalidateRowCache();
         return true;
-    } // DELETE_COLUMN
+    } // applyDeleteColumn()
+
+
+    /**
+     * @return True if the Database has a Column named {@code column_name}.
+     */
+    private boolean hasColumn(String column_name){
+        try{
+            getColumnNumberOf(column_name);
+            return true;
+        }
+        catch (ColumnNotFoundException e){
+            return false;
+        }
+    } // hasColumn()
+
+
+    /**
+     * Method to get the ColumnType of a Column.
+     * 
+     * @param column_name
+     *        The name of the Column.
+     * 
+     * @return The ColumnType of the values held by {@code column_name}, 
+     *         or null if the Column does not exist.
+     */
+    public ColumnType getColumnType(String column_name){
+        LOCK.readLock().lock();
+        try{
+            return COLUMNS.get(getColumnNumberOf(column_name)).getType();
+        }
+        catch (ColumnNotFoundException e){
+            METRICS.reportFailure(OperationType.READ, e);
+            return null;
+        }
+        finally{
+            LOCK.readLock().unlock();
+        }
+    } // getColumnType()
 
 
     /**
      * method to save changes made to the Ivory Database object and store 
      * it in FILE_LOCATION.
      * 
-     * @see java.io.Serializable
+     * The Database is written in the binary format of {@code IvoryFile}: 
+     * a header with the schema and the number of rows, followed by one 
+     * contiguous block per Column. If the write-ahead log is enabled, 
+     * SAVE is a checkpoint and clears the log.
+     * 
+     * The file is written to a temporary file that replaces FILE_LOCATION 
+     * once it is complete, so a failed SAVE leaves the last saved Database 
+     * intact.
      */
     public void SAVE(){
         // if the FILE_LOCATION has not already been set, set the default.
@@ -491,65 +981,659 @@ public class IvoryDatabase implements AutoCloseable, Serializable{
             setDefaultFileLocation();
         }
 
-        boolean save_success; // true when the Ivory Database object is saved to file successfully.
-        try {
-            // creating FileOutputStream and ObjectOutputStream objects.
-            FileOutputStream fileOut = new FileOutputStream(FILE_LOCATION);
-            ObjectOutputStream streamOut = new ObjectOutputStream(fileOut);
-            
-            // writing IvoryDatabase object to FILE_LOCATION.
-            streamOut.writeObject(this);
-
-            // closing streams
-            streamOut.close();
-            fileOut.close();
-
-            save_success = true;
-        } catch (IOException e) {
-            save_success = false;
-            e.printStackTrace();
+        // a read-only Database is never written back to its file.
+        if(read_only){
+            METRICS.reportFailure(OperationType.SAVE, new IOException(FILE_LOCATION.getName() + " is open in read-only mode."));
+            return;
         }
 
+        // true when the Ivory Database object is saved to file successfully, a failure is reported by checkpoint().
+        boolean save_success = checkpoint();
+
         if(save_success)
         // printing operation success message.
             System.out.println("IvoryDB Message : Operation Success : " + FILE_LOCATION.getName() + " has been saved successfully.");
-        else
-        // printing operation failure message.
-            System.out.println("IvoryDB Message : Operation Failed : Changes made to " + FILE_LOCATION.getName() + " were not saved.");
     
     } // SAVE()
 
+
     /**
-     * The close() method will run a loop through the attributes[] array and
-     * assign every Attribute object as 'null'. This will be mark the objects 
-     * for garbage collection.
+     * Method to write the Database to {@code FILE_LOCATION} and clear the 
+     * write-ahead log, whose records are then all contained in the file.
      * 
-     * Then System.gc() is invoked to call the JVM Garbage Collector which
-     * will clean up the objects and free up system resources.
+     * @return True if the Database was written successfully.
      */
-    @Override
-    @SuppressWarnings("unused") // suppressing the warning that 'attribute' is unused.
-    public void close() {
-        // saving all the changes made to the Database to FILE_LOCATION.
-        this.SAVE(); 
+    private boolean checkpoint(){
+        // holding the read lock keeps writers out while the Columns are written.
+        readLockCompacted();
+        try{
+            // the file records the last log record it contains.
+            long lsn = (LOG == null) ? checkpoint_lsn : LOG.getLastLsn();
 
-        // setting all the columns to null.
-        for(Column column : COLUMNS) {
-            column = null; 
+            // writing the Columns to FILE_LOCATION, the Database has no changes outside of the file afterwards.
+            boolean written = writeSnapshot(COLUMNS, no_of_rows, lsn, nextSnapshotVersion(), FILE_LOCATION, persistentIndexes()) && clearLog(lsn);
+            changed &= !written;
+            return written;
         }
-        System.gc(); // invoking java garbage collector
-    } // close()
-
+        finally{
+            LOCK.readLock().unlock();
+        }
+    } // checkpoint()
 
-    /* Regular Operation Methods */
 
     /**
-     * Method to add a new row to the Database.
+     * Method to take the read lock once the deleted rows have been removed 
+     * from the Columns, for writing the Columns as they are.
+     */
+    private void readLockCompacted(){
+        if(LOCK.isWriteLockedByCurrentThread()){
+            compact();
+            LOCK.readLock().lock();
+            return;
+        }
+        LOCK.readLock().lock();
+        if(no_of_deleted_rows > 0){
+            // the read lock cannot be upgraded, the write lock is taken and downgraded.
+            LOCK.readLock().unlock();
+            LOCK.writeLock().lock();
+            try{
+                compact();
+                LOCK.readLock().lock();
+            }
+            finally{
+                LOCK.writeLock().unlock();
+            }
+        }
+    } // readLockCompacted()
+
+
+    /**
+     * Method to remove the deleted rows from every Column now, instead of 
+     * waiting for a save or a background compaction.
+     * 
+     * Every Column is compacted in one pass that moves its remaining cells 
+     * down over the deleted ones, so the cost is linear in the number of 
+     * rows, however many rows have been deleted.
+     * 
+     * @return The number of deleted rows that were removed.
+     */
+    public int COMPACT(){
+        LOCK.writeLock().lock();
+        try{
+            return compact();
+        }
+        finally{
+            LOCK.writeLock().unlock();
+        }
+    } // COMPACT()
+
+
+    /**
+     * Method to remove the rows marked in TOMBSTONES from every Column. The 
+     * caller holds the write lock.
+     * 
+     * @return The number of rows removed.
+     */
+    private int compact(){
+        if(no_of_deleted_rows == 0){
+            return 0;
+        }
+        BitSet deleted = TOMBSTONES.toBitSet();
+        for(Column column : COLUMNS){
+            column.removeAll(deleted);
+        }
+        // the rows have moved, the hints of the ID index are refreshed on lookup.
+        int removed = no_of_deleted_rows;
+        no_of_rows -= removed;
+        TOMBSTONES = new TombstoneMask(no_of_rows);
+        no_of_deleted_rows = 0;
+        return removed;
+    } // compact()
+
+
+    /**
+     * Method to save the Database in the background.
+     * 
+     * A snapshot of the Database is copied while the Database is locked, 
+     * which only copies the arrays holding the cells, and then written to 
+     * FILE_LOCATION by a background thread while the Database can be 
+     * changed again. If the write-ahead log is enabled, the log is cleared 
+     * once the snapshot is saved, unless the Database has been changed since.
+     * 
+     * @return A CompletableFuture completing with true once the snapshot 
+     *         has been saved, or with false if it could not be saved.
+     */
+    public CompletableFuture<Boolean> saveAsync(){
+        // if the FILE_LOCATION has not already been set, set the default.
+        if (FILE_LOCATION == null){
+            setDefaultFileLocation();
+        }
+
+        // a read-only Database is never written back to its file.
+        if(read_only){
+            METRICS.reportFailure(OperationType.SAVE, new IOException(FILE_LOCATION.getName() + " is open in read-only mode."));
+            return CompletableFuture.completedFuture(false);
+        }
+
+        // taking the snapshot, its deleted rows are removed in the background.
+        ArrayList<Column> snapshot;
+        BitSet deleted;
+        int snapshot_rows;
+        long lsn, version;
+        File file;
+        LOCK.readLock().lock();
+        try{
+            snapshot = new ArrayList<>(no_of_columns);
+            for(Column column : COLUMNS){
+                snapshot.add(column.copy());
+            }
+            deleted = (no_of_deleted_rows == 0) ? null : TOMBSTONES.toBitSet();
+            snapshot_rows = no_of_rows - no_of_deleted_rows;
+            lsn = (LOG == null) ? checkpoint_lsn : LOG.getLastLsn();
+            version = nextSnapshotVersion();
+            file = FILE_LOCATION;
+        }
+        finally{
+            LOCK.readLock().unlock();
+        }
+
+        // writing the snapshot in the background.
+        return CompletableFuture.supplyAsync(() -> {
+            if(deleted != null){
+                for(Column column : snapshot){
+                    column.removeAll(deleted);
+                }
+            }
+            // a failure is reported by writeSnapshot() or clearLog(), the future completes with false.
+            boolean save_success = writeSnapshot(snapshot, snapshot_rows, lsn, version, file, null);
+            if(save_success){
+                LOCK.readLock().lock();
+                try{
+                    save_success = clearLog(lsn);
+                }
+                finally{
+                    LOCK.readLock().unlock();
+                }
+            }
+            return save_success;
+        }, BACKGROUND);
+    } // saveAsync()
+
+
+    /**
+     * Method to write a snapshot of the Database to {@code file}, unless a 
+     * later snapshot has already been written or the Database has been 
+     * moved to another file since the snapshot was taken.
+     * 
+     * @param indexes
+     *        The persistent indexes to be saved with the snapshot, or null 
+     *        if the index file is left as it is. The caller holds the read 
+     *        lock while they are written.
+     * 
+     * @return False if the snapshot could not be written.
+     */
+    private boolean writeSnapshot(ArrayList<Column> columns, int rows, long lsn, long version, File file, 
+        List<ColumnIndex> indexes){
+        synchronized(SAVE_LOCK){
+            if(version < saved_version || !file.equals(FILE_LOCATION)){
+                return true;
+            }
+            int checksum;
+            long start = System.nanoTime();
+            try {
+                checksum = IvoryFile.write(file, columns, rows, lsn);
+                saved_version = version;
+            } catch (IOException e) {
+                METRICS.recordSave(start, -1);
+                METRICS.reportFailure(OperationType.SAVE, e);
+                return false;
+            }
+            METRICS.recordSave(start, file.length());
+
+            // the indexes are only an aid to searches, the snapshot is saved even if they are not.
+            if(indexes != null){
+                File index_file = ColumnIndex.indexFileOf(file);
+                try{
+                    if(indexes.isEmpty()){
+                        index_file.delete();
+                    }
+                    else{
+                        ColumnIndex.write(index_file, indexes, checksum);
+                    }
+                }
+                catch (IOException e){
+                    METRICS.reportFailure(OperationType.SAVE, e);
+                }
+            }
+            return true;
+        }
+    } // writeSnapshot()
+
+
+    /**
+     * @return The number of a new snapshot.
+     */
+    private long nextSnapshotVersion(){
+        synchronized(SAVE_LOCK){
+            return ++snapshot_version;
+        }
+    } // nextSnapshotVersion()
+
+
+    /**
+     * Method to record that the Database file contains the log records up 
+     * to {@code lsn}, and clear the write-ahead log if it holds no later 
+     * records. The caller holds the read or the write lock, so no record 
+     * is appended meanwhile.
+     * 
+     * @return False if the log could not be cleared.
+     */
+    private boolean clearLog(long lsn){
+        synchronized(SAVE_LOCK){
+            checkpoint_lsn = Math.max(checkpoint_lsn, lsn);
+            if(LOG == null || LOG.getLastLsn() != lsn){
+                return true;
+            }
+            try{
+                LOG.reset(lsn);
+                return true;
+            }
+            catch (IOException e){
+                METRICS.reportFailure(OperationType.SAVE, e);
+                return false;
+            }
+        }
+    } // clearLog()
+
+
+    /**
+     * Method to enable the write-ahead log of the Database.
+     * 
+     * The log is kept in a file next to the Database file, with the extension 
+     * ".wal" appended to its name. The Database is saved first, so that the 
+     * log only records changes made after this call. Once enabled, the log 
+     * stays enabled when the Database is opened again.
+     * 
+     * @return True if the log is enabled.
+     */
+    public boolean enableWriteAheadLog(){
+        LOCK.writeLock().lock();
+        try{
+            // a read-only Database has no changes to log.
+            if(read_only){
+                return false;
+            }
+            if(LOG != null){
+                return true;
+            }
+            if(FILE_LOCATION == null){
+                setDefaultFileLocation();
+            }
+            // the log starts from a checkpoint, so the Database file exists before the first record.
+            if(!checkpoint()){
+                return false;
+            }
+            try{
+                WriteAheadLog log = new WriteAheadLog(WriteAheadLog.logFileOf(FILE_LOCATION), checkpoint_lsn);
+                // clearing any records left behind by another Database with the same file name.
+                log.reset(checkpoint_lsn);
+                LOG = log;
+                return true;
+            }
+            catch (IOException e){
+                METRICS.reportFailure(OperationType.LOG, e);
+                return false;
+            }
+        }
+        finally{
+            LOCK.writeLock().unlock();
+        }
+    } // enableWriteAheadLog()
+
+
+    /**
+     * Method to disable the write-ahead log of the Database. The Database 
+     * is saved and the log file is deleted.
+     * 
+     * @return True if the log is disabled.
+     */
+    public boolean disableWriteAheadLog(){
+        LOCK.writeLock().lock();
+        try{
+            if(LOG == null){
+                return true;
+            }
+            if(!checkpoint()){
+                return false;
+            }
+            closeLog();
+            return WriteAheadLog.logFileOf(FILE_LOCATION).delete();
+        }
+        finally{
+            LOCK.writeLock().unlock();
+        }
+    } // disableWriteAheadLog()
+
+
+    /**
+     * @return True if the write-ahead log of the Database is enabled.
+     */
+    public boolean isWriteAheadLogEnabled(){
+        return LOG != null;
+    } // isWriteAheadLogEnabled()
+
+
+    /**
+     * @return The operation counters and latency histograms of the Database, 
+     *         for reading them or adding a MetricsListener.
+     */
+    public IvoryMetrics getMetrics(){
+        return METRICS;
+    } // getMetrics()
+
+
+    /**
+     * @return The number of rows in the Database.
+     */
+    public int getRowCount(){
+        LOCK.readLock().lock();
+        try{
+            return no_of_rows - no_of_deleted_rows;
+        }
+        finally{
+            LOCK.readLock().unlock();
+        }
+    } // getRowCount()
+
+
+    /**
+     * @return The number of Columns in the Database, including the ID column.
+     */
+    public int getColumnCount(){
+        LOCK.readLock().lock();
+        try{
+            return no_of_columns;
+        }
+        finally{
+            LOCK.readLock().unlock();
+        }
+    } // getColumnCount()
+
+
+    /**
+     * Method to estimate the heap memory held by the Database.
+     * 
+     * Numeric and boolean cells are counted by their width, Strings and 
+     * other objects from a sample of their Column, and the ID index by its 
+     * number of entries. Columns of a memory-mapped Database that have not 
+     * been read hold no heap.
+     * 
+     * @return An estimate of the heap bytes held by the cells and the ID index.
+     */
+    public long getEstimatedHeapBytes(){
+        LOCK.readLock().lock();
+        try{
+            long bytes = 0;
+            for(Column column : COLUMNS){
+                bytes += column.estimateBytes();
+            }
+            if(ID_INDEX != null){
+                bytes += (long) ID_INDEX.size() * (IvoryMetrics.HASH_ENTRY_BYTES + IvoryMetrics.REFERENCE_BYTES);
+            }
+            return bytes;
+        }
+        finally{
+            LOCK.readLock().unlock();
+        }
+    } // getEstimatedHeapBytes()
+
+
+    /**
+     * @return The bytes allocated outside of the heap for the cells of the 
+     *         Columns chosen by {@code SET_COLUMN_OFF_HEAP()}.
+     */
+    public long getOffHeapBytes(){
+        LOCK.readLock().lock();
+        try{
+            long bytes = 0;
+            for(Column column : COLUMNS){
+                bytes += column.offHeapBytes();
+            }
+            return bytes;
+        }
+        finally{
+            LOCK.readLock().unlock();
+        }
+    } // getOffHeapBytes()
+
+
+    /**
+     * Method to set the number of rows whose cells are cached for GET, 
+     * for Databases where a small set of IDs receives most of the GETs.
+     * 
+     * A cell is cached the first time it is read by GET, and a GET of a 
+     * cached cell looks the ID and the Column name up in two hash maps 
+     * instead of searching the Columns. SET and DELETE drop the cached 
+     * cells of their row, and ADD_COLUMN and DELETE_COLUMN drop all cached 
+     * cells. Once more rows are cached, the rows that have not been read 
+     * for the longest time are evicted first, approximately.
+     * 
+     * @param rows
+     *        The number of rows the cache holds, or 0 to disable the cache.
+     */
+    public void setRowCacheSize(int rows){
+        if(rows < 0){
+            throw new IllegalArgumentException("The size of the row cache cannot be negative.");
+        }
+        LOCK.writeLock().lock();
+        try{
+            ROW_CACHE = (rows == 0) ? null : new RowCache(rows);
+        }
+        finally{
+            LOCK.writeLock().unlock();
+        }
+    } // setRowCacheSize()
+
+
+    /**
+     * @return The hit, miss and eviction counts of the row cache, or null 
+     *         if it is not enabled.
+     */
+    public CacheStatistics getRowCacheStatistics(){
+        RowCache cache = ROW_CACHE;
+        return (cache == null) ? null : cache.getStatistics();
+    } // getRowCacheStatistics()
+
+
+    /**
+     * Method to drop all cells of the row cache, for a change to the Columns. 
+     * The caller holds the write lock.
+     */
+    private void invalidateRowCache(){
+        if(ROW_CACHE != null){
+            ROW_CACHE.invalidateAll();
+        }
+    } // invalidateRowCache()
+
+
+    /**
+     * Method to register the IvoryDatabaseMXBean of the Database with the 
+     * platform MBeanServer, under the name 
+     * {@code IvoryDatabase:type=IvoryDatabase,name=<name of the file>}.
+     * 
+     * The MBeanServer keeps the Database reachable until the MXBean is 
+     * unregistered by {@code unregisterMBean()} or {@code close()}.
+     * 
+     * @return True if the MXBean is registered, otherwise, false.
+     */
+    public synchronized boolean registerMBean(){
+        if(MBEAN_NAME != null){
+            return true;
+        }
+        String name = (FILE_LOCATION == null) ? "IvoryDatabase@" + Integer.toHexString(System.identityHashCode(this)) : FILE_LOCATION.getName();
+        try{
+            ObjectName object_name = new ObjectName("IvoryDatabase:type=IvoryDatabase,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new IvoryDatabaseMBean(this), object_name);
+            MBEAN_NAME = object_name;
+            return true;
+        }
+        catch (JMException e){
+            METRICS.reportFailure(OperationType.MBEAN, e);
+            return false;
+        }
+    } // registerMBean()
+
+
+    /**
+     * Method to unregister the MXBean registered by {@code registerMBean()}.
+     * 
+     * @return True if the MXBean is no longer registered, otherwise, false.
+     */
+    public synchronized boolean unregisterMBean(){
+        if(MBEAN_NAME == null){
+            return true;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try{
+            if(server.isRegistered(MBEAN_NAME)){
+                server.unregisterMBean(MBEAN_NAME);
+            }
+            MBEAN_NAME = null;
+            return true;
+        }
+        catch (JMException e){
+            METRICS.reportFailure(OperationType.MBEAN, e);
+            return false;
+        }
+    } // unregisterMBean()
+
+    /**
+     * The close() method will run a loop through the attributes[] array and
+     * assign every Attribute object as 'null'. This will be mark the objects 
+     * for garbage collection.
+     * 
+     * Then System.gc() is invoked to call the JVM Garbage Collector which
+     * will clean up the objects and free up system resources.
+     */
+    @Override
+    @SuppressWarnings("unused") // suppressing the warning that 'attribute' is unused.
+    public void close() {
+        if(read_only){
+            // closing the channel of a memory-mapped Database, there are no changes to save.
+            try{
+                if(MAPPED_CHANNEL != null){
+                    MAPPED_CHANNEL.close();
+                }
+            }
+            catch (IOException e){
+                METRICS.reportFailure(OperationType.LOG, e);
+            }
+        }
+        else{
+            // saving all the changes made to the Database to FILE_LOCATION.
+            this.SAVE(); 
+            // closing the write-ahead log, it is empty after SAVE.
+            closeLog();
+        }
+
+        // the MXBean would keep the closed Database reachable.
+        unregisterMBean();
+
+        // setting all the columns to null.
+        for(Column column : COLUMNS) {
+            column = null; 
+        }
+        System.gc(); // invoking java garbage collector
+    } // close()
+
+
+    /**
+     * Method to write the Database to its file and make it read-only, for 
+     * an IvoryCatalog evicting it from memory.
+     * 
+     * Unlike {@code close()}, the file is only written if the Database has 
+     * changed since it was read or saved, and the garbage collector is left 
+     * to run when it needs to. The changes that were waiting for the lock 
+     * while the file was written are refused, as the Database is read-only 
+     * once they get it, so every change made to the Database is in the file.
+     * 
+     * @return True if the Database is in its file and read-only, false if 
+     *         it could not be written and is unchanged.
+     */
+    boolean evict(){
+        LOCK.writeLock().lock();
+        try{
+            if(read_only){
+                return true;
+            }
+            if(FILE_LOCATION == null){
+                setDefaultFileLocation();
+            }
+            if((changed || !FILE_LOCATION.exists()) && !checkpoint()){
+                return false;
+            }
+            // the empty log stays next to the file, so the Database logs its changes again once it is read.
+            closeLog();
+            read_only = true;
+        }
+        finally{
+            LOCK.writeLock().unlock();
+        }
+        unregisterMBean();
+        return true;
+    } // evict()
+
+
+    /* Regular Operation Methods */
+
+    /**
+     * Method to add a new row to the Database.
      * 
      * @param newEntry
      *        Object array containing the Column values for the new entry.
      */
     public boolean ADD(Object[] newEntry){
+        long start = System.nanoTime();
+        boolean added = addRow(newEntry);
+        METRICS.record(OperationType.ADD, start, added);
+        return added;
+    } // ADD()
+
+
+    /**
+     * Method to add a row and log it, for {@code ADD()}.
+     */
+    private boolean addRow(Object[] newEntry){
+        // a read-only Database cannot be changed.
+        if(read_only){
+            return false;
+        }
+        long lsn;
+        LOCK.writeLock().lock();
+        try{
+            if(read_only || !applyAdd(newEntry)){
+                return false;
+            }
+            lsn = logOperation(WriteAheadLog.OP_ADD, Arrays.copyOf(newEntry, no_of_columns));
+            if(lsn < 0){
+                // a change that is not in the log is taken back, the row is deleted again.
+                applyDelete((String) newEntry[0]);
+                return false;
+            }
+        }
+        finally{
+            LOCK.writeLock().unlock();
+        }
+        awaitLog(lsn);
+        return true;
+    } // addRow()
+
+
+    /**
+     * Method to add a row without logging it, for {@code ADD()} and the 
+     * replay of the write-ahead log.
+     */
+    private boolean applyAdd(Object[] newEntry){
         // creating temporary Column reference.
         Column temp;
         // storing the id of the new Entry in a variable.
@@ -558,18 +1642,15 @@ public class IvoryDatabase implements AutoCloseable, Serializable{
         newEntry[0] = new_id;
 
         // All values in ID column must be unique.
-        // run a loop to check if a ID already exists in the ID column with the same value as the 'id' parameter.
-        temp = COLUMNS.get(0); // referring to the ID column.
+        // if the new_id is equal to an existing id, return false and do not add the new Entry.
+        if(ID_INDEX.containsKey(new_id)){
+            return false;
+        }
 
-        // check if ID column is empty.
-        if(!temp.isEmpty()){
-            // run loop through ID column.
-            for(int index = 0 ; index < no_of_rows ; index++){
-                // check if the new ID equals an existing ID.
-                if(new_id.equals(temp.get(index))){
-                    // if the new_id is equal to an existing id, return false and do not add the new Entry.
-                    return false;
-                }
+        // every value must fit the ColumnType of its Column, otherwise the new Entry is not added.
+        for(int col_num = 1 ; col_num < no_of_columns ; col_num++){
+            if(!COLUMNS.get(col_num).accepts(newEntry[col_num])){
+                return false;
             }
         }
 
@@ -578,13 +1659,22 @@ public class IvoryDatabase implements AutoCloseable, Serializable{
            to maintain alphabetical order in ID column. */
         int insert_index = findInsertIndex(new_id);
 
+        // a deleted row with the same ID is brought back instead of adding a second row with that ID.
+        if(isDeletedRowOf(insert_index, new_id)){
+            reviveRow(insert_index, newEntry);
+            return true;
+        }
+
         // if insert_index is -1 then the column is empty or the new entry needs to be inserted as the last row.
+        int new_row = (insert_index == -1) ? no_of_rows : insert_index;
         if(insert_index == -1){
             // loop going through every Column to add the attributes of this entry.
             for(int col_num = 0 ; col_num < no_of_columns ; col_num++){
                 temp = COLUMNS.get(col_num);
                 temp.add(newEntry[col_num]);
             }
+            // the new entry is the last row.
+            ID_INDEX.put(new_id, no_of_rows);
         }
         else{
             // loop going through every column to add the attributes of this entry.
@@ -593,141 +1683,1995 @@ public class IvoryDatabase implements AutoCloseable, Serializable{
                 temp = COLUMNS.get(col_num);
                 temp.insert(insert_index, newEntry[col_num]);
             }
+            // the rows after insert_index have moved down by one, their hints are refreshed on lookup.
+            ID_INDEX.put(new_id, insert_index);
         }
+        // the marks of the deleted rows move along with the rows.
+        TOMBSTONES.insert(new_row);
+        addToIndexes(new_row, new_id);
         // incrementing rows to represent the new number of rows.
         no_of_rows++;
         return true;
-    } // ADD()
+    } // applyAdd()
 
 
     /**
-     * Method to delete a row from the database.
+     * @param row_num
+     *        The row where {@code id} fits alphabetically, -1 for the end 
+     *        of the ID column.
+     * 
+     * @return True if the row at {@code row_num} is a deleted row whose 
+     *         Columns still hold {@code id}.
+     */
+    private boolean isDeletedRowOf(int row_num, String id){
+        return row_num != -1 && no_of_deleted_rows > 0 && TOMBSTONES.get(row_num) && id.equals(COLUMNS.get(0).get(row_num));
+    } // isDeletedRowOf()
+
+
+    /**
+     * Method to bring back the deleted row at {@code row_num} holding the 
+     * values of {@code newEntry}, whose ID is the ID of the row.
+     */
+    private void reviveRow(int row_num, Object[] newEntry){
+        for(int col_num = 1 ; col_num < no_of_columns ; col_num++){
+            COLUMNS.get(col_num).set(row_num, newEntry[col_num]);
+        }
+        restoreRow(row_num);
+    } // reviveRow()
+
+
+    /**
+     * Method to clear the deletion mark of the row at {@code row_num} and 
+     * add the row back to the ID index and the secondary indexes.
+     */
+    private void restoreRow(int row_num){
+        TOMBSTONES.clear(row_num);
+        no_of_deleted_rows--;
+        String id = (String) COLUMNS.get(0).get(row_num);
+        ID_INDEX.put(id, row_num);
+        addToIndexes(row_num, id);
+    } // restoreRow()
+
+
+    /**
+     * Method to add many rows to the Database at once.
+     * 
+     * @param entries
+     *        The rows to be added, every row an Object array like the one 
+     *        passed to {@code ADD()}.
+     * 
+     * @return The rows that were not added.
+     * 
+     * @see #ADD_ALL(Iterator)
+     */
+    public ArrayList<Object[]> ADD_ALL(Collection<Object[]> entries){
+        return ADD_ALL(entries.iterator());
+    } // ADD_ALL(Collection)
+
+
+    /**
+     * Method to add many rows to the Database at once.
+     * 
+     * The rows are sorted by ID first, so duplicate IDs in the batch are 
+     * found next to each other. The batch is then merged into the sorted 
+     * Columns in a single pass over every Column, instead of shifting the 
+     * cells of every Column once for every row. A batch whose IDs all come 
+     * after the last ID of the Database is simply appended.
+     * 
+     * A row is rejected, like in {@code ADD()}, if its ID is not a String 
+     * or already exists in the Database, or if one of its values does not 
+     * fit its Column. Of several rows with the same ID, the first one is 
+     * added and the others are rejected.
+     * 
+     * @param entries
+     *        The rows to be added, every row an Object array like the one 
+     *        passed to {@code ADD()}.
+     * 
+     * @return The rows that were not added, in the order of their IDs. If 
+     *         the write-ahead log is enabled, the rows whose records could 
+     *         not be appended to it are taken back out of the Database and 
+     *         returned as well. Rows whose records were appended stay in the 
+     *         Database, even if the log cannot be forced to disk afterwards.
+     */
+    public ArrayList<Object[]> ADD_ALL(Iterator<Object[]> entries){
+        long start = System.nanoTime();
+        ArrayList<Object[]> rejected = new ArrayList<>();
+        boolean added = addRows(entries, rejected);
+        METRICS.record(OperationType.ADD_ALL, start, added);
+        return rejected;
+    } // ADD_ALL(Iterator)
+
+
+    /**
+     * Method to add and log a batch of rows, for {@code ADD_ALL()}.
+     * 
+     * @param rejected
+     *        The list the rows that were not added are appended to.
+     * 
+     * @return False if the Database is read-only, or a row could not be 
+     *         logged or the log could not be forced to disk.
+     */
+    private boolean addRows(Iterator<Object[]> entries, ArrayList<Object[]> rejected){
+        ArrayList<Object[]> batch = new ArrayList<>();
+
+        // collecting the batch and making the IDs uppercase.
+        while(entries.hasNext()){
+            Object[] entry = entries.next();
+            if(entry == null || entry.length == 0 || !(entry[0] instanceof String)){
+                rejected.add(entry);
+                continue;
+            }
+            entry[0] = ((String) entry[0]).toUpperCase();
+            batch.add(entry);
+        }
+
+        // a read-only Database cannot be changed.
+        if(read_only){
+            rejected.addAll(batch);
+            return false;
+        }
+
+        // sorting the batch by ID, rows with the same ID stay in their original order.
+        batch.sort((first, second) -> ((String) first[0]).compareTo((String) second[0]));
+
+        long lsn = 0;
+        ArrayList<Object[]> accepted = new ArrayList<>(batch.size());
+        LOCK.writeLock().lock();
+        try{
+            if(read_only){
+                rejected.addAll(batch);
+                return false;
+            }
+
+            // keeping the rows that can be added.
+            String previous_id = null;
+            for(Object[] entry : batch){
+                String id = (String) entry[0];
+                if(id.equals(previous_id) || ID_INDEX.containsKey(id) || !fitsColumns(entry)){
+                    rejected.add(entry);
+                    continue;
+                }
+                accepted.add(entry);
+                previous_id = id;
+            }
+            if(accepted.isEmpty()){
+                return true;
+            }
+
+            mergeRows(new RowBatch(){
+                public int size(){
+                    return accepted.size();
+                }
+                public String id(int index){
+                    return (String) accepted.get(index)[0];
+                }
+                public Object value(int index, int col_num){
+                    return accepted.get(index)[col_num];
+                }
+            });
+
+            // logging every added row, a row that cannot be logged is taken back and rejected.
+            boolean logged = true;
+            for(Object[] entry : accepted){
+                long row_lsn = logOperation(WriteAheadLog.OP_ADD, Arrays.copyOf(entry, no_of_columns));
+                if(row_lsn < 0){
+                    applyDelete((String) entry[0]);
+                    rejected.add(entry);
+                    logged = false;
+                    continue;
+                }
+                lsn = row_lsn;
+            }
+            if(!logged){
+                awaitLog(lsn);
+                return false;
+            }
+        }
+        finally{
+            LOCK.writeLock().unlock();
+        }
+        // the added rows stay in the Database if they cannot be forced to disk, they are written by the next SAVE.
+        return awaitLog(lsn);
+    } // addRows()
+
+
+    /**
+     * @return True if {@code entry} has a value for every Column and every 
+     *         value fits the ColumnType of its Column.
+     */
+    private boolean fitsColumns(Object[] entry){
+        if(entry.length < no_of_columns){
+            return false;
+        }
+        for(int col_num = 1 ; col_num < no_of_columns ; col_num++){
+            if(!COLUMNS.get(col_num).accepts(entry[col_num])){
+                return false;
+            }
+        }
+        return true;
+    } // fitsColumns()
+
+
+    /**
+     * A batch of rows sorted by ID, for {@code mergeRows()}.
+     */
+    private interface RowBatch {
+        int size(); // the number of rows.
+        String id(int index); // the ID of a row.
+        Object value(int index, int col_num); // the value of a row in a Column.
+    } // interface RowBatch
+
+
+    /**
+     * Method to merge rows sorted by ID into the Columns. The IDs of the 
+     * rows are new and unique. The caller holds the write lock.
+     */
+    private void mergeRows(RowBatch rows){
+        int batch_size = rows.size();
+        Column id_column = COLUMNS.get(0);
+
+        // appending the rows if they all come after the last row.
+        boolean append = (no_of_rows == 0 || rows.id(0).compareTo((String) id_column.get(no_of_rows - 1)) > 0);
+        if(append){
+            for(int index = 0 ; index < batch_size ; index++){
+                for(int col_num = 0 ; col_num < no_of_columns ; col_num++){
+                    COLUMNS.get(col_num).add(rows.value(index, col_num));
+                }
+                TOMBSTONES.insert(no_of_rows);
+                addToIndexes(no_of_rows, rows.id(index));
+                ID_INDEX.put(rows.id(index), no_of_rows++);
+            }
+            return;
+        }
+
+        // a batch of fewer rows than there are chunks is inserted row by row like ADD, touching one chunk per row.
+        if(batch_size < (no_of_rows >>> ChunkedColumnData.CHUNK_SHIFT)){
+            for(int index = 0 ; index < batch_size ; index++){
+                Object[] row = rowOf(rows, index);
+                int insert_index = findInsertIndex(rows.id(index));
+                if(isDeletedRowOf(insert_index, rows.id(index))){
+                    reviveRow(insert_index, row);
+                }
+                else{
+                    insertRow(insert_index, row);
+                }
+            }
+            return;
+        }
+
+        // finding where every row goes, a row with the ID of a deleted row is brought back in its place.
+        int[] positions = new int[batch_size];
+        int[] merged_rows = new int[batch_size];
+        int merged = 0;
+        for(int index = 0 ; index < batch_size ; index++){
+            int position = lowerBound(rows.id(index));
+            if(isDeletedRowOf(position, rows.id(index))){
+                reviveRow(position, rowOf(rows, index));
+                continue;
+            }
+            positions[merged] = position;
+            merged_rows[merged++] = index;
+        }
+        if(merged < batch_size){
+            positions = Arrays.copyOf(positions, merged);
+        }
+
+        // merging the batch into every Column.
+        Object[] values = new Object[merged];
+        for(int col_num = 0 ; col_num < no_of_columns ; col_num++){
+            for(int index = 0 ; index < merged ; index++){
+                values[index] = rows.value(merged_rows[index], col_num);
+            }
+            COLUMNS.get(col_num).merge(positions, values);
+        }
+        // the marks of the deleted rows move along with the rows.
+        TOMBSTONES.insertAll(positions);
+        no_of_rows += merged;
+
+        // the existing rows after a merged row have moved, their hints are refreshed on lookup.
+        for(int index = 0 ; index < merged ; index++){
+            String id = rows.id(merged_rows[index]);
+            ID_INDEX.put(id, positions[index] + index);
+            addToIndexes(positions[index] + index, id);
+        }
+    } // mergeRows()
+
+
+    /**
+     * @return The values of the row {@code index} of {@code rows}.
+     */
+    private Object[] rowOf(RowBatch rows, int index){
+        Object[] row = new Object[no_of_columns];
+        for(int col_num = 0 ; col_num < no_of_columns ; col_num++){
+            row[col_num] = rows.value(index, col_num);
+        }
+        return row;
+    } // rowOf()
+
+
+    /**
+     * Method to merge the rows parsed by {@code IMPORT_CSV()} into the Database.
+     * 
+     * @param chunks
+     *        The parsed chunks of a window of the CSV file.
+     * 
+     * @param column_names
+     *        The names of the Columns the chunks were parsed for.
+     * 
+     * @return The number of rows added, or -1 if the Database is read-only 
+     *         or a row could not be logged, such a row is taken back out of 
+     *         the Database.
+     * 
+     * @throws IOException
+     *         if the Columns of the Database have changed since the file was opened.
+     */
+    private int addChunks(List<CsvFile.Chunk> chunks, String[] column_names) throws IOException {
+        // numbering the parsed rows across all chunks.
+        int total = 0;
+        for(CsvFile.Chunk chunk : chunks){
+            total += chunk.size;
+        }
+        String[] ids = new String[total];
+        int[] chunk_of = new int[total];
+        int[] offset_of = new int[total];
+        int[] run_starts = new int[chunks.size() + 1]; // the rows of every chunk are sorted as one run.
+        int row = 0;
+        for(int chunk_num = 0 ; chunk_num < chunks.size() ; chunk_num++){
+            CsvFile.Chunk chunk = chunks.get(chunk_num);
+            run_starts[chunk_num] = row;
+            for(int offset = 0 ; offset < chunk.size ; offset++, row++){
+                ids[row] = (String) chunk.columns[0].get(offset);
+                chunk_of[row] = chunk_num;
+                offset_of[row] = offset;
+            }
+        }
+        run_starts[chunks.size()] = total;
+        int[] order = sortedOrder(ids, run_starts);
+
+        long lsn = 0;
+        int added;
+        LOCK.writeLock().lock();
+        try{
+            if(read_only){
+                return -1;
+            }
+            if(!Arrays.equals(column_names, getColumnNames())){
+                throw new IOException("The Columns of the Database have changed during the import.");
+            }
+
+            // keeping the rows that can be added, in the order of their IDs.
+            int[] accepted = new int[total];
+            added = 0;
+            String previous_id = null;
+            for(int index : order){
+                String id = ids[index];
+                if(id.equals(previous_id) || ID_INDEX.containsKey(id) || !fitsColumns(chunks.get(chunk_of[index]), offset_of[index])){
+                    continue;
+                }
+                accepted[added++] = index;
+                previous_id = id;
+            }
+            if(added == 0){
+                return 0;
+            }
+
+            int batch_size = added;
+            RowBatch batch = new RowBatch(){
+                public int size(){
+                    return batch_size;
+                }
+                public String id(int index){
+                    return ids[accepted[index]];
+                }
+                public Object value(int index, int col_num){
+                    ObjectColumnData cells = chunks.get(chunk_of[accepted[index]]).columns[col_num];
+                    return (cells == null) ? null : cells.get(offset_of[accepted[index]]);
+                }
+            };
+            mergeRows(batch);
+
+            // logging every added row, a row that cannot be logged is taken back.
+            if(LOG != null){
+                for(int index = 0 ; index < batch_size ; index++){
+                    Object[] entry = new Object[no_of_columns];
+                    for(int col_num = 0 ; col_num < no_of_columns ; col_num++){
+                        entry[col_num] = batch.value(index, col_num);
+                    }
+                    long row_lsn = logOperation(WriteAheadLog.OP_ADD, entry);
+                    if(row_lsn < 0){
+                        applyDelete(batch.id(index));
+                        added = -1;
+                        continue;
+                    }
+                    lsn = row_lsn;
+                }
+            }
+        }
+        finally{
+            LOCK.writeLock().unlock();
+        }
+        // the added rows stay in the Database if they cannot be forced to disk, they are written by the next SAVE.
+        awaitLog(lsn);
+        return added;
+    } // addChunks()
+
+
+    /**
+     * @return True if every value of a parsed row fits the ColumnType of its Column.
+     */
+    private boolean fitsColumns(CsvFile.Chunk chunk, int offset){
+        for(int col_num = 1 ; col_num < no_of_columns ; col_num++){
+            if(chunk.columns[col_num] != null && !COLUMNS.get(col_num).accepts(chunk.columns[col_num].get(offset))){
+                return false;
+            }
+        }
+        return true;
+    } // fitsColumns()
+
+
+    /**
+     * Method to sort the indexes of IDs by a parallel merge sort. The runs 
+     * of IDs between {@code run_starts} are sorted in parallel first, and 
+     * neighbouring runs are then merged in parallel until one run is left.
+     * 
+     * @param ids
+     *        The IDs to be sorted.
+     * 
+     * @param run_starts
+     *        The first index of every run, followed by {@code ids.length}.
+     * 
+     * @return The indexes of {@code ids} in the order of the IDs. Equal IDs 
+     *         keep their original order.
+     */
+    private static int[] sortedOrder(String[] ids, int[] run_starts){
+        int[] order = new int[ids.length];
+        for(int index = 0 ; index < order.length ; index++){
+            order[index] = index;
+        }
+        int[] buffer = new int[ids.length];
+
+        // sorting every run.
+        IntStream.range(0, run_starts.length - 1).parallel().forEach(run -> {
+            int run_end = run_starts[run + 1];
+            for(int width = 1 ; width < run_end - run_starts[run] ; width *= 2){
+                for(int low = run_starts[run] ; low < run_end - width ; low += 2 * width){
+                    mergeRuns(ids, order, buffer, low, low + width, Math.min(low + 2 * width, run_end));
+                }
+            }
+        });
+        int[] starts = run_starts;
+
+        // merging pairs of neighbouring runs.
+        while(starts.length > 2){
+            int[] runs = starts;
+            IntStream.range(0, (runs.length - 1) / 2).parallel().forEach(pair -> 
+                mergeRuns(ids, order, buffer, runs[2 * pair], runs[2 * pair + 1], runs[2 * pair + 2]));
+            // every second start is left.
+            int[] merged_starts = new int[runs.length / 2 + 1];
+            for(int run = 0 ; run < merged_starts.length - 1 ; run++){
+                merged_starts[run] = runs[2 * run];
+            }
+            merged_starts[merged_starts.length - 1] = ids.length;
+            starts = merged_starts;
+        }
+        return order;
+    } // sortedOrder()
+
+
+    /**
+     * Method to merge the sorted runs [low, middle) and [middle, high) of 
+     * {@code order}, using the same range of {@code buffer}.
+     */
+    private static void mergeRuns(String[] ids, int[] order, int[] buffer, int low, int middle, int high){
+        // runs that are already in order are left alone.
+        if(middle >= high || ids[order[middle - 1]].compareTo(ids[order[middle]]) <= 0){
+            return;
+        }
+        int left = low, right = middle, out = low;
+        while(left < middle && right < high){
+            buffer[out++] = (ids[order[right]].compareTo(ids[order[left]]) < 0) ? order[right++] : order[left++];
+        }
+        while(left < middle){
+            buffer[out++] = order[left++];
+        }
+        while(right < high){
+            buffer[out++] = order[right++];
+        }
+        System.arraycopy(buffer, low, order, low, high - low);
+    } // mergeRuns()
+
+
+    /**
+     * Method to delete a row from the database.
      * 
      * @param id
      *        ID of the entry that needs to deleted.
      * 
-     * @return True if the entry was successfully deleted. Otherwise false.
+     * @return True if the entry was successfully deleted. Otherwise false.
+     */
+    public boolean DELETE(String id){
+        long start = System.nanoTime();
+        boolean deleted = deleteRow(id);
+        METRICS.record(OperationType.DELETE, start, deleted);
+        return deleted;
+    } // DELETE()
+
+
+    /**
+     * Method to delete a row and log it, for {@code DELETE()}.
+     */
+    private boolean deleteRow(String id){
+        // a read-only Database cannot be changed.
+        if(read_only){
+            return false;
+        }
+        long lsn;
+        LOCK.writeLock().lock();
+        try{
+            if(read_only || !applyDelete(id)){
+                return false;
+            }
+            lsn = logOperation(WriteAheadLog.OP_DELETE, id);
+            if(lsn < 0){
+                // a change that is not in the log is taken back, the deleted row still holds its cells.
+                restoreRow(lowerBound(id.toUpperCase()));
+                return false;
+            }
+        }
+        finally{
+            LOCK.writeLock().unlock();
+        }
+        awaitLog(lsn);
+        return true;
+    } // deleteRow()
+
+
+    /**
+     * Method to delete a row without logging it, for {@code DELETE()} and 
+     * the replay of the write-ahead log.
+     */
+    private boolean applyDelete(String id){
+        try{    
+        // getting the row number of id.
+            int row_num = getRowNumberOf(id);
+
+            // removing the row from the secondary indexes while its values are still there.
+            String stored_id = (String) COLUMNS.get(0).get(row_num);
+            for(ColumnIndex index : INDEXES.values()){
+                index.remove(index.getColumn().get(row_num), stored_id);
+            }
+
+            // marking the row as deleted, its cells are removed by the next compaction.
+            TOMBSTONES.set(row_num);
+            no_of_deleted_rows++;
+            ID_INDEX.remove(id.toUpperCase());
+            if(ROW_CACHE != null){
+                ROW_CACHE.invalidate(id.toUpperCase());
+            }
+        }
+        // if id does not exist, an exception will be thrown.
+        catch(RowNotFoundException e){
+            METRICS.reportFailure(OperationType.DELETE, e);
+            return false;
+        }
+
+        // removing the deleted rows in the background once they are a large part of the Database.
+        if(no_of_deleted_rows >= COMPACTION_MIN_ROWS && no_of_deleted_rows > no_of_rows * COMPACTION_RATIO 
+            && compaction_scheduled.compareAndSet(false, true)){
+            BACKGROUND.execute(() -> {
+                compaction_scheduled.set(false);
+                COMPACT();
+            });
+        }
+        return true;
+    } // applyDelete()
+
+
+    /**
+     * Method to get a value from the database.
+     * 
+     * @param id
+     *        ID of the row entry whose value is requested.
+     * 
+     * @param column_name
+     *        The name of the column value to returned
+     * 
+     * @return The object of {@code id} in {@code column_name}.
+     */
+    public Object GET(String id, String column_name){
+        long start = System.nanoTime();
+        boolean found = false;
+        LOCK.readLock().lock();
+        try{
+            RowCache cache = ROW_CACHE;
+            Object value;
+            if(cache == null){
+                int col_num = getColumnNumberOf(column_name);
+                int row_num = getRowNumberOf(id);
+                value = COLUMNS.get(col_num).get(row_num);
+            }
+            else{
+                // a cached cell is found by the Column name as it is and the uppercased ID, without looking up the row.
+                // toUpperCase() returns the ID itself when it is already uppercase, so the key is not copied then.
+                Integer cached_col_num = cache.getColumnNumber(column_name);
+                int col_num = (cached_col_num != null) ? cached_col_num : cache.putColumnNumber(column_name, getColumnNumberOf(column_name));
+                value = cache.get(id.toUpperCase(), col_num, no_of_columns, () -> COLUMNS.get(col_num).get(getRowNumberOf(id)));
+            }
+            found = true;
+            return value;
+        }
+        // if either id or column_name are invalid, an exception is thrown.
+        catch (ColumnNotFoundException | RowNotFoundException e){
+            METRICS.reportFailure(OperationType.GET, e);
+            return null;
+        }
+        finally{
+            LOCK.readLock().unlock();
+            METRICS.record(OperationType.GET, start, found);
+        }
+    } // GET()
+
+
+    /**
+     * Method to get the values of a row from the Database.
+     * 
+     * The row is looked up once, however many Columns are read.
+     * 
+     * @param id
+     *        ID of the row entry whose values are requested.
+     * 
+     * @param column_names
+     *        The names of the Columns to be read, in the order of the values 
+     *        of the row. All Columns are read if no name is given.
+     * 
+     * @return The values of the requested Columns in the row of {@code id}, 
+     *         or null if the row or a Column does not exist.
+     */
+    public Object[] GET_ROW(String id, String... column_names){
+        LOCK.readLock().lock();
+        try{
+            int[] col_nums = getColumnNumbersOf(column_names);
+            Object[] row = new Object[col_nums.length];
+            readRow(getRowNumberOf(id), col_nums, row);
+            return row;
+        }
+        // if either id or a column name are invalid, an exception is thrown.
+        catch (ColumnNotFoundException | RowNotFoundException e){
+            METRICS.reportFailure(OperationType.READ, e);
+            return null;
+        }
+        finally{
+            LOCK.readLock().unlock();
+        }
+    } // GET_ROW()
+
+
+    /**
+     * Method to read the values of a row from the Database into an array 
+     * supplied by the caller, so that reading many rows allocates nothing.
+     * 
+     * @param id
+     *        ID of the row entry whose values are requested.
+     * 
+     * @param row
+     *        The array the values are written to, from index 0. It has room 
+     *        for at least one value per requested Column.
+     * 
+     * @param column_names
+     *        The names of the Columns to be read, in the order of the values 
+     *        of the row. All Columns are read if no name is given.
+     * 
+     * @return True if the values were read. False if the row or a Column 
+     *         does not exist, {@code row} is then left unchanged.
+     * 
+     * @throws IllegalArgumentException
+     *         if {@code row} is shorter than the number of requested Columns.
+     */
+    public boolean GET_ROW(String id, Object[] row, String... column_names){
+        LOCK.readLock().lock();
+        try{
+            int[] col_nums = getColumnNumbersOf(column_names);
+            if(row.length < col_nums.length){
+                throw new IllegalArgumentException("The array has room for " + row.length + " values, " + col_nums.length + " Columns were requested.");
+            }
+            readRow(getRowNumberOf(id), col_nums, row);
+            return true;
+        }
+        // if either id or a column name are invalid, an exception is thrown.
+        catch (ColumnNotFoundException | RowNotFoundException e){
+            METRICS.reportFailure(OperationType.READ, e);
+            return false;
+        }
+        finally{
+            LOCK.readLock().unlock();
+        }
+    } // GET_ROW()
+
+
+    /**
+     * Method to get the values of many rows from the Database.
+     * 
+     * Every ID is looked up once, and the rows are then read one Column at 
+     * a time in the order they are stored, which is the order of their IDs.
+     * 
+     * @param ids
+     *        The IDs of the rows whose values are requested.
+     * 
+     * @param column_names
+     *        The names of the Columns to be read, in the order of the values 
+     *        of a row. All Columns are read if no name is given.
+     * 
+     * @return The values of the requested Columns for every ID, in the order 
+     *         of {@code ids}, with null in place of the IDs that do not exist. 
+     *         Null if a Column does not exist.
+     */
+    public Object[][] GET_ROWS(Collection<String> ids, String... column_names){
+        LOCK.readLock().lock();
+        try{
+            int[] col_nums = getColumnNumbersOf(column_names);
+            int[] order = new int[ids.size()];
+            int[] row_nums = getRowNumbersOf(ids, order);
+            Object[][] rows = new Object[row_nums.length][];
+            for(int index = 0 ; index < row_nums.length ; index++){
+                if(row_nums[index] >= 0){
+                    rows[index] = new Object[col_nums.length];
+                }
+            }
+            readRows(row_nums, order, col_nums, rows);
+            return rows;
+        }
+        catch (ColumnNotFoundException e){
+            METRICS.reportFailure(OperationType.READ, e);
+            return null;
+        }
+        finally{
+            LOCK.readLock().unlock();
+        }
+    } // GET_ROWS()
+
+
+    /**
+     * Method to read the values of many rows from the Database into arrays 
+     * supplied by the caller.
+     * 
+     * @param ids
+     *        The IDs of the rows whose values are requested.
+     * 
+     * @param rows
+     *        The arrays the values are written to, one per ID in the order of 
+     *        {@code ids}, each with room for at least one value per requested 
+     *        Column. The array of an ID that does not exist is left unchanged.
+     * 
+     * @param column_names
+     *        The names of the Columns to be read, in the order of the values 
+     *        of a row. All Columns are read if no name is given.
+     * 
+     * @return The number of IDs whose rows were read, or -1 if a Column does 
+     *         not exist.
+     * 
+     * @throws IllegalArgumentException
+     *         if {@code rows} has fewer arrays than {@code ids} has IDs, or an 
+     *         array is shorter than the number of requested Columns.
+     * 
+     * @see #GET_ROWS(Collection, String...)
+     */
+    public int GET_ROWS(Collection<String> ids, Object[][] rows, String... column_names){
+        LOCK.readLock().lock();
+        try{
+            int[] col_nums = getColumnNumbersOf(column_names);
+            if(rows.length < ids.size()){
+                throw new IllegalArgumentException("There are " + rows.length + " arrays for " + ids.size() + " IDs.");
+            }
+            int[] order = new int[ids.size()];
+            int[] row_nums = getRowNumbersOf(ids, order);
+            int found = 0;
+            for(int index = 0 ; index < row_nums.length ; index++){
+                if(row_nums[index] >= 0){
+                    if(rows[index].length < col_nums.length){
+                        throw new IllegalArgumentException("The array of row " + index + " has room for " + rows[index].length 
+                            + " values, " + col_nums.length + " Columns were requested.");
+                    }
+                    found++;
+                }
+            }
+            readRows(row_nums, order, col_nums, rows);
+            return found;
+        }
+        catch (ColumnNotFoundException e){
+            METRICS.reportFailure(OperationType.READ, e);
+            return -1;
+        }
+        finally{
+            LOCK.readLock().unlock();
+        }
+    } // GET_ROWS()
+
+
+    /**
+     * Method to read the cells of a row into {@code row}. The caller holds 
+     * the read lock.
+     */
+    private void readRow(int row_num, int[] col_nums, Object[] row){
+        for(int index = 0 ; index < col_nums.length ; index++){
+            row[index] = COLUMNS.get(col_nums[index]).get(row_num);
+        }
+    } // readRow()
+
+
+    /**
+     * Method to read the cells of rows into {@code rows}, one Column at a 
+     * time and in the order of {@code order}. The rows with a negative row 
+     * number are skipped. The caller holds the read lock.
+     */
+    private void readRows(int[] row_nums, int[] order, int[] col_nums, Object[][] rows){
+        for(int index = 0 ; index < col_nums.length ; index++){
+            Column column = COLUMNS.get(col_nums[index]);
+            for(int row : order){
+                if(row_nums[row] >= 0){
+                    rows[row][index] = column.get(row_nums[row]);
+                }
+            }
+        }
+    } // readRows()
+
+
+    /**
+     * Method to set the value of cell in the Database.
+     * 
+     * Setting a cell of the ID column changes the ID of the row. The new ID 
+     * is made uppercase and must not be the ID of another row.
+     * 
+     * @param id
+     *        The ID of the Database row.
+     * 
+     * @param column_name
+     *        The name of the Column in the Database.
+     * 
+     * @param value
+     *        The value that the cell is to be set to.
+     *  
+     * @return True, if the cell value was set successfully. Otherwise, returns false.
+     */
+    public boolean SET(String id, String column_name, Object value){
+        long start = System.nanoTime();
+        boolean set = setCell(id, column_name, value);
+        METRICS.record(OperationType.SET, start, set);
+        return set;
+    } // SET()
+
+
+    /**
+     * Method to set the value of a cell and log it, for {@code SET()}.
+     */
+    private boolean setCell(String id, String column_name, Object value){
+        // a read-only Database cannot be changed.
+        if(read_only){
+            return false;
+        }
+        long lsn;
+        LOCK.writeLock().lock();
+        try{
+            if(read_only){
+                return false;
+            }
+            // the old value is kept to take the change back if it cannot be logged.
+            Object old_value = null;
+            if(LOG != null){
+                try{
+                    old_value = COLUMNS.get(getColumnNumberOf(column_name)).get(getRowNumberOf(id));
+                }
+                catch (ColumnNotFoundException | RowNotFoundException e){
+                    // applySet() reports the missing row or Column.
+                }
+            }
+            if(!applySet(id, column_name, value)){
+                return false;
+            }
+            lsn = logOperation(WriteAheadLog.OP_SET, id, column_name, value);
+            if(lsn < 0){
+                // a changed ID is set back on the row under its new ID.
+                String row_id = (old_value != null && COLUMNS.get(0).getName().equals(column_name.toUpperCase())) ? (String) value : id;
+                applySet(row_id, column_name, old_value);
+                return false;
+            }
+        }
+        finally{
+            LOCK.writeLock().unlock();
+        }
+        awaitLog(lsn);
+        return true;
+    } // setCell()
+
+
+    /**
+     * Method to set the value of a cell without logging it, for {@code SET()} 
+     * and the replay of the write-ahead log.
+     */
+    private boolean applySet(String id, String column_name, Object value){
+        int col_num, row_num;
+        try{
+            col_num = getColumnNumberOf(column_name);
+            row_num = getRowNumberOf(id);
+        }
+        // if either id or column_name are invalid, an exception is thrown.
+        catch (ColumnNotFoundException | RowNotFoundException e){
+            METRICS.reportFailure(OperationType.SET, e);
+            return false;
+        }
+        // a changed ID moves the row to the place of the new ID in the sorted ID column.
+        if(col_num == 0){
+            return applySetId(row_num, value);
+        }
+        // creating a Column reference to col_num.
+        Column column = COLUMNS.get(col_num);
+        // the value must fit the ColumnType of the Column.
+        if(!column.accepts(value)){
+            return false;
+        }
+        // setting the value of the cell.
+        Object old_value = column.get(row_num);
+        column.set(row_num, value);
+        if(ROW_CACHE != null){
+            ROW_CACHE.invalidate(id.toUpperCase());
+        }
+
+        // moving the row to its new value in the secondary index of the Column.
+        if(INDEXES.containsKey(column.getName())){
+            ColumnIndex index = INDEXES.get(column.getName());
+            String row_id = (String) COLUMNS.get(0).get(row_num);
+            index.remove(old_value, row_id);
+            index.add(column.get(row_num), row_id);
+        }
+
+        // if value was successfully set, return true.
+        return true;
+    } // applySet()
+
+
+    /**
+     * Method to change the ID of the row at {@code row_num}, for 
+     * {@code applySet()}.
+     * 
+     * The new ID is made uppercase like the IDs added by {@code ADD()}, and 
+     * the row is taken out of every Column and inserted again where the new 
+     * ID fits alphabetically, so that the ID column stays sorted.
+     * 
+     * @return False if {@code value} is not a String or is the ID of 
+     *         another row.
+     */
+    private boolean applySetId(int row_num, Object value){
+        if(!(value instanceof String)){
+            return false;
+        }
+        String old_id = (String) COLUMNS.get(0).get(row_num);
+        String new_id = ((String) value).toUpperCase();
+        if(new_id.equals(old_id)){
+            return true;
+        }
+        // All values in ID column must be unique.
+        if(ID_INDEX.containsKey(new_id)){
+            return false;
+        }
+        // taking the row out of the secondary indexes and the Columns.
+        for(ColumnIndex index : INDEXES.values()){
+            index.remove(index.getColumn().get(row_num), old_id);
+        }
+        Object[] row = new Object[no_of_columns];
+        for(int col_num = 0 ; col_num < no_of_columns ; col_num++){
+            Column column = COLUMNS.get(col_num);
+            row[col_num] = column.get(row_num);
+            column.delete(row_num);
+        }
+        TOMBSTONES.remove(row_num);
+        no_of_rows--;
+        ID_INDEX.remove(old_id);
+        row[0] = new_id;
+
+        // inserting the row again where the new ID fits alphabetically.
+        int insert_index = findInsertIndex(new_id);
+        if(isDeletedRowOf(insert_index, new_id)){
+            // a deleted row still holding the new ID is taken over by the row.
+            reviveRow(insert_index, row);
+        }
+        else{
+            insertRow(insert_index, row);
+        }
+
+        // the cached cells of both IDs are dropped.
+        if(ROW_CACHE != null){
+            ROW_CACHE.invalidate(old_id);
+            ROW_CACHE.invalidate(new_id);
+        }
+        return true;
+    } // applySetId()
+
+
+    /**
+     * Method to insert the cells of {@code row} at {@code insert_index}, 
+     * for {@code applySetId()} and {@code mergeRows()}.
+     * 
+     * @param insert_index
+     *        The row where the ID of {@code row} fits alphabetically, -1 for 
+     *        the end of the ID column.
+     */
+    private void insertRow(int insert_index, Object[] row){
+        String new_id = (String) row[0];
+        int new_row = (insert_index == -1) ? no_of_rows : insert_index;
+        for(int col_num = 0 ; col_num < no_of_columns ; col_num++){
+            if(insert_index == -1){
+                COLUMNS.get(col_num).add(row[col_num]);
+            }
+            else{
+                COLUMNS.get(col_num).insert(insert_index, row[col_num]);
+            }
+        }
+        TOMBSTONES.insert(new_row);
+        no_of_rows++;
+        ID_INDEX.put(new_id, new_row);
+        addToIndexes(new_row, new_id);
+    } // insertRow()
+
+
+    /**
+     * Method to get all the values of a Column in the Database.
+     * 
+     * @param column_name
+     *        Name of the {@code Column}.
+     * 
+     * @return {@code Object[]} with the values contained in the requested Column.
+     */
+    public Object[] GET_COLUMN(String column_name){
+        LOCK.readLock().lock();
+        try{
+            // getting the column number of the column_name.
+            int col_num = getColumnNumberOf(column_name);
+
+            // converting Column to an Object Array and returning it.
+            Object[] cells = COLUMNS.get(col_num).toArray();
+            if(no_of_deleted_rows == 0){
+                return cells;
+            }
+
+            // leaving out the deleted rows.
+            Object[] output = new Object[no_of_rows - no_of_deleted_rows];
+            int index = 0;
+            for(int row = TOMBSTONES.nextClearBit(0) ; row < no_of_rows ; row = TOMBSTONES.nextClearBit(row + 1)){
+                output[index++] = cells[row];
+            }
+            return output;
+        }
+        catch (ColumnNotFoundException e){
+            METRICS.reportFailure(OperationType.READ, e);
+            return null;
+        }
+        finally{
+            LOCK.readLock().unlock();
+        }
+    } // GET_COLUMN()
+
+
+    /**
+     * Method to get the rows whose IDs lie in a range.
+     * 
+     * The bounds of the range are found by binary search over the sorted 
+     * ID column, and only the rows within them are read.
+     * 
+     * @param from_id
+     *        The first ID of the range, inclusive. Null starts the range at 
+     *        the first row.
+     * 
+     * @param to_id
+     *        The end of the range, exclusive. Null ends the range at the 
+     *        last row.
+     * 
+     * @param column_names
+     *        The names of the Columns to be read, in the order of the values 
+     *        of a row. All Columns are read if no name is given.
+     * 
+     * @return The values of the requested Columns for every row in the 
+     *         range, in the order of the IDs, or null if a Column does not exist.
+     */
+    public Object[][] SCAN(String from_id, String to_id, String... column_names){
+        LOCK.readLock().lock();
+        try{
+            int from_row = (from_id == null) ? 0 : lowerBound(from_id.toUpperCase());
+            int to_row = (to_id == null) ? no_of_rows : lowerBound(to_id.toUpperCase());
+            return readRows(from_row, Math.max(from_row, to_row), column_names);
+        }
+        catch (ColumnNotFoundException e){
+            METRICS.reportFailure(OperationType.READ, e);
+            return null;
+        }
+        finally{
+            LOCK.readLock().unlock();
+        }
+    } // SCAN()
+
+
+    /**
+     * Method to get the rows whose IDs start with {@code prefix}.
+     * 
+     * @param prefix
+     *        The beginning of the IDs of the rows.
+     * 
+     * @param column_names
+     *        The names of the Columns to be read, in the order of the values 
+     *        of a row. All Columns are read if no name is given.
+     * 
+     * @return The values of the requested Columns for every matching row, 
+     *         in the order of the IDs, or null if a Column does not exist.
+     * 
+     * @see #SCAN(String, String, String...)
+     */
+    public Object[][] SCAN_PREFIX(String prefix, String... column_names){
+        LOCK.readLock().lock();
+        try{
+            prefix = prefix.toUpperCase();
+            return readRows(lowerBound(prefix), prefixUpperBound(prefix), column_names);
+        }
+        catch (ColumnNotFoundException e){
+            METRICS.reportFailure(OperationType.READ, e);
+            return null;
+        }
+        finally{
+            LOCK.readLock().unlock();
+        }
+    } // SCAN_PREFIX()
+
+
+    /**
+     * Method to read the rows [from_row, to_row) of some Columns. The caller 
+     * holds the read lock.
+     */
+    private Object[][] readRows(int from_row, int to_row, String[] column_names) 
+        throws ColumnNotFoundException{
+        int[] col_nums = getColumnNumbersOf(column_names);
+
+        // reading one Column at a time, the deleted rows are left out.
+        int deleted = (no_of_deleted_rows == 0 || from_row >= to_row) ? 0 : TOMBSTONES.cardinality(from_row, to_row);
+        Object[][] output = new Object[to_row - from_row - deleted][col_nums.length];
+        for(int index = 0 ; index < col_nums.length ; index++){
+            Column column = COLUMNS.get(col_nums[index]);
+            int output_row = 0;
+            for(int row = TOMBSTONES.nextClearBit(from_row) ; row < to_row ; row = TOMBSTONES.nextClearBit(row + 1)){
+                output[output_row++][index] = column.get(row);
+            }
+        }
+        return output;
+    } // readRows()
+
+
+    /**
+     * Method to get the IDs of the rows matching every Condition.
+     * 
+     * The Conditions are evaluated one Column at a time, directly over the 
+     * storage of the Columns, into a bitmap with one bit per row. Large 
+     * Databases are split into ranges of rows that are filtered in parallel, 
+     * and the segments of rows whose statistics rule out a match are skipped 
+     * without reading their cells. A Condition on the ID column compares the 
+     * IDs in uppercase.
+     * 
+     * @param conditions
+     *        The Conditions a row has to match, for example 
+     *        {@code Condition.greaterThan("AMOUNT", 100)}. No Condition 
+     *        matches every row.
+     * 
+     * @return The IDs of the matching rows in alphabetical order, or null if 
+     *         a Column does not exist.
+     */
+    public String[] WHERE(Condition... conditions){
+        LOCK.readLock().lock();
+        try{
+            long[] selection = select(conditions);
+
+            // collecting the IDs of the selected rows.
+            Column id_column = COLUMNS.get(0);
+            String[] output = new String[Selection.count(selection)];
+            int index = 0;
+            for(int row = Selection.next(selection, 0) ; row >= 0 ; row = Selection.next(selection, row + 1)){
+                output[index++] = (String) id_column.get(row);
+            }
+            return output;
+        }
+        catch (ColumnNotFoundException e){
+            METRICS.reportFailure(OperationType.QUERY, e);
+            return null;
+        }
+        finally{
+            LOCK.readLock().unlock();
+        }
+    } // WHERE()
+
+
+    /**
+     * Method to get the rows matching every Condition.
+     * 
+     * @param column_names
+     *        The names of the Columns to be read, in the order of the values 
+     *        of a row. All Columns are read if no name is given.
+     * 
+     * @param conditions
+     *        The Conditions a row has to match.
+     * 
+     * @return The values of the requested Columns for every matching row, 
+     *         in the order of the IDs, or null if a Column does not exist.
+     * 
+     * @see #WHERE(Condition...)
+     */
+    public Object[][] SELECT(String[] column_names, Condition... conditions){
+        LOCK.readLock().lock();
+        try{
+            int[] col_nums = getColumnNumbersOf(column_names);
+            long[] selection = select(conditions);
+
+            // reading one Column at a time.
+            Object[][] output = new Object[Selection.count(selection)][col_nums.length];
+            for(int index = 0 ; index < col_nums.length ; index++){
+                Column column = COLUMNS.get(col_nums[index]);
+                int row_index = 0;
+                for(int row = Selection.next(selection, 0) ; row >= 0 ; row = Selection.next(selection, row + 1)){
+                    output[row_index++][index] = column.get(row);
+                }
+            }
+            return output;
+        }
+        catch (ColumnNotFoundException e){
+            METRICS.reportFailure(OperationType.QUERY, e);
+            return null;
+        }
+        finally{
+            LOCK.readLock().unlock();
+        }
+    } // SELECT()
+
+
+    /**
+     * Method to get the statistics of the segments of a Column, which
+     * WHERE and SELECT use to skip the segments that cannot match.
+     *
+     * @param column_name
+     *        The name of the Column.
+     *
+     * @return One row per segment of {@code ZoneMap.SEGMENT_SIZE} rows,
+     *         holding its first row, its number of rows, its number of null
+     *         cells, an estimate of its number of distinct values and its
+     *         smallest and largest value. The smallest and largest value
+     *         may lie outside of the values after cells have been changed,
+     *         and are null if they are not known. Deleted rows are counted
+     *         until they are compacted. Null if the Column does not exist.
+     */
+    public Object[][] COLUMN_STATISTICS(String column_name){
+        LOCK.readLock().lock();
+        try{
+            Column column = COLUMNS.get(getColumnNumberOf(column_name));
+            ColumnData data = column.getData();
+            Object[][] output = new Object[ZoneMap.segmentCount(no_of_rows)][];
+            for(int segment = 0 ; segment < output.length ; segment++){
+                ZoneMap.Segment statistics = column.getZoneMap().get(data, segment);
+                int from_row = segment << ZoneMap.SEGMENT_SHIFT;
+                output[segment] = new Object[]{ from_row, Math.min(no_of_rows - from_row, ZoneMap.SEGMENT_SIZE),
+                    statistics.null_count, statistics.distinct, statistics.min, statistics.max };
+            }
+            return output;
+        }
+        catch (ColumnNotFoundException e){
+            METRICS.reportFailure(OperationType.QUERY, e);
+            return null;
+        }
+        finally{
+            LOCK.readLock().unlock();
+        }
+    } // COLUMN_STATISTICS()
+
+
+    /**
+     * Method to aggregate the rows matching every Condition.
+     *
+     * The Aggregations are computed directly over the storage of the
+     * Columns. Large Databases are split into ranges of rows that are
+     * aggregated in parallel, and the partial results are merged.
+     *
+     * @param aggregations
+     *        The Aggregations, for example {@code Aggregation.sum("AMOUNT")}.
+     *
+     * @param conditions
+     *        The Conditions a row has to match. No Condition aggregates
+     *        every row.
+     *
+     * @return The result of every Aggregation, in the order of the
+     *         Aggregations, or null if a Column does not exist.
+     *
+     * @see Aggregation
+     */
+    public Object[] AGGREGATE(Aggregation[] aggregations, Condition... conditions){
+        LOCK.readLock().lock();
+        try{
+            ColumnData[] columns = getAggregatedData(aggregations);
+            long[] selection = select(conditions);
+            return Aggregator.aggregate(aggregations, columns, selection, no_of_rows, null)[0];
+        }
+        catch (ColumnNotFoundException e){
+            METRICS.reportFailure(OperationType.QUERY, e);
+            return null;
+        }
+        finally{
+            LOCK.readLock().unlock();
+        }
+    } // AGGREGATE()
+
+
+    /**
+     * Method to aggregate the rows matching every Condition for every
+     * distinct combination of values of some Columns.
+     *
+     * @param group_column_names
+     *        The names of the Columns whose values form the groups.
+     *
+     * @param aggregations
+     *        The Aggregations computed for every group.
+     *
+     * @param conditions
+     *        The Conditions a row has to match.
+     *
+     * @return One row per group, holding the values of the group Columns
+     *         followed by the result of every Aggregation. The groups are
+     *         ordered by the values of the group Columns, null values first.
+     *         Null if a Column does not exist.
+     *
+     * @see #AGGREGATE(Aggregation[], Condition...)
+     */
+    public Object[][] GROUP_BY(String[] group_column_names, Aggregation[] aggregations, Condition... conditions){
+        LOCK.readLock().lock();
+        try{
+            ColumnData[] group_columns = new ColumnData[group_column_names.length];
+            for(int index = 0 ; index < group_column_names.length ; index++){
+                group_columns[index] = COLUMNS.get(getColumnNumberOf(group_column_names[index])).getData();
+            }
+            ColumnData[] columns = getAggregatedData(aggregations);
+            long[] selection = select(conditions);
+
+            // no group Column puts every row into one group.
+            if(group_columns.length == 0){
+                return new Object[][]{ Aggregator.aggregate(aggregations, columns, selection, no_of_rows, null)[0] };
+            }
+
+            Aggregator.Groups groups = Aggregator.group(group_columns, selection, no_of_rows);
+            Object[][] results = Aggregator.aggregate(aggregations, columns, selection, no_of_rows, groups);
+
+            // joining the values of the group Columns and the results of every group.
+            Integer[] order = Aggregator.sortedGroups(groups, group_columns);
+            Object[][] output = new Object[groups.count][group_columns.length + aggregations.length];
+            for(int index = 0 ; index < order.length ; index++){
+                int group = order[index];
+                for(int col_num = 0 ; col_num < group_columns.length ; col_num++){
+                    output[index][col_num] = group_columns[col_num].get(groups.first_row[group]);
+                }
+                System.arraycopy(results[group], 0, output[index], group_columns.length, aggregations.length);
+            }
+            return output;
+        }
+        catch (ColumnNotFoundException e){
+            METRICS.reportFailure(OperationType.QUERY, e);
+            return null;
+        }
+        finally{
+            LOCK.readLock().unlock();
+        }
+    } // GROUP_BY()
+
+
+    /**
+     * @return The ColumnData of the Column of every Aggregation, null for
+     *         Aggregations counting rows. The caller holds the read lock.
+     */
+    private ColumnData[] getAggregatedData(Aggregation[] aggregations) throws ColumnNotFoundException {
+        ColumnData[] columns = new ColumnData[aggregations.length];
+        for(int index = 0 ; index < aggregations.length ; index++){
+            String column_name = aggregations[index].getColumnName();
+            if(column_name != null){
+                columns[index] = COLUMNS.get(getColumnNumberOf(column_name)).getData();
+            }
+        }
+        return columns;
+    } // getAggregatedData()
+
+
+    /**
+     * Method to select the rows matching every Condition. The caller holds 
+     * the read lock.
+     * 
+     * @return One bit per row, set for the matching rows.
+     */
+    private long[] select(Condition[] conditions) throws ColumnNotFoundException {
+        ColumnData[] columns = new ColumnData[conditions.length];
+        ZoneMap[] zone_maps = new ZoneMap[conditions.length];
+        Condition[] column_conditions = new Condition[conditions.length];
+        for(int index = 0 ; index < conditions.length ; index++){
+            int col_num = getColumnNumberOf(conditions[index].getColumnName());
+            // lazily loaded Columns are loaded here, before the rows are filtered in parallel.
+            columns[index] = COLUMNS.get(col_num).getData();
+            zone_maps[index] = COLUMNS.get(col_num).getZoneMap();
+            column_conditions[index] = (col_num == 0) ? conditions[index].toUpperCase() : conditions[index];
+        }
+        long[] selection = Selection.select(columns, zone_maps, column_conditions, no_of_rows);
+
+        // the deleted rows never match.
+        for(int row = TOMBSTONES.nextSetBit(0) ; row >= 0 ; row = TOMBSTONES.nextSetBit(row + 1)){
+            selection[row >>> 6] &= ~(1L << row);
+        }
+        return selection;
+    } // select()
+
+
+    /**
+     * Method to create a hash index on a Column, for FIND.
+     * 
+     * @param column_name
+     *        The name of the Column to be indexed.
+     * 
+     * @return True if the index was created, otherwise, false.
+     * 
+     * @see #CREATE_INDEX(String, IndexType, boolean)
+     */
+    public boolean CREATE_INDEX(String column_name){
+        return CREATE_INDEX(column_name, IndexType.HASH, false);
+    } // CREATE_INDEX()
+
+
+    /**
+     * Method to create an index on a Column.
+     * 
+     * @param column_name
+     *        The name of the Column to be indexed.
+     * 
+     * @param index_type
+     *        HASH for FIND, ORDERED for FIND and FIND_RANGE.
+     * 
+     * @return True if the index was created, otherwise, false.
+     * 
+     * @see #CREATE_INDEX(String, IndexType, boolean)
+     */
+    public boolean CREATE_INDEX(String column_name, IndexType index_type){
+        return CREATE_INDEX(column_name, index_type, false);
+    } // CREATE_INDEX()
+
+
+    /**
+     * Method to create an index on a Column.
+     * 
+     * The index maps every value of the Column to the IDs of the rows 
+     * holding it, so that FIND, and FIND_RANGE for an ORDERED index, read 
+     * only the matching rows instead of the whole Column. The index is 
+     * kept up to date by every change to the Database. An existing index 
+     * on the Column is replaced. The ID column cannot be indexed, it is 
+     * searched by its own index and by SCAN.
+     * 
+     * A persistent index is saved next to the Database file by SAVE and 
+     * read back when the Database is opened, instead of being rebuilt. If 
+     * the Database file has been written by {@code saveAsync()} since, the 
+     * index is rebuilt from its Column when the Database is opened.
+     * 
+     * @param column_name
+     *        The name of the Column to be indexed.
+     * 
+     * @param index_type
+     *        HASH for FIND, ORDERED for FIND and FIND_RANGE.
+     * 
+     * @param persistent
+     *        True if the index is saved with the Database.
+     * 
+     * @return True if the index was created, false if the Column does not 
+     *         exist, is the ID column or the Database is read-only.
+     */
+    public boolean CREATE_INDEX(String column_name, IndexType index_type, boolean persistent){
+        // a read-only Database cannot be changed.
+        if(read_only){
+            return false;
+        }
+        LOCK.writeLock().lock();
+        try{
+            int col_num = getColumnNumberOf(column_name);
+            if(read_only || col_num == 0 || index_type == null){
+                return false;
+            }
+
+            // building the index from the current rows, without the deleted ones.
+            compact();
+            Column column = COLUMNS.get(col_num);
+            ColumnIndex index = new ColumnIndex(column, index_type, persistent);
+            index.build(COLUMNS.get(0), no_of_rows);
+            INDEXES.put(column.getName(), index);
+            changed |= persistent;
+            return true;
+        }
+        catch (ColumnNotFoundException e){
+            METRICS.reportFailure(OperationType.SCHEMA, e);
+            return false;
+        }
+        finally{
+            LOCK.writeLock().unlock();
+        }
+    } // CREATE_INDEX()
+
+
+    /**
+     * Method to drop the index on a Column. A persistent index is removed 
+     * from the saved indexes by the next SAVE.
+     * 
+     * @param column_name
+     *        The name of the indexed Column.
+     * 
+     * @return True if the index was dropped, false if the Column had no 
+     *         index or the Database is read-only.
+     */
+    public boolean DROP_INDEX(String column_name){
+        // a read-only Database cannot be changed.
+        if(read_only){
+            return false;
+        }
+        LOCK.writeLock().lock();
+        try{
+            if(read_only){
+                return false;
+            }
+            ColumnIndex index = INDEXES.remove(column_name.toUpperCase());
+            changed |= (index != null && index.isPersistent());
+            return index != null;
+        }
+        finally{
+            LOCK.writeLock().unlock();
+        }
+    } // DROP_INDEX()
+
+
+    /**
+     * Method to choose how the cells of a Column are encoded in the saved 
+     * Database file.
+     * 
+     * @param column_name
+     *        The name of the Column.
+     * 
+     * @param encoding
+     *        The ColumnEncoding of the cells.
+     * 
+     * @return True if the encoding was set, otherwise, false.
+     * 
+     * @see #SET_COLUMN_ENCODING(String, ColumnEncoding, boolean)
+     */
+    public boolean SET_COLUMN_ENCODING(String column_name, ColumnEncoding encoding){
+        return SET_COLUMN_ENCODING(column_name, encoding, false);
+    } // SET_COLUMN_ENCODING()
+
+
+    /**
+     * Method to choose how the cells of a Column are encoded in the saved 
+     * Database file.
+     * 
+     * The encoding is used by every later SAVE and is kept in the file, so 
+     * a Database read from the file saves the Column the same way. AUTO 
+     * picks the smallest of the encodings fitting the cells on every SAVE, 
+     * PLAIN writes the cells as they are held in memory. An encoding 
+     * chosen for a Column whose ColumnType later changes to one it does 
+     * not fit is saved as PLAIN. Deflating the encoded cells makes the 
+     * file smaller at the cost of slower SAVEs and reads.
+     * 
+     * @param column_name
+     *        The name of the Column.
+     * 
+     * @param encoding
+     *        The ColumnEncoding of the cells.
+     * 
+     * @param deflate
+     *        True to compress the encoded cells with the Deflater.
+     * 
+     * @return True if the encoding was set, false if the Column does not 
+     *         exist, the encoding does not fit its ColumnType or the 
+     *         Database is read-only.
+     */
+    public boolean SET_COLUMN_ENCODING(String column_name, ColumnEncoding encoding, boolean deflate){
+        // a read-only Database cannot be changed.
+        if(read_only){
+            return false;
+        }
+        LOCK.writeLock().lock();
+        try{
+            Column column = COLUMNS.get(getColumnNumberOf(column_name));
+            if(read_only || encoding == null || !encoding.fits(column.getType())){
+                return false;
+            }
+            column.setEncoding(encoding, deflate);
+            changed = true;
+            return true;
+        }
+        catch (ColumnNotFoundException e){
+            METRICS.reportFailure(OperationType.SCHEMA, e);
+            return false;
+        }
+        finally{
+            LOCK.writeLock().unlock();
+        }
+    } // SET_COLUMN_ENCODING()
+
+
+    /**
+     * Method to choose whether the cells of a Column are held outside of 
+     * the Java heap.
+     * 
+     * The cells of a Column outside of the heap are kept in direct 
+     * ByteBuffers, so the garbage collector does not trace them, and the 
+     * choice is kept in the saved Database file. INT, LONG, DOUBLE, BOOLEAN 
+     * and STRING Columns can be held outside of the heap, but not the ID 
+     * column, which is searched by every lookup of a row, nor a Column 
+     * whose ColumnType is inferred.
+     * 
+     * @param column_name
+     *        The name of the Column.
+     * 
+     * @param off_heap
+     *        True to move the cells outside of the heap, false to move 
+     *        them back onto the heap.
+     * 
+     * @return True if the cells are held where requested, otherwise, false.
      */
-    public boolean DELETE(String id){
-        try{    
-        // getting the row number of id.
-            int row_num = getRowNumberOf(id);
-
-            for(Column col : COLUMNS){
-                // deleting values of the entry from each row
-                col.delete(row_num);
+    public boolean SET_COLUMN_OFF_HEAP(String column_name, boolean off_heap){
+        LOCK.writeLock().lock();
+        try{
+            int col_num = getColumnNumberOf(column_name);
+            Column column = COLUMNS.get(col_num);
+            if(read_only || col_num == 0 || column.isTypeInferred() || !OffHeapColumnData.supports(column.getType())){
+                return false;
             }
+            column.setOffHeap(off_heap);
+            changed = true;
+            return true;
         }
-        // if id does not exist, an exception will be thrown.
-        catch(RowNotFoundException e){
-            e.printStackTrace();
+        catch (ColumnNotFoundException e){
+            METRICS.reportFailure(OperationType.SCHEMA, e);
             return false;
         }
-        // reduce no_of_rows by 1 and return true if deletion was successful.
-        no_of_rows--;
-        return true;
-    } // DELETE()
+        finally{
+            LOCK.writeLock().unlock();
+        }
+    } // SET_COLUMN_OFF_HEAP()
 
 
     /**
-     * Method to get a value from the database.
+     * Method to find the rows whose value in a Column equals {@code value}.
      * 
-     * @param id
-     *        ID of the row entry whose value is requested.
+     * If the Column has an index, the matching rows are looked up in it. 
+     * Otherwise the search runs directly over the storage of the Column. 
+     * Values in a DICTIONARY Column are compared by their dictionary codes, 
+     * and values in numeric and boolean Columns are compared without boxing them.
      * 
      * @param column_name
-     *        The name of the column value to returned
+     *        Name of the {@code Column} to search.
      * 
-     * @return The object of {@code id} in {@code column_name}.
+     * @param value
+     *        The value to search for, null finds the empty cells.
+     * 
+     * @return The IDs of the matching rows in alphabetical order, or null if 
+     *         the Column does not exist.
      */
-    public Object GET(String id, String column_name){
+    public String[] FIND(String column_name, Object value){
+        LOCK.readLock().lock();
         try{
-            int col_num = getColumnNumberOf(column_name);
-            int row_num = getRowNumberOf(id);
+            int col_num;
+            try{
+                col_num = getColumnNumberOf(column_name);
+            }
+            catch (ColumnNotFoundException e){
+                METRICS.reportFailure(OperationType.QUERY, e);
+                return null;
+            }
+
+            // IDs are stored in uppercase.
+            if(col_num == 0 && value instanceof String){
+                value = ((String) value).toUpperCase();
+            }
+
+            // looking the value up in the index of the Column.
+            ColumnIndex column_index = INDEXES.get(COLUMNS.get(col_num).getName());
+            if(column_index != null){
+                ArrayList<String> ids = new ArrayList<>();
+                column_index.find(value, ids);
+                String[] output = ids.toArray(new String[0]);
+                Arrays.sort(output);
+                return output;
+            }
 
-            return COLUMNS.get(col_num).get(row_num);
+            // marking the matching rows.
+            BitSet matches = new BitSet(no_of_rows);
+            COLUMNS.get(col_num).getData().findEqual(value, matches);
+            TOMBSTONES.clearFrom(matches);
+
+            // collecting the IDs of the matching rows.
+            Column id_column = COLUMNS.get(0);
+            String[] output = new String[matches.cardinality()];
+            int index = 0;
+            for(int row = matches.nextSetBit(0) ; row >= 0 ; row = matches.nextSetBit(row + 1)){
+                output[index++] = (String) id_column.get(row);
+            }
+            return output;
         }
-        // if either id or column_name are invalid, an exception is thrown.
-        catch (ColumnNotFoundException | RowNotFoundException e){
-            e.printStackTrace();
-            return null;
+        finally{
+            LOCK.readLock().unlock();
         }
-    } // GET()
+    } // FIND()
 
 
     /**
-     * Method to set the value of cell in the Database.
+     * Method to find the rows whose value in a Column lies in a range.
      * 
-     * @param id
-     *        The ID of the Database row.
+     * If the Column has an ORDERED index, the rows are looked up in it, 
+     * otherwise every value of the Column is compared. Values are compared 
+     * by their natural order. In an OBJECT Column, values of different 
+     * classes are ordered by the names of their classes, and values that 
+     * are not Comparable never lie in a range.
      * 
      * @param column_name
-     *        The name of the Column in the Database.
+     *        Name of the {@code Column} to search.
      * 
-     * @param value
-     *        The value that the cell is to be set to.
-     *  
-     * @return True, if the cell value was set successfully. Otherwise, returns false.
+     * @param from_value
+     *        The first value of the range, inclusive. Null starts the range 
+     *        at the smallest value.
+     * 
+     * @param to_value
+     *        The end of the range, exclusive. Null ends the range at the 
+     *        largest value.
+     * 
+     * @return The IDs of the matching rows in alphabetical order, or null if 
+     *         the Column does not exist.
      */
-    public boolean SET(String id, String column_name, Object value){
-        int col_num, row_num;
+    public String[] FIND_RANGE(String column_name, Object from_value, Object to_value){
+        LOCK.readLock().lock();
         try{
-            col_num = getColumnNumberOf(column_name);
-            row_num = getRowNumberOf(id);
+            int col_num;
+            try{
+                col_num = getColumnNumberOf(column_name);
+            }
+            catch (ColumnNotFoundException e){
+                METRICS.reportFailure(OperationType.QUERY, e);
+                return null;
+            }
+            Column id_column = COLUMNS.get(0);
+
+            // the sorted ID column is searched by binary search.
+            if(col_num == 0){
+                if(!(from_value == null || from_value instanceof String) || !(to_value == null || to_value instanceof String)){
+                    return new String[0];
+                }
+                int from_row = (from_value == null) ? 0 : lowerBound(((String) from_value).toUpperCase());
+                int to_row = (to_value == null) ? no_of_rows : lowerBound(((String) to_value).toUpperCase());
+                ArrayList<String> ids = new ArrayList<>(Math.max(0, to_row - from_row));
+                for(int row = TOMBSTONES.nextClearBit(from_row) ; row < to_row ; row = TOMBSTONES.nextClearBit(row + 1)){
+                    ids.add((String) id_column.get(row));
+                }
+                return ids.toArray(new String[0]);
+            }
+
+            // looking the range up in an ORDERED index.
+            Column column = COLUMNS.get(col_num);
+            ColumnIndex index = INDEXES.get(column.getName());
+            if(index != null && index.getType() == IndexType.ORDERED){
+                ArrayList<String> ids = new ArrayList<>();
+                index.findRange(from_value, to_value, ids);
+                String[] output = ids.toArray(new String[0]);
+                Arrays.sort(output);
+                return output;
+            }
+
+            // otherwise comparing every value of the Column.
+            Object from_key = ColumnIndex.keyOf(column.getType(), from_value);
+            Object to_key = ColumnIndex.keyOf(column.getType(), to_value);
+            ArrayList<String> ids = new ArrayList<>();
+            if(ColumnIndex.isBound(from_key) && ColumnIndex.isBound(to_key)){
+                ColumnData data = column.getData();
+                for(int segment = 0 ; segment < ZoneMap.segmentCount(no_of_rows) ; segment++){
+                    int from_row = segment << ZoneMap.SEGMENT_SHIFT;
+                    int to_row = Math.min(no_of_rows, from_row + ZoneMap.SEGMENT_SIZE);
+                    // skipping the segments whose values all lie outside of the range.
+                    if(!mayBeInRange(column, data, segment, to_row - from_row, from_key, to_key)){
+                        continue;
+                    }
+                    for(int row = TOMBSTONES.nextClearBit(from_row) ; row < to_row ; row = TOMBSTONES.nextClearBit(row + 1)){
+                        if(ColumnIndex.inRange(data.get(row), from_key, to_key)){
+                            ids.add((String) id_column.get(row));
+                        }
+                    }
+                }
+            }
+            return ids.toArray(new String[0]);
         }
-        // if either id or column_name are invalid, an exception is thrown.
-        catch (ColumnNotFoundException | RowNotFoundException e){
-            e.printStackTrace();
+        finally{
+            LOCK.readLock().unlock();
+        }
+    } // FIND_RANGE()
+
+
+    /**
+     * @return False if the statistics of a segment of a Column show that 
+     *         none of its values lies in the range [from_key, to_key), for 
+     *         FIND_RANGE. Only Columns whose values are ordered like their 
+     *         statistics are checked, the order of DOUBLE and OBJECT values 
+     *         in FIND_RANGE differs for NaN, -0.0 and mixed classes.
+     */
+    private static boolean mayBeInRange(Column column, ColumnData data, int segment, int rows, Object from_key, Object to_key){
+        switch(column.getType()){
+            case INT:
+            case LONG:
+            case STRING:
+            case DICTIONARY:
+                break;
+            default:
+                return true;
+        }
+        ZoneMap.Segment statistics = column.getZoneMap().get(data, segment);
+        if(statistics.null_count == rows){
             return false;
         }
-        // creating a Column reference to col_num.
-        Column column = COLUMNS.get(col_num);
-        // setting the value of the cell.
-        column.set(row_num, value);
+        if(!statistics.ranged){
+            return true;
+        }
+        return (from_key == null || ColumnIndex.ORDER.compare(statistics.max, from_key) >= 0)
+            && (to_key == null || ColumnIndex.ORDER.compare(statistics.min, to_key) < 0);
+    } // mayBeInRange()
 
-        // if value was successfully set, return true.
-        return true;
-    } // SET()
+
+    /**
+     * @return The Ivory Database as a comma separated table, in the format 
+     *         written by {@code WRITE_CSV()}.
+     */
+    public String getCSV(){
+        StringWriter output = new StringWriter();
+        WRITE_CSV(output);
+        return output.toString();
+    } // getCSV()
 
 
     /**
-     * Method to get all the values of a Column in the Database.
+     * Method to write the Database as comma separated values (RFC 4180).
      * 
-     * @param column_name
-     *        Name of the {@code Column}.
+     * The first record holds the names of the Columns and every following 
+     * record one row, in the order of the IDs. The rows are written one at 
+     * a time through a buffer, so the table is never held in memory as a 
+     * whole. Changes to the Database wait until the export is finished.
      * 
-     * @return {@code Object[]} with the values contained in the requested Column.
+     * @param writer
+     *        The Writer the records are written to. It is flushed, not closed.
+     * 
+     * @param column_names
+     *        The names of the Columns to be written, in the order of the 
+     *        fields. All Columns are written if no name is given.
+     * 
+     * @return True if the Database was written, false if a Column does not 
+     *         exist or the Writer failed.
      */
-    public Object[] GET_COLUMN(String column_name){
+    public boolean WRITE_CSV(Writer writer, String... column_names){
+        LOCK.readLock().lock();
         try{
-            // getting the column number of the column_name.
-            int col_num = getColumnNumberOf(column_name);
+            // picking the Columns to be written.
+            List<Column> columns = COLUMNS;
+            if(column_names.length > 0){
+                columns = new ArrayList<>(column_names.length);
+                for(String column_name : column_names){
+                    columns.add(COLUMNS.get(getColumnNumberOf(column_name)));
+                }
+            }
 
-            // converting Column to an Object Array and returning it.
-            return COLUMNS.get(col_num).toArray();
+            BufferedWriter output = new BufferedWriter(writer, IvoryFile.BUFFER_SIZE);
+            CsvFile.write(output, columns, no_of_rows, TOMBSTONES);
+            output.flush();
+            return true;
         }
-        catch (ColumnNotFoundException e){
-            e.printStackTrace();
-            return null;
+        catch (ColumnNotFoundException | IOException e){
+            METRICS.reportFailure(OperationType.EXPORT, e);
+            return false;
         }
-    } // GET_COLUMN()
+        finally{
+            LOCK.readLock().unlock();
+        }
+    } // WRITE_CSV(Writer)
 
 
     /**
-     * @return The Ivory Database as a comma separated table.
+     * Method to write the Database to a channel as UTF-8 comma separated values.
+     * 
+     * @param channel
+     *        The channel the records are written to. It is not closed.
+     * 
+     * @param column_names
+     *        The names of the Columns to be written, in the order of the 
+     *        fields. All Columns are written if no name is given.
+     * 
+     * @return True if the Database was written.
+     * 
+     * @see #WRITE_CSV(Writer, String...)
      */
-    public String getCSV(){
-        StringBuilder output = new StringBuilder();
-        Column currentCol;
-        for(int row = 0 ; row < no_of_rows ; row++){
-            for(int col = 0 ; col < no_of_columns ; col++){
-                currentCol = COLUMNS.get(col);
-                output.append(currentCol.get(row)).append(", ");
+    public boolean WRITE_CSV(WritableByteChannel channel, String... column_names){
+        return WRITE_CSV(Channels.newWriter(channel, StandardCharsets.UTF_8), column_names);
+    } // WRITE_CSV(WritableByteChannel)
+
+
+    /**
+     * Method to add the rows of a CSV file, as written by {@code WRITE_CSV()}, 
+     * to the Database.
+     * 
+     * The first record of the file names the Columns of its fields, and must 
+     * contain the ID Column. Columns of the Database that are missing from 
+     * the file are left empty. The file is read in memory-mapped windows, 
+     * every window is split into chunks that are parsed in parallel straight 
+     * into one buffer per Column, and the parsed rows are merged into the 
+     * Database like a batch of {@code ADD_ALL()}.
+     * 
+     * A record is skipped if it has the wrong number of fields, a value that 
+     * does not fit its Column, or an ID that already exists.
+     * 
+     * @param csv_file
+     *        The CSV file to be read.
+     * 
+     * @return The number of rows added, or -1 if the file could not be read, 
+     *         names a Column that does not exist, or its rows could not all 
+     *         be added because the Database became read-only or the 
+     *         write-ahead log could not be written during the import.
+     */
+    public int IMPORT_CSV(File csv_file){
+        // a read-only Database cannot be changed.
+        if(read_only){
+            return -1;
+        }
+        try (FileChannel channel = FileChannel.open(csv_file.toPath(), StandardOpenOption.READ)){
+            CsvFile.Reader reader = new CsvFile.Reader(channel);
+            String[] header = reader.readHeader();
+
+            // matching the fields to the Columns.
+            String[] column_names;
+            int[] column_of_field = new int[header.length];
+            ColumnType[] types;
+            boolean[] lenient;
+            LOCK.readLock().lock();
+            try{
+                for(int field = 0 ; field < header.length ; field++){
+                    column_of_field[field] = getColumnNumberOf(header[field]);
+                }
+                column_names = getColumnNames();
+                types = new ColumnType[no_of_columns];
+                lenient = new boolean[no_of_columns];
+                for(int col_num = 0 ; col_num < no_of_columns ; col_num++){
+                    Column column = COLUMNS.get(col_num);
+                    // a Column still waiting for its type keeps the text, an inferred Column may fall back to OBJECT.
+                    types[col_num] = column.isTypePending() ? ColumnType.STRING : column.getType();
+                    lenient[col_num] = column.isTypeInferred();
+                }
+            }
+            finally{
+                LOCK.readLock().unlock();
+            }
+            boolean has_id = false;
+            for(int col_num : column_of_field){
+                has_id |= (col_num == 0);
+            }
+            if(!has_id){
+                throw new ColumnNotFoundException("ID");
             }
-            output.append("\b\n");
+
+            // parsing and merging one window at a time.
+            int added = 0;
+            List<CsvFile.Chunk> chunks;
+            while((chunks = reader.readChunks(column_of_field, types, lenient)) != null){
+                int chunks_added = addChunks(chunks, column_names);
+                // the rest of the file is not read once the rows can no longer be added or logged.
+                if(chunks_added < 0){
+                    return -1;
+                }
+                added += chunks_added;
+            }
+            return added;
         }
-        return output.toString();
-    } // GET_CONTENTS()
+        catch (ColumnNotFoundException | IOException e){
+            METRICS.reportFailure(OperationType.IMPORT, e);
+            return -1;
+        }
+    } // IMPORT_CSV()
 
 
     /* Helper Methods */
@@ -741,27 +3685,66 @@ public class IvoryDatabase implements AutoCloseable, Serializable{
      *         Otherwise, the respective index value where the entry fits alphabetically.
      */
     private int findInsertIndex(String id){
-        // making id uppercase.
-        id = id.toUpperCase();
+        // the first ID that is alphabetically equal to or after id.
+        int low = lowerBound(id.toUpperCase());
+
+        // if ID column is empty or the entry needs to be added to the end of the column, return -1.
+        return (low == no_of_rows) ? -1 : low;
+    } // findInsertIndex()
+
+
+    /**
+     * @param id
+     *        An uppercase ID.
+     * 
+     * @return The row number of the first ID that is alphabetically equal 
+     *         to or after {@code id}, {@code no_of_rows} if there is none.
+     */
+    private int lowerBound(String id){
         // getting the ID attribute column.
         Column id_column = COLUMNS.get(0);
 
-        // if ID column is empty, then return -1.
-        if (no_of_rows == 0){
-            return -1;
+        // binary search for the first ID that is alphabetically equal to or after id.
+        int low = 0;
+        int high = no_of_rows;
+        while(low < high){
+            int mid = (low + high) >>> 1;
+            if(id.compareTo((String) id_column.get(mid)) <= 0){
+                high = mid;
+            }
+            else{
+                low = mid + 1;
+            }
         }
-        else{
-            // running loop through ID column to find alphabetically correct index to insert the entry.
-            for(int index = 0 ; index < no_of_rows ; index++){
-                if(id.compareTo((String)id_column.get(index)) <= 0){
-                    return index;
-                }
+        return low;
+    } // lowerBound()
+
+
+    /**
+     * @param prefix
+     *        An uppercase prefix.
+     * 
+     * @return The row number of the first ID after all IDs starting with 
+     *         {@code prefix}, {@code no_of_rows} if there is none.
+     */
+    private int prefixUpperBound(String prefix){
+        Column id_column = COLUMNS.get(0);
+
+        // the IDs before prefix and the IDs starting with it come first in the sorted ID column.
+        int low = 0;
+        int high = no_of_rows;
+        while(low < high){
+            int mid = (low + high) >>> 1;
+            String id = (String) id_column.get(mid);
+            if(id.compareTo(prefix) < 0 || id.startsWith(prefix)){
+                low = mid + 1;
+            }
+            else{
+                high = mid;
             }
         }
-        
-        // if entry needs to be added to the end of the column.
-        return -1;
-    } // findInsertIndex()
+        return low;
+    } // prefixUpperBound()
 
 
     /**
@@ -793,7 +3776,7 @@ public class IvoryDatabase implements AutoCloseable, Serializable{
 
 
     /**
-     * Method to get the column number of a column.
+     * Method to get the row number of an ID.
      * 
      * @param id
      *        The ID of the row.
@@ -807,18 +3790,283 @@ public class IvoryDatabase implements AutoCloseable, Serializable{
         throws RowNotFoundException {
         // make id uppercase.
         id = id.toUpperCase();
-        // making a reference to the ID column.
-        Column id_columns = COLUMNS.get(0);
 
-        // run loop through the ID column.
-        for(int index = 0 ; index < no_of_rows ; index++){
-            if(id.equals(id_columns.get(index))){
-                return index;
+        // a memory-mapped Database has no ID index, the row is found by binary search.
+        if(ID_INDEX == null){
+            int row_num = findInsertIndex(id);
+            if(row_num == -1 || !id.equals(COLUMNS.get(0).get(row_num))){
+                throw new RowNotFoundException(id);
             }
+            return row_num;
         }
-        
+
+        // looking up the row number hint in the ID index.
+        Integer hint = ID_INDEX.get(id);
         // throw an Exception if a row with the ID id is not found.
-        throw new RowNotFoundException(id);
+        if(hint == null){
+            throw new RowNotFoundException(id);
+        }
+
+        // if the row has not moved since the hint was stored, return it straight away.
+        Column id_column = COLUMNS.get(0);
+        if(hint < no_of_rows && id.equals(id_column.get(hint))){
+            return hint;
+        }
+
+        // otherwise the row has moved, the binary search in findInsertIndex() lands on it.
+        int row_num = findInsertIndex(id);
+        if(row_num == -1 || !id.equals(id_column.get(row_num))){
+            throw new RowNotFoundException(id);
+        }
+        ID_INDEX.put(id, row_num);
+        return row_num;
     } // getRowNumberOf()
 
+
+    /**
+     * Method to get the row numbers of many IDs. The caller holds the read 
+     * lock.
+     * 
+     * @param ids
+     *        The IDs of the rows.
+     * 
+     * @param order
+     *        An array of {@code ids.size()} ints, set to the indexes of the 
+     *        IDs in {@code ids} in the order of their row numbers, so that 
+     *        the rows can be read in the order they are stored.
+     * 
+     * @return The row number of every ID in the order of {@code ids}, -1 for 
+     *         the IDs that do not exist in the Database.
+     */
+    private int[] getRowNumbersOf(Collection<String> ids, int[] order){
+        int[] row_nums = new int[ids.size()];
+        // the row number and the index of every ID in one long, sorted without boxing them.
+        long[] sorted = new long[row_nums.length];
+        int index = 0;
+        for(String id : ids){
+            try{
+                row_nums[index] = getRowNumberOf(id);
+            }
+            // an ID that does not exist is left out of the rows that are read.
+            catch (RowNotFoundException e){
+                row_nums[index] = -1;
+            }
+            sorted[index] = ((long) row_nums[index] << 32) | index;
+            index++;
+        }
+        Arrays.sort(sorted);
+        for(index = 0 ; index < sorted.length ; index++){
+            order[index] = (int) sorted[index];
+        }
+        return row_nums;
+    } // getRowNumbersOf()
+
+
+    /**
+     * Method to append an operation to the write-ahead log, if it is enabled. 
+     * The caller holds the lock of the Database.
+     * 
+     * @return The sequence number of the log record, 0 if the log is not 
+     *         enabled, or -1 if the record could not be appended.
+     */
+    private long logOperation(byte operation, Object... arguments){
+        changed = true;
+        if(LOG == null){
+            return 0;
+        }
+        try{
+            long lsn = LOG.append(operation, arguments);
+
+            // folding a long log back into the Database file in the background.
+            if(LOG.size() > CHECKPOINT_THRESHOLD && checkpoint_scheduled.compareAndSet(false, true)){
+                BACKGROUND.execute(() -> {
+                    checkpoint_scheduled.set(false);
+                    checkpoint();
+                });
+            }
+            return lsn;
+        }
+        catch (IOException e){
+            METRICS.reportFailure(OperationType.LOG, e);
+            return -1;
+        }
+    } // logOperation()
+
+
+    /**
+     * Method to wait until a log record has been forced to disk. Records 
+     * appended at about the same time are forced together.
+     * 
+     * @param lsn
+     *        The value returned by {@code logOperation()}.
+     * 
+     * @return True if the change is durable, or the log is not enabled.
+     */
+    private boolean awaitLog(long lsn){
+        WriteAheadLog log = LOG;
+        // a log that has been disabled since has saved the change in a checkpoint.
+        if(lsn <= 0 || log == null){
+            return lsn == 0 || log == null;
+        }
+        try{
+            log.awaitDurable(lsn);
+            return true;
+        }
+        catch (IOException e){
+            METRICS.reportFailure(OperationType.LOG, e);
+            return false;
+        }
+    } // awaitLog()
+
+
+    /**
+     * Method to apply a record of the write-ahead log while it is replayed.
+     */
+    private void applyLogRecord(byte operation, Object[] arguments){
+        switch(operation){
+            case WriteAheadLog.OP_ADD:
+                applyAdd(arguments);
+                break;
+            case WriteAheadLog.OP_SET:
+                applySet((String) arguments[0], (String) arguments[1], arguments[2]);
+                break;
+            case WriteAheadLog.OP_DELETE:
+                applyDelete((String) arguments[0]);
+                break;
+            case WriteAheadLog.OP_ADD_COLUMN:
+                applyAddColumn((String) arguments[0], (arguments[1] == null) ? null : ColumnType.valueOf((String) arguments[1]));
+                break;
+            case WriteAheadLog.OP_DELETE_COLUMN:
+                applyDeleteColumn((String) arguments[0]);
+                break;
+            default:
+                throw new IllegalStateException("Unknown write-ahead log operation: " + operation + ".");
+        }
+    } // applyLogRecord()
+
+
+    /**
+     * Method to close the write-ahead log without a checkpoint.
+     */
+    private void closeLog(){
+        LOCK.writeLock().lock();
+        try{
+            if(LOG == null){
+                return;
+            }
+            try{
+                LOG.close();
+            }
+            catch (IOException e){
+                METRICS.reportFailure(OperationType.LOG, e);
+            }
+            LOG = null;
+        }
+        finally{
+            LOCK.writeLock().unlock();
+        }
+    } // closeLog()
+
+
+    /**
+     * @param column_names
+     *        The names of Columns, or no names for all Columns.
+     * 
+     * @return The column numbers of the Columns.
+     * 
+     * @throws ColumnNotFoundException
+     *         if a Column does not exist.
+     */
+    private int[] getColumnNumbersOf(String[] column_names) 
+        throws ColumnNotFoundException {
+        int[] col_nums;
+        if(column_names.length == 0){
+            col_nums = new int[no_of_columns];
+            for(int col_num = 0 ; col_num < no_of_columns ; col_num++){
+                col_nums[col_num] = col_num;
+            }
+        }
+        else{
+            col_nums = new int[column_names.length];
+            for(int index = 0 ; index < column_names.length ; index++){
+                col_nums[index] = getColumnNumberOf(column_names[index]);
+            }
+        }
+        return col_nums;
+    } // getColumnNumbersOf()
+
+
+    /**
+     * Method to add a new row to the secondary indexes. The caller holds 
+     * the write lock.
+     * 
+     * @param row_num
+     *        The row number of the new row.
+     * 
+     * @param id
+     *        The ID of the new row.
+     */
+    private void addToIndexes(int row_num, String id){
+        for(ColumnIndex index : INDEXES.values()){
+            index.add(index.getColumn().get(row_num), id);
+        }
+    } // addToIndexes()
+
+
+    /**
+     * @return The indexes that are saved with the Database. The caller 
+     *         holds the read or the write lock.
+     */
+    private List<ColumnIndex> persistentIndexes(){
+        List<ColumnIndex> indexes = new ArrayList<>();
+        for(ColumnIndex index : INDEXES.values()){
+            if(index.isPersistent()){
+                indexes.add(index);
+            }
+        }
+        return indexes;
+    } // persistentIndexes()
+
+
+    /**
+     * Method to read the indexes saved next to {@code FILE_LOCATION}, if any.
+     * 
+     * @param checksum
+     *        The header checksum of the Database file.
+     * 
+     * @param rebuild
+     *        True if indexes saved with an earlier Database file are rebuilt, 
+     *        false if they are left out.
+     */
+    private void readIndexes(int checksum, boolean rebuild){
+        File index_file = ColumnIndex.indexFileOf(FILE_LOCATION);
+        if(!index_file.exists()){
+            return;
+        }
+        try{
+            for(ColumnIndex index : ColumnIndex.read(index_file, COLUMNS, no_of_rows, checksum, rebuild)){
+                INDEXES.put(index.getColumn().getName(), index);
+            }
+        }
+        // the Database is intact without its indexes, they can be created again.
+        catch (IOException | IllegalArgumentException e){
+            METRICS.reportFailure(OperationType.LOAD, e);
+        }
+    } // readIndexes()
+
+
+    /**
+     * Method to rebuild {@code ID_INDEX} from the ID column.
+     */
+    private void rebuildIdIndex(){
+        ID_INDEX = new ConcurrentHashMap<>(no_of_rows);
+        // making a reference to the ID column.
+        Column id_column = COLUMNS.get(0);
+
+        // every ID that has not been deleted is mapped to its current row number.
+        for(int index = TOMBSTONES.nextClearBit(0) ; index < no_of_rows ; index = TOMBSTONES.nextClearBit(index + 1)){
+            ID_INDEX.put((String) id_column.get(index), index);
+        }
+    } // rebuildIdIndex()
+
 } // class
\ No newline at end of file
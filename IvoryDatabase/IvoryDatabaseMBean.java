@@ -0,0 +1,81 @@
+package IvoryDatabase;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The IvoryDatabaseMXBean of an Ivory Database, reading its counts and 
+ * latencies from its IvoryMetrics.
+ */
+final class IvoryDatabaseMBean implements IvoryDatabaseMXBean {
+    private final IvoryDatabase database;
+
+
+    IvoryDatabaseMBean(IvoryDatabase database){
+        this.database = database;
+    } // constructor
+
+
+    @Override
+    public int getRowCount(){
+        return database.getRowCount();
+    } // getRowCount()
+
+
+    @Override
+    public int getColumnCount(){
+        return database.getColumnCount();
+    } // getColumnCount()
+
+
+    @Override
+    public long getEstimatedHeapBytes(){
+        return database.getEstimatedHeapBytes();
+    } // getEstimatedHeapBytes()
+
+
+    @Override
+    public long getOffHeapBytes(){
+        return database.getOffHeapBytes();
+    } // getOffHeapBytes()
+
+
+    @Override
+    public CacheStatistics getRowCacheStatistics(){
+        return database.getRowCacheStatistics();
+    } // getRowCacheStatistics()
+
+
+    @Override
+    public double getLastSaveMillis(){
+        return database.getMetrics().getLastSaveNanos() / 1e6;
+    } // getLastSaveMillis()
+
+
+    @Override
+    public long getLastSaveBytes(){
+        return database.getMetrics().getLastSaveBytes();
+    } // getLastSaveBytes()
+
+
+    @Override
+    public long getLastSaveTime(){
+        return database.getMetrics().getLastSaveTime();
+    } // getLastSaveTime()
+
+
+    @Override
+    public Map<String, LatencyStatistics> getOperationStatistics(){
+        Map<String, LatencyStatistics> statistics = new LinkedHashMap<>();
+        for(OperationType type : OperationType.values()){
+            statistics.put(type.name(), database.getMetrics().getStatistics(type));
+        }
+        return statistics;
+    } // getOperationStatistics()
+
+
+    @Override
+    public void resetStatistics(){
+        database.getMetrics().reset();
+    } // resetStatistics()
+} // class
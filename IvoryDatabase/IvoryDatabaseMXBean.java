@@ -0,0 +1,71 @@
+package IvoryDatabase;
+
+import java.util.Map;
+
+/**
+ * The management interface of an Ivory Database, registered with the 
+ * platform MBeanServer by {@code IvoryDatabase.registerMBean()}, so that 
+ * its size and the counts and latencies of its operations can be read 
+ * with JConsole, VisualVM or any other JMX client.
+ */
+public interface IvoryDatabaseMXBean {
+
+    /**
+     * @return The number of rows.
+     */
+    int getRowCount();
+
+
+    /**
+     * @return The number of Columns, including the ID column.
+     */
+    int getColumnCount();
+
+
+    /**
+     * @return An estimate of the heap bytes held by the cells and the ID index.
+     */
+    long getEstimatedHeapBytes();
+
+
+    /**
+     * @return The bytes allocated outside of the heap for the cells of Columns.
+     */
+    long getOffHeapBytes();
+
+
+    /**
+     * @return The duration of the last successful save in milliseconds.
+     */
+    double getLastSaveMillis();
+
+
+    /**
+     * @return The size in bytes of the file written by the last successful save.
+     */
+    long getLastSaveBytes();
+
+
+    /**
+     * @return The time of the last successful save in milliseconds since the epoch.
+     */
+    long getLastSaveTime();
+
+
+    /**
+     * @return The counts of the row cache, or null if it is not enabled.
+     */
+    CacheStatistics getRowCacheStatistics();
+
+
+    /**
+     * @return The counts and latencies of every OperationType, by its name.
+     */
+    Map<String, LatencyStatistics> getOperationStatistics();
+
+
+    /**
+     * Method to set every counter and histogram back to zero.
+     */
+    void resetStatistics();
+} // interface
@@ -0,0 +1,818 @@
+package IvoryDatabase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Reading and writing the binary columnar Ivory Database file format.
+ * 
+ * A file starts with a header holding the magic number "IVRY", the format 
+ * version, the number of rows, the number of Columns and the sequence 
+ * number of the last write-ahead log record contained in the file, 
+ * followed by a directory entry for every Column: its name, ColumnType, type flags 
+ * and the flag of cells held outside of the heap, its ColumnEncoding and Deflater flag, the offset and length of its block, 
+ * the CRC32 of its block, the encoding its block is written in and the 
+ * statistics of its segments (see ZoneMap). The header ends with the CRC32 
+ * of the header itself. The Column blocks follow the 
+ * header, one contiguous block per Column. In the PLAIN encoding a block holds
+ * 
+ *   INT, LONG, DOUBLE  the NullMask, then the values as a primitive array.
+ *   BOOLEAN            the NullMask, then one byte per value.
+ *   DICTIONARY         the dictionary Strings, then one int code per row.
+ *   STRING             one String per row.
+ *   OBJECT             one tagged value per row.
+ * 
+ * The other encodings are written by ColumnCodec. A block compressed with 
+ * the Deflater is written as the length of the compressed bytes followed 
+ * by the compressed bytes of the encoded block. 
+ * 
+ * All numbers are little-endian and Strings are written as their UTF-8 
+ * length followed by their UTF-8 bytes. Version 1 files have no log 
+ * sequence number, version 1 and 2 files have no checksums, files 
+ * before version 4 have no segment statistics and files before version 5 
+ * have PLAIN blocks only. The PLAIN blocks of INT, LONG, DOUBLE, BOOLEAN and 
+ * STRING Columns held outside of the heap are written from and read into 
+ * their buffers as they are (see OffHeapColumnData). 
+ * 
+ * A file is written to a temporary file next to it, forced to disk and 
+ * then renamed over the old file, so a crash during a write leaves the 
+ * old file intact. Files written by earlier versions 
+ * of Ivory Database are Java serialization streams, which start with the 
+ * bytes 0xACED instead of the magic number.
+ */
+final class IvoryFile {
+    static final int MAGIC = 0x59525649; // "IVRY" read as a little-endian int.
+    static final int VERSION = 5; // the version of the format written by this class.
+    static final int BUFFER_SIZE = 1 << 16; // the size of the I/O buffers in bytes.
+
+    private static final int FLAG_TYPE_INFERRED = 1; // set if the ColumnType was inferred.
+    private static final int FLAG_TYPE_PENDING = 2; // set if the ColumnType is still to be inferred.
+    private static final int FLAG_OFF_HEAP = 4; // set if the cells are held outside of the heap.
+
+    // tags of the values in an OBJECT Column block.
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_INT = 1;
+    private static final byte TAG_LONG = 2;
+    private static final byte TAG_DOUBLE = 3;
+    private static final byte TAG_BOOLEAN = 4;
+    private static final byte TAG_STRING = 5;
+    private static final byte TAG_SERIALIZED = 6;
+
+
+    /**
+     * The directory entry of a Column in the header of a file.
+     */
+    static final class ColumnEntry {
+        String name; // the name of the Column.
+        ColumnType type; // the ColumnType of the Column.
+        int flags; // FLAG_TYPE_INFERRED, FLAG_TYPE_PENDING and FLAG_OFF_HEAP.
+        long offset; // the position of the Column block in the file.
+        long length; // the length of the Column block in bytes.
+        int checksum; // the CRC32 of the Column block.
+        boolean has_checksum; // false for files written before version 3.
+        ZoneMap zone_map; // the statistics of the segments of the Column, null before version 4.
+        ColumnEncoding encoding = ColumnEncoding.AUTO; // the encoding chosen for the Column.
+        boolean deflate; // true if the block is compressed with the Deflater.
+        ColumnEncoding block_encoding = ColumnEncoding.PLAIN; // the encoding the block is written in.
+    } // class ColumnEntry
+
+
+    /**
+     * The header of a file.
+     */
+    static final class Header {
+        int version; // the format version of the file.
+        int no_of_rows; // the number of rows.
+        long checkpoint_lsn; // the sequence number of the last log record contained in the file.
+        ColumnEntry[] columns; // the directory entry of every Column.
+        int checksum; // the CRC32 of the header, 0 before version 3.
+    } // class Header
+
+
+    private IvoryFile(){
+    } // constructor
+
+
+    /**
+     * Method to check if a file was written by Java serialization, as 
+     * Ivory Database files were before the binary format.
+     * 
+     * @param file
+     *        The file to check.
+     * 
+     * @return True if {@code file} starts with the Java serialization magic number.
+     */
+    static boolean isSerialized(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+            ByteBuffer magic = ByteBuffer.allocate(2);
+            while(magic.hasRemaining() && channel.read(magic) >= 0);
+            return magic.position() == 2 && magic.get(0) == (byte) 0xAC && magic.get(1) == (byte) 0xED;
+        }
+    } // isSerialized()
+
+
+    /**
+     * Method to write Columns to a file in the binary format. The Columns 
+     * are written to a temporary file which then replaces {@code file} 
+     * atomically.
+     * 
+     * @param file
+     *        The file that is written. An existing file is replaced.
+     * 
+     * @param columns
+     *        The Columns of the Database, the ID Column first.
+     * 
+     * @param no_of_rows
+     *        The number of rows of the Database.
+     * 
+     * @param checkpoint_lsn
+     *        The sequence number of the last write-ahead log record whose 
+     *        operation is contained in {@code columns}, 0 if there is no log.
+     * 
+     * @return The CRC32 of the header of the written file.
+     */
+    static int write(File file, List<Column> columns, int no_of_rows, long checkpoint_lsn) throws IOException {
+        File temp_file = new File(file.getPath() + ".tmp");
+        boolean written = false;
+        try{
+            int checksum = writeFile(temp_file, columns, no_of_rows, checkpoint_lsn);
+            replaceFile(temp_file, file);
+            written = true;
+            return checksum;
+        }
+        finally{
+            // an incomplete temporary file is never read.
+            if(!written){
+                temp_file.delete();
+            }
+        }
+    } // write()
+
+
+    /**
+     * Method to write Columns to {@code file} and force it to disk.
+     * 
+     * @return The CRC32 of the header.
+     */
+    private static int writeFile(File file, List<Column> columns, int no_of_rows, long checkpoint_lsn) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), 
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+            ChannelOutput out = new ChannelOutput(channel, BUFFER_SIZE);
+
+            /* HEADER */
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+            out.putInt(no_of_rows);
+            out.putInt(columns.size());
+            out.putLong(checkpoint_lsn);
+
+            // writing the directory, the block offsets and lengths are filled in once they are known.
+            long[] entry_positions = new long[columns.size()];
+            for(int col_num = 0 ; col_num < columns.size() ; col_num++){
+                Column column = columns.get(col_num);
+                out.putString(column.getName());
+                out.putString(column.getType().name());
+                out.putByte((column.isTypeInferred() ? FLAG_TYPE_INFERRED : 0) | (column.isTypePending() ? FLAG_TYPE_PENDING : 0)
+                    | (column.isOffHeap() ? FLAG_OFF_HEAP : 0));
+                out.putByte(column.getEncoding().ordinal());
+                out.putByte(column.isDeflated() ? 1 : 0);
+                entry_positions[col_num] = out.getPosition();
+                out.putLong(0);
+                out.putLong(0);
+                out.putInt(0);
+                out.putByte(0);
+                ZoneMap zone_map = column.getZoneMap();
+                zone_map.complete(column.getData());
+                zone_map.write(out, no_of_rows);
+            }
+            int header_length = (int) out.getPosition();
+            out.putInt(0);
+
+            /* COLUMN BLOCKS */
+            long[] offsets = new long[columns.size()];
+            long[] lengths = new long[columns.size()];
+            int[] checksums = new int[columns.size()];
+            ColumnEncoding[] block_encodings = new ColumnEncoding[columns.size()];
+            for(int col_num = 0 ; col_num < columns.size() ; col_num++){
+                Column column = columns.get(col_num);
+                block_encodings[col_num] = ColumnCodec.choose(column.getData(), column.getEncoding());
+                offsets[col_num] = out.getPosition();
+                out.startChecksum();
+                writeBlock(out, column.getData(), block_encodings[col_num], column.isDeflated());
+                checksums[col_num] = out.getChecksum();
+                lengths[col_num] = out.getPosition() - offsets[col_num];
+            }
+            out.flush();
+            out.release();
+
+            // filling in the directory.
+            ByteBuffer entry = ByteBuffer.allocate(21).order(ByteOrder.LITTLE_ENDIAN);
+            for(int col_num = 0 ; col_num < columns.size() ; col_num++){
+                entry.clear();
+                entry.putLong(offsets[col_num]).putLong(lengths[col_num]).putInt(checksums[col_num])
+                    .put((byte) block_encodings[col_num].ordinal()).flip();
+                writeFully(channel, entry, entry_positions[col_num]);
+            }
+
+            // the checksum of the header covers the filled in directory.
+            ByteBuffer header = ByteBuffer.allocate(header_length);
+            while(header.hasRemaining()){
+                if(channel.read(header, header.position()) < 0){
+                    throw new IOException("Unexpected end of file while writing " + file.getName() + ".");
+                }
+            }
+            header.flip();
+            CRC32 crc = new CRC32();
+            crc.update(header);
+            ByteBuffer header_checksum = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            header_checksum.putInt((int) crc.getValue()).flip();
+            writeFully(channel, header_checksum, header_length);
+
+            // the file has to be on disk before it replaces the old file.
+            channel.force(true);
+            return (int) crc.getValue();
+        }
+    } // writeFile()
+
+
+    /**
+     * Method to move {@code temp_file} over {@code file} atomically and 
+     * force the rename to disk.
+     */
+    static void replaceFile(File temp_file, File file) throws IOException {
+        try{
+            Files.move(temp_file.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (AtomicMoveNotSupportedException e){
+            Files.move(temp_file.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        // forcing the directory entry, not every platform can open a directory.
+        File directory = file.getAbsoluteFile().getParentFile();
+        try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)){
+            channel.force(true);
+        }
+        catch (IOException e){
+            // the rename is still atomic, it may only be lost if the system crashes right now.
+        }
+    } // replaceFile()
+
+
+    /**
+     * Method to write all bytes of {@code bytes} to {@code channel} at {@code position}.
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer bytes, long position) throws IOException {
+        while(bytes.hasRemaining()){
+            channel.write(bytes, position + bytes.position());
+        }
+    } // writeFully()
+
+
+    /**
+     * Method to read all Columns of a file in the binary format.
+     * 
+     * @param file
+     *        The file that is read.
+     * 
+     * @return The Columns of the Database, the ID Column first.
+     * 
+     * @throws IOException
+     *         if the file cannot be read or is not a valid Ivory Database file.
+     */
+    static ArrayList<Column> read(File file) throws IOException {
+        return read(file, null);
+    } // read()
+
+
+    /**
+     * Method to read all Columns of a file in the binary format.
+     * 
+     * @param file
+     *        The file that is read.
+     * 
+     * @param header
+     *        If not null, the header of the file is copied into it.
+     * 
+     * @return The Columns of the Database, the ID Column first.
+     * 
+     * @throws IOException
+     *         if the file cannot be read or is not a valid Ivory Database file.
+     */
+    static ArrayList<Column> read(File file, Header header) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+            ChannelInput in = new ChannelInput(channel, BUFFER_SIZE);
+            Header read_header = readHeader(in);
+            if(header != null){
+                header.version = read_header.version;
+                header.no_of_rows = read_header.no_of_rows;
+                header.checkpoint_lsn = read_header.checkpoint_lsn;
+                header.columns = read_header.columns;
+                header.checksum = read_header.checksum;
+            }
+
+            // the Column blocks follow the header in directory order.
+            ArrayList<Column> columns = new ArrayList<>(read_header.columns.length);
+            for(ColumnEntry entry : read_header.columns){
+                columns.add(readColumn(in, entry, read_header.no_of_rows));
+            }
+            in.release();
+            return columns;
+        }
+    } // read()
+
+
+    /**
+     * Method to read the header of a file.
+     * 
+     * @throws IOException
+     *         if the header is not the header of a supported Ivory Database 
+     *         file, or does not match its checksum.
+     */
+    static Header readHeader(ChannelInput in) throws IOException {
+        in.startChecksum();
+        if(in.getInt() != MAGIC){
+            throw new IOException("Not an Ivory Database file.");
+        }
+        Header header = new Header();
+        header.version = in.getInt();
+        if(header.version < 1 || header.version > VERSION){
+            throw new IOException("Unsupported Ivory Database file version: " + header.version + ".");
+        }
+        header.no_of_rows = in.getInt();
+        header.columns = new ColumnEntry[in.getInt()];
+        header.checkpoint_lsn = (header.version >= 2) ? in.getLong() : 0;
+
+        for(int col_num = 0 ; col_num < header.columns.length ; col_num++){
+            ColumnEntry entry = new ColumnEntry();
+            entry.name = in.getString();
+            entry.type = ColumnType.valueOf(in.getString());
+            entry.flags = in.getByte();
+            if(header.version >= 5){
+                entry.encoding = encodingOf(in.getByte());
+                entry.deflate = in.getByte() != 0;
+            }
+            entry.offset = in.getLong();
+            entry.length = in.getLong();
+            if(header.version >= 3){
+                entry.checksum = in.getInt();
+                entry.has_checksum = true;
+            }
+            if(header.version >= 5){
+                entry.block_encoding = encodingOf(in.getByte());
+            }
+            if(header.version >= 4){
+                entry.zone_map = ZoneMap.read(in, header.no_of_rows);
+            }
+            header.columns[col_num] = entry;
+        }
+
+        // validating the header.
+        if(header.version >= 3){
+            header.checksum = in.getChecksum();
+            if(header.checksum != in.getInt()){
+                throw new IOException("The header of the Ivory Database file is corrupted.");
+            }
+        }
+        return header;
+    } // readHeader()
+
+
+    /**
+     * Method to read a Column from its block.
+     * 
+     * @param in
+     *        The input, positioned at the start of the Column block.
+     * 
+     * @param entry
+     *        The directory entry of the Column.
+     * 
+     * @param no_of_rows
+     *        The number of rows of the Database.
+     */
+    static Column readColumn(ChannelInput in, ColumnEntry entry, int no_of_rows) throws IOException {
+        in.startChecksum();
+        ColumnData data = readBlock(in, entry, no_of_rows);
+        if(entry.has_checksum && in.getChecksum() != entry.checksum){
+            throw corrupted(entry);
+        }
+        return columnOf(entry, data);
+    } // readColumn()
+
+
+    /**
+     * Method to create a Column whose block is memory-mapped and read the 
+     * first time its cells are used.
+     * 
+     * @param channel
+     *        The open channel of the Ivory Database file.
+     * 
+     * @param entry
+     *        The directory entry of the Column.
+     * 
+     * @param no_of_rows
+     *        The number of rows of the Database.
+     */
+    static Column lazyColumn(FileChannel channel, ColumnEntry entry, int no_of_rows){
+        return columnOf(entry, new LazyColumnData(channel, entry, no_of_rows));
+    } // lazyColumn()
+
+
+    /**
+     * @return The Column of a directory entry holding {@code data}, with 
+     *         its saved statistics, or a ZoneMap computing them when needed 
+     *         for files before version 4.
+     */
+    private static Column columnOf(ColumnEntry entry, ColumnData data){
+        Column column = new Column(entry.name, data, (entry.flags & FLAG_TYPE_INFERRED) != 0, (entry.flags & FLAG_TYPE_PENDING) != 0, 
+            (entry.zone_map == null) ? new ZoneMap() : entry.zone_map);
+        column.setEncoding(entry.encoding, entry.deflate);
+        return column;
+    } // columnOf()
+
+
+    /**
+     * @return The ColumnEncoding saved as {@code ordinal}.
+     * 
+     * @throws IOException
+     *         if no ColumnEncoding has that ordinal.
+     */
+    private static ColumnEncoding encodingOf(byte ordinal) throws IOException {
+        ColumnEncoding[] encodings = ColumnEncoding.values();
+        if(ordinal < 0 || ordinal >= encodings.length){
+            throw new IOException("Unknown Column encoding: " + ordinal + ".");
+        }
+        return encodings[ordinal];
+    } // encodingOf()
+
+
+    /**
+     * Method to memory-map the block of a Column and decode it.
+     * 
+     * @param channel
+     *        The open channel of the Ivory Database file.
+     * 
+     * @param entry
+     *        The directory entry of the Column.
+     * 
+     * @param no_of_rows
+     *        The number of rows of the Database.
+     * 
+     * @return The ColumnData holding the cells of the Column.
+     */
+    static ColumnData mapBlock(FileChannel channel, ColumnEntry entry, int no_of_rows) throws IOException {
+        if(entry.length > Integer.MAX_VALUE){
+            throw new IOException("Column \"" + entry.name + "\" is too large to be memory-mapped.");
+        }
+        ByteBuffer block = channel.map(FileChannel.MapMode.READ_ONLY, entry.offset, entry.length);
+        if(entry.has_checksum){
+            CRC32 crc = new CRC32();
+            crc.update(block.duplicate());
+            if((int) crc.getValue() != entry.checksum){
+                throw corrupted(entry);
+            }
+        }
+        return readBlock(new ChannelInput(block), entry, no_of_rows);
+    } // mapBlock()
+
+
+    /**
+     * @return The exception thrown when the block of a Column does not match its checksum.
+     */
+    private static IOException corrupted(ColumnEntry entry){
+        return new IOException("Column \"" + entry.name + "\" of the Ivory Database file is corrupted.");
+    } // corrupted()
+
+
+    /* Column blocks */
+
+    /**
+     * Method to write the block of a Column.
+     * 
+     * @param encoding
+     *        The encoding of the block, as chosen by {@code ColumnCodec.choose()}.
+     * 
+     * @param deflate
+     *        True if the encoded block is compressed with the Deflater.
+     */
+    private static void writeBlock(ChannelOutput out, ColumnData data, ColumnEncoding encoding, boolean deflate) throws IOException {
+        if(!deflate){
+            writeEncodedBlock(out, data, encoding);
+            return;
+        }
+
+        // the block is compressed in memory, as its compressed length comes first.
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try{
+            DeflaterOutputStream stream = new DeflaterOutputStream(bytes, deflater, BUFFER_SIZE);
+            ChannelOutput compressed = new ChannelOutput(Channels.newChannel(stream), BUFFER_SIZE);
+            writeEncodedBlock(compressed, data, encoding);
+            compressed.flush();
+            compressed.release();
+            stream.finish();
+        }
+        finally{
+            deflater.end();
+        }
+        out.putInt(bytes.size());
+        out.putBytes(bytes.toByteArray(), 0, bytes.size());
+    } // writeBlock()
+
+
+    /**
+     * Method to write the block of a Column in {@code encoding}.
+     */
+    private static void writeEncodedBlock(ChannelOutput out, ColumnData data, ColumnEncoding encoding) throws IOException {
+        if(encoding != ColumnEncoding.PLAIN){
+            ColumnCodec.write(out, data, encoding);
+            return;
+        }
+        if(data instanceof OffHeapColumnData){
+            ((OffHeapColumnData) data).writePlain(out);
+            return;
+        }
+        int size = data.size();
+        switch(data.getType()){
+            case INT: {
+                IntColumnData ints = (IntColumnData) data;
+                writeNulls(out, ints.getNulls(), size);
+                // the values are written chunk by chunk.
+                for(int chunk_num = 0 ; chunk_num < ints.getChunkCount() ; chunk_num++){
+                    out.putInts(ints.getChunk(chunk_num), ints.getChunkSize(chunk_num));
+                }
+                break;
+            }
+            case LONG: {
+                LongColumnData longs = (LongColumnData) data;
+                writeNulls(out, longs.getNulls(), size);
+                for(int chunk_num = 0 ; chunk_num < longs.getChunkCount() ; chunk_num++){
+                    out.putLongs(longs.getChunk(chunk_num), longs.getChunkSize(chunk_num));
+                }
+                break;
+            }
+            case DOUBLE: {
+                DoubleColumnData doubles = (DoubleColumnData) data;
+                writeNulls(out, doubles.getNulls(), size);
+                for(int chunk_num = 0 ; chunk_num < doubles.getChunkCount() ; chunk_num++){
+                    out.putDoubles(doubles.getChunk(chunk_num), doubles.getChunkSize(chunk_num));
+                }
+                break;
+            }
+            case BOOLEAN: {
+                BooleanColumnData booleans = (BooleanColumnData) data;
+                writeNulls(out, booleans.getNulls(), size);
+                for(int chunk_num = 0 ; chunk_num < booleans.getChunkCount() ; chunk_num++){
+                    boolean[] chunk = booleans.getChunk(chunk_num);
+                    for(int offset = 0 ; offset < booleans.getChunkSize(chunk_num) ; offset++){
+                        out.putByte(chunk[offset] ? 1 : 0);
+                    }
+                }
+                break;
+            }
+            case DICTIONARY:
+                DictionaryColumnData dictionary_data = (DictionaryColumnData) data;
+                String[] dictionary = dictionary_data.getDictionary();
+                out.putInt(dictionary.length);
+                for(String value : dictionary){
+                    out.putString(value);
+                }
+                for(int chunk_num = 0 ; chunk_num < dictionary_data.getChunkCount() ; chunk_num++){
+                    out.putInts(dictionary_data.getChunk(chunk_num), dictionary_data.getChunkSize(chunk_num));
+                }
+                break;
+            case STRING:
+                for(int index = 0 ; index < size ; index++){
+                    out.putString((String) data.get(index));
+                }
+                break;
+            default:
+                for(int index = 0 ; index < size ; index++){
+                    writeTaggedValue(out, data.get(index));
+                }
+                break;
+        }
+    } // writeEncodedBlock()
+
+
+    /**
+     * Method to read the block of a Column into a ColumnData.
+     */
+    private static ColumnData readBlock(ChannelInput in, ColumnEntry entry, int size) throws IOException {
+        boolean off_heap = (entry.flags & FLAG_OFF_HEAP) != 0 && OffHeapColumnData.supports(entry.type);
+        if(!entry.deflate){
+            return readEncodedBlock(in, entry.type, entry.block_encoding, size, off_heap);
+        }
+
+        // reading the compressed bytes and decoding them as they are inflated.
+        int length = in.getInt();
+        if(length < 0 || length > entry.length){
+            throw corrupted(entry);
+        }
+        byte[] bytes = new byte[length];
+        in.getBytes(bytes, 0, length);
+        Inflater inflater = new Inflater();
+        try{
+            InflaterInputStream stream = new InflaterInputStream(new ByteArrayInputStream(bytes), inflater, BUFFER_SIZE);
+            ChannelInput inflated = new ChannelInput(Channels.newChannel(stream), BUFFER_SIZE);
+            ColumnData data = readEncodedBlock(inflated, entry.type, entry.block_encoding, size, off_heap);
+            inflated.release();
+            return data;
+        }
+        finally{
+            inflater.end();
+        }
+    } // readBlock()
+
+
+    /**
+     * Method to read the block of a Column written in {@code encoding}.
+     * 
+     * @param off_heap
+     *        True if the cells are read into an OffHeapColumnData.
+     */
+    private static ColumnData readEncodedBlock(ChannelInput in, ColumnType type, ColumnEncoding encoding, int size, boolean off_heap) throws IOException {
+        if(off_heap){
+            // a PLAIN block has the layout of the cells outside of the heap, the other encodings are decoded first.
+            return (encoding == ColumnEncoding.PLAIN) ? OffHeapColumnData.readPlain(in, type, size)
+                : OffHeapColumnData.of(readEncodedBlock(in, type, encoding, size, false));
+        }
+        if(encoding != ColumnEncoding.PLAIN){
+            return ColumnCodec.read(in, type, encoding, size);
+        }
+        // the values are read straight into the chunks of the ColumnData.
+        switch(type){
+            case INT: {
+                IntColumnData data = new IntColumnData(size, readNulls(in, size));
+                for(int chunk_num = 0 ; chunk_num < data.getChunkCount() ; chunk_num++){
+                    in.getInts(data.getChunk(chunk_num), data.getChunkSize(chunk_num));
+                }
+                return data;
+            }
+            case LONG: {
+                LongColumnData data = new LongColumnData(size, readNulls(in, size));
+                for(int chunk_num = 0 ; chunk_num < data.getChunkCount() ; chunk_num++){
+                    in.getLongs(data.getChunk(chunk_num), data.getChunkSize(chunk_num));
+                }
+                return data;
+            }
+            case DOUBLE: {
+                DoubleColumnData data = new DoubleColumnData(size, readNulls(in, size));
+                for(int chunk_num = 0 ; chunk_num < data.getChunkCount() ; chunk_num++){
+                    in.getDoubles(data.getChunk(chunk_num), data.getChunkSize(chunk_num));
+                }
+                return data;
+            }
+            case BOOLEAN: {
+                BooleanColumnData data = new BooleanColumnData(size, readNulls(in, size));
+                for(int chunk_num = 0 ; chunk_num < data.getChunkCount() ; chunk_num++){
+                    boolean[] chunk = data.getChunk(chunk_num);
+                    for(int offset = 0 ; offset < data.getChunkSize(chunk_num) ; offset++){
+                        chunk[offset] = in.getByte() != 0;
+                    }
+                }
+                return data;
+            }
+            case DICTIONARY: {
+                String[] dictionary = new String[in.getInt()];
+                for(int code = 0 ; code < dictionary.length ; code++){
+                    dictionary[code] = in.getString();
+                }
+                int[] codes = new int[size];
+                in.getInts(codes, size);
+                return new DictionaryColumnData(dictionary, codes);
+            }
+            default: {
+                ColumnData data = ColumnData.create(type);
+                for(int index = 0 ; index < size ; index++){
+                    data.add(type == ColumnType.STRING ? in.getString() : readTaggedValue(in));
+                }
+                return data;
+            }
+        }
+    } // readEncodedBlock()
+
+
+    /**
+     * Method to write a NullMask as a flag byte followed, if any cell is 
+     * null, by one bit per cell.
+     */
+    static void writeNulls(ChannelOutput out, NullMask nulls, int size) throws IOException {
+        long[] words = nulls.getWords();
+        if(words == null){
+            out.putByte(0);
+            return;
+        }
+        out.putByte(1);
+        int word_count = (size + 63) >>> 6;
+        long[] saved = Arrays.copyOf(words, word_count);
+        // clearing the bits past the last cell.
+        if((size & 63) != 0){
+            saved[word_count - 1] &= (1L << size) - 1;
+        }
+        out.putLongs(saved, word_count);
+    } // writeNulls()
+
+
+    /**
+     * Method to read a NullMask written by {@code writeNulls()}.
+     */
+    static NullMask readNulls(ChannelInput in, int size) throws IOException {
+        if(in.getByte() == 0){
+            return new NullMask();
+        }
+        long[] words = new long[(size + 63) >>> 6];
+        in.getLongs(words, words.length);
+        return new NullMask(words);
+    } // readNulls()
+
+
+    /**
+     * Method to write a value of an OBJECT Column as a tag followed by the 
+     * value. Values of classes without a tag are written with Java 
+     * serialization.
+     */
+    static void writeTaggedValue(ChannelOutput out, Object value) throws IOException {
+        if(value == null){
+            out.putByte(TAG_NULL);
+        }
+        else if(value instanceof Integer){
+            out.putByte(TAG_INT);
+            out.putInt((Integer) value);
+        }
+        else if(value instanceof Long){
+            out.putByte(TAG_LONG);
+            out.putLong((Long) value);
+        }
+        else if(value instanceof Double){
+            out.putByte(TAG_DOUBLE);
+            out.putDouble((Double) value);
+        }
+        else if(value instanceof Boolean){
+            out.putByte(TAG_BOOLEAN);
+            out.putByte((Boolean) value ? 1 : 0);
+        }
+        else if(value instanceof String){
+            out.putByte(TAG_STRING);
+            out.putString((String) value);
+        }
+        else{
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream stream = new ObjectOutputStream(bytes)){
+                stream.writeObject(value);
+            }
+            out.putByte(TAG_SERIALIZED);
+            out.putInt(bytes.size());
+            out.putBytes(bytes.toByteArray(), 0, bytes.size());
+        }
+    } // writeTaggedValue()
+
+
+    /**
+     * Method to read a value written by {@code writeTaggedValue()}.
+     */
+    static Object readTaggedValue(ChannelInput in) throws IOException {
+        byte tag = in.getByte();
+        switch(tag){
+            case TAG_NULL: return null;
+            case TAG_INT: return in.getInt();
+            case TAG_LONG: return in.getLong();
+            case TAG_DOUBLE: return in.getDouble();
+            case TAG_BOOLEAN: return in.getByte() != 0;
+            case TAG_STRING: return in.getString();
+            case TAG_SERIALIZED: {
+                byte[] bytes = new byte[in.getInt()];
+                in.getBytes(bytes, 0, bytes.length);
+                try (ObjectInputStream stream = new ObjectInputStream(new ByteArrayInputStream(bytes))){
+                    return stream.readObject();
+                }
+                catch (ClassNotFoundException e){
+                    throw new IOException("Class of a saved value not found.", e);
+                }
+            }
+            default:
+                throw new IOException("Unknown value tag: " + tag + ".");
+        }
+    } // readTaggedValue()
+} // class
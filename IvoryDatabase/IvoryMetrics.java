@@ -0,0 +1,365 @@
+package IvoryDatabase;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The operation counters and latency histograms of an Ivory Database.
+ *
+ * Every ADD, GET, SET, DELETE, save and load of the Database is counted,
+ * and its duration is added to the histogram of its OperationType. The
+ * counters are LongAdders, so threads recording at the same time do not
+ * contend on one field, and recording an operation takes two calls to
+ * {@code System.nanoTime()} and a few increments. The number of operations
+ * is the sum of the buckets of the histogram.
+ *
+ * The histograms have 8 buckets for every power of two of nanoseconds,
+ * so a percentile read from them is at most an eighth larger than the
+ * measured latency. Latencies above {@code MAX_LATENCY} nanoseconds are
+ * counted in the last bucket.
+ *
+ * The other operations of the Database, such as queries, CSV files and
+ * the write-ahead log, are not counted, but the exceptions they fail with
+ * are reported to the listeners like those of the counted operations.
+ */
+public final class IvoryMetrics {
+    static final int SUB_BUCKET_BITS = 3; // the number of bits splitting every power of two into buckets.
+    static final int MAX_EXPONENT = 40; // the power of two of the largest latency with its own bucket.
+    static final long MAX_LATENCY = (1L << (MAX_EXPONENT + 1)) - 1; // about 36 minutes.
+
+    static final int SAMPLE_SIZE = 256; // the number of cells sampled for the size of their objects.
+    static final int REFERENCE_BYTES = 4; // the size of a compressed reference.
+    static final int HASH_ENTRY_BYTES = 48; // the size of a hash map entry with a boxed value.
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_BUCKETS = SUB_BUCKETS << 1; // latencies below this have a bucket each.
+    private static final int BUCKETS = LINEAR_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final Histogram[] histograms = new Histogram[OperationType.values().length];
+    private final List<MetricsListener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile long last_save_nanos = 0; // the duration of the last successful save.
+    private volatile long last_save_bytes = 0; // the size of the file written by the last successful save.
+    private volatile long last_save_time = 0; // the time of the last successful save in milliseconds since the epoch.
+
+
+    /**
+     * The counters and latency histogram of one OperationType.
+     *
+     * The buckets are one AtomicLongArray rather than a LongAdder each, as
+     * an operation only increments one of several hundred buckets.
+     */
+    private static final class Histogram {
+        final LongAdder failures = new LongAdder();
+        final LongAdder total_nanos = new LongAdder();
+        final LongAccumulator max_nanos = new LongAccumulator(Math::max, 0);
+        final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    } // class Histogram
+
+
+    IvoryMetrics(){
+        for(int index = 0 ; index < histograms.length ; index++){
+            histograms[index] = new Histogram();
+        }
+    } // constructor
+
+
+    /**
+     * Method to record an operation that started at {@code start}, as read
+     * from {@code System.nanoTime()}, and notify the listeners.
+     */
+    void record(OperationType type, long start, boolean success){
+        long nanos = Math.max(0, System.nanoTime() - start);
+        Histogram histogram = histograms[type.ordinal()];
+        if(!success){
+            histogram.failures.increment();
+        }
+        histogram.total_nanos.add(nanos);
+        histogram.max_nanos.accumulate(nanos);
+        histogram.buckets.incrementAndGet(bucketOf(nanos));
+
+        for(MetricsListener listener : listeners){
+            try{
+                listener.operationCompleted(type, nanos, success);
+            }
+            catch (RuntimeException e){
+                e.printStackTrace();
+            }
+        }
+    } // record()
+
+
+    /**
+     * Method to record a save that started at {@code start} and wrote a
+     * file of {@code bytes} bytes, or failed if {@code bytes} is negative.
+     */
+    void recordSave(long start, long bytes){
+        long nanos = Math.max(0, System.nanoTime() - start);
+        if(bytes >= 0){
+            last_save_nanos = nanos;
+            last_save_bytes = bytes;
+            last_save_time = System.currentTimeMillis();
+            for(MetricsListener listener : listeners){
+                try{
+                    listener.saveCompleted(nanos, bytes);
+                }
+                catch (RuntimeException e){
+                    e.printStackTrace();
+                }
+            }
+        }
+        record(OperationType.SAVE, start, bytes >= 0);
+    } // recordSave()
+
+
+    /**
+     * Method to report the exception an operation failed with to the
+     * listeners, and print it if none of them handles it. The failure
+     * itself is counted by {@code record()} for the operations that are
+     * counted, see OperationType.
+     */
+    void reportFailure(OperationType type, Exception cause){
+        boolean handled = false;
+        for(MetricsListener listener : listeners){
+            try{
+                handled |= listener.operationFailed(type, cause);
+            }
+            catch (RuntimeException e){
+                e.printStackTrace();
+            }
+        }
+        if(!handled){
+            cause.printStackTrace();
+        }
+    } // reportFailure()
+
+
+    /**
+     * Method to add a listener notified of every later operation.
+     *
+     * @param listener
+     *        The MetricsListener to be added.
+     */
+    public void addListener(MetricsListener listener){
+        if(listener == null){
+            throw new IllegalArgumentException("MetricsListener cannot be null.");
+        }
+        listeners.add(listener);
+    } // addListener()
+
+
+    /**
+     * Method to remove a listener added by {@code addListener()}.
+     *
+     * @return True if the listener had been added.
+     */
+    public boolean removeListener(MetricsListener listener){
+        return listeners.remove(listener);
+    } // removeListener()
+
+
+    /**
+     * @param type
+     *        The kind of operation.
+     *
+     * @return The counts and latencies of the operations of {@code type}
+     *         recorded so far.
+     */
+    public LatencyStatistics getStatistics(OperationType type){
+        Histogram histogram = histograms[type.ordinal()];
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for(int bucket = 0 ; bucket < BUCKETS ; bucket++){
+            counts[bucket] = histogram.buckets.get(bucket);
+            count += counts[bucket];
+        }
+        long max = histogram.max_nanos.get();
+        return new LatencyStatistics(count, histogram.failures.sum(), histogram.total_nanos.sum(), max,
+            percentile(counts, count, 0.5, max), percentile(counts, count, 0.9, max),
+            percentile(counts, count, 0.99, max), percentile(counts, count, 0.999, max));
+    } // getStatistics()
+
+
+    /**
+     * @return The duration of the last successful save in nanoseconds, 0 if
+     *         the Database has not been saved.
+     */
+    public long getLastSaveNanos(){
+        return last_save_nanos;
+    } // getLastSaveNanos()
+
+
+    /**
+     * @return The size in bytes of the file written by the last successful
+     *         save, 0 if the Database has not been saved.
+     */
+    public long getLastSaveBytes(){
+        return last_save_bytes;
+    } // getLastSaveBytes()
+
+
+    /**
+     * @return The time of the last successful save in milliseconds since
+     *         the epoch, 0 if the Database has not been saved.
+     */
+    public long getLastSaveTime(){
+        return last_save_time;
+    } // getLastSaveTime()
+
+
+    /**
+     * Method to set every counter and histogram back to zero.
+     */
+    public void reset(){
+        for(int index = 0 ; index < histograms.length ; index++){
+            histograms[index] = new Histogram();
+        }
+        last_save_nanos = 0;
+        last_save_bytes = 0;
+        last_save_time = 0;
+    } // reset()
+
+
+    /**
+     * @return The count, failures and latencies of every OperationType that
+     *         has been recorded, one per line.
+     */
+    @Override
+    public String toString(){
+        StringBuilder output = new StringBuilder("IvoryMetrics");
+        for(OperationType type : OperationType.values()){
+            LatencyStatistics statistics = getStatistics(type);
+            if(statistics.getCount() > 0){
+                output.append('\n').append(type).append(": ").append(statistics);
+            }
+        }
+        if(last_save_time != 0){
+            output.append("\nlast save: ").append(last_save_bytes).append(" bytes in ").append(last_save_nanos).append("ns");
+        }
+        return output.toString();
+    } // toString()
+
+
+    /**
+     * @return The bucket counting a latency of {@code nanos}.
+     */
+    static int bucketOf(long nanos){
+        if(nanos < LINEAR_BUCKETS){
+            return (int) nanos;
+        }
+        if(nanos > MAX_LATENCY){
+            return BUCKETS - 1;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub_bucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_BUCKETS + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + sub_bucket;
+    } // bucketOf()
+
+
+    /**
+     * @return The largest latency counted in {@code bucket}.
+     */
+    static long upperBoundOf(int bucket){
+        if(bucket < LINEAR_BUCKETS){
+            return bucket;
+        }
+        int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+        int sub_bucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return ((long) (SUB_BUCKETS + sub_bucket) * width) + width - 1;
+    } // upperBoundOf()
+
+
+    /**
+     * @return The latency below which a {@code fraction} of the counted
+     *         latencies lie, at most {@code max}.
+     */
+    private static long percentile(long[] counts, long count, double fraction, long max){
+        if(count == 0){
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * fraction));
+        long seen = 0;
+        for(int bucket = 0 ; bucket < counts.length ; bucket++){
+            seen += counts[bucket];
+            if(seen >= rank){
+                return Math.min(upperBoundOf(bucket), max);
+            }
+        }
+        return max;
+    } // percentile()
+
+
+    /**
+     * @return An estimate of the heap bytes held by the cells of a Column.
+     *         Numeric and boolean cells are counted by their width, Strings
+     *         and other objects by a sample of up to {@code SAMPLE_SIZE}
+     *         cells. A memory-mapped Column that has not been read holds
+     *         no heap, and a Column outside of the heap only its NullMask.
+     */
+    static long estimateBytes(ColumnData data){
+        if(data instanceof LazyColumnData){
+            ColumnData loaded = ((LazyColumnData) data).getLoaded();
+            return (loaded == null) ? 0 : estimateBytes(loaded);
+        }
+        long size = data.size();
+        long null_mask = size / 8;
+        if(data instanceof OffHeapColumnData){
+            return null_mask;
+        }
+        switch(data.getType()){
+            case INT:
+                return size * Integer.BYTES + null_mask;
+            case LONG:
+            case DOUBLE:
+                return size * Long.BYTES + null_mask;
+            case BOOLEAN:
+                return size + null_mask;
+            case DICTIONARY:
+                DictionaryColumnData dictionary = (DictionaryColumnData) data;
+                long dictionary_bytes = 0;
+                for(int code = 0 ; code < dictionary.getDictionarySize() ; code++){
+                    // every String is held by the dictionary and by the map of its code.
+                    dictionary_bytes += stringBytes(dictionary.decode(code)) + HASH_ENTRY_BYTES;
+                }
+                return size * Integer.BYTES + dictionary_bytes;
+            default:
+                return size * REFERENCE_BYTES + sampledBytes(data);
+        }
+    } // estimateBytes()
+
+
+    /**
+     * @return An estimate of the bytes of the objects referenced by the
+     *         cells, from an even sample of the cells.
+     */
+    private static long sampledBytes(ColumnData data){
+        int size = data.size();
+        if(size == 0){
+            return 0;
+        }
+        int samples = Math.min(size, SAMPLE_SIZE);
+        long sampled = 0;
+        for(int sample = 0 ; sample < samples ; sample++){
+            Object value = data.get((int) ((long) sample * size / samples));
+            if(value instanceof String){
+                sampled += stringBytes((String) value);
+            }
+            else if(value != null){
+                sampled += 16; // a boxed number or another small object.
+            }
+        }
+        return sampled * size / samples;
+    } // sampledBytes()
+
+
+    /**
+     * @return The approximate heap size of a String with compact Latin-1 storage.
+     */
+    private static long stringBytes(String value){
+        return 24 + 16 + value.length();
+    } // stringBytes()
+} // class
@@ -0,0 +1,90 @@
+package IvoryDatabase;
+
+import javax.management.ConstructorParameters;
+
+/**
+ * The counts and latencies of one kind of operation of an Ivory Database, 
+ * as read from its {@code IvoryMetrics}.
+ * 
+ * The percentiles are the upper bounds of the histogram buckets holding 
+ * them, which are at most an eighth larger than the measured latencies.
+ */
+public final class LatencyStatistics {
+    private final long count; // the number of operations.
+    private final long failures; // the number of operations that failed.
+    private final long total_nanos; // the summed duration of the operations.
+    private final long max_nanos; // the duration of the slowest operation.
+    private final long p50_nanos; // the median duration.
+    private final long p90_nanos; // the 90th percentile of the durations.
+    private final long p99_nanos; // the 99th percentile of the durations.
+    private final long p999_nanos; // the 99.9th percentile of the durations.
+
+
+    @ConstructorParameters({"count", "failures", "totalNanos", "maxNanos", "p50Nanos", "p90Nanos", "p99Nanos", "p999Nanos"})
+    public LatencyStatistics(long count, long failures, long total_nanos, long max_nanos, 
+        long p50_nanos, long p90_nanos, long p99_nanos, long p999_nanos){
+        this.count = count;
+        this.failures = failures;
+        this.total_nanos = total_nanos;
+        this.max_nanos = max_nanos;
+        this.p50_nanos = p50_nanos;
+        this.p90_nanos = p90_nanos;
+        this.p99_nanos = p99_nanos;
+        this.p999_nanos = p999_nanos;
+    } // constructor
+
+
+    public long getCount(){
+        return count;
+    } // getCount()
+
+
+    public long getFailures(){
+        return failures;
+    } // getFailures()
+
+
+    public long getTotalNanos(){
+        return total_nanos;
+    } // getTotalNanos()
+
+
+    /**
+     * @return The mean duration of the operations, 0 if there were none.
+     */
+    public long getMeanNanos(){
+        return (count == 0) ? 0 : total_nanos / count;
+    } // getMeanNanos()
+
+
+    public long getMaxNanos(){
+        return max_nanos;
+    } // getMaxNanos()
+
+
+    public long getP50Nanos(){
+        return p50_nanos;
+    } // getP50Nanos()
+
+
+    public long getP90Nanos(){
+        return p90_nanos;
+    } // getP90Nanos()
+
+
+    public long getP99Nanos(){
+        return p99_nanos;
+    } // getP99Nanos()
+
+
+    public long getP999Nanos(){
+        return p999_nanos;
+    } // getP999Nanos()
+
+
+    @Override
+    public String toString(){
+        return "count=" + count + ", failures=" + failures + ", mean=" + getMeanNanos() + "ns, p50=" + p50_nanos 
+            + "ns, p90=" + p90_nanos + "ns, p99=" + p99_nanos + "ns, p99.9=" + p999_nanos + "ns, max=" + max_nanos + "ns";
+    } // toString()
+} // class
@@ -0,0 +1,160 @@
+package IvoryDatabase;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import java.nio.channels.FileChannel;
+
+import java.util.BitSet;
+
+/**
+ * A ColumnData of a Database opened with {@code IvoryDatabase.openMapped()} 
+ * that has not been read from its file yet.
+ * 
+ * The ColumnType and the size of the Column are known from the header of 
+ * the file. The Column block is memory-mapped and decoded the first time 
+ * the cells of the Column are accessed, so a Column that is never used is 
+ * never read.
+ */
+class LazyColumnData implements ColumnData {
+    private final FileChannel channel; // the channel of the Ivory Database file.
+    private final IvoryFile.ColumnEntry entry; // the directory entry of the Column.
+    private final int size; // the number of cells.
+    private ColumnData loaded = null; // the decoded cells, once they have been read.
+
+
+    /**
+     * @param channel
+     *        The open channel of the Ivory Database file.
+     * 
+     * @param entry
+     *        The directory entry of the Column in the header of the file.
+     * 
+     * @param size
+     *        The number of rows of the Database.
+     */
+    public LazyColumnData(FileChannel channel, IvoryFile.ColumnEntry entry, int size){
+        this.channel = channel;
+        this.entry = entry;
+        this.size = size;
+    } // constructor
+
+
+    /**
+     * Method to read the Column block from the file, if it has not been read yet.
+     * 
+     * @return The ColumnData holding the decoded cells.
+     * 
+     * @throws UncheckedIOException
+     *         if the Column block cannot be read.
+     */
+    public synchronized ColumnData load(){
+        if(loaded == null){
+            try{
+                loaded = IvoryFile.mapBlock(channel, entry, size);
+            }
+            catch (IOException e){
+                throw new UncheckedIOException("Column \"" + entry.name + "\" could not be read.", e);
+            }
+        }
+        return loaded;
+    } // load()
+
+
+    /**
+     * @return The decoded cells, or null if they have not been read yet.
+     */
+    public synchronized ColumnData getLoaded(){
+        return loaded;
+    } // getLoaded()
+
+
+    @Override
+    public ColumnData copy(){
+        return load().copy();
+    } // copy()
+
+
+    @Override
+    public ColumnType getType(){
+        return entry.type;
+    } // getType()
+
+
+    @Override
+    public int size(){
+        return size;
+    } // size()
+
+
+    @Override
+    public boolean accepts(Object value){
+        return load().accepts(value);
+    } // accepts()
+
+
+    @Override
+    public Object get(int index){
+        return load().get(index);
+    } // get()
+
+
+    @Override
+    public boolean isNull(int index){
+        return load().isNull(index);
+    } // isNull()
+
+
+    @Override
+    public void set(int index, Object value){
+        load().set(index, value);
+    } // set()
+
+
+    @Override
+    public void add(Object value){
+        load().add(value);
+    } // add()
+
+
+    @Override
+    public void insert(int index, Object value){
+        load().insert(index, value);
+    } // insert()
+
+
+    @Override
+    public void insertAll(int[] positions, Object[] values){
+        load().insertAll(positions, values);
+    } // insertAll()
+
+
+    @Override
+    public void remove(int index){
+        load().remove(index);
+    } // remove()
+
+
+    @Override
+    public void removeAll(BitSet rows){
+        load().removeAll(rows);
+    } // removeAll()
+
+
+    @Override
+    public Object[] toArray(){
+        return load().toArray();
+    } // toArray()
+
+
+    @Override
+    public void findEqual(Object value, BitSet matches){
+        load().findEqual(value, matches);
+    } // findEqual()
+
+
+    @Override
+    public void filter(Condition condition, int from, int to, long[] selection){
+        load().filter(condition, from, to, selection);
+    } // filter()
+} // class
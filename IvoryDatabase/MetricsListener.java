@@ -0,0 +1,60 @@
+package IvoryDatabase;
+
+/**
+ * A listener notified of every operation counted by the {@code IvoryMetrics} 
+ * of an Ivory Database, for forwarding the measurements to a metrics system.
+ * 
+ * Listeners are called on the thread that ran the operation, after the 
+ * Database has been unlocked, so they should return quickly. An exception 
+ * thrown by a listener is printed and does not affect the operation.
+ */
+@FunctionalInterface
+public interface MetricsListener {
+
+    /**
+     * Method called once an operation has finished.
+     * 
+     * @param type
+     *        The kind of operation.
+     * 
+     * @param nanos
+     *        The duration of the operation in nanoseconds.
+     * 
+     * @param success
+     *        False if the operation failed, for example because its row or 
+     *        Column did not exist or the file could not be written.
+     */
+    void operationCompleted(OperationType type, long nanos, boolean success);
+
+
+    /**
+     * Method called once the Database file has been written.
+     * 
+     * @param nanos
+     *        The duration of the write in nanoseconds.
+     * 
+     * @param bytes
+     *        The size of the written file in bytes.
+     */
+    default void saveCompleted(long nanos, long bytes){
+    } // saveCompleted()
+
+
+    /**
+     * Method called when an operation fails with an exception, for example 
+     * when its row or Column does not exist or the Database file cannot be 
+     * written.
+     * 
+     * @param type
+     *        The kind of operation.
+     * 
+     * @param cause
+     *        The exception the operation failed with.
+     * 
+     * @return True if the failure has been handled, the exception is 
+     *         printed if no listener handles it.
+     */
+    default boolean operationFailed(OperationType type, Exception cause){
+        return false;
+    } // operationFailed()
+} // interface
@@ -0,0 +1,249 @@
+package IvoryDatabase;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A growable bitmap marking the null cells of a primitive ColumnData, or 
+ * of one chunk of a ChunkedColumnData.
+ * 
+ * The bitmap is only allocated once the first null is stored, so a 
+ * Column without nulls does not pay for it.
+ */
+class NullMask {
+    private long[] words = null; // one bit per cell, set when the cell is null.
+
+
+    /**
+     * Creating an empty NullMask.
+     */
+    public NullMask(){
+    } // constructor
+
+
+    /**
+     * Creating a NullMask from the words of a saved NullMask.
+     * 
+     * @param words
+     *        One bit per cell, or null if no cell is null.
+     */
+    public NullMask(long[] words){
+        this.words = words;
+    } // constructor
+
+
+    /**
+     * @return The bitmap words of the NullMask, or null if no null has ever 
+     *         been stored. The array is not copied.
+     */
+    public long[] getWords(){
+        return words;
+    } // getWords()
+
+
+    /**
+     * @return A copy of this NullMask.
+     */
+    public NullMask copy(){
+        return new NullMask((words == null) ? null : words.clone());
+    } // copy()
+
+
+    /**
+     * @return The bits of the 64 cells from {@code word * 64} on, set for 
+     *         the null cells.
+     */
+    public long getWord(int word){
+        return (words != null && word < words.length) ? words[word] : 0;
+    } // getWord()
+
+
+    /**
+     * @return The bits of the 64 cells from {@code from} on, set for the 
+     *         null cells. {@code from} does not have to start a word.
+     */
+    public long getBits(int from){
+        int word = from >>> 6;
+        int shift = from & 63;
+        long bits = getWord(word) >>> shift;
+        return (shift == 0) ? bits : bits | (getWord(word + 1) << (64 - shift));
+    } // getBits()
+
+
+    /**
+     * @return True if the cell at {@code index} is null.
+     */
+    public boolean get(int index){
+        int word = index >>> 6;
+        return words != null && word < words.length && (words[word] & (1L << index)) != 0;
+    } // get()
+
+
+    /**
+     * Method to mark the cell at {@code index} as null or not null.
+     */
+    public void set(int index, boolean is_null){
+        if(!is_null){
+            // nothing to clear if the bit has never been allocated.
+            if(words != null && (index >>> 6) < words.length){
+                words[index >>> 6] &= ~(1L << index);
+            }
+            return;
+        }
+        ensureCapacity(index + 1);
+        words[index >>> 6] |= 1L << index;
+    } // set()
+
+
+    /**
+     * Method to open a not null bit before each of {@code positions}, the 
+     * new bit {@code i} at {@code positions[i] + i}, moving the bits after 
+     * it up. Every bit is moved once.
+     * 
+     * @param positions
+     *        For every new bit, the number of bits before it, in ascending 
+     *        order.
+     * 
+     * @param size
+     *        The number of cells before the insertion.
+     */
+    public void insertAll(int[] positions, int size){
+        if(words == null){
+            return;
+        }
+        ensureCapacity(size + positions.length);
+        // moving the bits after the last position first.
+        int end = size;
+        for(int index = positions.length - 1 ; index >= 0 ; index--){
+            for(int bit = end - 1 ; bit >= positions[index] ; bit--){
+                set(bit + index + 1, get(bit));
+            }
+            set(positions[index] + index, false);
+            end = positions[index];
+        }
+    } // insertAll()
+
+
+    /**
+     * Method to open a not null bit at {@code index}, moving the bits 
+     * from {@code index} onwards up by one.
+     * 
+     * @param index
+     *        The index of the new bit.
+     * 
+     * @param size
+     *        The number of cells before the insertion.
+     */
+    public void insert(int index, int size){
+        if(words == null){
+            return;
+        }
+        ensureCapacity(size + 1);
+
+        // carrying the top bit of every word into the next word.
+        int first = index >>> 6;
+        for(int word = size >>> 6 ; word > first ; word--){
+            words[word] = (words[word] << 1) | (words[word - 1] >>> 63);
+        }
+        long low_mask = (1L << index) - 1; // the bits below index within its word.
+        words[first] = (words[first] & low_mask) | ((words[first] & ~low_mask) << 1);
+    } // insert()
+
+
+    /**
+     * Method to remove the bit at {@code index}, moving the bits after 
+     * it down by one.
+     * 
+     * @param index
+     *        The index of the removed bit.
+     * 
+     * @param size
+     *        The number of cells before the removal.
+     */
+    public void remove(int index, int size){
+        if(words == null){
+            return;
+        }
+        int first = index >>> 6;
+        int last = Math.min((size - 1) >>> 6, words.length - 1);
+        if(first > last){
+            return;
+        }
+
+        long low_mask = (1L << index) - 1; // the bits below index within its word.
+        words[first] = (words[first] & low_mask) | ((words[first] >>> 1) & ~low_mask);
+
+        // carrying the lowest bit of every following word into the word before it.
+        for(int word = first + 1 ; word <= last ; word++){
+            words[word - 1] |= words[word] << 63;
+            words[word] >>>= 1;
+        }
+    } // remove()
+
+
+    /**
+     * Method to remove the bits of every set bit of {@code rows}, moving 
+     * the remaining bits down in their order.
+     * 
+     * @param size
+     *        The number of bits before the removal.
+     */
+    public void removeAll(BitSet rows, int size){
+        if(words == null){
+            return;
+        }
+        int kept = 0;
+        for(int index = 0 ; index < size ; index++){
+            if(!rows.get(index)){
+                set(kept++, get(index));
+            }
+        }
+        truncate(kept);
+    } // removeAll()
+
+
+    /**
+     * Method to copy {@code count} bits of {@code source}, from 
+     * {@code from} on, to the bits of this NullMask from {@code to} on. The 
+     * bits are copied in ascending order, so {@code source} may be this 
+     * NullMask as long as {@code to} is not after {@code from}.
+     */
+    public void copyBits(NullMask source, int from, int to, int count){
+        if(source.words == null && words == null){
+            return;
+        }
+        for(int index = 0 ; index < count ; index++){
+            set(to + index, source.get(from + index));
+        }
+    } // copyBits()
+
+
+    /**
+     * Method to clear the bits from {@code size} on, which are no longer 
+     * used by any cell.
+     */
+    public void truncate(int size){
+        if(words == null){
+            return;
+        }
+        int first = size >>> 6;
+        if(first < words.length){
+            words[first] &= (1L << size) - 1;
+            Arrays.fill(words, first + 1, words.length, 0);
+        }
+    } // truncate()
+
+
+    /**
+     * Method to make room for at least {@code bits} bits.
+     */
+    private void ensureCapacity(int bits){
+        int needed = (bits + 63) >>> 6;
+        if(words == null){
+            words = new long[Math.max(needed, 4)];
+        }
+        else if(needed > words.length){
+            words = Arrays.copyOf(words, Math.max(needed, words.length * 2));
+        }
+    } // ensureCapacity()
+} // class
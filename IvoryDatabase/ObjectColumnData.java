@@ -0,0 +1,113 @@
+package IvoryDatabase;
+
+import java.util.BitSet;
+
+/**
+ * ColumnData holding references to values of any class in a ChunkedList.
+ */
+class ObjectColumnData implements ColumnData {
+    protected ChunkedList<Object> cells = new ChunkedList<>(); // the cells of the Column.
+
+
+    @Override
+    public ColumnType getType(){
+        return ColumnType.OBJECT;
+    } // getType()
+
+
+    @Override
+    public int size(){
+        return cells.size();
+    } // size()
+
+
+    @Override
+    public boolean accepts(Object value){
+        return true;
+    } // accepts()
+
+
+    @Override
+    public Object get(int index){
+        return cells.get(index);
+    } // get()
+
+
+    @Override
+    public boolean isNull(int index){
+        return cells.get(index) == null;
+    } // isNull()
+
+
+    @Override
+    public void set(int index, Object value){
+        checkValue(value);
+        cells.set(index, value);
+    } // set()
+
+
+    @Override
+    public void add(Object value){
+        checkValue(value);
+        cells.add(value);
+    } // add()
+
+
+    @Override
+    public void insert(int index, Object value){
+        checkValue(value);
+        cells.add(index, value);
+    } // insert()
+
+
+    @Override
+    public void insertAll(int[] positions, Object[] values){
+        for(Object value : values){
+            checkValue(value);
+        }
+        cells.insertAll(positions, values);
+    } // insertAll()
+
+
+    @Override
+    public void remove(int index){
+        cells.remove(index);
+    } // remove()
+
+
+    @Override
+    public void removeAll(BitSet rows){
+        // copying the kept cells into new chunks is one pass, removing them one by one is not.
+        ChunkedList<Object> kept = new ChunkedList<>();
+        int size = cells.size();
+        for(int index = rows.nextClearBit(0) ; index < size ; index = rows.nextClearBit(index + 1)){
+            kept.add(cells.get(index));
+        }
+        cells = kept;
+    } // removeAll()
+
+
+    @Override
+    public ObjectColumnData copy(){
+        ObjectColumnData copy = (ObjectColumnData) ColumnData.create(getType());
+        copy.cells = new ChunkedList<>(cells);
+        return copy;
+    } // copy()
+
+
+    @Override
+    public Object[] toArray(){
+        return cells.toArray();
+    } // toArray()
+
+
+    /**
+     * @throws IllegalArgumentException
+     *         if {@code value} is not accepted by this ColumnData.
+     */
+    protected void checkValue(Object value){
+        if(!accepts(value)){
+            throw new IllegalArgumentException("A " + getType() + " Column cannot hold the value \"" + value + "\".");
+        }
+    } // checkValue()
+} // class
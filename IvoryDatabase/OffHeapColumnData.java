@@ -0,0 +1,490 @@
+package IvoryDatabase;
+
+import java.io.IOException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * ColumnData holding INT, LONG, DOUBLE or BOOLEAN values outside of the
+ * Java heap, in a direct ByteBuffer.
+ *
+ * The values are stored little-endian at a fixed width per cell, 4 bytes
+ * for INT, 8 for LONG and DOUBLE and 1 for BOOLEAN. This is the layout of
+ * the values in a PLAIN block of an Ivory Database file, so the buffer is
+ * written to and read from the file as it is. The garbage collector only
+ * sees the ByteBuffer object and the NullMask, which stays on the heap
+ * at one bit per cell.
+ *
+ * The memory of a direct ByteBuffer is freed once the ByteBuffer has been
+ * collected, and it is limited by -XX:MaxDirectMemorySize instead of the
+ * size of the heap. STRING values are held by OffHeapStringColumnData.
+ */
+class OffHeapColumnData extends PrimitiveColumnData {
+    private final ColumnType type; // the ColumnType of the values.
+    protected final int width; // the number of bytes of a cell.
+    protected ByteBuffer values; // the cells, valid up to size * width bytes.
+    protected final NullMask nulls; // marks the null cells.
+
+
+    /**
+     * Creating an empty OffHeapColumnData.
+     *
+     * @param type
+     *        The ColumnType of the values.
+     *
+     * @param width
+     *        The number of bytes of a cell.
+     */
+    protected OffHeapColumnData(ColumnType type, int width){
+        super(0);
+        this.nulls = new NullMask();
+        this.type = type;
+        this.width = width;
+        this.values = allocate(INITIAL_CAPACITY * width);
+    } // constructor
+
+
+    /**
+     * Creating an OffHeapColumnData around loaded cells.
+     *
+     * @param values
+     *        The cells, valid up to {@code size * width} bytes. The buffer
+     *        is not copied.
+     *
+     * @param size
+     *        The number of cells.
+     *
+     * @param nulls
+     *        The NullMask marking the null cells.
+     */
+    protected OffHeapColumnData(ColumnType type, int width, ByteBuffer values, int size, NullMask nulls){
+        super(size);
+        this.nulls = nulls;
+        this.type = type;
+        this.width = width;
+        this.values = values;
+    } // constructor
+
+
+    /**
+     * @return True if the cells of a Column of {@code type} can be held
+     *         outside of the heap.
+     */
+    static boolean supports(ColumnType type){
+        switch(type){
+            case INT:
+            case LONG:
+            case DOUBLE:
+            case BOOLEAN:
+            case STRING:
+                return true;
+            default:
+                return false;
+        }
+    } // supports()
+
+
+    /**
+     * @return An empty ColumnData holding values of {@code type} outside of
+     *         the heap. {@code type} is supported by {@code supports()}.
+     */
+    static OffHeapColumnData create(ColumnType type){
+        return (type == ColumnType.STRING) ? new OffHeapStringColumnData() : new OffHeapColumnData(type, widthOf(type));
+    } // create()
+
+
+    /**
+     * @return The number of bytes of an INT, LONG, DOUBLE or BOOLEAN cell.
+     */
+    private static int widthOf(ColumnType type){
+        switch(type){
+            case LONG:
+            case DOUBLE:
+                return Long.BYTES;
+            case BOOLEAN:
+                return 1;
+            default:
+                return Integer.BYTES;
+        }
+    } // widthOf()
+
+
+    /**
+     * @return A ColumnData outside of the heap holding the cells of {@code data}.
+     */
+    static OffHeapColumnData of(ColumnData data){
+        OffHeapColumnData off_heap = create(data.getType());
+        for(int index = 0 ; index < data.size() ; index++){
+            off_heap.add(data.get(index));
+        }
+        return off_heap;
+    } // of()
+
+
+    /**
+     * @return A little-endian direct ByteBuffer of {@code capacity} bytes.
+     */
+    static ByteBuffer allocate(int capacity){
+        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    } // allocate()
+
+
+    /**
+     * @return The number of bytes allocated outside of the heap.
+     */
+    long offHeapBytes(){
+        return values.capacity();
+    } // offHeapBytes()
+
+
+    @Override
+    public OffHeapColumnData copy(){
+        ByteBuffer copy = allocate(size * width);
+        copy.put(0, values, 0, size * width);
+        return new OffHeapColumnData(type, width, copy, size, nulls.copy());
+    } // copy()
+
+
+    @Override
+    public ColumnType getType(){
+        return type;
+    } // getType()
+
+
+    @Override
+    public boolean accepts(Object value){
+        switch(type){
+            case INT:
+                return value == null || value instanceof Integer || value instanceof Short || value instanceof Byte;
+            case LONG:
+                return value == null || value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+            case DOUBLE:
+                return value == null || value instanceof Number;
+            default:
+                return value == null || value instanceof Boolean;
+        }
+    } // accepts()
+
+
+    /**
+     * @param index
+     *        The index of the cell.
+     *
+     * @return The value of the cell at {@code index} as a long: the value
+     *         of an INT or LONG cell, the bits of a DOUBLE cell and 1 or 0
+     *         for a BOOLEAN cell. 0 if the cell is null.
+     */
+    public long getBits(int index){
+        switch(type){
+            case INT:
+                return values.getInt(index * Integer.BYTES);
+            case LONG:
+                return values.getLong(index * Long.BYTES);
+            case DOUBLE:
+                return Double.doubleToRawLongBits(values.getDouble(index * Double.BYTES));
+            default:
+                return values.get(index);
+        }
+    } // getBits()
+
+
+    @Override
+    public void findEqual(Object value, BitSet matches){
+        // null matches the null cells, and a value the Column cannot hold matches no cell.
+        if(value == null || !accepts(value)){
+            if(value == null){
+                findNulls(matches);
+            }
+            return;
+        }
+        long target = keyOf(value);
+        for(int index = 0 ; index < size ; index++){
+            if(key(index) == target && !nulls.get(index)){
+                matches.set(index);
+            }
+        }
+    } // findEqual()
+
+
+    /**
+     * @return The value of a cell as a long that is equal for equal values,
+     *         with the NaNs of a DOUBLE Column made equal like {@code Double.compare()}.
+     */
+    private long key(int index){
+        return (type == ColumnType.DOUBLE) ? Double.doubleToLongBits(values.getDouble(index * Double.BYTES)) : getBits(index);
+    } // key()
+
+
+    /**
+     * @return The key of {@code value} as returned by {@code key()} for a
+     *         cell holding it.
+     */
+    private long keyOf(Object value){
+        switch(type){
+            case DOUBLE:
+                return Double.doubleToLongBits(((Number) value).doubleValue());
+            case BOOLEAN:
+                return ((Boolean) value) ? 1 : 0;
+            default:
+                return ((Number) value).longValue();
+        }
+    } // keyOf()
+
+
+    @Override
+    protected void filterValues(Condition condition, int from, int to, long[] selection){
+        switch(type){
+            case INT:
+            case LONG:
+                filterIntegral(condition, from, to, selection);
+                return;
+            case DOUBLE:
+                filterDecimal(condition, from, to, selection);
+                return;
+            default:
+                // a boolean cell has two values, the Condition is tested once for each.
+                boolean match_true = condition.test(Boolean.TRUE);
+                boolean match_false = condition.test(Boolean.FALSE);
+                for(int word = from >>> 6 ; (word << 6) < to ; word++){
+                    if(selection[word] == 0){
+                        continue;
+                    }
+                    int base = word << 6;
+                    int end = Math.min(64, to - base);
+                    long keep = 0;
+                    for(int bit = 0 ; bit < end ; bit++){
+                        if((values.get(base + bit) != 0) ? match_true : match_false){
+                            keep |= 1L << bit;
+                        }
+                    }
+                    selection[word] &= keep;
+                }
+        }
+    } // filterValues()
+
+
+    /**
+     * Method to filter an INT or LONG Column, for {@code filterValues()}.
+     */
+    private void filterIntegral(Condition condition, int from, int to, long[] selection){
+        long[] bounds = condition.integralBounds();
+        long[] targets = (bounds == null) ? condition.integralValues() : null;
+        boolean negated = condition.isNegated();
+        for(int word = from >>> 6 ; (word << 6) < to ; word++){
+            if(selection[word] == 0){
+                continue;
+            }
+            int base = word << 6;
+            int end = Math.min(64, to - base);
+            long keep = 0;
+            for(int bit = 0 ; bit < end ; bit++){
+                long value = getBits(base + bit);
+                // comparing the values with the bounds of the Condition, or looking them up in the sorted operands of IN.
+                boolean match = (bounds != null) ? ((value >= bounds[0] && value <= bounds[1]) != negated)
+                    : (Arrays.binarySearch(targets, value) >= 0);
+                if(match){
+                    keep |= 1L << bit;
+                }
+            }
+            selection[word] &= keep;
+        }
+    } // filterIntegral()
+
+
+    /**
+     * Method to filter a DOUBLE Column, for {@code filterValues()}.
+     */
+    private void filterDecimal(Condition condition, int from, int to, long[] selection){
+        double[] bounds = condition.decimalBounds();
+        double[] targets = (bounds == null) ? condition.decimalValues() : null;
+        boolean negated = condition.isNegated();
+        for(int word = from >>> 6 ; (word << 6) < to ; word++){
+            if(selection[word] == 0){
+                continue;
+            }
+            int base = word << 6;
+            int end = Math.min(64, to - base);
+            long keep = 0;
+            for(int bit = 0 ; bit < end ; bit++){
+                double value = values.getDouble((base + bit) * Double.BYTES);
+                // adding 0.0 turns -0.0 into 0.0 for the lookup in the operands of IN.
+                boolean match = (bounds != null) ? ((value >= bounds[0] && value <= bounds[1]) != negated)
+                    : (Arrays.binarySearch(targets, value + 0.0) >= 0);
+                if(match){
+                    keep |= 1L << bit;
+                }
+            }
+            selection[word] &= keep;
+        }
+    } // filterDecimal()
+
+
+    @Override
+    public NullMask getNulls(){
+        return nulls;
+    } // getNulls()
+
+
+    @Override
+    protected boolean isNullCell(int index){
+        return nulls.get(index);
+    } // isNullCell()
+
+
+    @Override
+    protected void markNull(int index, boolean is_null){
+        nulls.set(index, is_null);
+    } // markNull()
+
+
+    @Override
+    protected long getNullWord(int word){
+        return nulls.getWord(word);
+    } // getNullWord()
+
+
+    @Override
+    protected boolean hasNulls(){
+        return nulls.getWords() != null;
+    } // hasNulls()
+
+
+    @Override
+    protected void openCell(int index){
+        // growing the buffer by half of its length when it is full.
+        if(size == values.capacity() / width){
+            resize(Math.max(INITIAL_CAPACITY, size + (size >> 1)));
+        }
+        move(index, index + 1, size - index);
+        nulls.insert(index, size);
+    } // openCell()
+
+
+    @Override
+    protected void openCells(int[] positions){
+        int count = positions.length;
+        if(size + count > values.capacity() / width){
+            resize(Math.max(INITIAL_CAPACITY, Math.max(size + count, size + (size >> 1))));
+        }
+        // moving the run of cells after every position up, the last run first.
+        int end = size;
+        for(int index = count - 1 ; index >= 0 ; index--){
+            move(positions[index], positions[index] + index + 1, end - positions[index]);
+            end = positions[index];
+        }
+        nulls.insertAll(positions, size);
+    } // openCells()
+
+
+    @Override
+    protected void closeCell(int index){
+        move(index + 1, index, size - index - 1);
+        nulls.remove(index, size);
+    } // closeCell()
+
+
+    @Override
+    protected int closeCells(BitSet rows){
+        int kept = 0;
+        // moving every run of kept cells down over the removed cells before it.
+        for(int from = rows.nextClearBit(0) ; from < size ; from = rows.nextClearBit(from)){
+            int to = rows.nextSetBit(from);
+            to = (to < 0 || to > size) ? size : to;
+            move(from, kept, to - from);
+            kept += to - from;
+            from = to;
+        }
+        nulls.removeAll(rows, size);
+        return kept;
+    } // closeCells()
+
+
+    /**
+     * Method to move {@code count} cells from {@code from} to {@code to} 
+     * in the buffer. The two ranges may overlap.
+     */
+    private void move(int from, int to, int count){
+        // a ByteBuffer copies overlapping ranges of itself as if through a temporary buffer.
+        values.put(to * width, values, from * width, count * width);
+    } // move()
+
+
+    /**
+     * Method to replace the buffer with a copy of {@code capacity} cells.
+     */
+    private void resize(int capacity){
+        ByteBuffer resized = allocate(capacity * width);
+        resized.put(0, values, 0, size * width);
+        values = resized;
+    } // resize()
+
+
+    @Override
+    protected void store(int index, Object value){
+        switch(type){
+            case INT:
+                values.putInt(index * Integer.BYTES, (value == null) ? 0 : ((Number) value).intValue());
+                break;
+            case LONG:
+                values.putLong(index * Long.BYTES, (value == null) ? 0 : ((Number) value).longValue());
+                break;
+            case DOUBLE:
+                values.putDouble(index * Double.BYTES, (value == null) ? 0 : ((Number) value).doubleValue());
+                break;
+            default:
+                values.put(index, (byte) ((value != null && (Boolean) value) ? 1 : 0));
+        }
+    } // store()
+
+
+    @Override
+    protected Object load(int index){
+        switch(type){
+            case INT:
+                return values.getInt(index * Integer.BYTES);
+            case LONG:
+                return values.getLong(index * Long.BYTES);
+            case DOUBLE:
+                return values.getDouble(index * Double.BYTES);
+            default:
+                return values.get(index) != 0;
+        }
+    } // load()
+
+
+    /**
+     * Method to write the cells as a PLAIN block: the NullMask followed by
+     * the bytes of the buffer.
+     */
+    void writePlain(ChannelOutput out) throws IOException {
+        IvoryFile.writeNulls(out, nulls, size);
+        out.putBuffer(values.slice(0, size * width));
+    } // writePlain()
+
+
+    /**
+     * Method to read a PLAIN block of a Column of {@code type} straight into
+     * a buffer outside of the heap.
+     *
+     * @param type
+     *        A ColumnType supported by {@code supports()}.
+     *
+     * @param size
+     *        The number of cells.
+     */
+    static OffHeapColumnData readPlain(ChannelInput in, ColumnType type, int size) throws IOException {
+        if(type == ColumnType.STRING){
+            return OffHeapStringColumnData.readPlain(in, size);
+        }
+        int width = widthOf(type);
+        NullMask nulls = IvoryFile.readNulls(in, size);
+        // the buffer gets some room to grow.
+        ByteBuffer values = allocate(Math.max(size, INITIAL_CAPACITY) * width);
+        in.getBuffer(values.slice(0, size * width));
+        return new OffHeapColumnData(type, width, values, size, nulls);
+    } // readPlain()
+} // class
@@ -0,0 +1,280 @@
+package IvoryDatabase;
+
+import java.io.IOException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import java.util.BitSet;
+
+/**
+ * ColumnData holding STRING values outside of the Java heap.
+ *
+ * Every cell is a slot of two ints in the buffer of OffHeapColumnData: the
+ * offset and the length of the UTF-8 bytes of its String in a second
+ * direct ByteBuffer. The bytes of a String are appended to that buffer
+ * when the cell is set, so inserting or removing a cell only moves the
+ * slots. The bytes of the Strings that were replaced or removed are left
+ * behind until the buffer is full, and are dropped when it is copied.
+ *
+ * The bytes of a String are the bytes it has in a PLAIN STRING block, so
+ * the Strings are written to and read from the file without decoding them.
+ */
+class OffHeapStringColumnData extends OffHeapColumnData {
+    private static final int SLOT_WIDTH = 8; // the offset and the length of the bytes of a String.
+    private static final int INITIAL_BYTES = 1024; // the capacity of the bytes of an empty OffHeapStringColumnData.
+
+    private ByteBuffer bytes; // the UTF-8 bytes of the Strings, valid up to used.
+    private int used = 0; // the number of bytes appended to bytes.
+    private int garbage = 0; // the number of bytes up to used that belong to no cell.
+
+
+    /**
+     * Creating an empty OffHeapStringColumnData.
+     */
+    public OffHeapStringColumnData(){
+        super(ColumnType.STRING, SLOT_WIDTH);
+        this.bytes = allocate(INITIAL_BYTES);
+    } // constructor
+
+
+    /**
+     * Creating an OffHeapStringColumnData around the slots of loaded cells
+     * and the bytes they point into.
+     */
+    private OffHeapStringColumnData(ByteBuffer slots, int size, NullMask nulls, ByteBuffer bytes, int used){
+        super(ColumnType.STRING, SLOT_WIDTH, slots, size, nulls);
+        this.bytes = bytes;
+        this.used = used;
+    } // constructor
+
+
+    @Override
+    long offHeapBytes(){
+        return values.capacity() + bytes.capacity();
+    } // offHeapBytes()
+
+
+    @Override
+    public OffHeapStringColumnData copy(){
+        ByteBuffer slots = allocate(size * SLOT_WIDTH);
+        slots.put(0, values, 0, size * SLOT_WIDTH);
+        // the copy gets the bytes of its Strings only.
+        OffHeapStringColumnData copy = new OffHeapStringColumnData(slots, size, nulls.copy(), bytes, used);
+        copy.rebuild(Math.max(INITIAL_BYTES, used - garbage));
+        return copy;
+    } // copy()
+
+
+    @Override
+    public boolean accepts(Object value){
+        return value == null || value instanceof String;
+    } // accepts()
+
+
+    @Override
+    public long getBits(int index){
+        throw new UnsupportedOperationException("A STRING Column has no numeric values.");
+    } // getBits()
+
+
+    @Override
+    public void set(int index, Object value){
+        checkIndex(index, size);
+        checkValue(value);
+        garbage += lengthOf(index);
+        super.set(index, value);
+    } // set()
+
+
+    @Override
+    protected void openCells(int[] positions){
+        super.openCells(positions);
+        // the opened slots still point to the bytes of other cells until their values are stored.
+        for(int index = 0 ; index < positions.length ; index++){
+            values.putInt((positions[index] + index) * SLOT_WIDTH + 4, 0);
+        }
+    } // openCells()
+
+
+    @Override
+    public void remove(int index){
+        checkIndex(index, size);
+        garbage += lengthOf(index);
+        super.remove(index);
+    } // remove()
+
+
+    @Override
+    public void removeAll(BitSet rows){
+        for(int index = rows.nextSetBit(0) ; index >= 0 && index < size ; index = rows.nextSetBit(index + 1)){
+            garbage += lengthOf(index);
+        }
+        super.removeAll(rows);
+    } // removeAll()
+
+
+    @Override
+    public void findEqual(Object value, BitSet matches){
+        if(value == null){
+            findNulls(matches);
+            return;
+        }
+        if(!accepts(value)){
+            return;
+        }
+        // comparing the bytes of the cells without decoding them.
+        byte[] target = ((String) value).getBytes(StandardCharsets.UTF_8);
+        for(int index = 0 ; index < size ; index++){
+            if(lengthOf(index) == target.length && !nulls.get(index) && bytesEqual(offsetOf(index), target)){
+                matches.set(index);
+            }
+        }
+    } // findEqual()
+
+
+    @Override
+    protected void filterValues(Condition condition, int from, int to, long[] selection){
+        for(int word = from >>> 6 ; (word << 6) < to ; word++){
+            int base = word << 6;
+            long bits = selection[word];
+            for(long remaining = bits ; remaining != 0 ; remaining &= remaining - 1){
+                int bit = Long.numberOfTrailingZeros(remaining);
+                if(!condition.test(load(base + bit))){
+                    bits &= ~(1L << bit);
+                }
+            }
+            selection[word] = bits;
+        }
+    } // filterValues()
+
+
+    @Override
+    protected void store(int index, Object value){
+        // the slot may still point to the bytes of another cell, it is emptied before the bytes can be copied.
+        values.putInt(index * SLOT_WIDTH + 4, 0);
+        if(value == null){
+            return;
+        }
+        byte[] string_bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+        reserve(string_bytes.length);
+        bytes.put(used, string_bytes);
+        values.putInt(index * SLOT_WIDTH, used);
+        values.putInt(index * SLOT_WIDTH + 4, string_bytes.length);
+        used += string_bytes.length;
+    } // store()
+
+
+    @Override
+    protected Object load(int index){
+        byte[] string_bytes = new byte[lengthOf(index)];
+        bytes.get(offsetOf(index), string_bytes);
+        return new String(string_bytes, StandardCharsets.UTF_8);
+    } // load()
+
+
+    /**
+     * @return The offset of the bytes of the cell at {@code index}.
+     */
+    private int offsetOf(int index){
+        return values.getInt(index * SLOT_WIDTH);
+    } // offsetOf()
+
+
+    /**
+     * @return The number of bytes of the cell at {@code index}, 0 if the cell is null.
+     */
+    private int lengthOf(int index){
+        return values.getInt(index * SLOT_WIDTH + 4);
+    } // lengthOf()
+
+
+    /**
+     * @return True if the bytes starting at {@code offset} are the bytes of {@code target}.
+     */
+    private boolean bytesEqual(int offset, byte[] target){
+        for(int index = 0 ; index < target.length ; index++){
+            if(bytes.get(offset + index) != target[index]){
+                return false;
+            }
+        }
+        return true;
+    } // bytesEqual()
+
+
+    /**
+     * Method to make room for {@code length} more bytes. A full buffer is
+     * copied into a buffer half again as large as the bytes that belong
+     * to cells, leaving the other bytes behind.
+     */
+    private void reserve(int length){
+        if((long) used + length <= bytes.capacity()){
+            return;
+        }
+        long needed = (long) used - garbage + length;
+        long capacity = Math.max(INITIAL_BYTES, needed + (needed >> 1));
+        if(needed > Integer.MAX_VALUE){
+            throw new IllegalStateException("The Strings of a Column outside of the heap cannot exceed 2 GB.");
+        }
+        rebuild((int) Math.min(capacity, Integer.MAX_VALUE));
+    } // reserve()
+
+
+    /**
+     * Method to copy the bytes of every cell into a new buffer of
+     * {@code capacity} bytes, in the order of the cells.
+     */
+    private void rebuild(int capacity){
+        ByteBuffer rebuilt = allocate(capacity);
+        int offset = 0;
+        for(int index = 0 ; index < size ; index++){
+            int length = lengthOf(index);
+            rebuilt.put(offset, bytes, offsetOf(index), length);
+            values.putInt(index * SLOT_WIDTH, offset);
+            offset += length;
+        }
+        bytes = rebuilt;
+        used = offset;
+        garbage = 0;
+    } // rebuild()
+
+
+    /**
+     * Method to write the cells as a PLAIN STRING block: the length of the
+     * bytes of every String followed by the bytes, or -1 for a null cell.
+     */
+    @Override
+    void writePlain(ChannelOutput out) throws IOException {
+        for(int index = 0 ; index < size ; index++){
+            if(nulls.get(index)){
+                out.putInt(-1);
+                continue;
+            }
+            int length = lengthOf(index);
+            out.putInt(length);
+            out.putBuffer(bytes.slice(offsetOf(index), length));
+        }
+    } // writePlain()
+
+
+    /**
+     * Method to read a PLAIN STRING block of {@code size} cells straight
+     * into buffers outside of the heap.
+     */
+    static OffHeapStringColumnData readPlain(ChannelInput in, int size) throws IOException {
+        OffHeapStringColumnData data = new OffHeapStringColumnData();
+        for(int index = 0 ; index < size ; index++){
+            int length = in.getInt();
+            // a null cell is added as it is, the bytes of a String are copied into an empty cell.
+            data.add(length < 0 ? null : "");
+            if(length > 0){
+                data.reserve(length);
+                in.getBuffer(data.bytes.slice(data.used, length));
+                data.values.putInt(index * SLOT_WIDTH, data.used);
+                data.values.putInt(index * SLOT_WIDTH + 4, length);
+                data.used += length;
+            }
+        }
+        return data;
+    } // readPlain()
+} // class
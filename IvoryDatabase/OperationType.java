@@ -0,0 +1,24 @@
+package IvoryDatabase;
+
+/**
+ * The operations of an Ivory Database that are counted and timed by its
+ * {@code IvoryMetrics}, and whose failures are reported to its listeners.
+ * The operations after LOAD are not counted, only their failures are
+ * reported.
+ */
+public enum OperationType {
+    ADD,    // adding a row with ADD.
+    ADD_ALL, // adding a batch of rows with ADD_ALL, counted once per batch.
+    GET,    // reading a cell with GET.
+    SET,    // changing a cell with SET.
+    DELETE, // deleting a row with DELETE.
+    SAVE,   // writing the Database file with SAVE, saveAsync() or a checkpoint.
+    LOAD,   // reading the Database file when the Database is opened.
+    READ,   // reading rows or Columns with GET_ROW, GET_ROWS, GET_COLUMN, SCAN, SCAN_PREFIX or getColumnType().
+    QUERY,  // filtering rows with WHERE, SELECT, FIND, FIND_RANGE, AGGREGATE, GROUP_BY or COLUMN_STATISTICS.
+    SCHEMA, // changing the storage of a Column with CREATE_INDEX, SET_COLUMN_ENCODING or SET_COLUMN_OFF_HEAP.
+    EXPORT, // writing comma separated values with WRITE_CSV.
+    IMPORT, // reading comma separated values with IMPORT_CSV.
+    LOG,    // opening, appending to, syncing or closing the write-ahead log.
+    MBEAN;  // registering or unregistering the MBean of the Database.
+} // enum
@@ -0,0 +1,290 @@
+package IvoryDatabase;
+
+import java.util.BitSet;
+
+/**
+ * The common implementation of the ColumnData types that keep their cells 
+ * as primitive values.
+ * 
+ * A subclass owns the storage of the values and of the bits marking the 
+ * null cells, and converts between the values and boxed values, while this 
+ * class keeps track of the size and of which cells are null.
+ */
+abstract class PrimitiveColumnData implements ColumnData {
+    protected static final int INITIAL_CAPACITY = 16; // capacity of the storage of an empty ColumnData.
+
+    protected int size; // number of cells.
+
+
+    /**
+     * Creating a PrimitiveColumnData around cells that have already been 
+     * filled in by the subclass.
+     * 
+     * @param size
+     *        The number of cells.
+     */
+    protected PrimitiveColumnData(int size){
+        this.size = size;
+    } // constructor
+
+
+    /**
+     * @return A NullMask marking the null cells.
+     */
+    public abstract NullMask getNulls();
+
+
+    /**
+     * @return True if the cell at {@code index} is null.
+     */
+    protected abstract boolean isNullCell(int index);
+
+
+    /**
+     * Method to mark the cell at {@code index} as null or not null.
+     */
+    protected abstract void markNull(int index, boolean is_null);
+
+
+    /**
+     * @return The bits of the 64 cells from {@code word * 64} on, set for 
+     *         the null cells.
+     */
+    protected abstract long getNullWord(int word);
+
+
+    /**
+     * @return False if no cell is null.
+     */
+    protected abstract boolean hasNulls();
+
+
+    /**
+     * Method to make room for a not null cell at {@code index}, moving the 
+     * cells and their null bits from {@code index} on up by one. 
+     * {@code size} is not changed yet.
+     */
+    protected abstract void openCell(int index);
+
+
+    /**
+     * Method to make room for not null cells before each of 
+     * {@code positions}, the new cell {@code i} at {@code positions[i] + i}, 
+     * moving every cell and null bit at most once. {@code size} is not 
+     * changed yet.
+     */
+    protected abstract void openCells(int[] positions);
+
+
+    /**
+     * Method to remove the cell at {@code index}, moving the cells and 
+     * their null bits after it down by one. {@code size} is not changed yet.
+     */
+    protected abstract void closeCell(int index);
+
+
+    /**
+     * Method to remove the cells of every set bit of {@code rows}, moving 
+     * the remaining cells and their null bits down in their order. 
+     * {@code size} is not changed yet.
+     * 
+     * @return The number of cells kept.
+     */
+    protected abstract int closeCells(BitSet rows);
+
+
+    /**
+     * Method to store {@code value} at {@code index}. A null value is 
+     * stored as the default value of the primitive type.
+     */
+    protected abstract void store(int index, Object value);
+
+
+    /**
+     * @return The boxed value stored at {@code index}.
+     */
+    protected abstract Object load(int index);
+
+
+    @Override
+    public int size(){
+        return size;
+    } // size()
+
+
+    @Override
+    public Object get(int index){
+        checkIndex(index, size);
+        return isNullCell(index) ? null : load(index);
+    } // get()
+
+
+    @Override
+    public boolean isNull(int index){
+        checkIndex(index, size);
+        return isNullCell(index);
+    } // isNull()
+
+
+    @Override
+    public void set(int index, Object value){
+        checkIndex(index, size);
+        checkValue(value);
+        put(index, value);
+    } // set()
+
+
+    @Override
+    public void add(Object value){
+        insert(size, value);
+    } // add()
+
+
+    @Override
+    public void insert(int index, Object value){
+        checkIndex(index, size + 1);
+        checkValue(value);
+
+        openCell(index);
+        size++;
+        put(index, value);
+    } // insert()
+
+
+    @Override
+    public void insertAll(int[] positions, Object[] values){
+        for(Object value : values){
+            checkValue(value);
+        }
+        if(positions.length == 0){
+            return;
+        }
+        checkIndex(positions[positions.length - 1], size + 1);
+
+        openCells(positions);
+        size += values.length;
+        for(int index = 0 ; index < values.length ; index++){
+            put(positions[index] + index, values[index]);
+        }
+    } // insertAll()
+
+
+    @Override
+    public void remove(int index){
+        checkIndex(index, size);
+        closeCell(index);
+        size--;
+    } // remove()
+
+
+    @Override
+    public void removeAll(BitSet rows){
+        size = closeCells(rows);
+    } // removeAll()
+
+
+    @Override
+    public Object[] toArray(){
+        Object[] output = new Object[size];
+        for(int index = 0 ; index < size ; index++){
+            output[index] = isNullCell(index) ? null : load(index);
+        }
+        return output;
+    } // toArray()
+
+
+    /**
+     * The null bits are applied here, a subclass only compares the values 
+     * of the cells in {@code filterValues()}.
+     */
+    @Override
+    public void filter(Condition condition, int from, int to, long[] selection){
+        int first = from >>> 6;
+        int last = (to + 63) >>> 6;
+        boolean has_nulls = hasNulls();
+        switch(condition.getOperator()){
+            case IS_NULL:
+                for(int word = first ; word < last ; word++){
+                    selection[word] &= has_nulls ? getNullWord(word) : 0;
+                }
+                return;
+            case NOT_NULL:
+                if(has_nulls){
+                    for(int word = first ; word < last ; word++){
+                        selection[word] &= ~getNullWord(word);
+                    }
+                }
+                return;
+            default:
+                // null cells hold the default value, they are kept apart if they can match.
+                long[] null_matches = null;
+                if(condition.matchesNull() && has_nulls){
+                    null_matches = new long[last - first];
+                    for(int word = first ; word < last ; word++){
+                        null_matches[word - first] = selection[word] & getNullWord(word);
+                    }
+                }
+                filterValues(condition, from, to, selection);
+                if(!has_nulls){
+                    return;
+                }
+                for(int word = first ; word < last ; word++){
+                    long null_bits = getNullWord(word);
+                    if(null_bits != 0){
+                        selection[word] = (selection[word] & ~null_bits) | ((null_matches == null) ? 0 : null_matches[word - first]);
+                    }
+                }
+        }
+    } // filter()
+
+
+    /**
+     * Method to clear the bits of the rows in [from, to) whose values do 
+     * not match {@code condition}, for {@code filter()}. The values of null 
+     * cells may be matched, their bits are corrected by {@code filter()}.
+     */
+    protected abstract void filterValues(Condition condition, int from, int to, long[] selection);
+
+
+    /**
+     * Method to set the bit of every null cell in {@code matches}.
+     */
+    protected void findNulls(BitSet matches){
+        for(int index = 0 ; index < size ; index++){
+            if(isNullCell(index)){
+                matches.set(index);
+            }
+        }
+    } // findNulls()
+
+
+    /**
+     * Method to store {@code value} at {@code index} and mark whether it is null.
+     */
+    private void put(int index, Object value){
+        markNull(index, value == null);
+        store(index, value);
+    } // put()
+
+
+    /**
+     * @throws IllegalArgumentException
+     *         if {@code value} is not accepted by this ColumnData.
+     */
+    protected void checkValue(Object value){
+        if(!accepts(value)){
+            throw new IllegalArgumentException("A " + getType() + " Column cannot hold the value \"" + value + "\".");
+        }
+    } // checkValue()
+
+
+    /**
+     * @throws IndexOutOfBoundsException
+     *         if {@code index} is not in the range [0, bound).
+     */
+    protected static void checkIndex(int index, int bound){
+        if(index < 0 || index >= bound){
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + bound);
+        }
+    } // checkIndex()
+} // class
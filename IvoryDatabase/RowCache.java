@@ -0,0 +1,204 @@
+package IvoryDatabase;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import IvoryDatabase.IvoryDBExceptions.RowNotFoundException;
+
+/**
+ * A bounded cache of the cells of recently read rows, in front of GET.
+ *
+ * The cells of a row are cached under its uppercase ID the first time they
+ * are read, and the column numbers under the Column names as they are
+ * given to GET, so that a GET of a cached cell is a lookup in two hash
+ * maps. The cached cells of a row are dropped by every change to the row,
+ * and all cells and column numbers by every change to the Columns. The
+ * cache is filled while the read lock of the Database is held and emptied
+ * while its write lock is held, so it never holds a value that has changed.
+ *
+ * When the cache holds more rows than its capacity, rows are evicted with
+ * the CLOCK approximation of least-recently-used eviction: a hit only
+ * marks its row as used, and the eviction skips and unmarks the used rows.
+ * Hits take no lock.
+ */
+final class RowCache {
+    private static final Object UNREAD = new Object(); // a cell that has not been cached yet.
+
+    private final int capacity; // the number of rows the cache holds.
+    private final ConcurrentHashMap<String, Row> rows; // the cached rows by their uppercase IDs.
+    private final ConcurrentHashMap<String, Integer> column_numbers = new ConcurrentHashMap<>(); // the column numbers by the names given to GET.
+    private Iterator<Row> hand = null; // the position of the eviction in rows, guarded by this.
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+
+    /**
+     * The cached cells of a row.
+     */
+    private static final class Row {
+        final Object[] cells; // the cells by column number, UNREAD until they are cached.
+        volatile boolean used = true; // true if the row has been read since the eviction last passed it.
+
+        Row(int no_of_columns){
+            cells = new Object[no_of_columns];
+            Arrays.fill(cells, UNREAD);
+        } // constructor
+    } // class Row
+
+
+    /**
+     * Functional interface of the reads filling in a missing cell.
+     */
+    interface CellReader {
+        Object read() throws RowNotFoundException;
+    } // interface CellReader
+
+
+    /**
+     * @param capacity
+     *        The number of rows the cache holds.
+     */
+    RowCache(int capacity){
+        this.capacity = capacity;
+        this.rows = new ConcurrentHashMap<>(Math.min(capacity, 1 << 16));
+    } // constructor
+
+
+    /**
+     * @return The capacity of the cache in rows.
+     */
+    int getCapacity(){
+        return capacity;
+    } // getCapacity()
+
+
+    /**
+     * @return The cached column number of a Column name as it was given to
+     *         GET, or null.
+     */
+    Integer getColumnNumber(String column_name){
+        return column_numbers.get(column_name);
+    } // getColumnNumber()
+
+
+    /**
+     * Method to cache the column number of a Column name as it was given to GET.
+     *
+     * @return {@code col_num}.
+     */
+    int putColumnNumber(String column_name, int col_num){
+        column_numbers.put(column_name, col_num);
+        return col_num;
+    } // putColumnNumber()
+
+
+    /**
+     * Method to get a cell from the cache, or read it with {@code reader}
+     * and cache it.
+     *
+     * @param id
+     *        The uppercase ID of the row.
+     *
+     * @param col_num
+     *        The column number of the cell.
+     *
+     * @param no_of_columns
+     *        The number of Columns of the Database.
+     *
+     * @param reader
+     *        The read of the cell if it is not cached.
+     *
+     * @return The value of the cell.
+     *
+     * @throws RowNotFoundException
+     *         if the cell is not cached and the row does not exist.
+     */
+    Object get(String id, int col_num, int no_of_columns, CellReader reader) throws RowNotFoundException {
+        Row row = rows.get(id);
+        if(row != null){
+            Object value = row.cells[col_num];
+            if(value != UNREAD){
+                if(!row.used){
+                    row.used = true;
+                }
+                hits.increment();
+                return value;
+            }
+        }
+        misses.increment();
+        Object value = reader.read();
+
+        // readers holding the read lock may cache the same cell at the same time, they cache the same value.
+        if(row == null){
+            row = new Row(no_of_columns);
+            Row cached = rows.putIfAbsent(id, row);
+            if(cached != null){
+                row = cached;
+            }
+            else if(rows.size() > capacity){
+                evict();
+            }
+        }
+        row.cells[col_num] = value;
+        return value;
+    } // get()
+
+
+    /**
+     * Method to drop the cached cells of a row, for a change to the row.
+     * The caller holds the write lock of the Database.
+     *
+     * @param id
+     *        The uppercase ID of the row.
+     */
+    void invalidate(String id){
+        rows.remove(id);
+    } // invalidate()
+
+
+    /**
+     * Method to drop all cached cells and column numbers, for a change to
+     * the Columns. The caller holds the write lock of the Database.
+     */
+    synchronized void invalidateAll(){
+        rows.clear();
+        column_numbers.clear();
+        hand = null;
+    } // invalidateAll()
+
+
+    /**
+     * Method to evict rows until the cache holds no more than its capacity.
+     */
+    private synchronized void evict(){
+        while(rows.size() > capacity){
+            if(hand == null || !hand.hasNext()){
+                hand = rows.values().iterator();
+                if(!hand.hasNext()){
+                    return;
+                }
+            }
+            Row row = hand.next();
+            // a row that has been used since the last pass gets another pass.
+            if(row.used){
+                row.used = false;
+            }
+            else{
+                hand.remove();
+                evictions.increment();
+            }
+        }
+    } // evict()
+
+
+    /**
+     * @return The counts of the cache.
+     */
+    CacheStatistics getStatistics(){
+        return new CacheStatistics(hits.sum(), misses.sum(), evictions.sum(), rows.size(), capacity);
+    } // getStatistics()
+} // class
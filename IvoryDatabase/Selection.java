@@ -0,0 +1,178 @@
+package IvoryDatabase;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Evaluating Conditions into a bitmap selecting the rows of a Database.
+ *
+ * A selection holds one bit per row in a long[], set for the rows that
+ * match every Condition. The rows are split into ranges of
+ * {@code RANGE_SIZE} rows that are filtered in parallel on the common
+ * ForkJoinPool. Every range starts at the start of a ZoneMap segment, so
+ * every task writes its own words of the bitmap. Within a range the
+ * segments that the statistics of a Column rule out are cleared without
+ * reading their cells, and the other rows are filtered one Column at a
+ * time, a Condition only testing the rows that the Conditions before it
+ * have left selected.
+ */
+final class Selection {
+    static final int RANGE_SIZE = 1 << 16; // the number of rows filtered by one task, a multiple of the segment size.
+
+
+    private Selection(){
+    } // constructor
+
+
+    /**
+     * @param no_of_rows
+     *        The number of rows.
+     *
+     * @return A selection of all rows.
+     */
+    static long[] all(int no_of_rows){
+        long[] selection = new long[(no_of_rows + 63) >>> 6];
+        Arrays.fill(selection, -1L);
+        if((no_of_rows & 63) != 0){
+            selection[selection.length - 1] = (1L << no_of_rows) - 1;
+        }
+        return selection;
+    } // all()
+
+
+    /**
+     * Method to select the rows matching every Condition.
+     *
+     * @param columns
+     *        The ColumnData of the Column of every Condition.
+     *
+     * @param zone_maps
+     *        The ZoneMap of the Column of every Condition.
+     *
+     * @param conditions
+     *        The Conditions.
+     *
+     * @param no_of_rows
+     *        The number of rows.
+     *
+     * @return The selection of the matching rows.
+     */
+    static long[] select(ColumnData[] columns, ZoneMap[] zone_maps, Condition[] conditions, int no_of_rows){
+        long[] selection = all(no_of_rows);
+        if(conditions.length > 0){
+            ForkJoinPool.commonPool().invoke(new FilterTask(columns, zone_maps, conditions, selection, 0, no_of_rows));
+        }
+        return selection;
+    } // select()
+
+
+    /**
+     * @return The number of selected rows.
+     */
+    static int count(long[] selection){
+        int count = 0;
+        for(long word : selection){
+            count += Long.bitCount(word);
+        }
+        return count;
+    } // count()
+
+
+    /**
+     * @return The selected row after {@code row}, from {@code row} itself,
+     *         or -1 if there is none.
+     */
+    static int next(long[] selection, int row){
+        int word = row >>> 6;
+        if(word >= selection.length){
+            return -1;
+        }
+        long bits = selection[word] & (-1L << row);
+        while(bits == 0){
+            if(++word == selection.length){
+                return -1;
+            }
+            bits = selection[word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
+    } // next()
+
+
+    /**
+     * Filters the rows [from, to), splitting them in halves until they
+     * fit in {@code RANGE_SIZE} rows.
+     */
+    private static final class FilterTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ColumnData[] columns; // the ColumnData of every Condition.
+        private final ZoneMap[] zone_maps; // the ZoneMap of every Condition.
+        private final Condition[] conditions; // the Conditions.
+        private final long[] selection; // the selection being filtered.
+        private final int from; // the first row of a segment.
+        private final int to; // the end of the rows.
+
+
+        FilterTask(ColumnData[] columns, ZoneMap[] zone_maps, Condition[] conditions, long[] selection, int from, int to){
+            this.columns = columns;
+            this.zone_maps = zone_maps;
+            this.conditions = conditions;
+            this.selection = selection;
+            this.from = from;
+            this.to = to;
+        } // constructor
+
+
+        @Override
+        protected void compute(){
+            if(to - from <= RANGE_SIZE){
+                // filtering the runs of segments between the segments ruled out by their statistics.
+                int run_from = from;
+                for(int segment_from = from ; segment_from < to ; segment_from += ZoneMap.SEGMENT_SIZE){
+                    int segment_to = Math.min(to, segment_from + ZoneMap.SEGMENT_SIZE);
+                    if(mayMatch(segment_from, segment_to)){
+                        continue;
+                    }
+                    filter(run_from, segment_from);
+                    Arrays.fill(selection, segment_from >>> 6, (segment_to + 63) >>> 6, 0L);
+                    run_from = segment_to;
+                }
+                filter(run_from, to);
+                return;
+            }
+            // splitting at the start of a segment.
+            int middle = (from + ((to - from) >>> 1)) & ~(ZoneMap.SEGMENT_SIZE - 1);
+            invokeAll(new FilterTask(columns, zone_maps, conditions, selection, from, middle),
+                new FilterTask(columns, zone_maps, conditions, selection, middle, to));
+        } // compute()
+
+
+        /**
+         * @return False if the statistics of a Column rule out every row 
+         *         of the segment [segment_from, segment_to).
+         */
+        private boolean mayMatch(int segment_from, int segment_to){
+            for(int index = 0 ; index < conditions.length ; index++){
+                ZoneMap.Segment statistics = zone_maps[index].get(columns[index], segment_from >>> ZoneMap.SEGMENT_SHIFT);
+                if(!ZoneMap.mayMatch(conditions[index], statistics, segment_to - segment_from)){
+                    return false;
+                }
+            }
+            return true;
+        } // mayMatch()
+
+
+        /**
+         * Method to filter the rows [run_from, run_to) by every Condition.
+         */
+        private void filter(int run_from, int run_to){
+            if(run_from >= run_to){
+                return;
+            }
+            for(int index = 0 ; index < conditions.length ; index++){
+                columns[index].filter(conditions[index], run_from, run_to, selection);
+            }
+        } // filter()
+    } // class FilterTask
+} // class
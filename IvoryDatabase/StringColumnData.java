@@ -0,0 +1,29 @@
+package IvoryDatabase;
+
+/**
+ * ColumnData holding String values in a ChunkedList.
+ */
+class StringColumnData extends ObjectColumnData {
+
+    @Override
+    public ColumnType getType(){
+        return ColumnType.STRING;
+    } // getType()
+
+
+    @Override
+    public boolean accepts(Object value){
+        return value == null || value instanceof String;
+    } // accepts()
+
+
+    /**
+     * @param index
+     *        The index of the cell.
+     * 
+     * @return The String value of the cell at {@code index}, or null.
+     */
+    public String getString(int index){
+        return (String) cells.get(index);
+    } // getString()
+} // class
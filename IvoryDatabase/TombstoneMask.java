@@ -0,0 +1,237 @@
+package IvoryDatabase;
+
+import java.util.BitSet;
+
+/**
+ * The marks of the deleted rows of a Database that are still held by its
+ * Columns, one flag per row kept in chunks of boolean[].
+ *
+ * The marks are moved along with the rows: inserting or removing a row in
+ * the middle of the Database only shifts the marks of the chunk holding
+ * it, like the cells of a ChunkedColumnData. The chunks are only allocated
+ * once the first row is marked, so a Database without deleted rows only
+ * counts its rows here.
+ */
+final class TombstoneMask {
+    private static final int INITIAL_CAPACITY = 16; // capacity of the first chunk of an empty mask.
+
+    private ChunkIndex chunks = null; // the chunks holding the marks, or null while no row has been marked.
+    private int size; // the number of rows.
+    private int count = 0; // the number of marked rows.
+
+
+    /**
+     * Creating a TombstoneMask of {@code size} rows, none of them marked.
+     */
+    public TombstoneMask(int size){
+        this.size = size;
+    } // constructor
+
+
+    /**
+     * Creating a copy of {@code other}.
+     */
+    private TombstoneMask(TombstoneMask other){
+        this.chunks = (other.chunks == null) ? null : new ChunkIndex(other.chunks);
+        this.size = other.size;
+        this.count = other.count;
+    } // constructor
+
+
+    /**
+     * @return A copy of this TombstoneMask.
+     */
+    public TombstoneMask copy(){
+        return new TombstoneMask(this);
+    } // copy()
+
+
+    /**
+     * @return The number of rows.
+     */
+    public int size(){
+        return size;
+    } // size()
+
+
+    /**
+     * @return The number of marked rows.
+     */
+    public int cardinality(){
+        return count;
+    } // cardinality()
+
+
+    /**
+     * @return True if the row at {@code row} is marked as deleted.
+     */
+    public boolean get(int row){
+        if(chunks == null || row >= size){
+            return false;
+        }
+        int chunk_num = chunks.chunkOf(row);
+        return ((boolean[]) chunks.getChunk(chunk_num))[row - chunks.getChunkStart(chunk_num)];
+    } // get()
+
+
+    /**
+     * Method to mark the row at {@code row} as deleted.
+     */
+    public void set(int row){
+        if(chunks == null){
+            chunks = new ChunkIndex(ChunkedColumnData.CHUNK_SHIFT, INITIAL_CAPACITY, boolean[]::new, false, size);
+        }
+        mark(row, true);
+    } // set()
+
+
+    /**
+     * Method to clear the mark of the row at {@code row}.
+     */
+    public void clear(int row){
+        if(chunks != null){
+            mark(row, false);
+        }
+    } // clear()
+
+
+    /**
+     * Method to add an unmarked row at {@code row}, moving the marks of the
+     * rows from {@code row} on up by one.
+     *
+     * @param row
+     *        The index of the new row, {@code size()} to append it.
+     */
+    public void insert(int row){
+        size++;
+        if(chunks == null){
+            return;
+        }
+        int chunk_num = chunks.open(row);
+        // the opened element still holds the mark it was copied from.
+        ((boolean[]) chunks.getChunk(chunk_num))[row - chunks.getChunkStart(chunk_num)] = false;
+    } // insert()
+
+
+    /**
+     * Method to add unmarked rows at once, the new row {@code i} at
+     * {@code positions[i] + i}, moving the marks of the rows after them.
+     *
+     * @param positions
+     *        For every new row, the number of rows before it, in ascending
+     *        order.
+     */
+    public void insertAll(int[] positions){
+        size += positions.length;
+        if(chunks != null){
+            chunks.openAll(positions);
+        }
+    } // insertAll()
+
+
+    /**
+     * Method to remove the row at {@code row}, moving the marks of the rows
+     * after it down by one.
+     */
+    public void remove(int row){
+        if(chunks != null){
+            if(get(row)){
+                count--;
+            }
+            chunks.close(row);
+        }
+        size--;
+    } // remove()
+
+
+    /**
+     * @return The first marked row from {@code from} on, or -1 if there is none.
+     */
+    public int nextSetBit(int from){
+        if(count == 0 || from >= size){
+            return -1;
+        }
+        for(int chunk_num = chunks.chunkOf(from) ; chunk_num < chunks.getChunkCount() ; chunk_num++){
+            boolean[] marks = (boolean[]) chunks.getChunk(chunk_num);
+            int chunk_start = chunks.getChunkStart(chunk_num);
+            for(int offset = Math.max(0, from - chunk_start) ; offset < chunks.getChunkSize(chunk_num) ; offset++){
+                if(marks[offset]){
+                    return chunk_start + offset;
+                }
+            }
+        }
+        return -1;
+    } // nextSetBit()
+
+
+    /**
+     * @return The first unmarked row from {@code from} on, which is
+     *         {@code size()} or after if there is none.
+     */
+    public int nextClearBit(int from){
+        if(count == 0 || from >= size){
+            return from;
+        }
+        for(int chunk_num = chunks.chunkOf(from) ; chunk_num < chunks.getChunkCount() ; chunk_num++){
+            boolean[] marks = (boolean[]) chunks.getChunk(chunk_num);
+            int chunk_start = chunks.getChunkStart(chunk_num);
+            for(int offset = Math.max(0, from - chunk_start) ; offset < chunks.getChunkSize(chunk_num) ; offset++){
+                if(!marks[offset]){
+                    return chunk_start + offset;
+                }
+            }
+        }
+        return size;
+    } // nextClearBit()
+
+
+    /**
+     * @return The number of marked rows in [from, to).
+     */
+    public int cardinality(int from, int to){
+        int marked = 0;
+        for(int row = nextSetBit(from) ; row >= 0 && row < to ; row = nextSetBit(row + 1)){
+            marked++;
+        }
+        return marked;
+    } // cardinality()
+
+
+    /**
+     * Method to clear the bits of the marked rows in {@code rows}.
+     */
+    public void clearFrom(BitSet rows){
+        for(int row = nextSetBit(0) ; row >= 0 ; row = nextSetBit(row + 1)){
+            rows.clear(row);
+        }
+    } // clearFrom()
+
+
+    /**
+     * @return A BitSet with the bits of the marked rows set.
+     */
+    public BitSet toBitSet(){
+        BitSet rows = new BitSet(size);
+        for(int row = nextSetBit(0) ; row >= 0 ; row = nextSetBit(row + 1)){
+            rows.set(row);
+        }
+        return rows;
+    } // toBitSet()
+
+
+    /* Helper Methods */
+
+    /**
+     * Method to mark or unmark the row at {@code row}, keeping the count of
+     * the marked rows.
+     */
+    private void mark(int row, boolean deleted){
+        int chunk_num = chunks.chunkOf(row);
+        boolean[] marks = (boolean[]) chunks.getChunk(chunk_num);
+        int offset = row - chunks.getChunkStart(chunk_num);
+        if(marks[offset] != deleted){
+            marks[offset] = deleted;
+            count += deleted ? 1 : -1;
+        }
+    } // mark()
+} // class
@@ -0,0 +1,425 @@
+package IvoryDatabase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import java.util.zip.CRC32;
+
+/**
+ * The append-only write-ahead log of an Ivory Database.
+ *
+ * Every ADD, SET, DELETE, ADD_COLUMN and DELETE_COLUMN is appended to the
+ * log as a record, so that a change costs a write proportional to its own
+ * size instead of a SAVE of the whole Database. When the Database is opened,
+ * the records that are not yet contained in the Database file are replayed.
+ * A checkpoint writes the Database file and clears the log.
+ *
+ * The log file starts with the magic number "IVWL" and the log version,
+ * followed by the records. A record is its length, its body and the CRC32
+ * of its body. The body holds the sequence number of the record, the
+ * operation and its arguments. Sequence numbers keep increasing across
+ * checkpoints, and the Database file stores the sequence number of the
+ * last record it contains.
+ *
+ * Records are collected in a buffer and written to disk by a background
+ * log writer thread. Callers wait in {@code awaitDurable()} until their
+ * record has been forced to disk, and all records appended while the log
+ * writer is busy are forced together by its next fsync (group commit).
+ */
+class WriteAheadLog implements Closeable {
+    static final String file_extension = ".wal"; // appended to the name of the Database file.
+
+    // the operations recorded in the log.
+    static final byte OP_ADD = 1;
+    static final byte OP_SET = 2;
+    static final byte OP_DELETE = 3;
+    static final byte OP_ADD_COLUMN = 4;
+    static final byte OP_DELETE_COLUMN = 5;
+
+    private static final int MAGIC = 0x4C575649; // "IVWL" read as a little-endian int.
+    private static final int VERSION = 1; // the version of the log format.
+    private static final int HEADER_SIZE = 8; // the size of the magic number and the version.
+
+    private final File log_file; // the log file.
+    private final FileChannel channel; // the channel the records are appended to.
+    private final ChannelOutput out; // the buffer of records not yet written to the channel.
+
+    private final ByteArrayOutputStream record_bytes = new ByteArrayOutputStream(); // the body of the record being appended.
+    private final ChannelOutput record_out = new ChannelOutput(Channels.newChannel(record_bytes), 4096); // writes into record_bytes.
+    private final CRC32 crc = new CRC32(); // computes the checksums of the records.
+
+    private long appended_lsn; // the sequence number of the last appended record.
+    private long durable_lsn; // the sequence number of the last record forced to disk.
+    private long written_bytes; // the size of the log file including the buffered records.
+    private IOException failure = null; // the error that stopped the log writer, if any.
+    private boolean closed = false; // true once the log has been closed.
+    private final Thread log_writer; // the thread writing and forcing the records.
+
+
+    /**
+     * Opening the write-ahead log for appending records. A new log file is
+     * created if it does not exist.
+     *
+     * @param log_file
+     *        The log file.
+     *
+     * @param last_lsn
+     *        The sequence number of the last record already in the log or
+     *        in the Database file. The next record gets {@code last_lsn + 1}.
+     */
+    public WriteAheadLog(File log_file, long last_lsn) throws IOException {
+        this.log_file = log_file;
+        this.channel = FileChannel.open(log_file.toPath(),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.out = new ChannelOutput(channel, IvoryFile.BUFFER_SIZE);
+
+        // writing the header of a new log file.
+        if(channel.size() < HEADER_SIZE){
+            channel.truncate(0);
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+            out.flush();
+            channel.force(true);
+        }
+        channel.position(channel.size());
+        this.written_bytes = channel.size();
+        this.appended_lsn = last_lsn;
+        this.durable_lsn = last_lsn;
+
+        this.log_writer = new Thread(this::runLogWriter, "IvoryDB-Log-Writer-" + log_file.getName());
+        this.log_writer.setDaemon(true);
+        this.log_writer.start();
+    } // constructor
+
+
+    /**
+     * @param database_file
+     *        The file of an Ivory Database.
+     *
+     * @return The log file of {@code database_file}.
+     */
+    static File logFileOf(File database_file){
+        return new File(database_file.getPath() + file_extension);
+    } // logFileOf()
+
+
+    /**
+     * @param database_file
+     *        The file of an Ivory Database.
+     *
+     * @return True if the log file of {@code database_file} holds more
+     *         than its header, which may be records not yet in the file.
+     */
+    static boolean hasRecords(File database_file){
+        return logFileOf(database_file).length() > HEADER_SIZE;
+    } // hasRecords()
+
+
+    /**
+     * @return The number of bytes in the log, including records that have
+     *         not been written to disk yet.
+     */
+    public synchronized long size(){
+        return written_bytes;
+    } // size()
+
+
+    /**
+     * @return The sequence number of the last appended record.
+     */
+    public synchronized long getLastLsn(){
+        return appended_lsn;
+    } // getLastLsn()
+
+
+    /**
+     * Method to append a record to the log.
+     *
+     * @param operation
+     *        One of the {@code OP_} operations.
+     *
+     * @param arguments
+     *        The arguments of the operation. Strings and the values of
+     *        an ADD or SET are written as tagged values.
+     *
+     * @return The sequence number of the record, to be passed to {@code awaitDurable()}.
+     */
+    public synchronized long append(byte operation, Object... arguments) throws IOException {
+        checkOpen();
+        long lsn = appended_lsn + 1;
+
+        // writing the body of the record, dropping what is left of a record that could not be written.
+        record_out.discard();
+        record_bytes.reset();
+        record_out.putLong(lsn);
+        record_out.putByte(operation);
+        record_out.putInt(arguments.length);
+        for(Object argument : arguments){
+            IvoryFile.writeTaggedValue(record_out, argument);
+        }
+        record_out.flush();
+        byte[] body = record_bytes.toByteArray();
+        crc.reset();
+        crc.update(body, 0, body.length);
+
+        // appending the record to the buffer of the log writer.
+        out.putInt(body.length);
+        out.putBytes(body, 0, body.length);
+        out.putInt((int) crc.getValue());
+
+        appended_lsn = lsn;
+        written_bytes += body.length + 8;
+        notifyAll(); // waking the log writer.
+        return lsn;
+    } // append()
+
+
+    /**
+     * Method to wait until the record {@code lsn} and all records before it
+     * have been forced to disk.
+     *
+     * @throws IOException
+     *         if the log could not be written.
+     */
+    public synchronized void awaitDurable(long lsn) throws IOException {
+        while(durable_lsn < lsn){
+            // a closed log has forced all of its records, unless it failed.
+            if(failure != null || (closed && !channel.isOpen())){
+                checkOpen();
+            }
+            try{
+                wait();
+            }
+            catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for the write-ahead log.", e);
+            }
+        }
+    } // awaitDurable()
+
+
+    /**
+     * Method to clear the log after a checkpoint has written every record
+     * up to {@code checkpoint_lsn} to the Database file. Records appended
+     * after {@code checkpoint_lsn} must not exist, the caller holds the
+     * lock of the Database.
+     */
+    public synchronized void reset(long checkpoint_lsn) throws IOException {
+        checkOpen();
+        // dropping the buffered records, the Database file contains them.
+        out.discard();
+        channel.truncate(HEADER_SIZE);
+        channel.position(HEADER_SIZE);
+        channel.force(true);
+
+        written_bytes = HEADER_SIZE;
+        durable_lsn = Math.max(durable_lsn, checkpoint_lsn);
+        appended_lsn = Math.max(appended_lsn, checkpoint_lsn);
+        notifyAll(); // waking the callers waiting for records contained in the checkpoint.
+    } // reset()
+
+
+    /**
+     * Method to write and force the remaining records and close the log.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized(this){
+            if(closed){
+                return;
+            }
+            closed = true;
+            notifyAll();
+        }
+        try{
+            log_writer.join();
+        }
+        catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+        synchronized(this){
+            try{
+                out.flush();
+                channel.force(false);
+                durable_lsn = appended_lsn;
+            }
+            finally{
+                channel.close();
+                out.release();
+                notifyAll(); // waking the callers waiting for the last records.
+            }
+        }
+    } // close()
+
+
+    /**
+     * Method to replay the records of a log file.
+     *
+     * Records up to {@code checkpoint_lsn} are already contained in the
+     * Database file and are skipped. A record that was only partly written
+     * when the process stopped, and everything after it, is cut off the log.
+     *
+     * @param log_file
+     *        The log file.
+     *
+     * @param checkpoint_lsn
+     *        The sequence number stored in the Database file.
+     *
+     * @param replayer
+     *        Applies every record that is not yet in the Database file.
+     *
+     * @return The sequence number of the last record in the log, or
+     *         {@code checkpoint_lsn} if there is no later record.
+     */
+    static long replay(File log_file, long checkpoint_lsn, Replayer replayer) throws IOException {
+        long last_lsn = checkpoint_lsn;
+        try (FileChannel channel = FileChannel.open(log_file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)){
+            ChannelInput in = new ChannelInput(channel, IvoryFile.BUFFER_SIZE);
+            try{
+                if(in.getInt() != MAGIC || in.getInt() != VERSION){
+                    throw new IOException("Not an Ivory Database write-ahead log: " + log_file.getName() + ".");
+                }
+            }
+            catch (EOFException e){
+                // a log without a header has no records.
+                return last_lsn;
+            }
+
+            long valid_length = HEADER_SIZE; // the length of the log up to the last complete record.
+            CRC32 crc = new CRC32();
+            while(true){
+                byte[] body;
+                try{
+                    int length = in.getInt();
+                    // a length beyond the end of the log is a torn or corrupted length field.
+                    if(length < 13 || length > channel.size() - valid_length - 8){
+                        break;
+                    }
+                    body = new byte[length];
+                    in.getBytes(body, 0, length);
+                    crc.reset();
+                    crc.update(body, 0, length);
+                    if(in.getInt() != (int) crc.getValue()){
+                        break;
+                    }
+                }
+                catch (EOFException e){
+                    break;
+                }
+                valid_length += body.length + 8;
+
+                // decoding and applying the record.
+                ChannelInput record = new ChannelInput(ByteBuffer.wrap(body));
+                long lsn = record.getLong();
+                byte operation = record.getByte();
+                Object[] arguments = new Object[record.getInt()];
+                for(int index = 0 ; index < arguments.length ; index++){
+                    arguments[index] = IvoryFile.readTaggedValue(record);
+                }
+                if(lsn > checkpoint_lsn){
+                    replayer.apply(operation, arguments);
+                }
+                last_lsn = Math.max(last_lsn, lsn);
+            }
+
+            // cutting off a partly written record.
+            if(channel.size() > valid_length){
+                channel.truncate(valid_length);
+                channel.force(true);
+            }
+        }
+        return last_lsn;
+    } // replay()
+
+
+    /**
+     * Applies the records of a log during {@code replay()}.
+     */
+    interface Replayer {
+        void apply(byte operation, Object[] arguments);
+    } // interface Replayer
+
+
+    /* Helper Methods */
+
+    /**
+     * The loop of the log writer thread. Whenever records have been
+     * appended, they are written to the channel and forced to disk in one
+     * go, and the callers waiting for them are woken.
+     */
+    private void runLogWriter(){
+        while(true){
+            long target;
+            synchronized(this){
+                while(!closed && appended_lsn == durable_lsn){
+                    try{
+                        wait();
+                    }
+                    catch (InterruptedException e){
+                        return;
+                    }
+                }
+                if(closed){
+                    return;
+                }
+                // writing the buffered records while appenders wait.
+                target = appended_lsn;
+                try{
+                    out.flush();
+                }
+                catch (IOException e){
+                    fail(e);
+                    return;
+                }
+            }
+
+            // forcing the records to disk while new records are appended.
+            try{
+                channel.force(false);
+            }
+            catch (IOException e){
+                synchronized(this){
+                    fail(e);
+                }
+                return;
+            }
+
+            synchronized(this){
+                durable_lsn = Math.max(durable_lsn, target);
+                notifyAll();
+            }
+        }
+    } // runLogWriter()
+
+
+    /**
+     * Method to record an error of the log writer and wake every caller
+     * waiting for it. The caller holds the lock of the log.
+     */
+    private void fail(IOException e){
+        failure = e;
+        notifyAll();
+    } // fail()
+
+
+    /**
+     * @throws IOException
+     *         if the log has been closed or the log writer has failed.
+     */
+    private void checkOpen() throws IOException {
+        if(failure != null){
+            throw new IOException("The write-ahead log " + log_file.getName() + " could not be written.", failure);
+        }
+        if(closed){
+            throw new IOException("The write-ahead log " + log_file.getName() + " is closed.");
+        }
+    } // checkOpen()
+} // class
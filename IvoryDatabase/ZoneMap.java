@@ -0,0 +1,463 @@
+package IvoryDatabase;
+
+import java.io.IOException;
+
+import java.util.Arrays;
+
+/**
+ * The statistics of the segments of a Column, for skipping the segments
+ * that cannot match a Condition.
+ *
+ * The rows of a Column are split into segments of {@code SEGMENT_SIZE}
+ * rows. For every segment the number of null cells, an estimate of the
+ * number of distinct values and the smallest and largest value are kept.
+ * The smallest and largest value are only kept if every value of the
+ * segment can be compared with every other, so a segment holding NaN or
+ * values of unrelated classes can only be skipped by its null count.
+ *
+ * The statistics are kept up to date as the Column changes: appending a
+ * row or changing a cell widens the bounds of its segment, while inserting
+ * or removing a row in the middle of the Column shifts the rows of every
+ * later segment, whose statistics are then dropped and computed again the
+ * next time they are needed. The bounds of a segment may therefore be
+ * wider than its values, but never narrower.
+ */
+final class ZoneMap {
+    static final int SEGMENT_SIZE = 1 << 12; // the number of rows of a segment, a multiple of 64.
+    static final int SEGMENT_SHIFT = 12; // log2 of SEGMENT_SIZE.
+
+    private static final int SKETCH_BITS = 1 << 12; // the number of bits used to estimate the distinct values of a segment.
+
+    // kinds of the bounds of a saved segment.
+    private static final byte UNBOUNDED = 0; // the values cannot all be compared.
+    private static final byte EMPTY = 1; // the segment holds no value.
+    private static final byte BOUNDED = 2; // the smallest and largest value follow.
+
+    /**
+     * The statistics of one segment. A Segment is never changed, a change
+     * to the Column replaces it.
+     */
+    static final class Segment {
+        final int null_count; // the number of null cells.
+        final int distinct; // an estimate of the number of distinct values, not counting null.
+        final boolean ranged; // true if min and max bound every value of the segment.
+        final Object min; // the smallest value, null if the segment holds no value.
+        final Object max; // the largest value, null if the segment holds no value.
+
+
+        Segment(int null_count, int distinct, boolean ranged, Object min, Object max){
+            this.null_count = null_count;
+            this.distinct = distinct;
+            this.ranged = ranged;
+            this.min = ranged ? min : null;
+            this.max = ranged ? max : null;
+        } // constructor
+    } // class Segment
+
+    private Segment[] segments; // the statistics of every segment, null for a segment to be computed.
+
+
+    /**
+     * Creating a ZoneMap whose statistics are all computed when needed.
+     */
+    ZoneMap(){
+        this(new Segment[0]);
+    } // constructor
+
+
+    private ZoneMap(Segment[] segments){
+        this.segments = segments;
+    } // constructor
+
+
+    /**
+     * @return A copy of the ZoneMap that is not affected by later changes to it.
+     */
+    ZoneMap copy(){
+        return new ZoneMap(segments.clone());
+    } // copy()
+
+
+    /**
+     * @return The number of segments of {@code no_of_rows} rows.
+     */
+    static int segmentCount(int no_of_rows){
+        return (no_of_rows + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT;
+    } // segmentCount()
+
+
+    /**
+     * Method to get the statistics of a segment, computing them if they
+     * are not known. Readers holding the read lock of the Database may
+     * compute the same segment at once, they store equal Segments.
+     *
+     * @param data
+     *        The cells of the Column.
+     *
+     * @param segment
+     *        The number of the segment.
+     *
+     * @return The statistics of the segment.
+     */
+    Segment get(ColumnData data, int segment){
+        Segment[] current = segments;
+        Segment statistics = (segment < current.length) ? current[segment] : null;
+        if(statistics == null){
+            int from = segment << SEGMENT_SHIFT;
+            statistics = compute(data, from, Math.min(data.size(), from + SEGMENT_SIZE));
+            if(segment >= current.length){
+                ensureSegments(segmentCount(data.size()));
+                current = segments;
+            }
+            current[segment] = statistics;
+        }
+        return statistics;
+    } // get()
+
+
+    /**
+     * Method to compute the statistics of every segment that is not known,
+     * before the ZoneMap is saved.
+     *
+     * @param data
+     *        The cells of the Column.
+     */
+    void complete(ColumnData data){
+        ensureSegments(segmentCount(data.size()));
+        for(int segment = 0 ; segment < segmentCount(data.size()) ; segment++){
+            get(data, segment);
+        }
+    } // complete()
+
+
+    /**
+     * Method to widen the statistics of the last segment by a row that has
+     * been appended to the Column.
+     *
+     * @param index
+     *        The index of the appended row.
+     *
+     * @param value
+     *        The value of the appended row.
+     */
+    void appended(int index, Object value){
+        int segment = index >>> SEGMENT_SHIFT;
+        ensureSegments(segment + 1);
+        if((index & (SEGMENT_SIZE - 1)) == 0){
+            // the row starts a new segment.
+            segments[segment] = widen(new Segment(0, 0, true, null, null), value);
+        }
+        else if(segments[segment] != null){
+            segments[segment] = widen(segments[segment], value);
+        }
+    } // appended()
+
+
+    /**
+     * Method to widen the statistics of a segment by a cell that has been changed.
+     *
+     * @param index
+     *        The index of the changed cell.
+     *
+     * @param was_null
+     *        True if the cell was null before it was changed.
+     *
+     * @param value
+     *        The new value of the cell.
+     */
+    void changed(int index, boolean was_null, Object value){
+        int segment = index >>> SEGMENT_SHIFT;
+        if(segment >= segments.length || segments[segment] == null){
+            return;
+        }
+        Segment statistics = segments[segment];
+        if(was_null){
+            // the null cell is counted again by widen() if the value is null.
+            statistics = new Segment(statistics.null_count - 1, statistics.distinct, statistics.ranged, statistics.min, statistics.max);
+        }
+        segments[segment] = widen(statistics, value);
+    } // changed()
+
+
+    /**
+     * Method to update the statistics after the last row of the Column has
+     * been removed.
+     *
+     * @param index
+     *        The index of the removed row.
+     *
+     * @param was_null
+     *        True if the removed cell was null.
+     */
+    void removedLast(int index, boolean was_null){
+        int segment = index >>> SEGMENT_SHIFT;
+        if((index & (SEGMENT_SIZE - 1)) == 0){
+            // the segment is gone.
+            segments = Arrays.copyOf(segments, Math.min(segments.length, segment));
+        }
+        else if(segment < segments.length && segments[segment] != null && was_null){
+            Segment statistics = segments[segment];
+            segments[segment] = new Segment(statistics.null_count - 1, statistics.distinct, statistics.ranged, statistics.min, statistics.max);
+        }
+    } // removedLast()
+
+
+    /**
+     * Method to drop the statistics of the segments holding the rows from
+     * {@code index} on, after rows have been inserted or removed there.
+     */
+    void invalidateFrom(int index){
+        int segment = index >>> SEGMENT_SHIFT;
+        if(segment < segments.length){
+            Arrays.fill(segments, segment, segments.length, null);
+        }
+    } // invalidateFrom()
+
+
+    /**
+     * Method to check if a segment may hold a cell matching a Condition.
+     *
+     * @param condition
+     *        The Condition.
+     *
+     * @param statistics
+     *        The statistics of the segment.
+     *
+     * @param rows
+     *        The number of rows of the segment.
+     *
+     * @return False if no cell of the segment can match {@code condition}.
+     */
+    static boolean mayMatch(Condition condition, Segment statistics, int rows){
+        switch(condition.getOperator()){
+            case IS_NULL:
+                return statistics.null_count > 0;
+            case NOT_NULL:
+                return statistics.null_count < rows;
+            default:
+                if(condition.matchesNull() && statistics.null_count > 0){
+                    return true;
+                }
+                if(statistics.null_count == rows){
+                    return false;
+                }
+                return !statistics.ranged || statistics.min == null || condition.mayMatch(statistics.min, statistics.max);
+        }
+    } // mayMatch()
+
+
+    /**
+     * @return The statistics of the segment widened by a new cell holding
+     *         {@code value}.
+     */
+    private static Segment widen(Segment statistics, Object value){
+        if(value == null){
+            return new Segment(statistics.null_count + 1, statistics.distinct, statistics.ranged, statistics.min, statistics.max);
+        }
+        if(!statistics.ranged){
+            return statistics;
+        }
+        if(statistics.min == null){
+            return new Segment(statistics.null_count, statistics.distinct + 1, isOrdered(value), value, value);
+        }
+        int below = Condition.compare(value, statistics.min);
+        int above = Condition.compare(value, statistics.max);
+        if(below == Condition.INCOMPARABLE || above == Condition.INCOMPARABLE){
+            return new Segment(statistics.null_count, statistics.distinct, false, null, null);
+        }
+        if(below >= 0 && above <= 0){
+            return statistics;
+        }
+        // a value outside of the bounds is a new distinct value.
+        return new Segment(statistics.null_count, statistics.distinct + 1, true,
+            (below < 0) ? value : statistics.min, (above > 0) ? value : statistics.max);
+    } // widen()
+
+
+    /**
+     * @return True if {@code value} can be compared with the values of
+     *         its kind, which NaN cannot.
+     */
+    private static boolean isOrdered(Object value){
+        return Condition.compare(value, value) == 0;
+    } // isOrdered()
+
+
+    /**
+     * Method to compute the statistics of the rows in [from, to).
+     */
+    static Segment compute(ColumnData data, int from, int to){
+        long[] sketch = new long[SKETCH_BITS >>> 6];
+        int null_count = 0;
+
+        // primitive Columns are read from the arrays of the chunks holding the rows.
+        if(data instanceof IntColumnData || data instanceof LongColumnData || data instanceof DoubleColumnData){
+            ChunkedColumnData chunked = (ChunkedColumnData) data;
+            boolean integer = (data instanceof IntColumnData);
+            boolean decimal = (data instanceof DoubleColumnData);
+            long long_min = Long.MAX_VALUE;
+            long long_max = Long.MIN_VALUE;
+            double double_min = Double.POSITIVE_INFINITY;
+            double double_max = Double.NEGATIVE_INFINITY;
+            boolean ranged = true;
+            for(int chunk_num = chunked.chunkOf(from) ; chunk_num < chunked.getChunkCount() && chunked.getChunkStart(chunk_num) < to ; chunk_num++){
+                int start = chunked.getChunkStart(chunk_num);
+                int end = Math.min(to, start + chunked.getChunkSize(chunk_num));
+                int[] ints = integer ? ((IntColumnData) data).getChunk(chunk_num) : null;
+                long[] longs = (data instanceof LongColumnData) ? ((LongColumnData) data).getChunk(chunk_num) : null;
+                double[] doubles = decimal ? ((DoubleColumnData) data).getChunk(chunk_num) : null;
+                NullMask chunk_nulls = chunked.getChunkNulls(chunk_num);
+                for(int index = Math.max(from, start) ; index < end ; index++){
+                    if(chunk_nulls.get(index - start)){
+                        null_count++;
+                        continue;
+                    }
+                    long bits;
+                    if(decimal){
+                        double value = doubles[index - start];
+                        ranged &= (value == value);
+                        double_min = Math.min(double_min, value);
+                        double_max = Math.max(double_max, value);
+                        // 0.0 and -0.0 are equal.
+                        bits = Double.doubleToLongBits(value + 0.0);
+                    }
+                    else{
+                        bits = integer ? ints[index - start] : longs[index - start];
+                        long_min = Math.min(long_min, bits);
+                        long_max = Math.max(long_max, bits);
+                    }
+                    mark(sketch, bits);
+                }
+            }
+            int values = to - from - null_count;
+            if(values == 0){
+                return new Segment(null_count, 0, true, null, null);
+            }
+            Object min = decimal ? (Object) double_min : integer ? (Object) (int) long_min : (Object) long_min;
+            Object max = decimal ? (Object) double_max : integer ? (Object) (int) long_max : (Object) long_max;
+            return new Segment(null_count, estimate(sketch, values), ranged, min, max);
+        }
+
+        // other Columns are read cell by cell.
+        Object min = null;
+        Object max = null;
+        boolean ranged = true;
+        for(int index = from ; index < to ; index++){
+            Object value = data.get(index);
+            if(value == null){
+                null_count++;
+                continue;
+            }
+            mark(sketch, value.hashCode());
+            if(!ranged){
+                continue;
+            }
+            if(min == null){
+                ranged = isOrdered(value);
+                min = value;
+                max = value;
+                continue;
+            }
+            int below = Condition.compare(value, min);
+            int above = Condition.compare(value, max);
+            if(below == Condition.INCOMPARABLE || above == Condition.INCOMPARABLE){
+                ranged = false;
+                continue;
+            }
+            min = (below < 0) ? value : min;
+            max = (above > 0) ? value : max;
+        }
+        int values = to - from - null_count;
+        return new Segment(null_count, (values == 0) ? 0 : estimate(sketch, values), ranged, min, max);
+    } // compute()
+
+
+    /**
+     * Method to set the bit of a hash in the sketch of the distinct values.
+     */
+    private static void mark(long[] sketch, long hash){
+        hash *= 0x9E3779B97F4A7C15L;
+        int bit = (int) (hash >>> 52); // the top 12 bits.
+        sketch[bit >>> 6] |= 1L << bit;
+    } // mark()
+
+
+    /**
+     * @return The number of distinct values estimated from the bits set
+     *         in the sketch, at most {@code values}.
+     */
+    private static int estimate(long[] sketch, int values){
+        int unset = 0;
+        for(long word : sketch){
+            unset += Long.bitCount(~word);
+        }
+        if(unset == 0){
+            return values;
+        }
+        // linear counting.
+        double estimate = -SKETCH_BITS * Math.log((double) unset / SKETCH_BITS);
+        return (int) Math.max(1, Math.min(values, Math.round(estimate)));
+    } // estimate()
+
+
+    /**
+     * Method to grow the array of segments to at least {@code count} segments.
+     */
+    private void ensureSegments(int count){
+        if(segments.length < count){
+            segments = Arrays.copyOf(segments, Math.max(count, segments.length + (segments.length >> 1)));
+        }
+    } // ensureSegments()
+
+
+    /* Saving */
+
+    /**
+     * Method to write the statistics of every segment, after they have
+     * been completed by {@code complete()}.
+     *
+     * @param no_of_rows
+     *        The number of rows of the Column.
+     */
+    void write(ChannelOutput out, int no_of_rows) throws IOException {
+        int count = segmentCount(no_of_rows);
+        out.putInt(count);
+        for(int segment = 0 ; segment < count ; segment++){
+            Segment statistics = segments[segment];
+            out.putInt(statistics.null_count);
+            out.putInt(statistics.distinct);
+            boolean has_bounds = statistics.ranged && statistics.min != null;
+            out.putByte(has_bounds ? BOUNDED : (statistics.ranged ? EMPTY : UNBOUNDED));
+            if(has_bounds){
+                IvoryFile.writeTaggedValue(out, statistics.min);
+                IvoryFile.writeTaggedValue(out, statistics.max);
+            }
+        }
+    } // write()
+
+
+    /**
+     * Method to read the statistics written by {@code write()}.
+     *
+     * @param no_of_rows
+     *        The number of rows of the Column.
+     *
+     * @return The ZoneMap, with no statistics if they were not written
+     *         for {@code no_of_rows} rows.
+     */
+    static ZoneMap read(ChannelInput in, int no_of_rows) throws IOException {
+        int count = in.getInt();
+        Segment[] segments = new Segment[count];
+        for(int segment = 0 ; segment < count ; segment++){
+            int null_count = in.getInt();
+            int distinct = in.getInt();
+            byte kind = in.getByte();
+            boolean ranged = (kind != UNBOUNDED);
+            boolean has_bounds = (kind == BOUNDED);
+            Object min = has_bounds ? IvoryFile.readTaggedValue(in) : null;
+            Object max = has_bounds ? IvoryFile.readTaggedValue(in) : null;
+            segments[segment] = new Segment(null_count, distinct, ranged, min, max);
+        }
+        return (count == segmentCount(no_of_rows)) ? new ZoneMap(segments) : new ZoneMap();
+    } // read()
+} // class
@@ -0,0 +1,101 @@
+package IvoryDatabase.IvoryDBBenchmarks;
+
+import IvoryDatabase.ColumnType;
+import IvoryDatabase.IvoryDatabase;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of filling an empty Database: with one ADD per row, with one 
+ * ADD_ALL of all rows, and with IMPORT_CSV of a file holding the rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class BulkLoadBenchmark {
+    @Param({"10000", "1000000"})
+    int rows;
+
+    @Param({"4", "16"})
+    int columns;
+
+    @Param({"INT", "LONG", "DOUBLE", "BOOLEAN", "STRING", "DICTIONARY", "OBJECT"})
+    ColumnType type;
+
+    private List<Object[]> generated_rows;
+    private File directory;
+    private File csv_file; // the generated rows as comma separated values.
+
+
+    @Setup
+    public void setUp() throws IOException {
+        generated_rows = Tables.rows(rows, columns, type);
+
+        // the CSV file is written by the Database itself, so it is in the format IMPORT_CSV reads.
+        directory = Tables.createDirectory();
+        csv_file = new File(directory, "rows.csv");
+        IvoryDatabase database = Tables.create(columns, type);
+        database.ADD_ALL(generated_rows);
+        try (Writer writer = new FileWriter(csv_file, StandardCharsets.UTF_8)){
+            if(!database.WRITE_CSV(writer)){
+                throw new IOException("The rows could not be written to " + csv_file + ".");
+            }
+        }
+    } // setUp()
+
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Tables.deleteDirectory(directory);
+    } // tearDown()
+
+
+    @Benchmark
+    public IvoryDatabase add(){
+        IvoryDatabase database = Tables.create(columns, type);
+        for(Object[] row : generated_rows){
+            database.ADD(row);
+        }
+        return database;
+    } // add()
+
+
+    @Benchmark
+    public IvoryDatabase addAll(){
+        IvoryDatabase database = Tables.create(columns, type);
+        database.ADD_ALL(generated_rows);
+        return database;
+    } // addAll()
+
+
+    @Benchmark
+    public IvoryDatabase importCsv(){
+        IvoryDatabase database = Tables.create(columns, type);
+        database.IMPORT_CSV(csv_file);
+        return database;
+    } // importCsv()
+} // class
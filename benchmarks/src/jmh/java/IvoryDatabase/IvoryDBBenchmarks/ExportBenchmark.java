@@ -0,0 +1,63 @@
+package IvoryDatabase.IvoryDBBenchmarks;
+
+import IvoryDatabase.ColumnType;
+import IvoryDatabase.IvoryDatabase;
+
+import java.io.Writer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the exports of a Database as comma separated values: 
+ * {@code getCSV()}, which builds the whole table as a String, and 
+ * {@code WRITE_CSV()} to a Writer discarding the characters, which 
+ * measures the formatting of the records alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class ExportBenchmark {
+    @Param({"10000", "1000000"})
+    int rows;
+
+    @Param({"4", "16"})
+    int columns;
+
+    @Param({"INT", "LONG", "DOUBLE", "BOOLEAN", "STRING", "DICTIONARY", "OBJECT"})
+    ColumnType type;
+
+    private IvoryDatabase database;
+
+
+    @Setup
+    public void setUp(){
+        database = Tables.filled(rows, columns, type);
+    } // setUp()
+
+
+    @Benchmark
+    public String getCsv(){
+        return database.getCSV();
+    } // getCsv()
+
+
+    @Benchmark
+    public boolean writeCsv(){
+        return database.WRITE_CSV(Writer.nullWriter());
+    } // writeCsv()
+} // class
@@ -0,0 +1,108 @@
+package IvoryDatabase.IvoryDBBenchmarks;
+
+import IvoryDatabase.ColumnEncoding;
+import IvoryDatabase.ColumnType;
+import IvoryDatabase.IvoryDatabase;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the round-trip of a Database through its file: SAVE and 
+ * {@code saveAsync()}, and opening the saved file with the loading 
+ * constructor and with {@code openMapped()}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class PersistenceBenchmark {
+    @Param({"10000", "1000000"})
+    int rows;
+
+    @Param({"4", "16"})
+    int columns;
+
+    @Param({"INT", "LONG", "DOUBLE", "BOOLEAN", "STRING", "DICTIONARY", "OBJECT"})
+    ColumnType type;
+
+    @Param({"AUTO"})
+    ColumnEncoding encoding;
+
+    @Param({"false"})
+    boolean deflate;
+
+    private IvoryDatabase database;
+    private File directory;
+    private File file; // the saved Database.
+
+
+    @Setup
+    public void setUp() throws Exception {
+        database = Tables.filled(rows, columns, type);
+        for(int col_num = 0 ; col_num < columns ; col_num++){
+            // an encoding that does not fit the ColumnType is left at AUTO.
+            database.SET_COLUMN_ENCODING(Tables.columnName(col_num), encoding, deflate);
+        }
+        directory = Tables.createDirectory();
+        file = new File(directory, "database.ivry");
+        database.setFileLocation(file.getPath());
+        database.SAVE();
+    } // setUp()
+
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Tables.deleteDirectory(directory);
+    } // tearDown()
+
+
+    @Benchmark
+    public long save(){
+        database.SAVE();
+        return file.length();
+    } // save()
+
+
+    @Benchmark
+    public boolean saveAsync() throws InterruptedException, ExecutionException {
+        return database.saveAsync().get();
+    } // saveAsync()
+
+
+    @Benchmark
+    public IvoryDatabase open() throws Exception {
+        return new IvoryDatabase(file);
+    } // open()
+
+
+    @Benchmark
+    public IvoryDatabase openMapped() throws Exception {
+        return IvoryDatabase.openMapped(file);
+    } // openMapped()
+
+
+    @Benchmark
+    public Object[] openMappedAndReadColumn() throws Exception {
+        // the cells of a mapped Database are read from the file the first time they are needed.
+        return IvoryDatabase.openMapped(file).GET_COLUMN(Tables.columnName(0));
+    } // openMappedAndReadColumn()
+} // class
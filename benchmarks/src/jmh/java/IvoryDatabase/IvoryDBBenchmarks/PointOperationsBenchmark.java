@@ -0,0 +1,103 @@
+package IvoryDatabase.IvoryDBBenchmarks;
+
+import IvoryDatabase.ColumnType;
+import IvoryDatabase.IvoryDatabase;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the operations on single rows: GET, SET, and ADD of a row
+ * between existing rows followed by its DELETE, so that the table keeps
+ * its size. The rows are picked in a random order that is the same for
+ * every run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PointOperationsBenchmark {
+    private static final int PICKS = 1 << 12; // the number of precomputed random rows, a power of two.
+
+    @Param({"10000", "1000000"})
+    int rows;
+
+    @Param({"4", "16"})
+    int columns;
+
+    @Param({"INT", "LONG", "DOUBLE", "BOOLEAN", "STRING", "DICTIONARY", "OBJECT"})
+    ColumnType type;
+
+    private IvoryDatabase database;
+    private String[] ids; // the IDs of the picked rows.
+    private String[] new_ids; // IDs sorting right after the IDs of the picked rows.
+    private String[] column_names; // the Columns read and written at the picked rows.
+    private Object[] values; // the values written by SET.
+    private Object[][] new_rows; // the rows added by ADD.
+    private int pick; // the number of the next pick.
+
+
+    @Setup
+    public void setUp(){
+        database = Tables.filled(rows, columns, type);
+
+        // picking the rows, Columns and values up front, out of the measured time.
+        Random random = new Random(Tables.SEED + 1);
+        ids = new String[PICKS];
+        new_ids = new String[PICKS];
+        column_names = new String[PICKS];
+        values = new Object[PICKS];
+        new_rows = new Object[PICKS][];
+        for(int index = 0 ; index < PICKS ; index++){
+            ids[index] = Tables.id(random.nextInt(rows));
+            new_ids[index] = ids[index] + "N";
+            column_names[index] = Tables.columnName(random.nextInt(columns));
+            values[index] = Tables.value(type, random, rows);
+            new_rows[index] = Tables.row(new_ids[index], columns, type, random, rows);
+        }
+    } // setUp()
+
+
+    /**
+     * @return The number of the next pick.
+     */
+    private int nextPick(){
+        return pick++ & (PICKS - 1);
+    } // nextPick()
+
+
+    @Benchmark
+    public Object get(){
+        int index = nextPick();
+        return database.GET(ids[index], column_names[index]);
+    } // get()
+
+
+    @Benchmark
+    public boolean set(){
+        int index = nextPick();
+        return database.SET(ids[index], column_names[index], values[index]);
+    } // set()
+
+
+    @Benchmark
+    public boolean addAndDelete(){
+        int index = nextPick();
+        // ADD copies the row, so the same row can be added again later.
+        return database.ADD(new_rows[index]) & database.DELETE(new_ids[index]);
+    } // addAndDelete()
+} // class
@@ -0,0 +1,147 @@
+package IvoryDatabase.IvoryDBBenchmarks;
+
+import IvoryDatabase.ColumnType;
+import IvoryDatabase.IvoryDatabase;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * The tables the benchmarks run on.
+ *
+ * A table has an ID column and {@code columns} value Columns of one
+ * ColumnType. Its rows are generated from a fixed seed, so every run of a
+ * benchmark works on the same values.
+ */
+final class Tables {
+    static final long SEED = 20240229L; // the seed of the generated values.
+
+    private static final int DICTIONARY_SIZE = 32; // the number of distinct values of a DICTIONARY Column.
+
+
+    private Tables(){
+    } // constructor Tables()
+
+
+    /**
+     * @return A new Database with the ID column and {@code columns} empty
+     *         Columns of {@code type}, named C0, C1, ...
+     */
+    static IvoryDatabase create(int columns, ColumnType type){
+        IvoryDatabase database = new IvoryDatabase();
+        for(int col_num = 0 ; col_num < columns ; col_num++){
+            database.ADD_COLUMN(columnName(col_num), type);
+        }
+        return database;
+    } // create()
+
+
+    /**
+     * @return A new Database holding the rows of {@code rows(rows, columns, type)}.
+     */
+    static IvoryDatabase filled(int rows, int columns, ColumnType type){
+        IvoryDatabase database = create(columns, type);
+        database.ADD_ALL(rows(rows, columns, type));
+        return database;
+    } // filled()
+
+
+    /**
+     * @return {@code rows} generated rows, in the order of their IDs.
+     */
+    static List<Object[]> rows(int rows, int columns, ColumnType type){
+        Random random = new Random(SEED);
+        List<Object[]> generated = new ArrayList<>(rows);
+        for(int row_num = 0 ; row_num < rows ; row_num++){
+            generated.add(row(id(row_num), columns, type, random, rows));
+        }
+        return generated;
+    } // rows()
+
+
+    /**
+     * @return A row with the ID {@code id} and generated values.
+     */
+    static Object[] row(String id, int columns, ColumnType type, Random random, int rows){
+        Object[] row = new Object[columns + 1];
+        row[0] = id;
+        for(int col_num = 1 ; col_num <= columns ; col_num++){
+            row[col_num] = value(type, random, rows);
+        }
+        return row;
+    } // row()
+
+
+    /**
+     * @return A generated value for a Column of {@code type}. Strings repeat
+     *         about once per row and DICTIONARY values are few, like the
+     *         names and categories of real tables.
+     */
+    static Object value(ColumnType type, Random random, int rows){
+        switch(type){
+            case INT:
+                return random.nextInt(1_000_000);
+            case LONG:
+                return 1_700_000_000_000L + random.nextInt(1_000_000_000);
+            case DOUBLE:
+                return random.nextInt(10_000_000) / 100.0;
+            case BOOLEAN:
+                return random.nextBoolean();
+            case STRING:
+                return "value-" + random.nextInt(Math.max(1, rows));
+            case DICTIONARY:
+                return "category-" + random.nextInt(DICTIONARY_SIZE);
+            default:
+                // OBJECT Columns hold values of mixed classes.
+                return random.nextBoolean() ? (Object) (long) random.nextInt(1_000_000) : (Object) ("object-" + random.nextInt(1_000));
+        }
+    } // value()
+
+
+    /**
+     * @return The ID of row number {@code row_num}, so that IDs sort in the
+     *         order of their numbers.
+     */
+    static String id(int row_num){
+        return String.format("R%010d", row_num);
+    } // id()
+
+
+    /**
+     * @return The name of value Column number {@code col_num}.
+     */
+    static String columnName(int col_num){
+        return "C" + col_num;
+    } // columnName()
+
+
+    /**
+     * @return A new empty directory for the files of a benchmark.
+     */
+    static File createDirectory() throws IOException {
+        return Files.createTempDirectory("ivory-benchmarks").toFile();
+    } // createDirectory()
+
+
+    /**
+     * Method to delete a directory made by {@code createDirectory()} and
+     * everything in it.
+     */
+    static void deleteDirectory(File directory) throws IOException {
+        if(directory == null || !directory.exists()){
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory.toPath())){
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    } // deleteDirectory()
+} // class
@@ -0,0 +1,181 @@
+package IvoryDatabase;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of adding batches of rows with ADD_ALL.
+ */
+class AddAllTest {
+    private static final String[] COLUMNS = {"INT", "LONG", "DOUBLE", "STRING", "DICTIONARY", "OBJECT", "OFF_HEAP"};
+
+    @TempDir
+    File directory;
+
+
+    /**
+     * @return The row of the number {@code number} of a Database with the 
+     *         Columns {@code COLUMNS}, with nulls in every seventh row.
+     */
+    private static Object[] numberedRow(int number, int version){
+        String id = String.format("ROW%06d", number);
+        if(number % 7 == 0){
+            return new Object[]{id, null, null, null, null, null, null, null};
+        }
+        int value = number + version;
+        return new Object[]{id, value, value * 3L, value / 2.0, "s" + value, "k" + (value % 5),
+            (value % 2 == 0) ? (Object) value : "o" + value, value};
+    } // numberedRow()
+
+
+    @Test
+    void batchIsMergedInTheOrderOfTheIds(){
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("AGE", ColumnType.INT);
+        database.ADD(new Object[]{"b", 2});
+        database.ADD(new Object[]{"d", 4});
+
+        ArrayList<Object[]> rejected = database.ADD_ALL(List.of(
+            new Object[]{"e", 5}, new Object[]{"a", 1}, new Object[]{"D", -4},
+            new Object[]{"c", 3}, new Object[]{"c", -3}));
+
+        // the existing ID and the second row with the same ID are rejected.
+        assertEquals(2, rejected.size());
+        assertEquals(5, database.getRowCount());
+        assertArrayEquals(new Object[]{"A", "B", "C", "D", "E"}, database.GET_COLUMN("ID"));
+        assertArrayEquals(new Object[]{1, 2, 3, 4, 5}, database.GET_COLUMN("AGE"));
+        assertEquals(3, database.GET("c", "AGE"));
+    } // batchIsMergedInTheOrderOfTheIds()
+
+
+    @Test
+    void batchesAreMergedIntoTheMiddleOfALargeTypedTable(){
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("INT", ColumnType.INT);
+        database.ADD_COLUMN("LONG", ColumnType.LONG);
+        database.ADD_COLUMN("DOUBLE", ColumnType.DOUBLE);
+        database.ADD_COLUMN("STRING", ColumnType.STRING);
+        database.ADD_COLUMN("DICTIONARY", ColumnType.DICTIONARY);
+        database.ADD_COLUMN("OBJECT", ColumnType.OBJECT);
+        database.ADD_COLUMN("OFF_HEAP", ColumnType.INT);
+        assertTrue(database.SET_COLUMN_OFF_HEAP("OFF_HEAP", true));
+
+        // the even numbers are appended, the odd numbers are merged between them later.
+        TreeMap<String, Object[]> expected = new TreeMap<>();
+        ArrayList<Object[]> rows = new ArrayList<>();
+        for(int number = 0 ; number < 200_000 ; number += 2){
+            rows.add(numberedRow(number, 0));
+            expected.put((String) rows.get(rows.size() - 1)[0], rows.get(rows.size() - 1));
+        }
+        assertEquals(0, database.ADD_ALL(rows).size());
+        assertTrue(database.CREATE_INDEX("INT"));
+        for(int number = 0 ; number < 200_000 ; number += 1000){
+            assertTrue(database.DELETE(String.format("row%06d", number)));
+            expected.remove(String.format("ROW%06d", number));
+        }
+
+        // a batch of a few rows, one of them taking the ID of a deleted row.
+        ArrayList<Object[]> small = new ArrayList<>();
+        for(int number = 1 ; number < 200_000 ; number += 20_000){
+            small.add(numberedRow(number, 0));
+        }
+        small.add(numberedRow(5000, 1));
+        // a batch of many rows all over the table, one of them taking the ID of a deleted row.
+        ArrayList<Object[]> large = new ArrayList<>();
+        for(int number = 3 ; number < 200_000 ; number += 38){
+            large.add(numberedRow(number, 0));
+        }
+        large.add(numberedRow(9000, 3));
+
+        for(List<Object[]> batch : List.of(small, large)){
+            assertEquals(0, database.ADD_ALL(new ArrayList<>(batch)).size());
+            for(Object[] row : batch){
+                expected.put((String) row[0], row);
+            }
+            assertEquals(expected.size(), database.getRowCount());
+            assertArrayEquals(expected.keySet().toArray(), database.GET_COLUMN("ID"));
+            for(int col_num = 0 ; col_num < COLUMNS.length ; col_num++){
+                Object[] values = new Object[expected.size()];
+                int row = 0;
+                for(Map.Entry<String, Object[]> entry : expected.entrySet()){
+                    values[row++] = entry.getValue()[col_num + 1];
+                }
+                assertArrayEquals(values, database.GET_COLUMN(COLUMNS[col_num]), COLUMNS[col_num]);
+            }
+            // the ID index and the secondary index find the merged rows.
+            for(Object[] row : batch){
+                assertEquals(row[1], database.GET((String) row[0], "INT"));
+            }
+        }
+        assertArrayEquals(new String[]{"ROW005000"}, database.FIND("INT", 5001));
+        assertArrayEquals(new String[]{"ROW009000"}, database.WHERE(Condition.equal("LONG", 9003 * 3L)));
+        assertArrayEquals(new String[]{"ROW000003"}, database.FIND("INT", 3));
+        assertNull(database.GET("row001000", "INT"));
+    } // batchesAreMergedIntoTheMiddleOfALargeTypedTable()
+
+
+    @Test
+    void batchIsRecordedOnceInTheMetrics(){
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_ALL(List.of(new Object[]{"a"}, new Object[]{"b"}));
+
+        LatencyStatistics statistics = database.getMetrics().getStatistics(OperationType.ADD_ALL);
+        assertEquals(1, statistics.getCount());
+        assertEquals(0, statistics.getFailures());
+        assertEquals(0, database.getMetrics().getStatistics(OperationType.ADD).getCount());
+    } // batchIsRecordedOnceInTheMetrics()
+
+
+    @Test
+    void rowsThatCannotBeLoggedAreRejectedAndAbsent() throws Exception {
+        File file = new File(directory, "logged.ivry");
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("DATA", ColumnType.OBJECT);
+        database.ADD(new Object[]{"b", "bee"});
+        database.setFileLocation(file.getPath());
+        assertTrue(database.enableWriteAheadLog());
+
+        // a cell that is not Serializable cannot be written to the log.
+        Object[] unlogged = new Object[]{"c", new Object()};
+        ArrayList<Object[]> rejected = database.ADD_ALL(List.of(
+            new Object[]{"a", "ay"}, unlogged, new Object[]{"d", "dee"}));
+
+        assertEquals(1, rejected.size());
+        assertSame(unlogged, rejected.get(0));
+        assertEquals(3, database.getRowCount());
+        assertNull(database.GET("c", "DATA"));
+        assertArrayEquals(new Object[]{"A", "B", "D"}, database.GET_COLUMN("ID"));
+        assertEquals(1, database.getMetrics().getStatistics(OperationType.ADD_ALL).getFailures());
+
+        // the rejected row can be added again, and the logged rows are replayed.
+        assertTrue(database.ADD(new Object[]{"c", "cee"}));
+        IvoryDatabase reopened = new IvoryDatabase(file.getPath());
+        assertArrayEquals(new Object[]{"A", "B", "C", "D"}, reopened.GET_COLUMN("ID"));
+        assertArrayEquals(new Object[]{"ay", "bee", "cee", "dee"}, reopened.GET_COLUMN("DATA"));
+    } // rowsThatCannotBeLoggedAreRejectedAndAbsent()
+
+
+    @Test
+    void batchIsRejectedByAnEvictedDatabase() throws Exception {
+        IvoryDatabase database = new IvoryDatabase();
+        database.setFileLocation(new File(directory, "evicted.ivry").getPath());
+        assertTrue(database.evict());
+
+        ArrayList<Object[]> rejected = database.ADD_ALL(List.of(new Object[]{"a"}, new Object[]{"b"}));
+        assertEquals(2, rejected.size());
+        assertEquals(0, database.getRowCount());
+        assertEquals(1, database.getMetrics().getStatistics(OperationType.ADD_ALL).getFailures());
+    } // batchIsRejectedByAnEvictedDatabase()
+} // class
@@ -0,0 +1,199 @@
+package IvoryDatabase;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of AGGREGATE and GROUP_BY.
+ */
+class AggregationTest {
+    private static final Aggregation[] ALL_OF_N = {
+        Aggregation.count(), Aggregation.count("N"), Aggregation.sum("N"),
+        Aggregation.min("N"), Aggregation.max("N"), Aggregation.avg("N")
+    };
+
+
+    @Test
+    void countOfRowsIncludesNullCells(){
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("N", ColumnType.INT);
+        database.ADD(new Object[]{"a", 4});
+        database.ADD(new Object[]{"b", null});
+        database.ADD(new Object[]{"c", -1});
+
+        assertArrayEquals(new Object[]{3L, 2L, 3L, -1, 4, 1.5}, database.AGGREGATE(ALL_OF_N));
+        assertArrayEquals(new Object[]{1L, 0L, null, null, null, null}, database.AGGREGATE(ALL_OF_N, Condition.isNull("N")));
+        assertNull(database.AGGREGATE(new Aggregation[]{Aggregation.sum("MISSING")}));
+    } // countOfRowsIncludesNullCells()
+
+
+    @Test
+    void emptySelectionCountsZeroAndHasNoValues(){
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("N", ColumnType.INT);
+        assertArrayEquals(new Object[]{0L, 0L, null, null, null, null}, database.AGGREGATE(ALL_OF_N));
+
+        database.ADD(new Object[]{"a", 4});
+        assertArrayEquals(new Object[]{0L, 0L, null, null, null, null}, database.AGGREGATE(ALL_OF_N, Condition.greaterThan("N", 4)));
+        assertEquals(0, database.GROUP_BY(new String[]{"N"}, ALL_OF_N, Condition.greaterThan("N", 4)).length);
+    } // emptySelectionCountsZeroAndHasNoValues()
+
+
+    @Test
+    void nullValuesFormTheirOwnFirstGroup(){
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("CITY", ColumnType.STRING);
+        database.ADD_COLUMN("N", ColumnType.INT);
+        database.ADD(new Object[]{"a", "Oslo", 1});
+        database.ADD(new Object[]{"b", null, 2});
+        database.ADD(new Object[]{"c", "Lima", 3});
+        database.ADD(new Object[]{"d", "Oslo", null});
+        database.ADD(new Object[]{"e", null, 5});
+
+        Object[][] groups = database.GROUP_BY(new String[]{"CITY"}, new Aggregation[]{Aggregation.count(), Aggregation.sum("N")});
+        assertEquals(3, groups.length);
+        assertArrayEquals(new Object[]{null, 2L, 7L}, groups[0]);
+        assertArrayEquals(new Object[]{"Lima", 1L, 3L}, groups[1]);
+        assertArrayEquals(new Object[]{"Oslo", 2L, 1L}, groups[2]);
+
+        // grouping by the aggregated Column puts its null cells into a group of no values.
+        groups = database.GROUP_BY(new String[]{"N"}, new Aggregation[]{Aggregation.count(), Aggregation.count("N"), Aggregation.max("N")});
+        assertArrayEquals(new Object[]{null, 1L, 0L, null}, groups[0]);
+        assertArrayEquals(new Object[]{5, 1L, 1L, 5}, groups[4]);
+    } // nullValuesFormTheirOwnFirstGroup()
+
+
+    @Test
+    void notANumberIsSkippedByMinAndMaxOnly(){
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("D", ColumnType.DOUBLE);
+        database.ADD(new Object[]{"a", 2.0});
+        database.ADD(new Object[]{"b", Double.NaN});
+        database.ADD(new Object[]{"c", -1.0});
+
+        Aggregation[] aggregations = {
+            Aggregation.count("D"), Aggregation.sum("D"), Aggregation.min("D"), Aggregation.max("D"), Aggregation.avg("D")
+        };
+        Object[] results = database.AGGREGATE(aggregations);
+        assertEquals(3L, results[0]);
+        assertTrue(Double.isNaN((Double) results[1]));
+        assertEquals(-1.0, results[2]);
+        assertEquals(2.0, results[3]);
+        assertTrue(Double.isNaN((Double) results[4]));
+
+        // MIN and MAX of nothing but NaN have no value.
+        results = database.AGGREGATE(aggregations, Condition.isNull("D"));
+        assertArrayEquals(new Object[]{0L, null, null, null, null}, results);
+        database.DELETE("a");
+        database.DELETE("c");
+        results = database.AGGREGATE(aggregations);
+        assertEquals(1L, results[0]);
+        assertNull(results[2]);
+        assertNull(results[3]);
+    } // notANumberIsSkippedByMinAndMaxOnly()
+
+
+    @Test
+    void deletedRowsAreNotAggregated(){
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("GROUP", ColumnType.INT);
+        database.ADD_COLUMN("N", ColumnType.LONG);
+        for(int row = 0 ; row < 100 ; row++){
+            database.ADD(new Object[]{"row" + row, row % 2, (long) row});
+        }
+        for(int row = 0 ; row < 100 ; row += 3){
+            assertTrue(database.DELETE("row" + row));
+        }
+        long even_sum = 0, odd_sum = 0, even_count = 0, odd_count = 0;
+        for(int row = 0 ; row < 100 ; row++){
+            if(row % 3 == 0){
+                continue;
+            }
+            if(row % 2 == 0){
+                even_sum += row;
+                even_count++;
+            }
+            else{
+                odd_sum += row;
+                odd_count++;
+            }
+        }
+        assertArrayEquals(new Object[]{even_count + odd_count, even_sum + odd_sum, 1L, 98L},
+            database.AGGREGATE(new Aggregation[]{Aggregation.count(), Aggregation.sum("N"), Aggregation.min("N"), Aggregation.max("N")}));
+
+        Object[][] groups = database.GROUP_BY(new String[]{"GROUP"}, new Aggregation[]{Aggregation.count(), Aggregation.sum("N")});
+        assertArrayEquals(new Object[]{0, even_count, even_sum}, groups[0]);
+        assertArrayEquals(new Object[]{1, odd_count, odd_sum}, groups[1]);
+    } // deletedRowsAreNotAggregated()
+
+
+    @Test
+    void partialAggregatesOfSeveralRangesAreMerged(){
+        Random random = new Random(15);
+        int rows = 1000;
+        ColumnData group_data = ColumnData.create(ColumnType.INT);
+        ColumnData long_data = ColumnData.create(ColumnType.LONG);
+        ColumnData double_data = ColumnData.create(ColumnType.DOUBLE);
+        long[] selection = new long[(rows + 63) >>> 6];
+        for(int row = 0 ; row < rows ; row++){
+            group_data.add(random.nextInt(3));
+            // nulls and values near the edges of a long, whose sums only fit into a BigInteger.
+            long_data.add((row % 10 == 0) ? null : (random.nextBoolean() ? Long.MAX_VALUE - row : Long.MIN_VALUE + row));
+            double_data.add((row == 500) ? Double.NaN : random.nextDouble());
+            if(row % 4 != 1){
+                selection[row >>> 6] |= 1L << row;
+            }
+        }
+        Aggregation[] aggregations = {
+            Aggregation.count(), Aggregation.count("L"), Aggregation.sum("L"), Aggregation.min("L"), Aggregation.max("L"),
+            Aggregation.avg("L"), Aggregation.sum("D"), Aggregation.min("D"), Aggregation.max("D")
+        };
+        ColumnData[] columns = {null, long_data, long_data, long_data, long_data, long_data, double_data, double_data, double_data};
+        Aggregator.Groups groups = Aggregator.group(new ColumnData[]{group_data}, selection, rows);
+
+        // one range is the model for any number of them, including ranges past the last row.
+        Object[][] expected = Aggregator.aggregate(aggregations, columns, selection, rows, groups, 1);
+        for(int tasks : new int[]{2, 3, 7, 20}){
+            Object[][] merged = Aggregator.aggregate(aggregations, columns, selection, rows, groups, tasks);
+            for(int group = 0 ; group < groups.count ; group++){
+                for(int agg_num = 0 ; agg_num < aggregations.length ; agg_num++){
+                    if(expected[group][agg_num] instanceof Double){
+                        assertEquals((Double) expected[group][agg_num], (Double) merged[group][agg_num], 1e-9, tasks + " tasks");
+                    }
+                    else{
+                        assertEquals(expected[group][agg_num], merged[group][agg_num], tasks + " tasks");
+                    }
+                }
+            }
+        }
+        assertTrue(expected[0][2] instanceof BigInteger);
+    } // partialAggregatesOfSeveralRangesAreMerged()
+
+
+    @Test
+    void integralSumDoesNotWrapAround(){
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("TOTAL", ColumnType.LONG);
+        database.ADD(new Object[]{"a", Long.MAX_VALUE});
+        database.ADD(new Object[]{"b", Long.MAX_VALUE - 1});
+        database.ADD(new Object[]{"c", null});
+
+        Object[] results = database.AGGREGATE(new Aggregation[]{Aggregation.sum("TOTAL"), Aggregation.avg("TOTAL")});
+        BigInteger sum = BigInteger.valueOf(Long.MAX_VALUE).multiply(BigInteger.TWO).subtract(BigInteger.ONE);
+        assertEquals(sum, results[0]);
+        assertEquals(Long.MAX_VALUE - 0.5, (Double) results[1], 1e3);
+
+        // a sum that comes back within a long is a Long again.
+        database.ADD(new Object[]{"d", Long.MIN_VALUE});
+        database.ADD(new Object[]{"e", Long.MIN_VALUE});
+        assertArrayEquals(new Object[]{-3L}, database.AGGREGATE(new Aggregation[]{Aggregation.sum("TOTAL")}));
+    } // integralSumDoesNotWrapAround()
+} // class
@@ -0,0 +1,96 @@
+package IvoryDatabase;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of the atomic SAVE, the background saves of {@code saveAsync()} and 
+ * the checksums of the saved file.
+ */
+class AtomicSaveTest {
+    @TempDir
+    File directory;
+
+
+    /**
+     * @return A Database of {@code rows} rows saved at {@code file}.
+     */
+    private static IvoryDatabase savedDatabase(File file, int rows) throws Exception {
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("AGE", ColumnType.INT);
+        for(int index = 0 ; index < rows ; index++){
+            database.ADD(new Object[]{"row" + index, index});
+        }
+        database.setFileLocation(file.getPath());
+        database.SAVE();
+        return database;
+    } // savedDatabase()
+
+
+    @Test
+    void failedSaveLeavesTheLastSavedFile() throws Exception {
+        File file = new File(directory, "atomic.ivry");
+        IvoryDatabase database = savedDatabase(file, 10);
+        byte[] saved = Files.readAllBytes(file.toPath());
+
+        // a directory in place of the temporary file makes the next write fail.
+        File blocker = new File(file.getPath() + ".tmp");
+        assertTrue(blocker.mkdir());
+        assertTrue(new File(blocker, "keep").createNewFile());
+        database.ADD(new Object[]{"new", 100});
+        database.SAVE();
+        assertEquals(1, database.getMetrics().getStatistics(OperationType.SAVE).getFailures());
+
+        assertArrayEquals(saved, Files.readAllBytes(file.toPath()));
+        assertEquals(10, new IvoryDatabase(file.getPath()).getRowCount());
+    } // failedSaveLeavesTheLastSavedFile()
+
+
+    @Test
+    void backgroundSaveWritesTheSnapshot() throws Exception {
+        File file = new File(directory, "snapshot.ivry");
+        IvoryDatabase database = savedDatabase(file, 10);
+        database.ADD(new Object[]{"in_snapshot", 1});
+        database.DELETE("row0");
+
+        CompletableFuture<Boolean> saved = database.saveAsync();
+        // a change made while the snapshot is written belongs to the next save.
+        database.ADD(new Object[]{"after_snapshot", 2});
+        assertTrue(saved.get());
+
+        IvoryDatabase reopened = new IvoryDatabase(file.getPath());
+        assertEquals(10, reopened.getRowCount());
+        assertEquals(1, reopened.GET("in_snapshot", "AGE"));
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+    } // backgroundSaveWritesTheSnapshot()
+
+
+    @Test
+    void corruptedBlockIsNotRead() throws Exception {
+        File file = new File(directory, "corrupted.ivry");
+        savedDatabase(file, 1000);
+
+        // flipping a byte near the end of the file, in the block of the last Column.
+        try (RandomAccessFile ivory_file = new RandomAccessFile(file, "rw")){
+            long position = ivory_file.length() - 100;
+            ivory_file.seek(position);
+            int value = ivory_file.read();
+            ivory_file.seek(position);
+            ivory_file.write(value ^ 0xFF);
+        }
+
+        IvoryDatabase reopened = new IvoryDatabase(file.getPath());
+        assertEquals(1, reopened.getMetrics().getStatistics(OperationType.LOAD).getFailures());
+        assertEquals(0, reopened.getRowCount());
+    } // corruptedBlockIsNotRead()
+} // class
@@ -0,0 +1,228 @@
+package IvoryDatabase;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.Random;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Tests of the chunked primitive ColumnData types against an ArrayList 
+ * holding the same values.
+ */
+class ChunkedColumnDataTest {
+    private final Random random = new Random(25);
+
+
+    @ParameterizedTest
+    @EnumSource(value = ColumnType.class, names = {"INT", "LONG", "DOUBLE", "BOOLEAN", "DICTIONARY"})
+    void keepsTheValuesAndNullsOfTheModel(ColumnType type){
+        ChunkedColumnData data = (ChunkedColumnData) ColumnData.create(type);
+        ArrayList<Object> expected = new ArrayList<>();
+
+        // growing the Column to many chunks with inserts at random places.
+        for(int step = 0 ; step < 40_000 ; step++){
+            int index = random.nextInt(expected.size() + 1);
+            Object value = randomValue(type);
+            data.insert(index, value);
+            expected.add(index, value);
+        }
+        assertTrue(data.getChunkCount() > 10);
+        assertMatches(expected, data);
+
+        // changing and removing cells until the chunks have been split and merged.
+        for(int step = 0 ; step < 30_000 ; step++){
+            int index = random.nextInt(expected.size());
+            if(step % 3 == 0){
+                Object value = randomValue(type);
+                data.set(index, value);
+                expected.set(index, value);
+            }
+            else{
+                data.remove(index);
+                expected.remove(index);
+            }
+        }
+        assertMatches(expected, data);
+
+        // removing a tenth of the cells in one pass.
+        BitSet rows = new BitSet();
+        ArrayList<Object> kept = new ArrayList<>();
+        for(int index = 0 ; index < expected.size() ; index++){
+            if(random.nextInt(10) == 0){
+                rows.set(index);
+            }
+            else{
+                kept.add(expected.get(index));
+            }
+        }
+        data.removeAll(rows);
+        assertMatches(kept, data);
+        assertMatches(kept, (ChunkedColumnData) data.copy());
+    } // keepsTheValuesAndNullsOfTheModel()
+
+
+    @ParameterizedTest
+    @EnumSource(value = ColumnType.class, names = {"INT", "LONG", "DOUBLE", "BOOLEAN", "DICTIONARY"})
+    void filtersAndFindsNullsAfterMiddleInserts(ColumnType type){
+        ChunkedColumnData data = (ChunkedColumnData) ColumnData.create(type);
+        ArrayList<Object> expected = new ArrayList<>();
+        for(int step = 0 ; step < 20_000 ; step++){
+            int index = random.nextInt(expected.size() + 1);
+            Object value = randomValue(type);
+            data.insert(index, value);
+            expected.add(index, value);
+        }
+
+        BitSet nulls = new BitSet();
+        for(int index = 0 ; index < expected.size() ; index++){
+            if(expected.get(index) == null){
+                nulls.set(index);
+            }
+        }
+        assertEquals(nulls, select(data, Condition.isNull("X")));
+        BitSet not_nulls = new BitSet();
+        not_nulls.set(0, expected.size());
+        not_nulls.andNot(nulls);
+        assertEquals(not_nulls, select(data, Condition.notNull("X")));
+
+        BitSet found = new BitSet();
+        data.findEqual(null, found);
+        assertEquals(nulls, found);
+
+        // the NullMask of the whole Column is assembled from the chunks.
+        NullMask mask = data.getNulls();
+        for(int index = 0 ; index < expected.size() ; index++){
+            assertEquals(nulls.get(index), mask.get(index));
+        }
+
+        Object target = randomValue(type);
+        while(target == null){
+            target = randomValue(type);
+        }
+        BitSet matches = new BitSet();
+        for(int index = 0 ; index < expected.size() ; index++){
+            if(target.equals(expected.get(index))){
+                matches.set(index);
+            }
+        }
+        assertEquals(matches, select(data, Condition.equal("X", target)));
+    } // filtersAndFindsNullsAfterMiddleInserts()
+
+
+    @ParameterizedTest
+    @EnumSource(value = ColumnType.class, names = {"INT", "LONG", "DOUBLE", "BOOLEAN", "DICTIONARY"})
+    void batchInsertOnlyCopiesTheChunksReceivingValues(ColumnType type){
+        ChunkedColumnData data = (ChunkedColumnData) ColumnData.create(type);
+        ArrayList<Object> expected = new ArrayList<>();
+        data.insertAll(new int[]{0, 0, 0}, new Object[]{randomValue(type), null, randomValue(type)});
+        for(int index = 0 ; index < 3 ; index++){
+            expected.add(data.get(index));
+        }
+        for(int index = 3 ; index < 30_000 ; index++){
+            Object value = randomValue(type);
+            data.add(value);
+            expected.add(value);
+        }
+
+        // positions after the first chunks, several at the same place and at the end.
+        int count = 3000;
+        int[] positions = new int[count];
+        Object[] values = new Object[count];
+        for(int index = 0 ; index < count ; index++){
+            positions[index] = (index == count - 1) ? expected.size() : 3 * ChunkedColumnData.CHUNK_CAPACITY + random.nextInt(expected.size() - 3 * ChunkedColumnData.CHUNK_CAPACITY);
+            values[index] = randomValue(type);
+        }
+        Arrays.sort(positions);
+        Object first_chunk = data.getChunk(0);
+        Object second_chunk = data.getChunk(1);
+        data.insertAll(positions, values);
+        for(int index = 0 ; index < count ; index++){
+            expected.add(positions[index] + index, values[index]);
+        }
+        assertMatches(expected, data);
+        assertSame(first_chunk, data.getChunk(0));
+        assertSame(second_chunk, data.getChunk(1));
+
+        // the rebuilt chunks take single inserts and removals like any other.
+        for(int step = 0 ; step < 5_000 ; step++){
+            int index = random.nextInt(expected.size());
+            if(step % 2 == 0){
+                Object value = randomValue(type);
+                data.insert(index, value);
+                expected.add(index, value);
+            }
+            else{
+                data.remove(index);
+                expected.remove(index);
+            }
+        }
+        assertMatches(expected, data);
+    } // batchInsertOnlyCopiesTheChunksReceivingValues()
+
+
+    /**
+     * Method to check the values, nulls and chunks of {@code data} against 
+     * {@code expected}.
+     */
+    private static void assertMatches(ArrayList<Object> expected, ChunkedColumnData data){
+        assertEquals(expected.size(), data.size());
+        assertArrayEquals(expected.toArray(), data.toArray());
+        for(int index = 0 ; index < expected.size() ; index += 97){
+            assertEquals(expected.get(index) == null, data.isNull(index));
+            assertTrue(Objects.equals(expected.get(index), data.get(index)));
+        }
+        // the chunks follow each other without gaps.
+        int start = 0;
+        for(int chunk_num = 0 ; chunk_num < data.getChunkCount() ; chunk_num++){
+            assertEquals(start, data.getChunkStart(chunk_num));
+            assertTrue(data.getChunkSize(chunk_num) > 0 && data.getChunkSize(chunk_num) <= ChunkedColumnData.CHUNK_CAPACITY);
+            start += data.getChunkSize(chunk_num);
+        }
+        assertEquals(expected.size(), start);
+    } // assertMatches()
+
+
+    /**
+     * @return The rows of {@code data} matching {@code condition}.
+     */
+    private static BitSet select(ChunkedColumnData data, Condition condition){
+        long[] selection = new long[(data.size() + 63) >>> 6];
+        BitSet all = new BitSet();
+        all.set(0, data.size());
+        long[] words = all.toLongArray();
+        System.arraycopy(words, 0, selection, 0, words.length);
+        data.filter(condition, 0, data.size(), selection);
+        return BitSet.valueOf(selection);
+    } // select()
+
+
+    /**
+     * @return A value of {@code type}, null for about a tenth of the values.
+     */
+    private Object randomValue(ColumnType type){
+        if(random.nextInt(10) == 0){
+            return null;
+        }
+        switch(type){
+            case INT:
+                return random.nextInt(100);
+            case LONG:
+                return (long) random.nextInt(100);
+            case DOUBLE:
+                return (double) random.nextInt(100);
+            case BOOLEAN:
+                return random.nextBoolean();
+            default:
+                return "S" + random.nextInt(50);
+        }
+    } // randomValue()
+} // class
@@ -0,0 +1,56 @@
+package IvoryDatabase;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of ChunkedList against an ArrayList holding the same elements.
+ */
+class ChunkedListTest {
+
+    @Test
+    void insertsAndRemovesAcrossManyChunks(){
+        Random random = new Random(2);
+        ChunkedList<Integer> list = new ChunkedList<>();
+        ArrayList<Integer> expected = new ArrayList<>();
+
+        // growing the list to several chunks with inserts at random places, then shrinking it again.
+        for(int step = 0 ; step < 20_000 ; step++){
+            int index = random.nextInt(expected.size() + 1);
+            list.add(index, step);
+            expected.add(index, step);
+        }
+        assertEquals(expected, list);
+        for(int step = 0 ; step < 19_000 ; step++){
+            int index = random.nextInt(expected.size());
+            assertEquals(expected.remove(index), list.remove(index));
+            if(step % 7 == 0){
+                int set_index = random.nextInt(expected.size());
+                assertEquals(expected.set(set_index, -step), list.set(set_index, -step));
+            }
+        }
+        assertEquals(expected, list);
+        assertArrayEquals(expected.toArray(), list.toArray());
+    } // insertsAndRemovesAcrossManyChunks()
+
+
+    @Test
+    void copiesAreIndependent(){
+        ChunkedList<String> list = new ChunkedList<>();
+        for(int index = 0 ; index < 3 * ChunkedList.CHUNK_CAPACITY ; index++){
+            list.add("V" + index);
+        }
+        ChunkedList<String> copy = new ChunkedList<>(list);
+        copy.set(0, "X");
+        copy.remove(ChunkedList.CHUNK_CAPACITY);
+
+        assertEquals("V0", list.get(0));
+        assertEquals(3 * ChunkedList.CHUNK_CAPACITY, list.size());
+        assertEquals(3 * ChunkedList.CHUNK_CAPACITY - 1, copy.size());
+    } // copiesAreIndependent()
+} // class
@@ -0,0 +1,59 @@
+package IvoryDatabase;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Tests of the encodings the cells of a Column are saved in.
+ */
+class ColumnEncodingTest {
+    @TempDir
+    File directory;
+
+
+    @ParameterizedTest
+    @EnumSource(ColumnEncoding.class)
+    void cellsAreReadBackAsTheyWereSaved(ColumnEncoding encoding) throws Exception {
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("COUNT", ColumnType.LONG);
+        database.ADD_COLUMN("NAME", ColumnType.STRING);
+        for(int index = 0 ; index < 5000 ; index++){
+            Long count = (index % 7 == 0) ? null : (index / 100) * 1_000_000_007L;
+            String name = (index % 11 == 0) ? null : "name" + (index % 13);
+            database.ADD(new Object[]{String.format("row%05d", index), count, name});
+        }
+        for(String column_name : new String[]{"COUNT", "NAME"}){
+            boolean fits = encoding.fits(database.getColumnType(column_name));
+            assertEquals(fits, database.SET_COLUMN_ENCODING(column_name, encoding, true));
+        }
+        String file_path = new File(directory, "encoded.ivry").getPath();
+        database.setFileLocation(file_path);
+        database.SAVE();
+
+        IvoryDatabase loaded = new IvoryDatabase(file_path);
+        assertEquals(5000, loaded.getRowCount());
+        for(String column_name : new String[]{"ID", "COUNT", "NAME"}){
+            assertArrayEquals(database.GET_COLUMN(column_name), loaded.GET_COLUMN(column_name));
+        }
+    } // cellsAreReadBackAsTheyWereSaved()
+
+
+    @Test
+    void encodingOfAnEvictedDatabaseCannotChange() throws Exception {
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("COUNT", ColumnType.LONG);
+        database.setFileLocation(new File(directory, "evicted.ivry").getPath());
+        assertTrue(database.evict());
+
+        assertFalse(database.SET_COLUMN_ENCODING("COUNT", ColumnEncoding.DELTA));
+    } // encodingOfAnEvictedDatabaseCannotChange()
+} // class
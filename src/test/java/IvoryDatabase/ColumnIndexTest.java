@@ -0,0 +1,62 @@
+package IvoryDatabase;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of the indexes created on Columns with CREATE_INDEX.
+ */
+class ColumnIndexTest {
+    @TempDir
+    File directory;
+
+
+    @Test
+    void indexFollowsTheChangesOfTheRows(){
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("AGE", ColumnType.INT);
+        database.ADD(new Object[]{"a", 1});
+        database.ADD(new Object[]{"b", 2});
+        assertTrue(database.CREATE_INDEX("AGE", IndexType.ORDERED));
+
+        database.ADD(new Object[]{"c", 2});
+        database.SET("a", "AGE", 2);
+        database.DELETE("b");
+        assertArrayEquals(new String[]{"A", "C"}, database.FIND("AGE", 2));
+        assertArrayEquals(new String[]{"A", "C"}, database.FIND_RANGE("AGE", 0, 5));
+        assertArrayEquals(new String[0], database.FIND("AGE", 1));
+
+        assertTrue(database.DROP_INDEX("AGE"));
+        assertFalse(database.DROP_INDEX("AGE"));
+        assertArrayEquals(new String[]{"A", "C"}, database.FIND("AGE", 2));
+    } // indexFollowsTheChangesOfTheRows()
+
+
+    @Test
+    void idColumnCannotBeIndexed(){
+        IvoryDatabase database = new IvoryDatabase();
+        assertFalse(database.CREATE_INDEX("ID"));
+    } // idColumnCannotBeIndexed()
+
+
+    @Test
+    void indexesOfAnEvictedDatabaseCannotChange() throws Exception {
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("AGE", ColumnType.INT);
+        database.ADD_COLUMN("NAME", ColumnType.STRING);
+        database.ADD(new Object[]{"a", 1, "x"});
+        assertTrue(database.CREATE_INDEX("AGE"));
+        database.setFileLocation(new File(directory, "evicted.ivry").getPath());
+        assertTrue(database.evict());
+
+        assertFalse(database.CREATE_INDEX("NAME"));
+        assertFalse(database.DROP_INDEX("AGE"));
+        assertArrayEquals(new String[]{"A"}, database.FIND("AGE", 1));
+    } // indexesOfAnEvictedDatabaseCannotChange()
+} // class
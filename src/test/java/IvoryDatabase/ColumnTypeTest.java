@@ -0,0 +1,54 @@
+package IvoryDatabase;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the ColumnTypes of the Columns of a Database.
+ */
+class ColumnTypeTest {
+    @Test
+    void typedColumnsRejectOtherValues(){
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("AGE", ColumnType.INT);
+        database.ADD_COLUMN("ACTIVE", ColumnType.BOOLEAN);
+        assertTrue(database.ADD(new Object[]{"a", 1, true}));
+        assertTrue(database.ADD(new Object[]{"b", null, null}));
+
+        assertFalse(database.ADD(new Object[]{"c", "one", true}));
+        assertFalse(database.ADD(new Object[]{"c", 1L, true}));
+        assertFalse(database.SET("a", "ACTIVE", 1));
+        assertEquals(2, database.getRowCount());
+        assertArrayEquals(new Object[]{1, null}, database.GET_COLUMN("AGE"));
+        assertArrayEquals(new Object[]{true, null}, database.GET_COLUMN("ACTIVE"));
+    } // typedColumnsRejectOtherValues()
+
+
+    @Test
+    void typeIsInferredFromTheFirstValue(){
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("SCORE");
+        // a null value leaves the ColumnType to the next value.
+        assertTrue(database.ADD(new Object[]{"a", null}));
+
+        assertTrue(database.ADD(new Object[]{"b", 2.5}));
+        assertEquals(ColumnType.DOUBLE, database.getColumnType("SCORE"));
+        assertArrayEquals(new Object[]{null, 2.5}, database.GET_COLUMN("SCORE"));
+    } // typeIsInferredFromTheFirstValue()
+
+
+    @Test
+    void objectColumnHoldsAnyValue(){
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("ANY", ColumnType.OBJECT);
+        assertTrue(database.ADD(new Object[]{"a", 1}));
+        assertTrue(database.ADD(new Object[]{"b", "two"}));
+        assertTrue(database.SET("a", "ANY", 3L));
+        assertArrayEquals(new Object[]{3L, "two"}, database.GET_COLUMN("ANY"));
+    } // objectColumnHoldsAnyValue()
+} // class
@@ -0,0 +1,73 @@
+package IvoryDatabase;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of a Database used by several threads at the same time.
+ */
+class ConcurrentAccessTest {
+    private static final int THREADS = 8;
+    private static final int ROWS_PER_THREAD = 2000;
+
+
+    @Test
+    void concurrentWritersAndReadersSeeConsistentRows() throws Exception {
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("OWNER", ColumnType.INT);
+        database.ADD_COLUMN("COUNT", ColumnType.LONG);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS * 2);
+        try{
+            ArrayList<Future<Integer>> results = new ArrayList<>();
+            for(int thread = 0 ; thread < THREADS ; thread++){
+                int owner = thread;
+                // every writer adds its own rows, changes them and deletes every fourth one.
+                results.add(pool.submit(() -> {
+                    for(int index = 0 ; index < ROWS_PER_THREAD ; index++){
+                        String id = "t" + owner + "_" + index;
+                        assertTrue(database.ADD(new Object[]{id, owner, 0L}));
+                        assertTrue(database.SET(id, "COUNT", (long) index));
+                        if(index % 4 == 0){
+                            assertTrue(database.DELETE(id));
+                        }
+                    }
+                    return 0;
+                }));
+                // every reader checks that a row is never seen half changed.
+                results.add(pool.submit(() -> {
+                    int seen = 0;
+                    for(int index = 0 ; index < ROWS_PER_THREAD ; index++){
+                        // a missing row is null in GET_ROWS, it is not reported like in GET_ROW.
+                        Object[] row = database.GET_ROWS(List.of("t" + owner + "_" + index))[0];
+                        if(row != null){
+                            assertEquals(owner, row[1]);
+                            long count = (Long) row[2];
+                            assertTrue(count == 0 || count == index);
+                            seen++;
+                        }
+                    }
+                    return seen;
+                }));
+            }
+            for(Future<Integer> result : results){
+                result.get();
+            }
+        }
+        finally{
+            pool.shutdown();
+        }
+
+        assertEquals(THREADS * ROWS_PER_THREAD * 3 / 4, database.getRowCount());
+        for(int thread = 0 ; thread < THREADS ; thread++){
+            assertEquals((long) ROWS_PER_THREAD - 1, database.GET("t" + thread + "_" + (ROWS_PER_THREAD - 1), "COUNT"));
+        }
+    } // concurrentWritersAndReadersSeeConsistentRows()
+} // class
@@ -0,0 +1,175 @@
+package IvoryDatabase;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the Conditions evaluated by WHERE and SELECT.
+ */
+class ConditionTest {
+
+    /**
+     * @return A Database of five rows "a" to "e" with an INT, a DOUBLE, a 
+     *         STRING and an OBJECT Column, the last row holding nulls.
+     */
+    private static IvoryDatabase mixedDatabase(){
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("N", ColumnType.INT);
+        database.ADD_COLUMN("D", ColumnType.DOUBLE);
+        database.ADD_COLUMN("S", ColumnType.STRING);
+        database.ADD_COLUMN("O", ColumnType.OBJECT);
+        database.ADD(new Object[]{"a", 1, 0.5, "one", 1L});
+        database.ADD(new Object[]{"b", 2, Double.NaN, "two", 2.5});
+        database.ADD(new Object[]{"c", 3, -0.0, "three", "three"});
+        database.ADD(new Object[]{"d", Integer.MAX_VALUE, Double.POSITIVE_INFINITY, "four", 4});
+        database.ADD(new Object[]{"e", null, null, null, null});
+        return database;
+    } // mixedDatabase()
+
+
+    @Test
+    void integralColumnIsComparedWithLongAndDoubleOperands(){
+        IvoryDatabase database = mixedDatabase();
+        assertArrayEquals(new String[]{"C", "D"}, database.WHERE(Condition.greaterThan("N", 2L)));
+        assertArrayEquals(new String[]{"A", "B", "C", "D"}, database.WHERE(Condition.lessThan("N", 3_000_000_000L)));
+        assertArrayEquals(new String[0], database.WHERE(Condition.greaterThan("N", (long) Integer.MAX_VALUE)));
+        assertArrayEquals(new String[0], database.WHERE(Condition.greaterThan("N", Long.MAX_VALUE)));
+        assertArrayEquals(new String[]{"A", "B", "C", "D"}, database.WHERE(Condition.greaterThan("N", Long.MIN_VALUE)));
+
+        assertArrayEquals(new String[]{"B", "C", "D"}, database.WHERE(Condition.greaterThan("N", 1.5)));
+        assertArrayEquals(new String[]{"A", "B"}, database.WHERE(Condition.lessThan("N", 2.5)));
+        assertArrayEquals(new String[]{"A"}, database.WHERE(Condition.lessThan("N", 2.0)));
+        assertArrayEquals(new String[]{"B", "C"}, database.WHERE(Condition.between("N", 1.5, 3.5)));
+        assertArrayEquals(new String[]{"D"}, database.WHERE(Condition.greaterThan("N", Integer.MAX_VALUE - 0.5)));
+        assertArrayEquals(new String[0], database.WHERE(Condition.greaterThan("N", 1e300)));
+        assertArrayEquals(new String[0], database.WHERE(Condition.greaterThan("N", Double.POSITIVE_INFINITY)));
+    } // integralColumnIsComparedWithLongAndDoubleOperands()
+
+
+    @Test
+    void decimalOperandEqualsOnlyWholeIntegralCells(){
+        IvoryDatabase database = mixedDatabase();
+        assertArrayEquals(new String[0], database.WHERE(Condition.equal("N", 2.5)));
+        assertArrayEquals(new String[]{"B"}, database.WHERE(Condition.equal("N", 2.0)));
+        assertArrayEquals(new String[]{"B"}, database.WHERE(Condition.equal("N", 2L)));
+        // every cell that is not null differs from 2.5.
+        assertArrayEquals(new String[]{"A", "B", "C", "D"}, database.WHERE(Condition.notEqual("N", 2.5)));
+        assertArrayEquals(new String[]{"A", "C", "D"}, database.WHERE(Condition.notEqual("N", 2.0)));
+    } // decimalOperandEqualsOnlyWholeIntegralCells()
+
+
+    @Test
+    void notANumberOnlyMatchesNotEqual(){
+        IvoryDatabase database = mixedDatabase();
+        // the NaN cell of row b cannot be compared.
+        assertArrayEquals(new String[]{"A", "D"}, database.WHERE(Condition.greaterThan("D", 0.0)));
+        assertArrayEquals(new String[]{"C"}, database.WHERE(Condition.lessThan("D", 0.5)));
+        assertArrayEquals(new String[0], database.WHERE(Condition.equal("D", Double.NaN)));
+        assertArrayEquals(new String[0], database.WHERE(Condition.greaterOrEqual("D", Double.NaN)));
+        assertArrayEquals(new String[]{"A", "B", "C"}, database.WHERE(Condition.notEqual("D", Double.POSITIVE_INFINITY)));
+        assertArrayEquals(new String[]{"A", "B", "C", "D"}, database.WHERE(Condition.notEqual("D", Double.NaN)));
+        // -0.0 equals 0.0.
+        assertArrayEquals(new String[]{"C"}, database.WHERE(Condition.equal("D", 0)));
+        assertArrayEquals(new String[]{"C"}, database.WHERE(Condition.in("D", 0.0, Double.NaN)));
+    } // notANumberOnlyMatchesNotEqual()
+
+
+    @Test
+    void inMatchesOperandsOfAnyNumericClass(){
+        IvoryDatabase database = mixedDatabase();
+        assertArrayEquals(new String[]{"A", "B", "C"}, database.WHERE(Condition.in("N", 1, 2L, 3.0, 4.5, "5")));
+        assertArrayEquals(new String[]{"A", "E"}, database.WHERE(Condition.in("N", (short) 1, null)));
+        assertArrayEquals(new String[]{"A", "D"}, database.WHERE(Condition.in("D", 0.5f, Double.POSITIVE_INFINITY, 7)));
+        assertArrayEquals(new String[]{"B", "C"}, database.WHERE(Condition.in("S", "two", "three", 3)));
+        assertArrayEquals(new String[]{"A", "B", "D"}, database.WHERE(Condition.in("O", 1, 2.5, 4L)));
+        assertArrayEquals(new String[0], database.WHERE(Condition.in("N")));
+    } // inMatchesOperandsOfAnyNumericClass()
+
+
+    @Test
+    void incomparableOperandsOnlyMatchNotEqual(){
+        IvoryDatabase database = mixedDatabase();
+        assertArrayEquals(new String[0], database.WHERE(Condition.equal("N", "2")));
+        assertArrayEquals(new String[0], database.WHERE(Condition.greaterThan("N", "0")));
+        assertArrayEquals(new String[0], database.WHERE(Condition.lessThan("S", 5)));
+        assertArrayEquals(new String[]{"A", "B", "C", "D"}, database.WHERE(Condition.notEqual("N", "2")));
+        assertArrayEquals(new String[]{"A", "B", "C", "D"}, database.WHERE(Condition.notEqual("S", 5)));
+
+        // the OBJECT cells are compared by their numeric value or with values of their own class.
+        assertArrayEquals(new String[]{"B", "D"}, database.WHERE(Condition.greaterThan("O", 2)));
+        assertArrayEquals(new String[]{"C"}, database.WHERE(Condition.greaterThan("O", "a")));
+        assertArrayEquals(new String[]{"A", "B", "D"}, database.WHERE(Condition.notEqual("O", "three")));
+    } // incomparableOperandsOnlyMatchNotEqual()
+
+
+    @Test
+    void nullCellsOnlyMatchIsNull(){
+        IvoryDatabase database = mixedDatabase();
+        for(String column : new String[]{"N", "D", "S", "O"}){
+            assertArrayEquals(new String[]{"E"}, database.WHERE(Condition.isNull(column)), column);
+            assertArrayEquals(new String[]{"E"}, database.WHERE(Condition.equal(column, null)), column);
+            assertArrayEquals(new String[]{"A", "B", "C", "D"}, database.WHERE(Condition.notNull(column)), column);
+            assertArrayEquals(new String[]{"A", "B", "C", "D"}, database.WHERE(Condition.notEqual(column, null)), column);
+        }
+        assertArrayEquals(new String[]{"A", "C", "D"}, database.WHERE(Condition.notEqual("N", 2)));
+        assertThrows(IllegalArgumentException.class, () -> Condition.lessThan("N", null));
+        assertThrows(IllegalArgumentException.class, () -> Condition.between("N", 1, null));
+    } // nullCellsOnlyMatchIsNull()
+
+
+    @Test
+    void conditionsAreCombinedAndReadByRow(){
+        IvoryDatabase database = mixedDatabase();
+        // a Condition on the ID column compares in uppercase.
+        assertArrayEquals(new String[]{"B", "C"}, database.WHERE(Condition.between("id", "b", "c")));
+        assertArrayEquals(new String[]{"B"}, database.WHERE(Condition.greaterThan("N", 1), Condition.lessThan("n", 3), Condition.notNull("S")));
+        assertArrayEquals(new String[]{"A", "B", "C", "D", "E"}, database.WHERE());
+
+        Object[][] rows = database.SELECT(new String[]{"S", "ID"}, Condition.lessOrEqual("N", 2));
+        assertEquals(2, rows.length);
+        assertArrayEquals(new Object[]{"one", "A"}, rows[0]);
+        assertArrayEquals(new Object[]{"two", "B"}, rows[1]);
+
+        assertTrue(database.DELETE("b"));
+        assertArrayEquals(new String[]{"A"}, database.WHERE(Condition.lessOrEqual("N", 2)));
+        assertNull(database.WHERE(Condition.isNull("MISSING")));
+        assertNull(database.SELECT(new String[]{"MISSING"}));
+    } // conditionsAreCombinedAndReadByRow()
+
+
+    @Test
+    void rangesAreFilteredInParallel(){
+        // more rows than three ranges of one filter task, with a partial last range.
+        int rows = 3 * Selection.RANGE_SIZE + 1000;
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("N", ColumnType.INT);
+        database.ADD_COLUMN("L", ColumnType.LONG);
+        ArrayList<Object[]> batch = new ArrayList<>(rows);
+        for(int row = 0 ; row < rows ; row++){
+            batch.add(new Object[]{String.format("row%07d", row), (row % 7 == 0) ? null : row % 1000, (long) row * 3});
+        }
+        database.ADD_ALL(batch);
+        database.DELETE(String.format("row%07d", 1));
+
+        String[] matches = database.WHERE(Condition.lessThan("N", 10), Condition.greaterOrEqual("L", 3L * Selection.RANGE_SIZE));
+        ArrayList<String> expected = new ArrayList<>();
+        for(int row = Selection.RANGE_SIZE ; row < rows ; row++){
+            if(row % 7 != 0 && row % 1000 < 10){
+                expected.add(String.format("ROW%07d", row));
+            }
+        }
+        assertArrayEquals(expected.toArray(new String[0]), matches);
+
+        // the rows of every range are counted once.
+        int not_null = rows - (rows + 6) / 7;
+        assertEquals(not_null - 1, database.WHERE(Condition.notNull("N")).length);
+        assertArrayEquals(new String[]{String.format("ROW%07d", rows - 1)}, database.WHERE(Condition.equal("L", 3L * (rows - 1))));
+    } // rangesAreFilteredInParallel()
+} // class
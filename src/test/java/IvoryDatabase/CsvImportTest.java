@@ -0,0 +1,207 @@
+package IvoryDatabase;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of the CSV export and import of a Database.
+ */
+class CsvImportTest {
+    @TempDir
+    File directory;
+
+
+    @Test
+    void importAddsTheExportedRows() throws IOException {
+        IvoryDatabase source = new IvoryDatabase();
+        source.ADD_COLUMN("AGE", ColumnType.INT);
+        for(int index = 0 ; index < 1000 ; index++){
+            source.ADD(new Object[]{"row" + index, (index % 10 == 0) ? null : index});
+        }
+        File csv_file = new File(directory, "rows.csv");
+        try (Writer writer = new FileWriter(csv_file)){
+            assertTrue(source.WRITE_CSV(writer));
+        }
+
+        IvoryDatabase target = new IvoryDatabase();
+        target.ADD_COLUMN("AGE", ColumnType.INT);
+        target.ADD(new Object[]{"row5", -5});
+        // the row whose ID already exists is skipped.
+        assertEquals(999, target.IMPORT_CSV(csv_file));
+        assertEquals(1000, target.getRowCount());
+        assertEquals(-5, target.GET("row5", "AGE"));
+        assertEquals(7, target.GET("row7", "AGE"));
+        assertEquals(null, target.GET("row10", "AGE"));
+    } // importAddsTheExportedRows()
+
+
+    @Test
+    void importIntoAnEvictedDatabaseFails() throws Exception {
+        IvoryDatabase source = new IvoryDatabase();
+        source.ADD(new Object[]{"a"});
+        File csv_file = new File(directory, "ids.csv");
+        try (Writer writer = new FileWriter(csv_file)){
+            assertTrue(source.WRITE_CSV(writer));
+        }
+
+        IvoryDatabase target = new IvoryDatabase();
+        target.setFileLocation(new File(directory, "target.ivry").getPath());
+        assertTrue(target.evict());
+        assertEquals(-1, target.IMPORT_CSV(csv_file));
+        assertEquals(0, target.getRowCount());
+    } // importIntoAnEvictedDatabaseFails()
+
+
+    @Test
+    void fieldsThatNeedQuotesSurviveTheRoundTrip() throws IOException {
+        String[] notes = {"a,b", "say \"hi\"", "\"", "first\r\nsecond", "first\nsecond", "first\rsecond",
+            " leading", "trailing ", "  ", "", null, "plain"};
+        IvoryDatabase source = new IvoryDatabase();
+        source.ADD_COLUMN("NOTE", ColumnType.STRING);
+        for(int index = 0 ; index < notes.length ; index++){
+            source.ADD(new Object[]{"row" + index, notes[index]});
+        }
+        String csv = source.getCSV();
+        assertTrue(csv.startsWith("ID,NOTE\r\nROW0,\"a,b\"\r\nROW1,\"say \"\"hi\"\"\"\r\nROW10,\r\nROW11,plain\r\n"));
+        assertTrue(csv.contains("\r\nROW7,\"trailing \"\r\nROW8,\"  \"\r\nROW9,\"\"\r\n"));
+
+        IvoryDatabase target = new IvoryDatabase();
+        target.ADD_COLUMN("NOTE", ColumnType.STRING);
+        assertEquals(notes.length, target.IMPORT_CSV(write("notes.csv", csv)));
+        for(int index = 0 ; index < notes.length ; index++){
+            assertEquals(notes[index], target.GET("row" + index, "NOTE"), "row" + index);
+        }
+    } // fieldsThatNeedQuotesSurviveTheRoundTrip()
+
+
+    @Test
+    void anEmptyQuotedFieldIsAnEmptyString() throws IOException {
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("NOTE", ColumnType.STRING);
+        database.ADD_COLUMN("AGE", ColumnType.INT);
+        assertEquals(3, database.IMPORT_CSV(write("empty.csv", "ID,NOTE,AGE\r\na,\"\",1\r\nb,,\r\nc, x ,3")));
+        assertEquals("", database.GET("a", "NOTE"));
+        assertNull(database.GET("b", "NOTE"));
+        assertNull(database.GET("b", "AGE"));
+        // spaces of a field that is not quoted are kept.
+        assertEquals(" x ", database.GET("c", "NOTE"));
+        assertEquals("ID,NOTE,AGE\r\nA,\"\",1\r\nB,,\r\nC,\" x \",3\r\n", database.getCSV());
+    } // anEmptyQuotedFieldIsAnEmptyString()
+
+
+    @Test
+    void selectedColumnsAreWrittenInTheirOrder() throws IOException {
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("NOTE", ColumnType.STRING);
+        database.ADD_COLUMN("AGE", ColumnType.INT);
+        database.ADD(new Object[]{"b", "x,y", 2});
+        database.ADD(new Object[]{"a", null, 1});
+        String expected = "AGE,ID\r\n1,A\r\n2,B\r\n";
+
+        StringWriter writer = new StringWriter();
+        assertTrue(database.WRITE_CSV(writer, "age", "ID"));
+        assertEquals(expected, writer.toString());
+        assertFalse(database.WRITE_CSV(new StringWriter(), "AGE", "WEIGHT"));
+
+        // the channel gets the same records as UTF-8.
+        File csv_file = new File(directory, "channel.csv");
+        try (FileChannel channel = FileChannel.open(csv_file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE)){
+            assertTrue(database.WRITE_CSV(channel, "AGE", "ID"));
+        }
+        assertEquals(expected, Files.readString(csv_file.toPath(), StandardCharsets.UTF_8));
+        csv_file = new File(directory, "all.csv");
+        try (FileChannel channel = FileChannel.open(csv_file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE)){
+            assertTrue(database.WRITE_CSV(channel));
+        }
+        assertEquals(database.getCSV(), Files.readString(csv_file.toPath(), StandardCharsets.UTF_8));
+    } // selectedColumnsAreWrittenInTheirOrder()
+
+
+    @Test
+    void recordsAcrossChunkBoundariesAreReadOnce() throws IOException {
+        String header = "ID,NOTE\r\n";
+        StringBuilder csv = new StringBuilder(header);
+        int rows = 0;
+        boolean boundary_placed = false;
+        while(csv.length() < 3 * CsvFile.CHUNK_SIZE + 1000){
+            String prefix = "row" + rows + ",\"";
+            int offset = csv.length() - header.length(); // the offset of the record in the rows after the header.
+            String note;
+            if(!boundary_placed && offset + prefix.length() + 200 > CsvFile.CHUNK_SIZE){
+                // a quoted line break whose \n is the last byte of the first chunk.
+                note = "x".repeat(CsvFile.CHUNK_SIZE - 2 - offset - prefix.length()) + "\r\n" + "after the boundary";
+                boundary_placed = true;
+            }
+            else{
+                note = noteOf(rows);
+            }
+            csv.append(prefix).append(note.replace("\"", "\"\"")).append("\"\r\n");
+            rows++;
+        }
+        assertTrue(boundary_placed);
+        File csv_file = write("large.csv", csv.toString());
+
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("NOTE", ColumnType.STRING);
+        assertEquals(rows, database.IMPORT_CSV(csv_file));
+        assertEquals(rows, database.getRowCount());
+        for(int row = 0 ; row < rows ; row++){
+            String note = (String) database.GET("row" + row, "NOTE");
+            if(note.startsWith("x")){
+                assertTrue(note.endsWith("x\r\nafter the boundary"));
+            }
+            else{
+                assertEquals(noteOf(row), note, "row" + row);
+            }
+        }
+    } // recordsAcrossChunkBoundariesAreReadOnce()
+
+
+    @Test
+    void anEmptyTableIsWrittenAsItsHeader(){
+        IvoryDatabase database = new IvoryDatabase();
+        assertEquals("ID\r\n", database.getCSV());
+        database.ADD_COLUMN("NOTE", ColumnType.STRING);
+        database.ADD_COLUMN("AGE", ColumnType.INT);
+        assertEquals("ID,NOTE,AGE\r\n", database.getCSV());
+        database.ADD(new Object[]{"a", "x", 1});
+        assertTrue(database.DELETE("a"));
+        assertEquals("ID,NOTE,AGE\r\n", database.getCSV());
+    } // anEmptyTableIsWrittenAsItsHeader()
+
+
+    /* Helper Methods */
+
+    /**
+     * @return The note of the row {@code row}, every third with a quoted line break and quotes.
+     */
+    private static String noteOf(int row){
+        return (row % 3 == 0) ? "note " + row + ",\r\n\"quoted\"" : "note " + row;
+    } // noteOf()
+
+
+    /**
+     * @return The file {@code name} in the temporary directory, holding {@code csv} as UTF-8.
+     */
+    private File write(String name, String csv) throws IOException {
+        File csv_file = new File(directory, name);
+        Files.writeString(csv_file.toPath(), csv, StandardCharsets.UTF_8);
+        return csv_file;
+    } // write()
+} // class
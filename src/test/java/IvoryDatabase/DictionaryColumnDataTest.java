@@ -0,0 +1,60 @@
+package IvoryDatabase;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.BitSet;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the dictionary-encoded String Columns.
+ */
+class DictionaryColumnDataTest {
+    @Test
+    void equalStringsShareOneCode(){
+        DictionaryColumnData data = new DictionaryColumnData();
+        for(int index = 0 ; index < 1000 ; index++){
+            data.add((index % 10 == 0) ? null : "kind" + (index % 3));
+        }
+        assertEquals(3, data.getDictionarySize());
+        assertEquals(data.getCode(1), data.getCode(4));
+        assertEquals("kind1", data.decode(data.getCode(1)));
+        assertEquals(-1, data.codeOf("other"));
+
+        BitSet matches = new BitSet();
+        data.findEqual("kind2", matches);
+        assertEquals(300, matches.cardinality());
+        assertTrue(matches.get(2));
+        assertFalse(matches.get(20));
+    } // equalStringsShareOneCode()
+
+
+    @Test
+    void dictionaryAndCodesAreKept(){
+        DictionaryColumnData data = new DictionaryColumnData(new String[]{"red", "green"}, new int[]{1, 0, -1, 1});
+        assertArrayEquals(new Object[]{"green", "red", null, "green"}, data.toArray());
+        data.set(2, "blue");
+        assertEquals(3, data.getDictionarySize());
+        assertArrayEquals(new Object[]{"green", "red", "blue", "green"}, data.copy().toArray());
+    } // dictionaryAndCodesAreKept()
+
+
+    @Test
+    void databaseFindsRowsByTheirCodes(){
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("COLOR", ColumnType.DICTIONARY);
+        database.ADD(new Object[]{"a", "red"});
+        database.ADD(new Object[]{"b", "green"});
+        database.ADD(new Object[]{"c", "red"});
+        assertFalse(database.ADD(new Object[]{"d", 1}));
+
+        assertArrayEquals(new String[]{"A", "C"}, database.FIND("COLOR", "red"));
+        assertArrayEquals(new String[0], database.FIND("COLOR", "blue"));
+        assertTrue(database.SET("c", "COLOR", "blue"));
+        assertArrayEquals(new String[]{"C"}, database.FIND("COLOR", "blue"));
+        assertArrayEquals(new Object[]{"red", "green", "blue"}, database.GET_COLUMN("COLOR"));
+    } // databaseFindsRowsByTheirCodes()
+} // class
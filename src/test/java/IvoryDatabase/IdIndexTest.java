@@ -0,0 +1,128 @@
+package IvoryDatabase;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the lookups of rows by their IDs, and of changing the ID of a row.
+ */
+class IdIndexTest {
+    private IvoryDatabase database;
+
+
+    @BeforeEach
+    void createDatabase(){
+        database = new IvoryDatabase();
+        database.ADD_COLUMN("AGE", ColumnType.INT);
+        database.ADD(new Object[]{"a", 1});
+        database.ADD(new Object[]{"b", 2});
+        database.ADD(new Object[]{"c", 3});
+    } // createDatabase()
+
+
+    @Test
+    void getFindsRowsByAnyCaseOfTheirIds(){
+        assertEquals(1, database.GET("a", "AGE"));
+        assertEquals(2, database.GET("B", "age"));
+        assertNull(database.GET("d", "AGE"));
+    } // getFindsRowsByAnyCaseOfTheirIds()
+
+
+    @Test
+    void addRejectsAnExistingId(){
+        assertFalse(database.ADD(new Object[]{"A", 4}));
+        assertEquals(3, database.getRowCount());
+    } // addRejectsAnExistingId()
+
+
+    @Test
+    void rowsAreFoundAfterMiddleInserts(){
+        for(int index = 0 ; index < 200 ; index++){
+            assertTrue(database.ADD(new Object[]{"b" + index, index}));
+        }
+        assertEquals(2, database.GET("b", "AGE"));
+        assertEquals(3, database.GET("c", "AGE"));
+        for(int index = 0 ; index < 200 ; index++){
+            assertEquals(index, database.GET("b" + index, "AGE"));
+        }
+    } // rowsAreFoundAfterMiddleInserts()
+
+
+    @Test
+    void rowsAreFoundAfterDeletesAndCompaction(){
+        for(int index = 0 ; index < 200 ; index++){
+            database.ADD(new Object[]{"b" + index, index});
+        }
+        for(int index = 0 ; index < 200 ; index += 2){
+            assertTrue(database.DELETE("b" + index));
+        }
+        assertEquals(100, database.COMPACT());
+
+        for(int index = 0 ; index < 200 ; index++){
+            assertEquals((index % 2 == 0) ? null : index, database.GET("b" + index, "AGE"));
+        }
+        assertEquals(3, database.GET("c", "AGE"));
+        assertFalse(database.DELETE("b0"));
+    } // rowsAreFoundAfterDeletesAndCompaction()
+
+
+    @Test
+    void setOfTheIdMovesTheRow(){
+        assertTrue(database.SET("a", "ID", "z"));
+
+        assertEquals(1, database.GET("z", "AGE"));
+        assertNull(database.GET("a", "AGE"));
+        assertArrayEquals(new Object[]{"B", "C", "Z"}, database.GET_COLUMN("ID"));
+        assertArrayEquals(new Object[]{2, 3, 1}, database.GET_COLUMN("AGE"));
+        // the ID column is still sorted, so later rows are added in their place.
+        assertTrue(database.ADD(new Object[]{"d", 4}));
+        assertArrayEquals(new Object[]{"B", "C", "D", "Z"}, database.GET_COLUMN("ID"));
+        assertEquals(1, database.GET("Z", "AGE"));
+    } // setOfTheIdMovesTheRow()
+
+
+    @Test
+    void setOfTheIdRejectsAnExistingId(){
+        assertFalse(database.SET("a", "ID", "B"));
+        assertFalse(database.SET("a", "ID", null));
+        assertEquals(1, database.GET("a", "AGE"));
+        assertEquals(2, database.GET("b", "AGE"));
+    } // setOfTheIdRejectsAnExistingId()
+
+
+    @Test
+    void setOfTheIdMayTakeTheIdOfADeletedRow(){
+        assertTrue(database.DELETE("b"));
+        assertTrue(database.SET("c", "ID", "b"));
+
+        assertEquals(3, database.GET("b", "AGE"));
+        assertNull(database.GET("c", "AGE"));
+        assertArrayEquals(new Object[]{"A", "B"}, database.GET_COLUMN("ID"));
+    } // setOfTheIdMayTakeTheIdOfADeletedRow()
+
+
+    @Test
+    void setOfTheIdMovesTheRowInTheSecondaryIndexes(){
+        assertTrue(database.CREATE_INDEX("AGE"));
+        assertTrue(database.SET("a", "ID", "z"));
+        assertArrayEquals(new String[]{"Z"}, database.FIND("AGE", 1));
+    } // setOfTheIdMovesTheRowInTheSecondaryIndexes()
+
+
+    @Test
+    void setOfTheIdDropsTheCachedCellsOfBothIds(){
+        database.setRowCacheSize(16);
+        assertEquals(1, database.GET("a", "AGE"));
+        assertNull(database.GET("z", "AGE"));
+
+        assertTrue(database.SET("a", "ID", "z"));
+        assertEquals(1, database.GET("z", "AGE"));
+        assertNull(database.GET("a", "AGE"));
+    } // setOfTheIdDropsTheCachedCellsOfBothIds()
+} // class
@@ -0,0 +1,114 @@
+package IvoryDatabase;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+
+import IvoryDatabase.IvoryDBExceptions.DirectoryNotFoundException;
+import IvoryDatabase.IvoryDBExceptions.UnsavedChangesException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of the catalog of Databases sharing one memory budget.
+ */
+class IvoryCatalogTest {
+    @TempDir
+    File directory;
+
+
+    @Test
+    void evictedDatabaseIsWrittenAndOpenedAgain() throws Exception {
+        try (IvoryCatalog catalog = new IvoryCatalog(directory, Long.MAX_VALUE)){
+            IvoryDatabase created = catalog.create("people");
+            assertNull(catalog.create("people.ivry"));
+            created.ADD_COLUMN("AGE", ColumnType.INT);
+            created.ADD(new Object[]{"a", 1});
+            assertSame(created, catalog.open("people"));
+
+            assertTrue(catalog.evict("people"));
+            assertFalse(catalog.isOpen("people"));
+            assertTrue(new File(directory, "people.ivry").exists());
+            // a change made to the evicted Database is refused instead of being lost.
+            assertTrue(created.isReadOnly());
+            assertFalse(created.ADD(new Object[]{"b", 2}));
+
+            IvoryDatabase reopened = catalog.open("people.ivry");
+            assertNotSame(created, reopened);
+            assertEquals(1, reopened.getRowCount());
+            assertEquals(1, reopened.GET("a", "AGE"));
+            assertTrue(reopened.ADD(new Object[]{"b", 2}));
+            assertArrayEquals(new String[]{"people"}, catalog.list());
+        }
+        // closing the catalog writes the open Databases.
+        assertEquals(2, new IvoryDatabase(new File(directory, "people.ivry")).getRowCount());
+    } // evictedDatabaseIsWrittenAndOpenedAgain()
+
+
+    @Test
+    void missingDatabaseIsNotOpened() throws Exception {
+        try (IvoryCatalog catalog = new IvoryCatalog(directory, Long.MAX_VALUE)){
+            assertThrows(FileNotFoundException.class, () -> catalog.open("missing"));
+            assertEquals(0, catalog.getOpenCount());
+        }
+    } // missingDatabaseIsNotOpened()
+
+
+    @Test
+    void databasesOverTheBudgetAreEvicted() throws Exception {
+        try (IvoryCatalog catalog = new IvoryCatalog(directory, Long.MAX_VALUE)){
+            for(String name : new String[]{"first", "second", "third"}){
+                IvoryDatabase database = catalog.create(name);
+                database.ADD_COLUMN("VALUE", ColumnType.LONG);
+                for(int index = 0 ; index < 1000 ; index++){
+                    database.ADD(new Object[]{name + index, (long) index});
+                }
+            }
+            assertEquals(3, catalog.getOpenCount());
+            assertTrue(catalog.getEstimatedBytes() > 0);
+
+            // the Database that is left open is larger than the budget, it is the only one.
+            catalog.setMemoryBudget(0);
+            long deadline = System.currentTimeMillis() + 10_000;
+            while(catalog.getOpenCount() > 1 && System.currentTimeMillis() < deadline){
+                Thread.sleep(20);
+            }
+            assertEquals(1, catalog.getOpenCount());
+
+            for(String name : new String[]{"first", "second", "third"}){
+                assertEquals(999L, catalog.open(name).GET(name + 999, "VALUE"));
+            }
+        }
+    } // databasesOverTheBudgetAreEvicted()
+
+
+    @Test
+    void databasesThatCannotBeWrittenAreNamedOnClose() throws Exception {
+        File catalog_directory = new File(directory, "catalog");
+        assertTrue(catalog_directory.mkdir());
+        IvoryCatalog catalog = new IvoryCatalog(catalog_directory, Long.MAX_VALUE);
+        IvoryDatabase second = catalog.create("second");
+        IvoryDatabase first = catalog.create("first");
+        first.ADD(new Object[]{"a"});
+        second.ADD(new Object[]{"b"});
+
+        // without its directory, neither Database can be written or created.
+        assertTrue(catalog_directory.delete());
+        assertThrows(DirectoryNotFoundException.class, () -> catalog.create("third"));
+        UnsavedChangesException e = assertThrows(UnsavedChangesException.class, catalog::close);
+        assertArrayEquals(new String[]{"first", "second"}, e.getNames());
+        // the Databases that were not written report it and keep their changes.
+        assertFalse(first.isReadOnly());
+        assertTrue(first.getMetrics().getStatistics(OperationType.SAVE).getFailures() > 0);
+        assertTrue(second.ADD(new Object[]{"c"}));
+    } // databasesThatCannotBeWrittenAreNamedOnClose()
+} // class
@@ -0,0 +1,106 @@
+package IvoryDatabase;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of the binary columnar file format of a saved Database.
+ */
+class IvoryFileTest {
+    private static final ColumnType[] TYPES = {ColumnType.INT, ColumnType.LONG, ColumnType.DOUBLE, 
+        ColumnType.BOOLEAN, ColumnType.STRING, ColumnType.DICTIONARY, ColumnType.OBJECT};
+
+    @TempDir
+    File directory;
+
+
+    /**
+     * @return The value of the row {@code index} in a Column of {@code type}, 
+     *         null for every fifth row.
+     */
+    private static Object valueOf(ColumnType type, int index){
+        if(index % 5 == 0){
+            return null;
+        }
+        switch(type){
+            case INT:
+                return index * 31;
+            case LONG:
+                return index * 3_000_000_019L;
+            case DOUBLE:
+                return index / 8.0;
+            case BOOLEAN:
+                return index % 3 == 0;
+            case STRING:
+                return "text " + index;
+            case DICTIONARY:
+                return "kind" + (index % 4);
+            default:
+                // an OBJECT Column holds numbers, Strings and serialized objects side by side.
+                return (index % 3 == 0) ? (Object) index : (index % 3 == 1) ? "object " + index : new BigDecimal(index + ".25");
+        }
+    } // valueOf()
+
+
+    @Test
+    void everyColumnTypeIsReadBackWithItsNulls() throws Exception {
+        IvoryDatabase database = new IvoryDatabase();
+        for(ColumnType type : TYPES){
+            database.ADD_COLUMN(type.name(), type);
+        }
+        // a Column whose ColumnType is inferred from its first value.
+        database.ADD_COLUMN("INFERRED");
+        for(int index = 0 ; index < 3000 ; index++){
+            Object[] row = new Object[TYPES.length + 2];
+            row[0] = String.format("row%05d", index);
+            for(int col_num = 0 ; col_num < TYPES.length ; col_num++){
+                row[col_num + 1] = valueOf(TYPES[col_num], index);
+            }
+            row[TYPES.length + 1] = (index < 10) ? null : (long) index;
+            database.ADD(row);
+        }
+        String file_path = new File(directory, "types.ivry").getPath();
+        database.setFileLocation(file_path);
+        database.SAVE();
+
+        IvoryDatabase loaded = new IvoryDatabase(file_path);
+        assertEquals(3000, loaded.getRowCount());
+        assertEquals(TYPES.length + 2, loaded.getColumnCount());
+        assertArrayEquals(database.GET_COLUMN("ID"), loaded.GET_COLUMN("ID"));
+        for(ColumnType type : TYPES){
+            assertEquals(type, loaded.getColumnType(type.name()));
+            assertArrayEquals(database.GET_COLUMN(type.name()), loaded.GET_COLUMN(type.name()), type.name());
+        }
+        assertEquals(ColumnType.LONG, loaded.getColumnType("INFERRED"));
+        assertArrayEquals(database.GET_COLUMN("INFERRED"), loaded.GET_COLUMN("INFERRED"));
+        assertNull(loaded.GET("row00005", "STRING"));
+    } // everyColumnTypeIsReadBackWithItsNulls()
+
+
+    @Test
+    void emptyDatabaseIsReadBack() throws Exception {
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("AGE", ColumnType.INT);
+        // a Column whose ColumnType has not been inferred yet.
+        database.ADD_COLUMN("PENDING");
+        String file_path = new File(directory, "empty.ivry").getPath();
+        database.setFileLocation(file_path);
+        database.SAVE();
+
+        IvoryDatabase loaded = new IvoryDatabase(file_path);
+        assertEquals(0, loaded.getRowCount());
+        assertEquals(3, loaded.getColumnCount());
+        assertEquals(ColumnType.INT, loaded.getColumnType("AGE"));
+
+        // the ColumnType of the pending Column is still inferred from its first value.
+        loaded.ADD(new Object[]{"a", 1, "first"});
+        assertEquals(ColumnType.STRING, loaded.getColumnType("PENDING"));
+    } // emptyDatabaseIsReadBack()
+} // class
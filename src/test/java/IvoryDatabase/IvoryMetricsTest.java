@@ -0,0 +1,130 @@
+package IvoryDatabase;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import IvoryDatabase.IvoryDBExceptions.ColumnNotFoundException;
+import IvoryDatabase.IvoryDBExceptions.RowNotFoundException;
+
+/**
+ * Tests of the operation metrics of a Database and of their listeners.
+ */
+class IvoryMetricsTest {
+    @TempDir
+    File directory;
+
+
+    /**
+     * A MetricsListener keeping the failures it is notified of.
+     */
+    private static final class FailureListener implements MetricsListener {
+        final List<OperationType> types = new ArrayList<>();
+        final List<Exception> causes = new ArrayList<>();
+
+        @Override
+        public void operationCompleted(OperationType type, long nanos, boolean success){
+        } // operationCompleted()
+
+        @Override
+        public boolean operationFailed(OperationType type, Exception cause){
+            types.add(type);
+            causes.add(cause);
+            return true;
+        } // operationFailed()
+    } // class FailureListener
+
+
+    @Test
+    void operationsAreCountedAndPrinted(){
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("AGE", ColumnType.INT);
+        database.ADD(new Object[]{"a", 1});
+        database.ADD(new Object[]{"a", 2});
+        database.GET("a", "AGE");
+
+        IvoryMetrics metrics = database.getMetrics();
+        assertEquals(2, metrics.getStatistics(OperationType.ADD).getCount());
+        assertEquals(1, metrics.getStatistics(OperationType.ADD).getFailures());
+        assertEquals(1, metrics.getStatistics(OperationType.GET).getCount());
+
+        String output = metrics.toString();
+        assertTrue(output.contains("ADD: count=2, failures=1"), output);
+        assertTrue(output.contains("GET: count=1, failures=0"), output);
+        assertFalse(output.contains("DELETE"), output);
+    } // operationsAreCountedAndPrinted()
+
+
+    @Test
+    void failedLookupsAreReportedToTheListeners(){
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("AGE", ColumnType.INT);
+        FailureListener listener = new FailureListener();
+        database.getMetrics().addListener(listener);
+
+        assertNull(database.GET("missing", "AGE"));
+        assertFalse(database.SET("missing", "AGE", 1));
+        assertFalse(database.DELETE("missing"));
+
+        assertEquals(List.of(OperationType.GET, OperationType.SET, OperationType.DELETE), listener.types);
+        for(Exception cause : listener.causes){
+            assertInstanceOf(RowNotFoundException.class, cause);
+        }
+    } // failedLookupsAreReportedToTheListeners()
+
+
+    @Test
+    void failedQueriesAreReportedToTheListeners(){
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("AGE", ColumnType.INT);
+        database.ADD(new Object[]{"a", 1});
+        FailureListener listener = new FailureListener();
+        database.getMetrics().addListener(listener);
+
+        assertNull(database.GET_ROW("missing"));
+        assertNull(database.GET_COLUMN("MISSING"));
+        assertNull(database.SCAN(null, null, "MISSING"));
+        assertNull(database.WHERE(Condition.isNull("MISSING")));
+        assertNull(database.AGGREGATE(new Aggregation[]{Aggregation.sum("MISSING")}));
+        assertNull(database.FIND("MISSING", 1));
+        assertFalse(database.CREATE_INDEX("MISSING", IndexType.HASH, false));
+
+        assertEquals(List.of(OperationType.READ, OperationType.READ, OperationType.READ, OperationType.QUERY,
+            OperationType.QUERY, OperationType.QUERY, OperationType.SCHEMA), listener.types);
+        assertInstanceOf(RowNotFoundException.class, listener.causes.get(0));
+        assertInstanceOf(ColumnNotFoundException.class, listener.causes.get(1));
+        // the failures of the operations that are not counted are only reported.
+        assertEquals(0, database.getMetrics().getStatistics(OperationType.QUERY).getCount());
+    } // failedQueriesAreReportedToTheListeners()
+
+
+    @Test
+    void failedSavesAreReportedToTheListeners() throws Exception {
+        File save_directory = new File(directory, "saves");
+        assertTrue(save_directory.mkdir());
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD(new Object[]{"a"});
+        database.setFileLocation(new File(save_directory, "lost.ivry").getPath());
+        FailureListener listener = new FailureListener();
+        database.getMetrics().addListener(listener);
+
+        // the directory of the file is gone, so neither save can write it.
+        assertTrue(save_directory.delete());
+        database.SAVE();
+        assertFalse(database.saveAsync().get());
+
+        assertEquals(List.of(OperationType.SAVE, OperationType.SAVE), listener.types);
+        assertInstanceOf(IOException.class, listener.causes.get(0));
+        assertEquals(2, database.getMetrics().getStatistics(OperationType.SAVE).getFailures());
+    } // failedSavesAreReportedToTheListeners()
+} // class
@@ -0,0 +1,85 @@
+package IvoryDatabase;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of the read-only, memory-mapped open mode of {@code openMapped()}.
+ */
+class MappedOpenTest {
+    @TempDir
+    File directory;
+
+
+    /**
+     * @return A saved Database of {@code rows} rows with an INT and a STRING Column.
+     */
+    private File savedDatabase(int rows) throws Exception {
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("AGE", ColumnType.INT);
+        database.ADD_COLUMN("NAME", ColumnType.STRING);
+        for(int index = 0 ; index < rows ; index++){
+            database.ADD(new Object[]{String.format("row%05d", index), (index % 9 == 0) ? null : index, "name" + index});
+        }
+        File file = new File(directory, "mapped.ivry");
+        database.setFileLocation(file.getPath());
+        database.SAVE();
+        return file;
+    } // savedDatabase()
+
+
+    @Test
+    void rowsAreReadFromTheMappedFile() throws Exception {
+        File file = savedDatabase(10_000);
+        try (IvoryDatabase mapped = IvoryDatabase.openMapped(file)){
+            assertTrue(mapped.isReadOnly());
+            assertEquals(10_000, mapped.getRowCount());
+            // no Column has been read yet.
+            assertEquals(0, mapped.getEstimatedHeapBytes());
+
+            assertEquals(1234, mapped.GET("ROW01234", "AGE"));
+            assertNull(mapped.GET("row00009", "AGE"));
+            assertNull(mapped.GET("missing", "AGE"));
+            assertArrayEquals(new Object[]{"ROW09998", 9998, "name9998"}, mapped.GET_ROW("row09998"));
+        }
+    } // rowsAreReadFromTheMappedFile()
+
+
+    @Test
+    void mappedDatabaseCannotChange() throws Exception {
+        File file = savedDatabase(100);
+        long length = file.length();
+        try (IvoryDatabase mapped = IvoryDatabase.openMapped(file)){
+            assertFalse(mapped.ADD(new Object[]{"new", 1, "x"}));
+            assertFalse(mapped.SET("row00001", "AGE", 5));
+            assertFalse(mapped.DELETE("row00001"));
+            assertFalse(mapped.ADD_COLUMN("OTHER"));
+            assertEquals(1, mapped.GET("row00001", "AGE"));
+            assertEquals(100, mapped.getRowCount());
+        }
+        assertEquals(length, file.length());
+    } // mappedDatabaseCannotChange()
+
+
+    @Test
+    void fileWithLoggedChangesIsReadCompletely() throws Exception {
+        File file = savedDatabase(100);
+        IvoryDatabase database = new IvoryDatabase(file.getPath());
+        assertTrue(database.enableWriteAheadLog());
+        assertTrue(database.SET("row00001", "AGE", -1));
+        // the change is only in the write-ahead log, the Database is not saved.
+
+        try (IvoryDatabase mapped = IvoryDatabase.openMapped(file)){
+            assertTrue(mapped.isReadOnly());
+            assertEquals(-1, mapped.GET("row00001", "AGE"));
+        }
+    } // fileWithLoggedChangesIsReadCompletely()
+} // class
@@ -0,0 +1,100 @@
+package IvoryDatabase;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Tests of the Columns whose cells are held outside of the Java heap.
+ */
+class OffHeapTest {
+    @TempDir
+    File directory;
+
+
+    /**
+     * @return The value of the row {@code index} in a Column of {@code type}, 
+     *         null for every seventh row.
+     */
+    private static Object valueOf(ColumnType type, int index){
+        if(index % 7 == 0){
+            return null;
+        }
+        switch(type){
+            case INT:
+                return -index;
+            case LONG:
+                return index * 5_000_000_011L;
+            case DOUBLE:
+                return index * 0.5;
+            case BOOLEAN:
+                return index % 2 == 0;
+            default:
+                return "value " + index;
+        }
+    } // valueOf()
+
+
+    @ParameterizedTest
+    @EnumSource(value = ColumnType.class, names = {"INT", "LONG", "DOUBLE", "BOOLEAN", "STRING"})
+    void cellsOutsideOfTheHeapBehaveLikeOnTheHeap(ColumnType type) throws Exception {
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("VALUE", type);
+        for(int index = 0 ; index < 2000 ; index += 2){
+            database.ADD(new Object[]{String.format("row%04d", index), valueOf(type, index)});
+        }
+        Object[] on_heap = database.GET_COLUMN("VALUE");
+        assertTrue(database.SET_COLUMN_OFF_HEAP("VALUE", true));
+        assertTrue(database.getOffHeapBytes() > 0);
+        assertArrayEquals(on_heap, database.GET_COLUMN("VALUE"));
+
+        // inserting the odd rows between the even ones, and changing and deleting some.
+        for(int index = 1 ; index < 2000 ; index += 2){
+            database.ADD(new Object[]{String.format("row%04d", index), valueOf(type, index)});
+        }
+        assertTrue(database.SET("row0003", "VALUE", valueOf(type, 3000)));
+        assertTrue(database.SET("row0004", "VALUE", null));
+        assertTrue(database.DELETE("row0005"));
+        database.COMPACT();
+
+        assertEquals(1999, database.getRowCount());
+        assertEquals(valueOf(type, 3000), database.GET("row0003", "VALUE"));
+        assertNull(database.GET("row0004", "VALUE"));
+        assertEquals(valueOf(type, 1999), database.GET("row1999", "VALUE"));
+        assertNull(database.GET("row0007", "VALUE"));
+
+        // the choice and the cells are kept in the saved file.
+        String file_path = new File(directory, "off_heap.ivry").getPath();
+        database.setFileLocation(file_path);
+        database.SAVE();
+        IvoryDatabase loaded = new IvoryDatabase(file_path);
+        assertTrue(loaded.getOffHeapBytes() > 0);
+        assertArrayEquals(database.GET_COLUMN("VALUE"), loaded.GET_COLUMN("VALUE"));
+
+        // moving the cells back onto the heap.
+        assertTrue(loaded.SET_COLUMN_OFF_HEAP("VALUE", false));
+        assertEquals(0, loaded.getOffHeapBytes());
+        assertArrayEquals(database.GET_COLUMN("VALUE"), loaded.GET_COLUMN("VALUE"));
+    } // cellsOutsideOfTheHeapBehaveLikeOnTheHeap()
+
+
+    @Test
+    void unsupportedColumnsStayOnTheHeap(){
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("INFERRED");
+        database.ADD_COLUMN("KIND", ColumnType.DICTIONARY);
+        assertFalse(database.SET_COLUMN_OFF_HEAP("ID", true));
+        assertFalse(database.SET_COLUMN_OFF_HEAP("INFERRED", true));
+        assertFalse(database.SET_COLUMN_OFF_HEAP("KIND", true));
+        assertEquals(0, database.getOffHeapBytes());
+    } // unsupportedColumnsStayOnTheHeap()
+} // class
@@ -0,0 +1,82 @@
+package IvoryDatabase;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the cache of the cells read by GET.
+ */
+class RowCacheTest {
+    private static IvoryDatabase cachedDatabase(int rows){
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("AGE", ColumnType.INT);
+        for(int index = 0 ; index < rows ; index++){
+            database.ADD(new Object[]{"row" + index, index});
+        }
+        database.setRowCacheSize(rows);
+        return database;
+    } // cachedDatabase()
+
+
+    @Test
+    void repeatedGetsHitTheCache(){
+        IvoryDatabase database = cachedDatabase(10);
+        assertEquals(3, database.GET("row3", "AGE"));
+        assertEquals(3, database.GET("ROW3", "AGE"));
+        assertEquals(3, database.GET("Row3", "age"));
+
+        CacheStatistics statistics = database.getRowCacheStatistics();
+        assertEquals(1, statistics.getMisses());
+        assertEquals(2, statistics.getHits());
+    } // repeatedGetsHitTheCache()
+
+
+    @Test
+    void changedCellsAreNotReadFromTheCache(){
+        IvoryDatabase database = cachedDatabase(10);
+        assertEquals(3, database.GET("row3", "AGE"));
+        assertEquals(4, database.GET("row4", "AGE"));
+        assertEquals(5, database.GET("row5", "AGE"));
+
+        assertTrue(database.SET("row3", "AGE", 30));
+        assertEquals(30, database.GET("row3", "AGE"));
+
+        assertTrue(database.DELETE("row4"));
+        assertNull(database.GET("row4", "AGE"));
+        assertTrue(database.ADD(new Object[]{"row4", 40}));
+        assertEquals(40, database.GET("row4", "AGE"));
+
+        assertTrue(database.ADD_COLUMN("NAME", ColumnType.STRING));
+        assertNull(database.GET("row5", "NAME"));
+        assertEquals(5, database.GET("row5", "AGE"));
+    } // changedCellsAreNotReadFromTheCache()
+
+
+    @Test
+    void changedIdIsNotReadFromTheCache(){
+        IvoryDatabase database = cachedDatabase(10);
+        assertEquals(3, database.GET("row3", "AGE"));
+        // the miss of the new ID must not stay in the cache either.
+        assertNull(database.GET("renamed", "AGE"));
+
+        assertTrue(database.SET("row3", "ID", "renamed"));
+        assertNull(database.GET("row3", "AGE"));
+        assertEquals(3, database.GET("renamed", "AGE"));
+    } // changedIdIsNotReadFromTheCache()
+
+
+    @Test
+    void evictedCellsAreReadAgain(){
+        IvoryDatabase database = cachedDatabase(100);
+        database.setRowCacheSize(4);
+        for(int index = 0 ; index < 100 ; index++){
+            assertEquals(index, database.GET("row" + index, "AGE"));
+        }
+        assertEquals(0, database.GET("row0", "AGE"));
+        assertTrue(database.getRowCacheStatistics().getEvictions() > 0);
+        assertTrue(database.getRowCacheStatistics().getSize() <= 4);
+    } // evictedCellsAreReadAgain()
+} // class
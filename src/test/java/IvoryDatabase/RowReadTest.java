@@ -0,0 +1,139 @@
+package IvoryDatabase;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the row reads of GET_ROW and GET_ROWS.
+ */
+class RowReadTest {
+
+    /**
+     * @return A Database of the rows "apple", "banana" and "cherry" with
+     *         the length of their ID in an INT Column and their colour in a
+     *         STRING Column, the colour of "banana" being null.
+     */
+    private static IvoryDatabase fruitDatabase(){
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("LENGTH", ColumnType.INT);
+        database.ADD_COLUMN("COLOUR", ColumnType.STRING);
+        database.ADD(new Object[]{"cherry", 6, "red"});
+        database.ADD(new Object[]{"apple", 5, "green"});
+        database.ADD(new Object[]{"banana", 6, null});
+        return database;
+    } // fruitDatabase()
+
+
+    @Test
+    void rowsAreReadByColumnName(){
+        IvoryDatabase database = fruitDatabase();
+        assertArrayEquals(new Object[]{"APPLE", 5, "green"}, database.GET_ROW("apple"));
+        assertArrayEquals(new Object[]{"red", "CHERRY"}, database.GET_ROW("Cherry", "colour", "ID"));
+        assertArrayEquals(new Object[]{null, 6, 6}, database.GET_ROW("banana", "COLOUR", "LENGTH", "length"));
+    } // rowsAreReadByColumnName()
+
+
+    @Test
+    void missingRowsAndColumnsReturnNull(){
+        IvoryDatabase database = fruitDatabase();
+        assertNull(database.GET_ROW("durian"));
+        assertNull(database.GET_ROW("apple", "LENGTH", "WEIGHT"));
+        assertTrue(database.DELETE("apple"));
+        assertNull(database.GET_ROW("apple"));
+        assertNull(database.GET_ROWS(List.of("banana"), "WEIGHT"));
+    } // missingRowsAndColumnsReturnNull()
+
+
+    @Test
+    void rowsAreReadIntoTheArrayOfTheCaller(){
+        IvoryDatabase database = fruitDatabase();
+        Object[] row = new Object[]{"a", "b", "c", "d"};
+        assertTrue(database.GET_ROW("cherry", row, "LENGTH", "COLOUR"));
+        // the values are written from index 0, the rest of the array is left as it is.
+        assertArrayEquals(new Object[]{6, "red", "c", "d"}, row);
+        assertTrue(database.GET_ROW("banana", row));
+        assertArrayEquals(new Object[]{"BANANA", 6, null, "d"}, row);
+    } // rowsAreReadIntoTheArrayOfTheCaller()
+
+
+    @Test
+    void failedReadsLeaveTheArrayOfTheCallerUnchanged(){
+        IvoryDatabase database = fruitDatabase();
+        Object[] row = new Object[]{"a", "b"};
+        assertFalse(database.GET_ROW("durian", row, "ID", "LENGTH"));
+        assertFalse(database.GET_ROW("apple", row, "ID", "WEIGHT"));
+        assertArrayEquals(new Object[]{"a", "b"}, row);
+
+        Object[][] rows = new Object[][]{{"a"}, {"b"}};
+        assertEquals(-1, database.GET_ROWS(List.of("apple", "banana"), rows, "WEIGHT"));
+        assertArrayEquals(new Object[][]{{"a"}, {"b"}}, rows);
+    } // failedReadsLeaveTheArrayOfTheCallerUnchanged()
+
+
+    @Test
+    void shortArraysAreRejected(){
+        IvoryDatabase database = fruitDatabase();
+        assertThrows(IllegalArgumentException.class, () -> database.GET_ROW("apple", new Object[2]));
+        assertThrows(IllegalArgumentException.class, () -> database.GET_ROW("apple", new Object[1], "ID", "LENGTH"));
+
+        // too few arrays for the IDs, or an array too short for the Columns.
+        assertThrows(IllegalArgumentException.class, () -> database.GET_ROWS(List.of("apple", "banana"), new Object[1][2], "ID"));
+        Object[][] rows = new Object[][]{new Object[2], new Object[1]};
+        assertThrows(IllegalArgumentException.class, () -> database.GET_ROWS(List.of("apple", "banana"), rows, "ID", "LENGTH"));
+        assertArrayEquals(new Object[][]{new Object[2], new Object[1]}, rows);
+
+        // the array of an ID that does not exist is not checked.
+        assertEquals(1, database.GET_ROWS(List.of("apple", "durian"), new Object[][]{new Object[2], new Object[0]}, "ID", "LENGTH"));
+    } // shortArraysAreRejected()
+
+
+    @Test
+    void rowsAreReturnedInTheOrderOfTheIds(){
+        IvoryDatabase database = fruitDatabase();
+        Object[][] rows = database.GET_ROWS(List.of("cherry", "durian", "apple", "banana"), "ID", "LENGTH");
+        assertEquals(4, rows.length);
+        assertArrayEquals(new Object[]{"CHERRY", 6}, rows[0]);
+        assertNull(rows[1]);
+        assertArrayEquals(new Object[]{"APPLE", 5}, rows[2]);
+        assertArrayEquals(new Object[]{"BANANA", 6}, rows[3]);
+        assertEquals(0, database.GET_ROWS(List.of()).length);
+    } // rowsAreReturnedInTheOrderOfTheIds()
+
+
+    @Test
+    void repeatedIdsAreReadAtEveryPlace(){
+        IvoryDatabase database = fruitDatabase();
+        assertTrue(database.DELETE("banana"));
+        Object[][] rows = database.GET_ROWS(List.of("apple", "banana", "durian", "APPLE", "banana"), "COLOUR");
+        assertArrayEquals(new Object[]{"green"}, rows[0]);
+        assertArrayEquals(new Object[]{"green"}, rows[3]);
+        assertNotSame(rows[0], rows[3]);
+        // a deleted or missing ID is null wherever it is repeated.
+        assertNull(rows[1]);
+        assertNull(rows[2]);
+        assertNull(rows[4]);
+    } // repeatedIdsAreReadAtEveryPlace()
+
+
+    @Test
+    void rowsAreReadIntoTheArraysOfTheCaller(){
+        IvoryDatabase database = fruitDatabase();
+        Object[] missing = new Object[]{"x", "y"};
+        Object[][] rows = new Object[][]{new Object[2], missing, new Object[3], new Object[2]};
+        assertEquals(3, database.GET_ROWS(List.of("banana", "durian", "cherry", "banana"), rows, "LENGTH", "COLOUR"));
+        assertArrayEquals(new Object[]{6, null}, rows[0]);
+        // the array of an ID that does not exist is left unchanged.
+        assertArrayEquals(new Object[]{"x", "y"}, missing);
+        assertArrayEquals(new Object[]{6, "red", null}, rows[2]);
+        assertArrayEquals(new Object[]{6, null}, rows[3]);
+    } // rowsAreReadIntoTheArraysOfTheCaller()
+} // class
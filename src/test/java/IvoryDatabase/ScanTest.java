@@ -0,0 +1,107 @@
+package IvoryDatabase;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the range and prefix reads of SCAN and SCAN_PREFIX.
+ */
+class ScanTest {
+
+    /**
+     * @return A Database of the rows "apple", "apricot", "banana", 
+     *         "blueberry" and "cherry" with the length of their ID in an 
+     *         INT Column.
+     */
+    private static IvoryDatabase fruitDatabase(){
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("LENGTH", ColumnType.INT);
+        for(String id : new String[]{"cherry", "banana", "apple", "blueberry", "apricot"}){
+            database.ADD(new Object[]{id, id.length()});
+        }
+        return database;
+    } // fruitDatabase()
+
+
+    /**
+     * @return The first value of every row.
+     */
+    private static Object[] firstValues(Object[][] rows){
+        Object[] values = new Object[rows.length];
+        for(int row = 0 ; row < rows.length ; row++){
+            values[row] = rows[row][0];
+        }
+        return values;
+    } // firstValues()
+
+
+    @Test
+    void rangeIncludesFromAndExcludesTo(){
+        IvoryDatabase database = fruitDatabase();
+        assertArrayEquals(new Object[]{"APRICOT", "BANANA"}, firstValues(database.SCAN("apricot", "blueberry", "ID")));
+        // bounds that are not IDs fall between the rows.
+        assertArrayEquals(new Object[]{"BANANA", "BLUEBERRY"}, firstValues(database.SCAN("b", "c", "ID")));
+        assertEquals(0, database.SCAN("banana", "banana").length);
+        assertEquals(0, database.SCAN("cherry", "apple").length);
+    } // rangeIncludesFromAndExcludesTo()
+
+
+    @Test
+    void nullBoundsOpenTheRange(){
+        IvoryDatabase database = fruitDatabase();
+        assertArrayEquals(new Object[]{"APPLE", "APRICOT"}, firstValues(database.SCAN(null, "b", "ID")));
+        assertArrayEquals(new Object[]{"BLUEBERRY", "CHERRY"}, firstValues(database.SCAN("bl", null, "ID")));
+        assertEquals(5, database.SCAN(null, null).length);
+    } // nullBoundsOpenTheRange()
+
+
+    @Test
+    void boundsAndPrefixesAreCaseFolded(){
+        IvoryDatabase database = fruitDatabase();
+        Object[][] rows = database.SCAN("Banana", "CHERRY", "length", "id");
+        assertArrayEquals(new Object[]{6, "BANANA"}, rows[0]);
+        assertArrayEquals(new Object[]{9, "BLUEBERRY"}, rows[1]);
+        assertEquals(2, rows.length);
+        assertArrayEquals(new Object[]{"APPLE", "APRICOT"}, firstValues(database.SCAN_PREFIX("aP", "ID")));
+    } // boundsAndPrefixesAreCaseFolded()
+
+
+    @Test
+    void deletedRowsAreSkipped(){
+        IvoryDatabase database = fruitDatabase();
+        assertTrue(database.DELETE("apricot"));
+        assertTrue(database.DELETE("cherry"));
+        assertArrayEquals(new Object[]{"APPLE", "BANANA", "BLUEBERRY"}, firstValues(database.SCAN(null, null, "ID")));
+        assertArrayEquals(new Object[]{"APPLE"}, firstValues(database.SCAN_PREFIX("ap", "ID")));
+        assertEquals(0, database.SCAN("apricot", "b").length);
+        assertEquals(0, database.SCAN_PREFIX("c").length);
+    } // deletedRowsAreSkipped()
+
+
+    @Test
+    void unknownColumnReturnsNull(){
+        IvoryDatabase database = fruitDatabase();
+        assertNull(database.SCAN("a", "c", "ID", "WEIGHT"));
+        assertNull(database.SCAN_PREFIX("a", "WEIGHT"));
+    } // unknownColumnReturnsNull()
+
+
+    @Test
+    void prefixesAtTheEdgesOfTheKeySpace(){
+        IvoryDatabase database = fruitDatabase();
+        // the empty prefix starts every ID.
+        assertEquals(5, database.SCAN_PREFIX("").length);
+        // the IDs with the last prefix are the last rows.
+        assertArrayEquals(new Object[]{"CHERRY"}, firstValues(database.SCAN_PREFIX("ch", "ID")));
+        assertArrayEquals(new Object[]{"CHERRY"}, firstValues(database.SCAN_PREFIX("cherry", "ID")));
+        // prefixes before the first and after the last ID match nothing.
+        assertEquals(0, database.SCAN_PREFIX("aa").length);
+        assertEquals(0, database.SCAN_PREFIX("cherryz").length);
+        assertEquals(0, database.SCAN_PREFIX("\uFFFF").length);
+        assertEquals(0, new IvoryDatabase().SCAN_PREFIX("a").length);
+    } // prefixesAtTheEdgesOfTheKeySpace()
+} // class
@@ -0,0 +1,148 @@
+package IvoryDatabase;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of the rows marked as deleted by DELETE and removed by COMPACT.
+ */
+class TombstoneTest {
+    @TempDir
+    File directory;
+
+
+    /**
+     * @return A Database of the rows "row0" to "row{@code rows - 1}" with 
+     *         their number in an INT Column.
+     */
+    private static IvoryDatabase numberedDatabase(int rows){
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("AGE", ColumnType.INT);
+        for(int index = 0 ; index < rows ; index++){
+            database.ADD(new Object[]{String.format("row%04d", index), index});
+        }
+        return database;
+    } // numberedDatabase()
+
+
+    @Test
+    void deletedRowsAreSkippedUntilCompacted(){
+        IvoryDatabase database = numberedDatabase(6);
+        assertTrue(database.DELETE("row0001"));
+        assertTrue(database.DELETE("row0004"));
+        assertFalse(database.DELETE("row0004"));
+
+        assertEquals(4, database.getRowCount());
+        assertNull(database.GET("row0001", "AGE"));
+        assertArrayEquals(new Object[]{0, 2, 3, 5}, database.GET_COLUMN("AGE"));
+        assertArrayEquals(new String[]{"ROW0003"}, database.FIND("AGE", 3));
+        assertArrayEquals(new String[0], database.FIND("AGE", 4));
+
+        assertEquals(2, database.COMPACT());
+        assertEquals(0, database.COMPACT());
+        assertEquals(4, database.getRowCount());
+        assertArrayEquals(new Object[]{"ROW0000", "ROW0002", "ROW0003", "ROW0005"}, database.GET_COLUMN("ID"));
+        assertArrayEquals(new Object[]{0, 2, 3, 5}, database.GET_COLUMN("AGE"));
+        assertEquals(5, database.GET("row0005", "AGE"));
+    } // deletedRowsAreSkippedUntilCompacted()
+
+
+    @Test
+    void deletedIdCanBeAddedAgain(){
+        IvoryDatabase database = numberedDatabase(3);
+        assertTrue(database.DELETE("row0001"));
+        assertTrue(database.ADD(new Object[]{"row0001", 100}));
+
+        assertEquals(3, database.getRowCount());
+        assertEquals(100, database.GET("row0001", "AGE"));
+        assertArrayEquals(new Object[]{0, 100, 2}, database.GET_COLUMN("AGE"));
+        // the deleted row was brought back, there is nothing left to compact.
+        assertEquals(0, database.COMPACT());
+        assertArrayEquals(new Object[]{0, 100, 2}, database.GET_COLUMN("AGE"));
+    } // deletedIdCanBeAddedAgain()
+
+
+    @Test
+    void deletedRowsMoveWithInsertedRows(){
+        IvoryDatabase database = numberedDatabase(5000);
+        assertTrue(database.DELETE("row0001"));
+        assertTrue(database.DELETE("row4500"));
+
+        // rows inserted before the deleted rows do not compact them.
+        assertTrue(database.ADD(new Object[]{"row0000a", -1}));
+        assertTrue(database.ADD(new Object[]{"row4000a", -2}));
+        assertEquals(5000, database.getRowCount());
+        assertNull(database.GET("row0001", "AGE"));
+        assertNull(database.GET("row4500", "AGE"));
+        assertEquals(-1, database.GET("row0000a", "AGE"));
+        assertEquals(4501, database.GET("row4501", "AGE"));
+        assertArrayEquals(new String[0], database.FIND("AGE", 4500));
+        assertArrayEquals(new String[]{"ROW0002"}, database.FIND_RANGE("ID", "row0001", "row0003"));
+
+        assertEquals(2, database.COMPACT());
+        assertEquals(5000, database.getRowCount());
+        assertEquals(4501, database.GET("row4501", "AGE"));
+    } // deletedRowsMoveWithInsertedRows()
+
+
+    @Test
+    void changedIdTakesOverADeletedRowOfThatId(){
+        IvoryDatabase database = numberedDatabase(4);
+        assertTrue(database.DELETE("row0001"));
+        assertTrue(database.DELETE("row0002"));
+
+        // the row of row0003 moves to the deleted row of row0001.
+        assertTrue(database.SET("row0003", "ID", "row0001"));
+        assertEquals(2, database.getRowCount());
+        assertEquals(3, database.GET("row0001", "AGE"));
+        assertNull(database.GET("row0003", "AGE"));
+        assertArrayEquals(new Object[]{0, 3}, database.GET_COLUMN("AGE"));
+
+        // the row of row0000 moves past the deleted row of row0002.
+        assertTrue(database.SET("row0000", "ID", "row0002a"));
+        assertArrayEquals(new Object[]{"ROW0001", "ROW0002A"}, database.GET_COLUMN("ID"));
+        assertEquals(1, database.COMPACT());
+        assertArrayEquals(new Object[]{"ROW0001", "ROW0002A"}, database.GET_COLUMN("ID"));
+        assertArrayEquals(new Object[]{3, 0}, database.GET_COLUMN("AGE"));
+    } // changedIdTakesOverADeletedRowOfThatId()
+
+
+    @Test
+    void savedFileHoldsNoDeletedRows() throws Exception {
+        IvoryDatabase database = numberedDatabase(5);
+        assertTrue(database.DELETE("row0002"));
+        File file = new File(directory, "deleted.ivry");
+        database.setFileLocation(file.getPath());
+        database.SAVE();
+
+        IvoryDatabase reopened = new IvoryDatabase(file.getPath());
+        assertEquals(4, reopened.getRowCount());
+        assertEquals(0, reopened.COMPACT());
+        assertArrayEquals(new Object[]{0, 1, 3, 4}, reopened.GET_COLUMN("AGE"));
+    } // savedFileHoldsNoDeletedRows()
+
+
+    @Test
+    void manyDeletedRowsAreCompactedInTheBackground() throws Exception {
+        IvoryDatabase database = numberedDatabase(4000);
+        database.setFileLocation(new File(directory, "background.ivry").getPath());
+        for(int index = 0 ; index < 4000 ; index += 2){
+            assertTrue(database.DELETE(String.format("row%04d", index)));
+        }
+
+        // the background save runs after the compaction scheduled by DELETE, which 
+        // removed the rows deleted until it ran, the later ones are left to COMPACT.
+        assertTrue(database.saveAsync().get());
+        assertTrue(database.COMPACT() <= 2000 - IvoryDatabase.COMPACTION_MIN_ROWS);
+        assertEquals(2000, database.getRowCount());
+        assertEquals(3999, database.GET("row3999", "AGE"));
+    } // manyDeletedRowsAreCompactedInTheBackground()
+} // class
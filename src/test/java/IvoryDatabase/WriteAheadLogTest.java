@@ -0,0 +1,174 @@
+package IvoryDatabase;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of the write-ahead log and of its replay when a Database is opened.
+ * 
+ * A Database that is neither saved nor closed stands in for a process that 
+ * stopped, its changes are only in the log.
+ */
+class WriteAheadLogTest {
+    @TempDir
+    File directory;
+
+
+    /**
+     * @return A logged Database saved with two rows at {@code file}.
+     */
+    private static IvoryDatabase loggedDatabase(File file) throws Exception {
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("AGE", ColumnType.INT);
+        database.ADD(new Object[]{"a", 1});
+        database.ADD(new Object[]{"b", 2});
+        database.setFileLocation(file.getPath());
+        assertTrue(database.enableWriteAheadLog());
+        return database;
+    } // loggedDatabase()
+
+
+    @Test
+    void changesAfterTheLastSaveAreReplayed() throws Exception {
+        File file = new File(directory, "logged.ivry");
+        IvoryDatabase database = loggedDatabase(file);
+        assertTrue(database.ADD(new Object[]{"c", 3}));
+        assertTrue(database.SET("a", "AGE", 10));
+        assertTrue(database.DELETE("b"));
+        assertTrue(database.ADD_COLUMN("NAME", ColumnType.STRING));
+        assertTrue(database.SET("c", "NAME", "cee"));
+
+        IvoryDatabase reopened = new IvoryDatabase(file.getPath());
+        assertEquals(2, reopened.getRowCount());
+        assertArrayEquals(new Object[]{"A", "C"}, reopened.GET_COLUMN("ID"));
+        assertEquals(10, reopened.GET("a", "AGE"));
+        assertEquals("cee", reopened.GET("c", "NAME"));
+        assertNull(reopened.GET("b", "AGE"));
+    } // changesAfterTheLastSaveAreReplayed()
+
+
+    @Test
+    void saveClearsTheLog() throws Exception {
+        File file = new File(directory, "checkpoint.ivry");
+        IvoryDatabase database = loggedDatabase(file);
+        File log_file = WriteAheadLog.logFileOf(file);
+        assertTrue(database.ADD(new Object[]{"c", 3}));
+        assertTrue(WriteAheadLog.hasRecords(file));
+
+        database.SAVE();
+        // only the header of the log is left, its records are in the file.
+        assertFalse(WriteAheadLog.hasRecords(file));
+        assertTrue(log_file.exists());
+        assertTrue(database.SET("c", "AGE", 30));
+
+        IvoryDatabase reopened = new IvoryDatabase(file.getPath());
+        assertEquals(3, reopened.getRowCount());
+        assertEquals(30, reopened.GET("c", "AGE"));
+    } // saveClearsTheLog()
+
+
+    @Test
+    void changesThatCannotBeLoggedAreTakenBack() throws Exception {
+        File file = new File(directory, "unlogged.ivry");
+        IvoryDatabase database = loggedDatabase(file);
+        assertTrue(database.ADD_COLUMN("DATA", ColumnType.OBJECT));
+        assertTrue(database.SET("a", "DATA", "kept"));
+
+        // a cell that is not Serializable cannot be written to the log.
+        assertFalse(database.ADD(new Object[]{"c", 3, new Object()}));
+        assertFalse(database.SET("a", "DATA", new Object()));
+        assertEquals(2, database.getRowCount());
+        assertNull(database.GET("c", "AGE"));
+        assertEquals("kept", database.GET("a", "DATA"));
+        assertArrayEquals(new Object[]{"A", "B"}, database.GET_COLUMN("ID"));
+
+        // the row can be added once its cells can be logged.
+        assertTrue(database.ADD(new Object[]{"c", 3, "cee"}));
+        IvoryDatabase reopened = new IvoryDatabase(file.getPath());
+        assertEquals(3, reopened.getRowCount());
+        assertEquals("kept", reopened.GET("a", "DATA"));
+        assertEquals("cee", reopened.GET("c", "DATA"));
+    } // changesThatCannotBeLoggedAreTakenBack()
+
+
+    @Test
+    void tornLastRecordIsCutOff() throws Exception {
+        File file = new File(directory, "torn.ivry");
+        IvoryDatabase database = loggedDatabase(file);
+        assertTrue(database.SET("a", "AGE", 10));
+        File log_file = WriteAheadLog.logFileOf(file);
+        long complete_length = log_file.length();
+        assertTrue(database.SET("b", "AGE", 20));
+
+        // the process stopped while the last record was written.
+        try (RandomAccessFile log = new RandomAccessFile(log_file, "rw")){
+            log.setLength(log.length() - 3);
+        }
+
+        IvoryDatabase reopened = new IvoryDatabase(file.getPath());
+        assertEquals(10, reopened.GET("a", "AGE"));
+        assertEquals(2, reopened.GET("b", "AGE"));
+        assertEquals(complete_length, log_file.length());
+
+        // the records appended after the cut are replayed as well.
+        assertTrue(reopened.SET("b", "AGE", 200));
+        IvoryDatabase again = new IvoryDatabase(file.getPath());
+        assertEquals(10, again.GET("a", "AGE"));
+        assertEquals(200, again.GET("b", "AGE"));
+    } // tornLastRecordIsCutOff()
+
+
+    @Test
+    void corruptedRecordEndsTheReplay() throws Exception {
+        File file = new File(directory, "corrupted.ivry");
+        IvoryDatabase database = loggedDatabase(file);
+        File log_file = WriteAheadLog.logFileOf(file);
+        long first_record = log_file.length();
+        assertTrue(database.SET("a", "AGE", 10));
+        assertTrue(database.SET("b", "AGE", 20));
+
+        // flipping a byte of the body of the first record breaks its checksum.
+        try (RandomAccessFile log = new RandomAccessFile(log_file, "rw")){
+            log.seek(first_record + 6);
+            int value = log.read();
+            log.seek(first_record + 6);
+            log.write(value ^ 0xFF);
+        }
+
+        IvoryDatabase reopened = new IvoryDatabase(file.getPath());
+        assertEquals(1, reopened.GET("a", "AGE"));
+        assertEquals(2, reopened.GET("b", "AGE"));
+        assertEquals(first_record, log_file.length());
+    } // corruptedRecordEndsTheReplay()
+
+
+    @Test
+    void lengthBeyondTheEndOfTheLogEndsTheReplay() throws Exception {
+        File file = new File(directory, "length.ivry");
+        IvoryDatabase database = loggedDatabase(file);
+        assertTrue(database.SET("a", "AGE", 10));
+        File log_file = WriteAheadLog.logFileOf(file);
+        long last_record = log_file.length();
+        assertTrue(database.SET("b", "AGE", 20));
+
+        // a corrupted length field that would not fit into memory, little-endian.
+        try (RandomAccessFile log = new RandomAccessFile(log_file, "rw")){
+            log.seek(last_record);
+            log.write(new byte[]{(byte) 0xF0, (byte) 0xFF, (byte) 0xFF, 0x7F});
+        }
+
+        IvoryDatabase reopened = new IvoryDatabase(file.getPath());
+        assertEquals(10, reopened.GET("a", "AGE"));
+        assertEquals(2, reopened.GET("b", "AGE"));
+        assertEquals(last_record, log_file.length());
+    } // lengthBeyondTheEndOfTheLogEndsTheReplay()
+} // class
@@ -0,0 +1,238 @@
+package IvoryDatabase;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of the statistics of the segments of a Column and of the segments
+ * skipped by them.
+ */
+class ZoneMapTest {
+    private static final int SEGMENT = ZoneMap.SEGMENT_SIZE;
+
+    @TempDir
+    File directory;
+
+
+    /**
+     * @return An INT Column of {@code rows} rows holding their index, with
+     *         a null in every hundredth row.
+     */
+    private static Column numberedColumn(int rows){
+        Column column = new Column("N", ColumnType.INT, 0);
+        for(int index = 0 ; index < rows ; index++){
+            column.add((index % 100 == 99) ? null : index);
+        }
+        return column;
+    } // numberedColumn()
+
+
+    /**
+     * Method to check that the null count of every segment of {@code column}
+     * is that of its cells and that its bounds hold every value, exactly if
+     * {@code exact} is true.
+     */
+    private static void assertCovers(Column column, boolean exact){
+        ColumnData data = column.getData();
+        for(int segment = 0 ; segment < ZoneMap.segmentCount(data.size()) ; segment++){
+            int from = segment * SEGMENT;
+            ZoneMap.Segment statistics = column.getZoneMap().get(data, segment);
+            ZoneMap.Segment expected = ZoneMap.compute(data, from, Math.min(data.size(), from + SEGMENT));
+            assertEquals(expected.null_count, statistics.null_count, "segment " + segment);
+            if(exact){
+                assertEquals(expected.min, statistics.min, "segment " + segment);
+                assertEquals(expected.max, statistics.max, "segment " + segment);
+            }
+            else if(expected.min != null){
+                assertTrue(Condition.compare(statistics.min, expected.min) <= 0, "segment " + segment);
+                assertTrue(Condition.compare(statistics.max, expected.max) >= 0, "segment " + segment);
+            }
+        }
+    } // assertCovers()
+
+
+    /**
+     * @return The statistics of a segment of {@code column}.
+     */
+    private static ZoneMap.Segment segmentOf(Column column, int segment){
+        return column.getZoneMap().get(column.getData(), segment);
+    } // segmentOf()
+
+
+    @Test
+    void statisticsAreComputedAgainAfterAMiddleInsertOrDelete(){
+        Column column = numberedColumn(3 * SEGMENT);
+        assertCovers(column, true);
+        ZoneMap.Segment first = segmentOf(column, 0);
+
+        // a row inserted into the second segment moves the last row of every later segment.
+        column.insert(SEGMENT + 10, -7);
+        assertCovers(column, true);
+        assertSame(first, segmentOf(column, 0));
+        assertEquals(-7, segmentOf(column, 1).min);
+        assertEquals(3 * SEGMENT - 1, segmentOf(column, 3).min);
+
+        // removing it again gives back the bounds of the second segment.
+        assertTrue(column.delete(SEGMENT + 10));
+        assertCovers(column, true);
+        assertSame(first, segmentOf(column, 0));
+        assertEquals(SEGMENT, segmentOf(column, 1).min);
+
+        // removing a row of the first segment moves the rows of all of them.
+        assertTrue(column.delete(0));
+        assertCovers(column, true);
+        assertEquals(1, segmentOf(column, 0).min);
+        assertEquals(SEGMENT + 1, segmentOf(column, 1).min);
+
+        // appending rows and removing the last ones keep the null count of the last segment.
+        column.add(null);
+        column.add(-1);
+        assertCovers(column, true);
+        assertTrue(column.delete(column.getData().size() - 1));
+        assertTrue(column.delete(column.getData().size() - 1));
+        assertCovers(column, false);
+        assertTrue(column.delete(column.getData().size() - 1));
+        assertEquals(3 * SEGMENT - 2, column.getData().size());
+        assertCovers(column, false);
+    } // statisticsAreComputedAgainAfterAMiddleInsertOrDelete()
+
+
+    @Test
+    void changedCellsWidenTheBoundsOfTheirSegment(){
+        Column column = numberedColumn(SEGMENT + 50);
+        assertCovers(column, true);
+
+        column.set(5, 1_000_000);
+        assertEquals(1_000_000, segmentOf(column, 0).max);
+        assertCovers(column, false);
+
+        // a value replaced by null is counted as null, the bounds may stay wider.
+        column.set(5, null);
+        assertEquals(SEGMENT / 100 + 1, segmentOf(column, 0).null_count);
+        assertEquals(1_000_000, segmentOf(column, 0).max);
+        assertCovers(column, false);
+
+        // a null replaced by a value is no longer counted.
+        column.set(99, -3);
+        column.set(5, null);
+        assertEquals(SEGMENT / 100, segmentOf(column, 0).null_count);
+        assertEquals(-3, segmentOf(column, 0).min);
+        assertCovers(column, false);
+
+        // a segment whose values have all been replaced by null cannot match a value.
+        for(int index = SEGMENT ; index < SEGMENT + 50 ; index++){
+            column.set(index, null);
+        }
+        ZoneMap.Segment last = segmentOf(column, 1);
+        assertEquals(50, last.null_count);
+        assertFalse(ZoneMap.mayMatch(Condition.equal("N", SEGMENT), last, 50));
+        assertFalse(ZoneMap.mayMatch(Condition.notNull("N"), last, 50));
+        assertTrue(ZoneMap.mayMatch(Condition.isNull("N"), last, 50));
+        assertTrue(ZoneMap.mayMatch(Condition.in("N", 1, null), last, 50));
+
+        // a NaN leaves the segment without bounds.
+        Column decimals = new Column("D", ColumnType.DOUBLE, 0);
+        for(int index = 0 ; index < 10 ; index++){
+            decimals.add((double) index);
+        }
+        assertEquals(9.0, segmentOf(decimals, 0).max);
+        decimals.set(3, Double.NaN);
+        assertFalse(segmentOf(decimals, 0).ranged);
+        assertTrue(ZoneMap.mayMatch(Condition.greaterThan("D", 100), segmentOf(decimals, 0), 10));
+    } // changedCellsWidenTheBoundsOfTheirSegment()
+
+
+    @Test
+    void statisticsAreSavedWithTheDatabase() throws Exception {
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("N", ColumnType.INT);
+        database.ADD_COLUMN("S", ColumnType.STRING);
+        database.ADD_COLUMN("O", ColumnType.OBJECT);
+        for(int index = 0 ; index < 2 * SEGMENT + 7 ; index++){
+            database.ADD(new Object[]{String.format("row%05d", index), (index % 10 == 0) ? null : index, "s" + (index % 300), 
+                (index % 2 == 0) ? (Object) index : "o" + index});
+        }
+        // a bound that is wider than the values is saved as it is.
+        database.SET("row00003", "N", -50);
+        database.SET("row00003", "N", 3);
+        Object[][] statistics = database.COLUMN_STATISTICS("N");
+        assertArrayEquals(new Object[]{0, SEGMENT, SEGMENT / 10 + 1, statistics[0][3], -50, SEGMENT - 1}, statistics[0]);
+        assertArrayEquals(new Object[]{2 * SEGMENT, 7, 0, 7, 2 * SEGMENT, 2 * SEGMENT + 6}, statistics[2]);
+
+        String file_path = new File(directory, "statistics.ivry").getPath();
+        database.setFileLocation(file_path);
+        database.SAVE();
+        IvoryDatabase loaded = new IvoryDatabase(file_path);
+        for(String column_name : new String[]{"ID", "N", "S", "O"}){
+            Object[][] saved = database.COLUMN_STATISTICS(column_name);
+            Object[][] read = loaded.COLUMN_STATISTICS(column_name);
+            assertEquals(saved.length, read.length);
+            for(int segment = 0 ; segment < saved.length ; segment++){
+                assertArrayEquals(saved[segment], read[segment], column_name + " segment " + segment);
+            }
+        }
+        assertEquals(-50, loaded.COLUMN_STATISTICS("N")[0][4]);
+        // the OBJECT Column holds values that cannot be compared.
+        assertNull(loaded.COLUMN_STATISTICS("O")[0][4]);
+        assertNull(loaded.COLUMN_STATISTICS("MISSING"));
+    } // statisticsAreSavedWithTheDatabase()
+
+
+    @Test
+    void skippedSegmentsDoNotHideChangedRows(){
+        IvoryDatabase database = new IvoryDatabase();
+        database.ADD_COLUMN("N", ColumnType.INT);
+        database.ADD_COLUMN("S", ColumnType.STRING);
+        ArrayList<Object[]> rows = new ArrayList<>();
+        for(int index = 0 ; index < 4 * SEGMENT ; index++){
+            rows.add(new Object[]{String.format("row%05d", index), index, String.format("s%05d", index)});
+        }
+        database.ADD_ALL(rows);
+        // computing the statistics before the changes.
+        assertEquals(4, database.COLUMN_STATISTICS("N").length);
+        assertArrayEquals(new String[]{"ROW00110", "ROW00111"}, database.FIND_RANGE("N", 110, 112));
+        assertArrayEquals(new String[]{"ROW00110", "ROW00111"}, database.WHERE(Condition.between("N", 110, 111)));
+
+        // a value changed beyond the bounds of its segment.
+        database.SET("row00007", "N", 9_000_000);
+        database.SET("row00008", "S", "zzz");
+        assertArrayEquals(new String[]{"ROW00007"}, database.FIND_RANGE("N", 8_000_000, null));
+        assertArrayEquals(new String[]{"ROW00007"}, database.WHERE(Condition.greaterThan("N", 4 * SEGMENT)));
+        assertArrayEquals(new String[]{"ROW00008"}, database.FIND_RANGE("S", "y", null));
+        assertArrayEquals(new String[]{"ROW00008"}, database.WHERE(Condition.equal("S", "zzz")));
+
+        // a value replaced by null in the last segment.
+        String last = String.format("row%05d", 3 * SEGMENT + 1);
+        database.SET(last, "N", null);
+        assertArrayEquals(new String[]{last.toUpperCase()}, database.WHERE(Condition.isNull("N")));
+        assertEquals(0, database.FIND_RANGE("N", 3 * SEGMENT + 1, 3 * SEGMENT + 2).length);
+
+        // a row inserted in the middle moves the rows of the later segments.
+        database.ADD(new Object[]{"row02000x", -1, "a"});
+        assertArrayEquals(new String[]{"ROW02000X"}, database.FIND_RANGE("N", -1, 0));
+        assertArrayEquals(new String[]{"ROW02000X"}, database.WHERE(Condition.lessThan("N", 0)));
+        String moved = String.format("ROW%05d", 2 * SEGMENT - 1);
+        assertArrayEquals(new String[]{moved}, database.FIND_RANGE("N", 2 * SEGMENT - 1, 2 * SEGMENT));
+        assertArrayEquals(new String[]{moved}, database.WHERE(Condition.equal("N", 2 * SEGMENT - 1)));
+        assertArrayEquals(new Object[][]{{moved, String.format("s%05d", 2 * SEGMENT - 1)}},
+            database.SELECT(new String[]{"ID", "S"}, Condition.equal("N", 2 * SEGMENT - 1)));
+
+        // deleted rows are counted until they are compacted, but never matched.
+        assertTrue(database.DELETE("row02000x"));
+        assertEquals(0, database.FIND_RANGE("N", -1, 0).length);
+        assertEquals(0, database.WHERE(Condition.lessThan("N", 0)).length);
+        assertEquals(-1, database.COLUMN_STATISTICS("N")[0][4]);
+        database.COMPACT();
+        assertEquals(0, database.COLUMN_STATISTICS("N")[0][4]);
+    } // skippedSegmentsDoNotHideChangedRows()
+} // class